@@ -3,12 +3,15 @@ package com.calculadora_derivativos.calculadora_backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principal da aplicação Spring Boot.
  * A anotação @EnableJpaRepositories força o Spring a escanear o pacote 'repository'
  * para encontrar e inicializar o OpcaoRepository.
+ * @EnableScheduling habilita as tarefas agendadas (ex: purga de partições do histórico).
  */
+@EnableScheduling
 @EnableJpaRepositories(basePackages = "com.calculadora_derivativos.calculadora_backend.repository")
 @SpringBootApplication
 public class CalculadoraBackendApplication {
@@ -0,0 +1,20 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool de threads dedicado ao backtest: os dias de snapshot são independentes e
+ * são avaliados em paralelo, sem ocupar as threads do Tomcat.
+ */
+@Configuration
+public class BacktestConfig {
+
+    @Bean(name = "backtestExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService backtestExecutor(@Value("${backtest.threads:0}") int threads) {
+        return ExecutoresDedicados.fixo("backtest", threads);
+    }
+}
@@ -0,0 +1,20 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool de threads da busca de calendários e diagonais: cada par de vencimentos (curto, longo)
+ * é avaliado em paralelo, sem ocupar as threads da raia de otimização.
+ */
+@Configuration
+public class CalendarioConfig {
+
+    @Bean(name = "calendarioExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService calendarioExecutor(@Value("${calendario.threads:0}") int threads) {
+        return ExecutoresDedicados.fixo("calendario", threads);
+    }
+}
@@ -0,0 +1,41 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.calculadora_derivativos.calculadora_backend.controller.CargaEmAndamentoInterceptor;
+
+/**
+ * Carga inicial em segundo plano: a thread do DataLoader e o bloqueio dos endpoints (503 com
+ * o progresso) enquanto ela não termina. Actuator e GET /carga continuam respondendo.
+ */
+@Configuration
+public class CargaDadosConfig implements WebMvcConfigurer {
+
+    private final CargaEmAndamentoInterceptor cargaEmAndamento;
+
+    public CargaDadosConfig(CargaEmAndamentoInterceptor cargaEmAndamento) {
+        this.cargaEmAndamento = cargaEmAndamento;
+    }
+
+    @Bean(name = "cargaDadosExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService cargaDadosExecutor() {
+        return Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "carga-dados");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(cargaEmAndamento)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/actuator/**", "/carga", "/error");
+    }
+}
@@ -0,0 +1,39 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.service.EstadoCargaDados;
+
+/**
+ * Health "cargaDados", incluído no grupo readiness: fora de serviço (com o progresso) até o
+ * fim da carga inicial. O grupo liveness não o inclui, então o processo é dado como vivo
+ * desde a subida.
+ */
+@Component
+public class CargaDadosHealthIndicator implements HealthIndicator {
+
+    private final EstadoCargaDados estado;
+
+    public CargaDadosHealthIndicator(EstadoCargaDados estado) {
+        this.estado = estado;
+    }
+
+    @Override
+    public Health health() {
+        EstadoCargaDados.Progresso progresso = estado.progresso();
+        Health.Builder builder = estado.isPronto() ? Health.up() : Health.outOfService();
+        builder.withDetail("fase", progresso.fase())
+                .withDetail("linhasLidas", progresso.linhasLidas())
+                .withDetail("linhasGravadas", progresso.linhasGravadas())
+                .withDetail("milissegundos", progresso.milissegundos());
+        if (progresso.percentualLido() != null) {
+            builder.withDetail("percentualLido", progresso.percentualLido());
+        }
+        if (progresso.mensagem() != null) {
+            builder.withDetail("mensagem", progresso.mensagem());
+        }
+        return builder.build();
+    }
+}
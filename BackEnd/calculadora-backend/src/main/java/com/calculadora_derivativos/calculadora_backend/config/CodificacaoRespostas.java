@@ -0,0 +1,69 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Codificações das respostas da API: JSON (padrão) e os binários CBOR e Smile, negociados
+ * pelo header Accept. Os mappers binários partem do mesmo Jackson2ObjectMapperBuilder do
+ * Spring Boot, então datas, BigDecimal e nomes de campos saem iguais ao JSON.
+ *
+ * Não são registrados como beans ObjectMapper para não substituir o mapper JSON do Boot.
+ */
+@Component
+public class CodificacaoRespostas {
+
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+
+    public CodificacaoRespostas(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        this.json = objectMapper;
+        this.cbor = builder.factory(new CBORFactory()).build();
+        this.smile = builder.factory(new SmileFactory()).build();
+    }
+
+    public ObjectMapper getCbor() {
+        return cbor;
+    }
+
+    public ObjectMapper getSmile() {
+        return smile;
+    }
+
+    /**
+     * Primeiro tipo aceito pelo cliente (por ordem de qualidade) que sabemos codificar.
+     * Sem Accept, ou só com tipos desconhecidos, responde JSON.
+     */
+    public MediaType negociar(String accept) {
+        if (accept != null && !accept.isBlank()) {
+            List<MediaType> aceitos = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(aceitos);
+            for (MediaType aceito : aceitos) {
+                // '*/*' não escolhe formato: fica o padrão (JSON)
+                if (aceito.isWildcardType()) continue;
+                for (MediaType suportado : List.of(MediaType.APPLICATION_JSON, CBOR, SMILE)) {
+                    if (aceito.isCompatibleWith(suportado)) return suportado;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    public ObjectMapper mapperPara(MediaType tipo) {
+        if (CBOR.equalsTypeAndSubtype(tipo)) return cbor;
+        if (SMILE.equalsTypeAndSubtype(tipo)) return smile;
+        return json;
+    }
+}
@@ -0,0 +1,30 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra CBOR e Smile depois dos conversores padrão: JSON continua sendo a resposta para
+ * Accept ausente ou '*' e os binários são usados quando o cliente pede
+ * 'application/cbor' ou 'application/x-jackson-smile'.
+ */
+@Configuration
+public class ConversoresBinariosConfig implements WebMvcConfigurer {
+
+    private final CodificacaoRespostas codificacao;
+
+    public ConversoresBinariosConfig(CodificacaoRespostas codificacao) {
+        this.codificacao = codificacao;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2CborHttpMessageConverter(codificacao.getCbor()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(codificacao.getSmile()));
+    }
+}
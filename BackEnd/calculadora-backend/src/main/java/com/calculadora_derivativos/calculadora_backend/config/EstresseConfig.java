@@ -0,0 +1,20 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool de threads do teste de estresse: as linhas (dia, choque de vol) da matriz de cenários
+ * são divididas em blocos avaliados em paralelo.
+ */
+@Configuration
+public class EstresseConfig {
+
+    @Bean(name = "estresseExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService estresseExecutor(@Value("${estresse.threads:0}") int threads) {
+        return ExecutoresDedicados.fixo("estresse", threads);
+    }
+}
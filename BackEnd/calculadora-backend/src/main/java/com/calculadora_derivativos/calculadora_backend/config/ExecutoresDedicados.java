@@ -0,0 +1,26 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábrica dos pools de threads dedicados (backtest, calendários, estresse): tamanho fixo,
+ * threads daemon nomeadas "prefixo-N", fora das threads do Tomcat e das raias.
+ */
+final class ExecutoresDedicados {
+
+    private ExecutoresDedicados() {
+    }
+
+    // threads <= 0: uma thread por processador (tarefas CPU-bound)
+    static ExecutorService fixo(String prefixo, int threads) {
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newFixedThreadPool(tamanho, tarefa -> {
+            Thread thread = new Thread(tarefa, prefixo + "-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import com.calculadora_derivativos.calculadora_backend.controller.IngestaoWebSocketHandler;
+
+/**
+ * Endpoint WebSocket da ingestão de cotações ao vivo (ws://host:porta/ws/cotacoes). Desligado
+ * por padrão, como o POST /cotacoes/stream ('ingestao.habilitada=true' liga os dois). O
+ * handshake só é aceito da mesma origem ou das listadas em 'ingestao.origens-permitidas';
+ * clientes que não são navegadores não enviam Origin e não são afetados.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(name = "ingestao.habilitada", havingValue = "true")
+public class IngestaoWebSocketConfig implements WebSocketConfigurer {
+
+    private final IngestaoWebSocketHandler handler;
+    private final String[] origensPermitidas;
+
+    public IngestaoWebSocketConfig(IngestaoWebSocketHandler handler,
+            @Value("${ingestao.origens-permitidas:}") String[] origensPermitidas) {
+        this.handler = handler;
+        this.origensPermitidas = origensPermitidas;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler, "/ws/cotacoes").setAllowedOrigins(origensPermitidas);
+    }
+
+    // Mensagens com muitas linhas NDJSON: o limite padrão do Tomcat é 8 KB
+    @Bean
+    public ServletServerContainerFactoryBean containerWebSocket(
+            @Value("${ingestao.websocket.tamanho-maximo-mensagem:1048576}") int tamanhoMaximo) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(tamanhoMaximo);
+        return container;
+    }
+}
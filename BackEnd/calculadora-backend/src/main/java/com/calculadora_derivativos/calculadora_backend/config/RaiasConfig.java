@@ -0,0 +1,35 @@
+package com.calculadora_derivativos.calculadora_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.calculadora_derivativos.calculadora_backend.service.RaiaExecucao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Raias (bulkheads) do SpreadController: o cálculo manual (sub-milissegundo) não disputa
+ * threads com as otimizações (segundos), então uma rajada de otimizações não atrasa o manual.
+ */
+@Configuration
+public class RaiasConfig {
+
+    @Bean(name = "raiaManual", destroyMethod = "encerrar")
+    public RaiaExecucao raiaManual(MeterRegistry meterRegistry,
+            @Value("${raia.manual.threads:4}") int threads,
+            @Value("${raia.manual.fila:200}") int fila,
+            @Value("${raia.manual.retry-after-segundos:1}") int retryAfter) {
+        return new RaiaExecucao("manual", threads, fila, retryAfter, meterRegistry);
+    }
+
+    @Bean(name = "raiaOtimizacao", destroyMethod = "encerrar")
+    public RaiaExecucao raiaOtimizacao(MeterRegistry meterRegistry,
+            @Value("${raia.otimizacao.threads:0}") int threads,
+            @Value("${raia.otimizacao.fila:16}") int fila,
+            @Value("${raia.otimizacao.retry-after-segundos:5}") int retryAfter) {
+        // Otimização é CPU-bound: por padrão uma thread por processador
+        int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new RaiaExecucao("otimizacao", tamanho, fila, retryAfter, meterRegistry);
+    }
+}
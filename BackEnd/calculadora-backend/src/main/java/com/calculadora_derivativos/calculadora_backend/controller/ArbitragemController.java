@@ -0,0 +1,74 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraArbitragemResponse;
+import com.calculadora_derivativos.calculadora_backend.service.ArbitragemService;
+
+/**
+ * Varredura de paridade put-call e box spreads nas cadeias carregadas.
+ */
+@RestController
+@RequestMapping("/arbitragem")
+@CrossOrigin(origins = "*")
+public class ArbitragemController {
+
+    private final ArbitragemService arbitragemService;
+
+    public ArbitragemController(ArbitragemService arbitragemService) {
+        this.arbitragemService = arbitragemService;
+    }
+
+    /**
+    * Varre todos os ativos; a paridade usa o spot implícito na cadeia de cada vencimento.
+    * * @param vencimento        Só este vencimento (AAAA-MM-DD); ausente = todos os não vencidos.
+    * * @param taxasOperacionais Taxas por perna, descontadas do desvio.
+    * * @param taxaJurosAnual    Fração ao ano (ex: 0.1075); ausente = arbitragem.taxa-juros-anual.
+    * @param dataReferencia    Data do cálculo do prazo; ausente = hoje.
+    */
+    @GetMapping
+    public ResponseEntity<VarreduraArbitragemResponse> varrerMercado(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate vencimento,
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) BigDecimal taxaJurosAnual,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataReferencia) {
+
+        return ResponseEntity.ok(arbitragemService.varrerMercado(vencimento, taxasOperacionais, taxaJurosAnual,
+                dataReferencia));
+    }
+
+    /**
+    * Varre um ativo.
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param cotacaoAtualAtivo Spot da paridade; ausente = implícito na cadeia de cada vencimento.
+    * @param taxasOperacionais Taxas por perna, descontadas do desvio.
+    */
+    @GetMapping("/{idAcao}")
+    public ResponseEntity<VarreduraArbitragemResponse> varrerAtivo(
+            @PathVariable String idAcao,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate vencimento,
+            @RequestParam(required = false) BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) BigDecimal taxaJurosAnual,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataReferencia) {
+
+        return ResponseEntity.ok(arbitragemService.varrerAtivo(idAcao, vencimento, cotacaoAtualAtivo,
+                taxasOperacionais, taxaJurosAnual, dataReferencia));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> parametroInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("ERRO: " + e.getMessage());
+    }
+}
@@ -0,0 +1,99 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.calculadora_derivativos.calculadora_backend.dto.FechamentoAtivo;
+import com.calculadora_derivativos.calculadora_backend.dto.ResumoBacktest;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.service.BacktestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Controller do backtest dos otimizadores sobre o histórico de snapshots.
+ */
+@RestController
+@RequestMapping("/backtest")
+@CrossOrigin(origins = "*")
+public class BacktestController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BacktestService backtestService;
+    private final ObjectMapper objectMapper;
+
+    public BacktestController(BacktestService backtestService, ObjectMapper objectMapper) {
+        this.backtestService = backtestService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+    * Executa o backtest e devolve o resultado em NDJSON, uma linha por dia de snapshot
+    * (escrita assim que o dia é avaliado) e uma última linha {"resumo": {...}}.
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param inicio            Primeiro dia de snapshot (AAAA-MM-DD).
+    * * @param fim               Último dia de snapshot (AAAA-MM-DD).
+    * * @param estrategia        Otimizador usado em cada dia (padrão: MELHOR).
+    * @param taxasOperacionais Taxas.
+    */
+    @GetMapping(value = "/{idAcao}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> executar(
+            @PathVariable String idAcao,
+            @RequestParam LocalDate inicio,
+            @RequestParam LocalDate fim,
+            @RequestParam(defaultValue = "MELHOR") EstrategiaOtimizacao estrategia,
+            @RequestParam BigDecimal taxasOperacionais) {
+
+        StreamingResponseBody corpo = saida -> {
+            ResumoBacktest resumo = backtestService.executar(idAcao, inicio, fim, estrategia, taxasOperacionais,
+                    dia -> escreverLinha(saida, dia));
+            escreverLinha(saida, Map.of("resumo", resumo));
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(corpo);
+    }
+
+    /**
+    * Registra fechamentos diários do ativo subjacente (usados na liquidação dos spreads).
+    * Um (idAcao, data) já gravado tem o fechamento atualizado.
+    * * @param cotacoes Lista de {idAcao, data, fechamento}.
+    * @return Quantidade de fechamentos gravados.
+    */
+    @PostMapping("/cotacoes-ativo")
+    public int registrarCotacoes(@RequestBody List<FechamentoAtivo> cotacoes) {
+        return backtestService.registrarFechamentos(cotacoes);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> fechamentoInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("ERRO: " + e.getMessage());
+    }
+
+    private void escreverLinha(OutputStream saida, Object valor) {
+        try {
+            saida.write(objectMapper.writeValueAsBytes(valor));
+            saida.write('\n');
+            saida.flush();
+        } catch (IOException e) {
+            // Cliente desconectado: interrompe o backtest (BacktestService cancela os dias pendentes)
+            throw new UncheckedIOException(e);
+        }
+    }
+}
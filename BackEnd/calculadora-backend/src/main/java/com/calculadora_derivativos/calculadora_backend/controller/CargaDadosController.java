@@ -0,0 +1,28 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.service.EstadoCargaDados;
+
+/**
+ * Progresso da carga inicial de dados (disponível também durante a carga).
+ */
+@RestController
+@RequestMapping("/carga")
+@CrossOrigin(origins = "*")
+public class CargaDadosController {
+
+    private final EstadoCargaDados estado;
+
+    public CargaDadosController(EstadoCargaDados estado) {
+        this.estado = estado;
+    }
+
+    @GetMapping
+    public EstadoCargaDados.Progresso progresso() {
+        return estado.progresso();
+    }
+}
@@ -0,0 +1,45 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.calculadora_derivativos.calculadora_backend.service.EstadoCargaDados;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Enquanto a carga inicial não termina, responde 503 + Retry-After com o progresso da carga
+ * (mesmo corpo de GET /carga) em vez de otimizar sobre uma cadeia incompleta.
+ */
+@Component
+public class CargaEmAndamentoInterceptor implements HandlerInterceptor {
+
+    static final int RETRY_AFTER_SEGUNDOS = 5;
+
+    private final EstadoCargaDados estado;
+    private final ObjectMapper objectMapper;
+
+    public CargaEmAndamentoInterceptor(EstadoCargaDados estado, ObjectMapper objectMapper) {
+        this.estado = estado;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (estado.isPronto()) {
+            return true;
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SEGUNDOS));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), estado.progresso());
+        return false;
+    }
+}
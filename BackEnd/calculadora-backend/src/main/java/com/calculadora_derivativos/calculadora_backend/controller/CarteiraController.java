@@ -0,0 +1,82 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.PosicaoCarteira;
+import com.calculadora_derivativos.calculadora_backend.dto.RiscoCarteiraAtivo;
+import com.calculadora_derivativos.calculadora_backend.service.CarteiraService;
+
+/**
+ * Controller da carteira: posições abertas e risco agregado por ativo (gregas líquidas e
+ * curva de resultado no vencimento).
+ */
+@RestController
+@RequestMapping("/carteira")
+@CrossOrigin(origins = "*")
+public class CarteiraController {
+
+    private final CarteiraService carteiraService;
+
+    public CarteiraController(CarteiraService carteiraService) {
+        this.carteiraService = carteiraService;
+    }
+
+    /**
+    * Abre uma posição com as pernas informadas (prêmio atual de cada série como entrada).
+    * * @param pernas Pernas do spread, todas do mesmo ativo.
+    * @return A posição com o id usado para retirá-la.
+    */
+    @PostMapping("/posicoes")
+    public ResponseEntity<PosicaoCarteira> incluir(@RequestBody List<PernaSpread> pernas) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(carteiraService.incluir(pernas));
+    }
+
+    @GetMapping("/posicoes")
+    public List<PosicaoCarteira> listar() {
+        return carteiraService.listar();
+    }
+
+    /**
+    * Retira uma posição e desfaz sua contribuição nos agregados do ativo.
+    */
+    @DeleteMapping("/posicoes/{id}")
+    public ResponseEntity<PosicaoCarteira> retirar(@PathVariable long id) {
+        return ResponseEntity.of(carteiraService.retirar(id));
+    }
+
+    /**
+    * Risco agregado de cada ativo com posições abertas.
+    */
+    @GetMapping("/risco")
+    public List<RiscoCarteiraAtivo> riscos() {
+        return carteiraService.riscos();
+    }
+
+    /**
+    * Risco agregado de um ativo.
+    * * @param idAcao O ID da ação (ex: BOVA11).
+    */
+    @GetMapping("/risco/{idAcao}")
+    public ResponseEntity<RiscoCarteiraAtivo> risco(@PathVariable String idAcao) {
+        return ResponseEntity.of(carteiraService.risco(idAcao));
+    }
+
+    // Posição inválida (ticker desconhecido, ativos misturados, operação inválida)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> posicaoInvalida(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("ERRO: " + e.getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseResponse;
+import com.calculadora_derivativos.calculadora_backend.service.EstresseService;
+
+/**
+ * Controller do teste de estresse: matriz de resultados por choque de spot, choque de vol e
+ * dias úteis à frente, para um spread ou para as posições abertas de um ativo.
+ */
+@RestController
+@RequestMapping("/estresse")
+@CrossOrigin(origins = "*")
+public class EstresseController {
+
+    private final EstresseService estresseService;
+
+    public EstresseController(EstresseService estresseService) {
+        this.estresseService = estresseService;
+    }
+
+    /**
+    * Estressa as pernas informadas.
+    * * @param request Cotação atual, pernas e a grade (choquesSpot, choquesVol, diasUteis).
+    */
+    @PostMapping("/spread")
+    public ResponseEntity<MatrizEstresseResponse> estressarSpread(@RequestBody MatrizEstresseRequest request) {
+        return responder(estresseService.estressarSpread(request));
+    }
+
+    /**
+    * Estressa todas as posições abertas do ativo na carteira (pernas do request ignoradas).
+    * * @param idAcao  O ID da ação (ex: BOVA11).
+    */
+    @PostMapping("/carteira/{idAcao}")
+    public ResponseEntity<MatrizEstresseResponse> estressarCarteira(@PathVariable String idAcao,
+            @RequestBody MatrizEstresseRequest request) {
+        return responder(estresseService.estressarCarteira(idAcao, request));
+    }
+
+    // Request inválido (mensagem "ERRO: ...", sem resultados): 400 com o mesmo corpo
+    private static ResponseEntity<MatrizEstresseResponse> responder(MatrizEstresseResponse resposta) {
+        return resposta.mensagem().startsWith("ERRO")
+                ? ResponseEntity.badRequest().body(resposta)
+                : ResponseEntity.ok(resposta);
+    }
+}
@@ -0,0 +1,136 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoExportado;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.service.ExportacaoCandidatosService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exportação dos candidatos avaliados pelos otimizadores, para pesquisa offline.
+ */
+@RestController
+@RequestMapping("/exportacao")
+@CrossOrigin(origins = "*")
+public class ExportacaoController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String CABECALHO_CSV = "estrategia,vencimento,tickerPrimeira,strikePrimeira,precoPrimeira,"
+            + "tickerSegunda,strikeSegunda,precoSegunda,larguraStrikes,premioLiquidoUnitario,"
+            + "lucroMaximoLiquidoTotal,riscoMaximoLiquidoTotal,relacaoRiscoRetornoLiquida,breakevenPoint\n";
+
+    private final ExportacaoCandidatosService exportacaoService;
+    private final ObjectMapper objectMapper;
+
+    public ExportacaoController(ExportacaoCandidatosService exportacaoService, ObjectMapper objectMapper) {
+        this.exportacaoService = exportacaoService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+    * Todos os pares avaliados do ativo (R/R, largura, prêmio, lucro, risco e breakeven), escritos
+    * à medida que são gerados: NDJSON (padrão, um candidato por linha) ou CSV com
+    * Accept: text/csv.
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param estrategia        BULL_CALL, BEAR_PUT, BULL_PUT, BEAR_CALL ou MELHOR (padrão, as 4).
+    * * @param vencimento        Só este vencimento (AAAA-MM-DD); ausente = todos.
+    * @param taxasOperacionais Taxas por contrato (breakeven).
+    */
+    @GetMapping(value = "/candidatos/{idAcao}", produces = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<StreamingResponseBody> exportarCandidatos(
+            @PathVariable String idAcao,
+            @RequestParam(defaultValue = "MELHOR") EstrategiaOtimizacao estrategia,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate vencimento,
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        boolean csv = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(tipo -> tipo.isCompatibleWith(CSV) && !tipo.isWildcardType());
+        StreamingResponseBody corpo = saida -> {
+            if (csv) {
+                exportarCsv(saida, idAcao, estrategia, vencimento, taxasOperacionais);
+            } else {
+                exportarNdjson(saida, idAcao, estrategia, vencimento, taxasOperacionais);
+            }
+        };
+        return ResponseEntity.ok().contentType(csv ? CSV : NDJSON).body(corpo);
+    }
+
+    private void exportarNdjson(OutputStream saida, String idAcao, EstrategiaOtimizacao estrategia,
+            LocalDate vencimento, BigDecimal taxasOperacionais) throws IOException {
+        // Buffer de saída: cada linha é escrita sem flush; o servlet recebe blocos de 64 KB
+        OutputStream buffer = new BufferedOutputStream(saida, 1 << 16);
+        exportacaoService.exportar(idAcao, estrategia, vencimento, taxasOperacionais, escrevendo(candidato -> {
+            buffer.write(objectMapper.writeValueAsBytes(candidato));
+            buffer.write('\n');
+        }));
+        buffer.flush();
+    }
+
+    private void exportarCsv(OutputStream saida, String idAcao, EstrategiaOtimizacao estrategia,
+            LocalDate vencimento, BigDecimal taxasOperacionais) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 1 << 16);
+        escritor.write(CABECALHO_CSV);
+        exportacaoService.exportar(idAcao, estrategia, vencimento, taxasOperacionais, escrevendo(candidato -> {
+            escritor.write(String.join(",",
+                    candidato.estrategia().name(),
+                    candidato.vencimento().toString(),
+                    candidato.tickerPrimeira(),
+                    candidato.strikePrimeira().toPlainString(),
+                    candidato.precoPrimeira().toPlainString(),
+                    candidato.tickerSegunda(),
+                    candidato.strikeSegunda().toPlainString(),
+                    candidato.precoSegunda().toPlainString(),
+                    candidato.larguraStrikes().toPlainString(),
+                    candidato.premioLiquidoUnitario().toPlainString(),
+                    candidato.lucroMaximoLiquidoTotal().toPlainString(),
+                    candidato.riscoMaximoLiquidoTotal().toPlainString(),
+                    candidato.relacaoRiscoRetornoLiquida().toPlainString(),
+                    candidato.breakevenPoint().toPlainString()));
+            escritor.write('\n');
+        }));
+        escritor.flush();
+    }
+
+    @FunctionalInterface
+    private interface EscritaCandidato {
+        void escrever(CandidatoExportado candidato) throws IOException;
+    }
+
+    // Cliente desconectado: a IOException interrompe a exportação
+    private static Consumer<CandidatoExportado> escrevendo(EscritaCandidato escrita) {
+        return candidato -> {
+            try {
+                escrita.escrever(candidato);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.service.GravacaoJfrService;
+
+/**
+ * Gravação JFR sob demanda (GravacaoJfrService) pelo Actuator (/actuator/jfr), para perfilar
+ * otimizações lentas em produção, fora da API pública: sem CORS, servida na porta de
+ * gerenciamento quando 'management.server.port' estiver definida. Desligada por padrão; além de
+ * 'diagnostico.jfr.habilitado=true' precisa constar em 'management.endpoints.web.exposure.include'.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@ConditionalOnProperty(name = "diagnostico.jfr.habilitado", havingValue = "true")
+public class GravacaoJfrEndpoint {
+
+    private final GravacaoJfrService gravacaoJfr;
+
+    public GravacaoJfrEndpoint(GravacaoJfrService gravacaoJfr) {
+        this.gravacaoJfr = gravacaoJfr;
+    }
+
+    @ReadOperation
+    public GravacaoJfrService.EstadoGravacao estado() {
+        return gravacaoJfr.estado();
+    }
+
+    /**
+    * Inicia uma gravação limitada (POST com corpo JSON).
+    * * @param duracaoSegundos Duração (ausente, 0 ou acima do máximo configurado = máximo).
+    * * @param configuracao    Configuração da JVM: "default" (leve, padrão) ou "profile" (amostragem mais fina).
+    * @return Estado da gravação; 409 se já houver uma em andamento.
+    */
+    @WriteOperation
+    public WebEndpointResponse<GravacaoJfrService.EstadoGravacao> iniciar(@Nullable Long duracaoSegundos,
+            @Nullable String configuracao) {
+        try {
+            return new WebEndpointResponse<>(gravacaoJfr.iniciar(duracaoSegundos == null ? 0 : duracaoSegundos,
+                    configuracao == null ? "default" : configuracao));
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "configuracao inválida");
+        }
+    }
+
+    /**
+    * Para a gravação (ou recolhe a que já terminou pela duração) e devolve o arquivo .jfr, para
+    * abrir no JDK Mission Control ou com 'jfr print --events calculadora.*'. O temporário é
+    * apagado quando o envio termina; 409 se nenhuma gravação foi iniciada.
+    */
+    @DeleteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> parar() throws IOException {
+        Path arquivo;
+        try {
+            arquivo = gravacaoJfr.parar();
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+        return new WebEndpointResponse<>(
+                new InputStreamResource(Files.newInputStream(arquivo, StandardOpenOption.DELETE_ON_CLOSE)));
+    }
+}
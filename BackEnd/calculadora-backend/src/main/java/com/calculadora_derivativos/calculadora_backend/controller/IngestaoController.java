@@ -0,0 +1,42 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.service.IngestaoCotacoesService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Controller da ingestão de cotações ao vivo por HTTP (o feed por WebSocket fica em
+ * /ws/cotacoes, IngestaoWebSocketHandler). Escreve na cadeia em memória e no banco, então fica
+ * desligado por padrão ('ingestao.habilitada=true' liga) e sem CORS: o feed é um processo
+ * servidor, não uma página no navegador.
+ */
+@RestController
+@RequestMapping("/cotacoes")
+@ConditionalOnProperty(name = "ingestao.habilitada", havingValue = "true")
+public class IngestaoController {
+
+    private final IngestaoCotacoesService ingestaoService;
+
+    public IngestaoController(IngestaoCotacoesService ingestaoService) {
+        this.ingestaoService = ingestaoService;
+    }
+
+    /**
+    * Recebe um stream NDJSON de cotações (ticker, preco, volImplicita, gregas, dataHora), lido
+    * linha a linha conforme chega, sem montar o corpo inteiro em memória.
+    * * @param request Corpo application/x-ndjson.
+    * @return Linhas aceitas e rejeitadas.
+    */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public IngestaoCotacoesService.ResumoIngestao receber(HttpServletRequest request) throws IOException {
+        return ingestaoService.receberNdjson(request.getReader());
+    }
+}
@@ -0,0 +1,32 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.calculadora_derivativos.calculadora_backend.service.IngestaoCotacoesService;
+
+/**
+ * Feed de cotações ao vivo por WebSocket: cada mensagem de texto traz uma ou mais linhas
+ * NDJSON. Não há resposta por mensagem; linhas inválidas só entram na métrica de rejeitadas.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestao.habilitada", havingValue = "true")
+public class IngestaoWebSocketHandler extends TextWebSocketHandler {
+
+    private final IngestaoCotacoesService ingestaoService;
+
+    public IngestaoWebSocketHandler(IngestaoCotacoesService ingestaoService) {
+        this.ingestaoService = ingestaoService;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        ingestaoService.receberNdjson(new BufferedReader(new StringReader(message.getPayload())));
+    }
+}
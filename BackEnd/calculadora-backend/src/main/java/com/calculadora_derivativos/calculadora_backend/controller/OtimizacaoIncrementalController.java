@@ -0,0 +1,74 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoVertical;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizadorIncrementalService;
+
+/**
+ * Controller do otimizador incremental: aplica prêmios novos de séries isoladas e consulta
+ * o melhor spread/top-K sem refazer a busca completa.
+ */
+@RestController
+@RequestMapping("/spread/incremental")
+@CrossOrigin(origins = "*")
+public class OtimizacaoIncrementalController {
+
+    // Mesmo limite do top-K do SpreadController
+    private static final int K_MAXIMO = 500;
+
+    private final OtimizadorIncrementalService otimizador;
+
+    public OtimizacaoIncrementalController(OtimizadorIncrementalService otimizador) {
+        this.otimizador = otimizador;
+    }
+
+    /**
+    * Aplica os prêmios informados e devolve o melhor par de cada vertical.
+    * * @param idAcao  O ID da ação (ex: BOVA11).
+    * * @param precos  Mapa ticker -> prêmio atual.
+    * @return Melhor par por estratégia (chave MELHOR = melhor geral).
+    */
+    @PutMapping("/{idAcao}/cotacoes")
+    public Map<EstrategiaOtimizacao, CandidatoVertical> atualizarCotacoes(@PathVariable String idAcao,
+            @RequestBody Map<String, BigDecimal> precos) {
+        otimizador.atualizarCotacoes(idAcao, precos);
+        return otimizador.melhores(idAcao);
+    }
+
+    /**
+    * Melhor par de cada vertical com os prêmios atuais.
+    */
+    @GetMapping("/{idAcao}/melhores")
+    public Map<EstrategiaOtimizacao, CandidatoVertical> melhores(@PathVariable String idAcao) {
+        return otimizador.melhores(idAcao);
+    }
+
+    /**
+    * Os K melhores spreads com os prêmios atuais (maior R/R primeiro).
+    * * @param estrategia Vertical ou MELHOR (as 4).
+    * * @param k          Quantidade de itens (1 a 500).
+    */
+    @GetMapping("/{idAcao}/top")
+    public List<SpreadResponse> top(@PathVariable String idAcao,
+            @RequestParam(defaultValue = "MELHOR") EstrategiaOtimizacao estrategia,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal taxasOperacionais) {
+        return otimizador.otimizarTopK(estrategia, idAcao, cotacaoAtualAtivo, taxasOperacionais,
+                Math.min(k, K_MAXIMO));
+    }
+}
@@ -0,0 +1,57 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.service.SnapshotParticaoService;
+
+/**
+ * Administração das partições de 'opcoes_snapshot' pelo Actuator (/actuator/particoes), fora
+ * da API pública: sem CORS, servida na porta de gerenciamento quando 'management.server.port'
+ * estiver definida. Desligada por padrão; além de 'snapshot.particoes.endpoint.habilitado=true'
+ * precisa constar em 'management.endpoints.web.exposure.include'.
+ */
+@Component
+@Endpoint(id = "particoes")
+@ConditionalOnProperty(name = "snapshot.particoes.endpoint.habilitado", havingValue = "true")
+public class ParticoesSnapshotEndpoint {
+
+    private final SnapshotParticaoService particaoService;
+
+    public ParticoesSnapshotEndpoint(SnapshotParticaoService particaoService) {
+        this.particaoService = particaoService;
+    }
+
+    /**
+    * Meses com partição própria (AAAA-MM).
+    */
+    @ReadOperation
+    public List<String> listar() {
+        return particaoService.listarParticoesMensais().stream().map(YearMonth::toString).toList();
+    }
+
+    /**
+    * Remove (DROP PARTITION) os meses anteriores ao informado.
+    * * @param anteriorA Mês limite no formato AAAA-MM (exclusivo).
+    * @return Meses removidos.
+    */
+    @DeleteOperation
+    public List<String> purgar(String anteriorA) {
+        YearMonth limite;
+        try {
+            limite = YearMonth.parse(anteriorA);
+        } catch (DateTimeParseException e) {
+            throw new InvalidEndpointRequestException("anteriorA deve estar no formato AAAA-MM: " + anteriorA,
+                    "anteriorA inválido");
+        }
+        return particaoService.purgarAnterioresA(limite).stream().map(YearMonth::toString).toList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.service.RaiaSaturadaException;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Converte a recusa de uma raia saturada em 503 + Retry-After, com o mesmo corpo de erro
+ * (nomeEstrategia "Erro") que o frontend já trata.
+ */
+@RestControllerAdvice
+public class RaiaSaturadaHandler {
+
+    @ExceptionHandler(RaiaSaturadaException.class)
+    public ResponseEntity<SpreadResponse> raiaSaturada(RaiaSaturadaException e) {
+        SpreadResponse erro = SpreadService.createErrorResponse("ERRO: " + e.getMessage(), "Erro");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(erro);
+    }
+}
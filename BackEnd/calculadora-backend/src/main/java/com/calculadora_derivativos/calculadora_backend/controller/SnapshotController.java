@@ -0,0 +1,53 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.calculadora_derivativos.calculadora_backend.service.SnapshotParticaoService;
+import com.calculadora_derivativos.calculadora_backend.service.SnapshotService;
+
+/**
+ * Controller do histórico de cotações (tabela particionada 'opcoes_snapshot').
+ */
+@RestController
+@RequestMapping("/snapshot")
+@CrossOrigin(origins = "*")
+public class SnapshotController {
+
+    private final SnapshotService snapshotService;
+    private final SnapshotParticaoService particaoService;
+
+    public SnapshotController(SnapshotService snapshotService, SnapshotParticaoService particaoService) {
+        this.snapshotService = snapshotService;
+        this.particaoService = particaoService;
+    }
+
+    /**
+    * Importa um CSV antigo (layout de opcoes_final_tratado.csv) para o histórico.
+    * * @param arquivo CSV enviado como multipart ('arquivo').
+    * @return Resumo da importação (linhas lidas, ignoradas e gravadas).
+    */
+    @PostMapping("/importar")
+    public SnapshotService.ResultadoImportacao importar(@RequestParam("arquivo") MultipartFile arquivo)
+            throws IOException {
+        return snapshotService.importarCsv(arquivo.getInputStream());
+    }
+
+    /**
+    * Lista os meses com partição própria. A remoção (DROP PARTITION) fica no Actuator,
+    * em ParticoesSnapshotEndpoint.
+    */
+    @GetMapping("/particoes")
+    public List<YearMonth> listarParticoes() {
+        return particaoService.listarParticoesMensais();
+    }
+}
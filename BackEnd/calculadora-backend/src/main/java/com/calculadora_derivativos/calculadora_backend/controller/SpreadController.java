@@ -1,36 +1,86 @@
 package com.calculadora_derivativos.calculadora_backend.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.calculadora_derivativos.calculadora_backend.config.CodificacaoRespostas;
+import com.calculadora_derivativos.calculadora_backend.dto.FronteiraParetoResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.OtimizacaoSpreadRequest;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadRequest;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
-import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraSpotResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.service.CalculadoraSpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.CalendarioSpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.FronteiraParetoService;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizacaoSpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.RaiaExecucao;
+import com.calculadora_derivativos.calculadora_backend.service.VarreduraSpotService;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
 /**
  * Controller responsável por receber requisições de cálculo e otimização de
  * spreads.
  * Adicionada anotação @CrossOrigin para permitir requisições de frontend.
+ * Cada classe de endpoint roda na sua raia (RaiasConfig): a thread do Tomcat é liberada e,
+ * com a raia saturada, a resposta é 503 + Retry-After (RaiaSaturadaHandler).
  */
 @RestController
 @RequestMapping("/spread")
 @CrossOrigin(origins = "*") // Permite requisições de qualquer origem (ideal para desenvolvimento/teste)
 public class SpreadController {
 
-    private final SpreadService spreadService;
+    // Implementação @Primary: OtimizacaoCoalescidaService (coalesce otimizações idênticas)
+    private final CalculadoraSpreadService spreadService;
+    private final RaiaExecucao raiaManual;
+    private final RaiaExecucao raiaOtimizacao;
+    private final CodificacaoRespostas codificacao;
+    private final VarreduraSpotService varreduraSpotService;
+    private final OtimizacaoSpreadService otimizacaoSpreadService;
+    private final FronteiraParetoService fronteiraParetoService;
+    private final CalendarioSpreadService calendarioSpreadService;
+
+    // Limite de itens por lista top-K
+    private static final int K_MAXIMO = 500;
 
     @Autowired
-    public SpreadController(SpreadService spreadService) {
+    public SpreadController(CalculadoraSpreadService spreadService,
+            @Qualifier("raiaManual") RaiaExecucao raiaManual,
+            @Qualifier("raiaOtimizacao") RaiaExecucao raiaOtimizacao,
+            CodificacaoRespostas codificacao,
+            VarreduraSpotService varreduraSpotService,
+            OtimizacaoSpreadService otimizacaoSpreadService,
+            FronteiraParetoService fronteiraParetoService,
+            CalendarioSpreadService calendarioSpreadService) {
         this.spreadService = spreadService;
+        this.raiaManual = raiaManual;
+        this.raiaOtimizacao = raiaOtimizacao;
+        this.codificacao = codificacao;
+        this.varreduraSpotService = varreduraSpotService;
+        this.otimizacaoSpreadService = otimizacaoSpreadService;
+        this.fronteiraParetoService = fronteiraParetoService;
+        this.calendarioSpreadService = calendarioSpreadService;
     }
 
     // --- 1. CÁLCULO MANUAL (POST) ---
@@ -41,8 +91,8 @@ public class SpreadController {
     * * @return O resultado do cálculo do spread.
     */
     @PostMapping("/manual/calcular")
-    public SpreadResponse calcularManual(@RequestBody SpreadRequest request) {
-        return spreadService.calcularSpread(request);
+    public CompletableFuture<SpreadResponse> calcularManual(@RequestBody SpreadRequest request) {
+        return raiaManual.submeter(() -> spreadService.calcularSpread(request));
     }
 
     // --- 2. OTIMIZAÇÃO INDIVIDUAL: Bull Call Spread (Call-Alta) ---
@@ -52,14 +102,18 @@ public class SpreadController {
     * * @param idAcao            O ID da ação (ex: PETR4).
     * * @param cotacaoAtualAtivo Preço atual do ativo.
     * @param taxasOperacionais Taxas.
+    * @param deadlineMs        Prazo opcional (ms desde a chegada): devolve o melhor spread
+    *                          encontrado até ali, com a cobertura da busca.
     * @return O SpreadResponse da estratégia otimizada.
     */
     @GetMapping("/otimizar/call-alta/{idAcao}")
-    public SpreadResponse otimizarBullCallSpread(
+    public CompletableFuture<SpreadResponse> otimizarBullCallSpread(
             @PathVariable String idAcao,
             @RequestParam BigDecimal cotacaoAtualAtivo,
-            @RequestParam BigDecimal taxasOperacionais) {
-        return spreadService.otimizarBullCallSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais);
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) Long deadlineMs) {
+        return otimizar(EstrategiaOtimizacao.BULL_CALL, idAcao, cotacaoAtualAtivo, taxasOperacionais, deadlineMs,
+                () -> spreadService.otimizarBullCallSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais));
     }
 
     // --- 3. OTIMIZAÇÃO INDIVIDUAL: Bear Put Spread (Put-Baixa) ---
@@ -69,14 +123,18 @@ public class SpreadController {
     * * @param idAcao            O ID da ação (ex: PETR4).
     * * @param cotacaoAtualAtivo Preço atual do ativo.
     * @param taxasOperacionais Taxas.
+    * @param deadlineMs        Prazo opcional (ms desde a chegada): devolve o melhor spread
+    *                          encontrado até ali, com a cobertura da busca.
     * @return O SpreadResponse da estratégia otimizada.
     */
     @GetMapping("/otimizar/put-baixa/{idAcao}")
-    public SpreadResponse otimizarBearPutSpread(
+    public CompletableFuture<SpreadResponse> otimizarBearPutSpread(
             @PathVariable String idAcao,
             @RequestParam BigDecimal cotacaoAtualAtivo,
-            @RequestParam BigDecimal taxasOperacionais) {
-        return spreadService.otimizarBearPutSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais);
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) Long deadlineMs) {
+        return otimizar(EstrategiaOtimizacao.BEAR_PUT, idAcao, cotacaoAtualAtivo, taxasOperacionais, deadlineMs,
+                () -> spreadService.otimizarBearPutSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais));
     }
 
     // --- 4. NOVO ENDPOINT INDIVIDUAL: Bull Put Spread (Put-Alta) ---
@@ -86,14 +144,18 @@ public class SpreadController {
     * * @param idAcao            O ID da ação (ex: PETR4).
     * * @param cotacaoAtualAtivo Preço atual do ativo.
     * @param taxasOperacionais Taxas.
+    * @param deadlineMs        Prazo opcional (ms desde a chegada): devolve o melhor spread
+    *                          encontrado até ali, com a cobertura da busca.
     * @return O SpreadResponse da estratégia otimizada.
     */
     @GetMapping("/otimizar/put-alta/{idAcao}")
-    public SpreadResponse otimizarBullPutSpread(
+    public CompletableFuture<SpreadResponse> otimizarBullPutSpread(
             @PathVariable String idAcao,
             @RequestParam BigDecimal cotacaoAtualAtivo,
-            @RequestParam BigDecimal taxasOperacionais) {
-        return spreadService.otimizarBullPutSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais);
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) Long deadlineMs) {
+        return otimizar(EstrategiaOtimizacao.BULL_PUT, idAcao, cotacaoAtualAtivo, taxasOperacionais, deadlineMs,
+                () -> spreadService.otimizarBullPutSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais));
     }
 
     // --- 5. NOVO ENDPOINT INDIVIDUAL: Bear Call Spread (Call-Baixa) ---
@@ -103,14 +165,18 @@ public class SpreadController {
     * * @param idAcao            O ID da ação (ex: PETR4).
     * * @param cotacaoAtualAtivo Preço atual do ativo.
     * @param taxasOperacionais Taxas.
+    * @param deadlineMs        Prazo opcional (ms desde a chegada): devolve o melhor spread
+    *                          encontrado até ali, com a cobertura da busca.
     * @return O SpreadResponse da estratégia otimizada.
     */
     @GetMapping("/otimizar/call-baixa/{idAcao}")
-    public SpreadResponse otimizarBearCallSpread(
+    public CompletableFuture<SpreadResponse> otimizarBearCallSpread(
             @PathVariable String idAcao,
             @RequestParam BigDecimal cotacaoAtualAtivo,
-            @RequestParam BigDecimal taxasOperacionais) {
-        return spreadService.otimizarBearCallSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais);
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) Long deadlineMs) {
+        return otimizar(EstrategiaOtimizacao.BEAR_CALL, idAcao, cotacaoAtualAtivo, taxasOperacionais, deadlineMs,
+                () -> spreadService.otimizarBearCallSpread(idAcao, cotacaoAtualAtivo, taxasOperacionais));
     }
 
     // --- 6. NOVO ENDPOINT UNIFICADO: OTIMIZAÇÃO DA MELHOR ESTRATÉGIA ---
@@ -122,13 +188,164 @@ public class SpreadController {
     * * @param idAcao            O ID da ação (ex: PETR4).
     * * @param cotacaoAtualAtivo Preço atual do ativo.
     * @param taxasOperacionais Taxas.
+    * @param deadlineMs        Prazo opcional (ms desde a chegada): devolve o melhor spread
+    *                          encontrado até ali, com a cobertura da busca.
     * @return O SpreadResponse da melhor estratégia encontrada.
     */
     @GetMapping("/otimizar/melhor/{idAcao}")
-    public SpreadResponse otimizarMelhorEstrategia(
+    public CompletableFuture<SpreadResponse> otimizarMelhorEstrategia(
+            @PathVariable String idAcao,
+            @RequestParam BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestParam(required = false) Long deadlineMs) {
+        return otimizar(EstrategiaOtimizacao.MELHOR, idAcao, cotacaoAtualAtivo, taxasOperacionais, deadlineMs,
+                () -> spreadService.otimizarMelhorEstrategia(idAcao, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    /**
+    * Sem prazo, a otimização completa (coalescida); com deadlineMs, a busca com prazo contado
+    * a partir da chegada da requisição, incluindo a espera na raia.
+    */
+    private CompletableFuture<SpreadResponse> otimizar(EstrategiaOtimizacao estrategia, String idAcao,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, Long deadlineMs,
+            Supplier<SpreadResponse> semPrazo) {
+        if (deadlineMs == null) {
+            return raiaOtimizacao.submeter(semPrazo);
+        }
+        long prazoNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadlineMs));
+        return raiaOtimizacao.submeter(() -> spreadService.otimizarComPrazo(estrategia, idAcao, cotacaoAtualAtivo,
+                taxasOperacionais, prazoNanos));
+    }
+
+    // --- 7. TOP-K: lista dos melhores spreads (JSON, CBOR ou Smile) ---
+
+    /**
+    * Retorna os K melhores spreads da estratégia (maior R/R primeiro), escritos item a item
+    * no formato pedido pelo Accept: application/json (padrão), application/cbor ou
+    * application/x-jackson-smile.
+    * * @param idAcao            O ID da ação (ex: PETR4).
+    * * @param estrategia        BULL_CALL, BEAR_PUT, BULL_PUT, BEAR_CALL ou MELHOR (padrão, as 4).
+    * * @param k                 Quantidade de spreads (padrão 10, máximo 500).
+    * * @param cotacaoAtualAtivo Preço atual do ativo.
+    * @param taxasOperacionais Taxas.
+    * @return Array com até K SpreadResponse.
+    */
+    @GetMapping(value = "/otimizar/top/{idAcao}",
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile" })
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> otimizarTopK(
+            @PathVariable String idAcao,
+            @RequestParam(defaultValue = "MELHOR") EstrategiaOtimizacao estrategia,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal taxasOperacionais,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        MediaType formato = codificacao.negociar(accept);
+        int quantidade = Math.max(0, Math.min(k, K_MAXIMO));
+
+        return raiaOtimizacao.submeter(() -> {
+            List<SpreadResponse> spreads = spreadService.otimizarTopK(estrategia, idAcao, cotacaoAtualAtivo,
+                    taxasOperacionais, quantidade);
+            // Cada item é serializado e enviado em sequência, sem montar o array inteiro em memória
+            StreamingResponseBody corpo = saida -> {
+                try (SequenceWriter escritor = codificacao.mapperPara(formato).writer().writeValuesAsArray(saida)) {
+                    for (SpreadResponse spread : spreads) {
+                        escritor.write(spread);
+                    }
+                }
+            };
+            return ResponseEntity.ok().contentType(formato).body(corpo);
+        });
+    }
+
+    // --- 8. VARREDURA DE SPOT: melhor estratégia por cotação hipotética ---
+
+    /**
+    * Avalia a melhor estratégia vertical para cada cotação de spotMinimo a spotMaximo (passo a
+    * passo, até 201 pontos), com os prêmios reprecificados por delta-gamma, em uma passada pela
+    * cadeia.
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param cotacaoAtualAtivo Preço atual do ativo (base da reprecificação).
+    * * @param spotMinimo        Primeira cotação da varredura.
+    * * @param spotMaximo        Última cotação (inclusiva).
+    * * @param passo             Incremento entre as cotações.
+    * @param taxasOperacionais Taxas.
+    * @return Um ponto por cotação com o SpreadResponse da melhor estratégia.
+    */
+    @GetMapping("/otimizar/varredura/{idAcao}")
+    public CompletableFuture<VarreduraSpotResponse> varrerSpot(
+            @PathVariable String idAcao,
+            @RequestParam BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal spotMinimo,
+            @RequestParam BigDecimal spotMaximo,
+            @RequestParam BigDecimal passo,
+            @RequestParam BigDecimal taxasOperacionais) {
+        return raiaOtimizacao.submeter(() -> varreduraSpotService.varrer(idAcao, cotacaoAtualAtivo,
+                taxasOperacionais, spotMinimo, spotMaximo, passo));
+    }
+
+    // --- 9. OTIMIZAÇÃO COM RESTRIÇÕES: risco máximo, retorno mínimo e vencimento ---
+
+    /**
+    * Melhor spread vertical (maior R/R, mínimo 1.0) entre os que respeitam risco máximo e
+    * retorno mínimo totais e, se informado, o vencimento. As restrições podam a busca antes
+    * da avaliação dos pares.
+    * * @param request Ativo, critérios (nulos = sem limite), cotação atual e taxas.
+    * @return O SpreadResponse do melhor spread dentro dos critérios.
+    */
+    @PostMapping("/otimizar/restricoes")
+    public CompletableFuture<SpreadResponse> otimizarComRestricoes(@RequestBody OtimizacaoSpreadRequest request) {
+        return raiaOtimizacao.submeter(() -> otimizacaoSpreadService.otimizar(request));
+    }
+
+    // --- 10. FRONTEIRA DE PARETO: risco x lucro x probabilidade x prazo ---
+
+    /**
+    * Verticais não dominados do ativo em risco máximo, lucro máximo, probabilidade de lucro e
+    * dias até o vencimento, do menor para o maior risco.
+    * * @param idAcao         O ID da ação (ex: BOVA11).
+    * @param dataReferencia Data de referência para os dias até o vencimento (padrão: hoje).
+    * @return A fronteira de Pareto com os candidatos não dominados.
+    */
+    @GetMapping("/otimizar/pareto/{idAcao}")
+    public CompletableFuture<FronteiraParetoResponse> fronteiraPareto(
+            @PathVariable String idAcao,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataReferencia) {
+        return raiaOtimizacao.submeter(() -> fronteiraParetoService.calcular(idAcao, dataReferencia));
+    }
+
+    // --- 11. CALENDÁRIOS E DIAGONAIS: pernas em vencimentos diferentes ---
+
+    /**
+    * Melhor calendário (venda no vencimento curto, compra no longo, mesmo strike), com a perna
+    * longa reprecificada por Black-Scholes no vencimento curto.
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param cotacaoAtualAtivo Preço atual do ativo (centro da grade de spots).
+    * @param taxasOperacionais Taxas.
+    * @return O SpreadResponse do calendário com a melhor R/R.
+    */
+    @GetMapping("/otimizar/calendario/{idAcao}")
+    public CompletableFuture<SpreadResponse> otimizarCalendario(
+            @PathVariable String idAcao,
+            @RequestParam BigDecimal cotacaoAtualAtivo,
+            @RequestParam BigDecimal taxasOperacionais) {
+        return raiaOtimizacao.submeter(
+                () -> calendarioSpreadService.otimizarCalendario(idAcao, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    /**
+    * Melhor diagonal (como o calendário, mas com strikes diferentes).
+    * * @param idAcao            O ID da ação (ex: BOVA11).
+    * * @param cotacaoAtualAtivo Preço atual do ativo (centro da grade de spots).
+    * @param taxasOperacionais Taxas.
+    * @return O SpreadResponse da diagonal com a melhor R/R.
+    */
+    @GetMapping("/otimizar/diagonal/{idAcao}")
+    public CompletableFuture<SpreadResponse> otimizarDiagonal(
             @PathVariable String idAcao,
             @RequestParam BigDecimal cotacaoAtualAtivo,
             @RequestParam BigDecimal taxasOperacionais) {
-        return spreadService.otimizarMelhorEstrategia(idAcao, cotacaoAtualAtivo, taxasOperacionais);
+        return raiaOtimizacao.submeter(
+                () -> calendarioSpreadService.otimizarDiagonal(idAcao, cotacaoAtualAtivo, taxasOperacionais));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.calculadora_derivativos.calculadora_backend.controller;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.calculadora_derivativos.calculadora_backend.service.ArmazemColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+
+/**
+ * Controller do universo de opções residente em memória (cadeias usadas pelos otimizadores).
+ */
+@RestController
+@RequestMapping("/universo")
+@CrossOrigin(origins = "*")
+public class UniversoController {
+
+    private final ArmazemColunarOffHeap armazem;
+    private final CacheCadeiasCompactas cacheCadeias;
+
+    public UniversoController(ArmazemColunarOffHeap armazem, CacheCadeiasCompactas cacheCadeias) {
+        this.armazem = armazem;
+        this.cacheCadeias = cacheCadeias;
+    }
+
+    /**
+    * Ativos, séries e bytes em memória direta do universo off-heap.
+    */
+    @GetMapping
+    public ArmazemColunarOffHeap.ResumoUniverso resumo() {
+        return armazem.resumo();
+    }
+
+    /**
+    * Descarta as cadeias em memória e recarrega o universo a partir do banco.
+    */
+    @PostMapping("/recarregar")
+    public ArmazemColunarOffHeap.ResumoUniverso recarregar() {
+        if (armazem.isHabilitado() && !armazem.isCarregado()) {
+            cacheCadeias.carregarUniverso();
+        } else {
+            cacheCadeias.invalidarTodos();
+        }
+        return armazem.resumo();
+    }
+}
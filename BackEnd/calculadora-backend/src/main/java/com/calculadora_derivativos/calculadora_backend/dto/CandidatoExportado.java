@@ -0,0 +1,27 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+
+/**
+ * Um par avaliado pelo otimizador, para pesquisa offline (exportação NDJSON/CSV). As operações
+ * das pernas são as da estratégia; lucro, risco e R/R são os mesmos do SpreadResponse do par.
+ */
+public record CandidatoExportado(
+    EstrategiaOtimizacao estrategia,
+    LocalDate vencimento,
+    String tickerPrimeira,
+    BigDecimal strikePrimeira,
+    BigDecimal precoPrimeira,
+    String tickerSegunda,
+    BigDecimal strikeSegunda,
+    BigDecimal precoSegunda,
+    BigDecimal larguraStrikes,
+    BigDecimal premioLiquidoUnitario,   // positivo = crédito, negativo = débito
+    BigDecimal lucroMaximoLiquidoTotal,
+    BigDecimal riscoMaximoLiquidoTotal,
+    BigDecimal relacaoRiscoRetornoLiquida,
+    BigDecimal breakevenPoint
+) {}
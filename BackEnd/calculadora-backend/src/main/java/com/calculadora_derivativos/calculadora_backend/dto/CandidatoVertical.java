@@ -0,0 +1,18 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+
+/**
+ * Melhor par de uma vertical mantido pelo otimizador incremental, sem o cálculo completo
+ * (a R/R é a mesma de SpreadResponse.relacaoRiscoRetornoLiquida).
+ */
+public record CandidatoVertical(
+    EstrategiaOtimizacao estrategia,
+    LocalDate vencimento,
+    List<PernaSpread> pernas,
+    BigDecimal relacaoRiscoRetornoLiquida
+) {}
@@ -0,0 +1,15 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+/**
+ * Cobertura de uma otimização com prazo (deadlineMs): quanto da busca foi feito antes do
+ * prazo. Com parcial = true, o spread devolvido é o melhor entre os pares avaliados.
+ */
+public record CoberturaBusca(
+    boolean parcial,
+    long paresAvaliados,
+    long paresTotais,
+    double percentualAvaliado,
+    // Em todos os vencimentos, os N strikes mais próximos do spot tiveram todos os pares avaliados
+    int strikesCobertosPorVencimento,
+    long milissegundos
+) {}
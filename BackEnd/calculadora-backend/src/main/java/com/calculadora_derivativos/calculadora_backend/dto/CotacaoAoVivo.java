@@ -0,0 +1,32 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Atualização de cotação de uma série recebida pela ingestão ao vivo (uma linha NDJSON).
+ * Só ticker e preco são obrigatórios; campos nulos mantêm o valor gravado.
+ */
+public record CotacaoAoVivo(
+    String ticker,
+    String idAcao,              // Opcional: só conferido contra o ativo do ticker no banco
+    BigDecimal preco,           // Prêmio da opção
+    BigDecimal volImplicita,
+    BigDecimal delta,
+    BigDecimal gamma,
+    BigDecimal theta,
+    BigDecimal vega,
+    LocalDateTime dataHora      // Momento da cotação; a mais recente prevalece na coalescência
+) {
+
+    /**
+     * Mais recente entre a cotação pendente e a nova. Sem dataHora em alguma delas, vale a
+     * que chegou por último.
+     */
+    public static CotacaoAoVivo maisRecente(CotacaoAoVivo pendente, CotacaoAoVivo nova) {
+        if (pendente.dataHora() != null && nova.dataHora() != null && nova.dataHora().isBefore(pendente.dataHora())) {
+            return pendente;
+        }
+        return nova;
+    }
+}
@@ -0,0 +1,13 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Fechamento diário enviado em POST /backtest/cotacoes-ativo (sem id: a chave é ativo + data).
+ */
+public record FechamentoAtivo(
+    String idAcao,
+    LocalDate data,
+    BigDecimal fechamento
+) {}
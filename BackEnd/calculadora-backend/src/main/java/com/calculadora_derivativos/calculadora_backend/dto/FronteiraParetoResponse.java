@@ -0,0 +1,12 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.util.List;
+
+/**
+ * Fronteira de Pareto de um ativo, do menor para o maior risco.
+ */
+public record FronteiraParetoResponse(
+    String mensagem,
+    int candidatosAvaliados,
+    List<PontoPareto> fronteira
+) {}
@@ -0,0 +1,12 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Delta e gamma de uma série (projeção de opcoes_final_tratado).
+ */
+public record GregasSerie(
+    String ticker,
+    BigDecimal delta,       // Como gravado: a PUT vem em módulo
+    BigDecimal gamma
+) {}
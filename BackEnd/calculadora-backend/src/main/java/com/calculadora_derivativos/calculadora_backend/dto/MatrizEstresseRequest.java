@@ -0,0 +1,16 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Grade de cenários do teste de estresse: choques de spot x choques de volatilidade x dias
+ * úteis à frente. As pernas são ignoradas no estresse da carteira (vêm das posições abertas).
+ */
+public record MatrizEstresseRequest(
+    BigDecimal cotacaoAtualAtivo,
+    List<PernaSpread> pernas,
+    List<BigDecimal> choquesSpot,   // Variação relativa do ativo (ex: -0.10 = -10%)
+    List<BigDecimal> choquesVol,    // Pontos percentuais de vol anualizada (ex: 5 = +5 pontos)
+    List<Integer> diasUteis         // Dias úteis à frente (0 = hoje)
+) {}
@@ -0,0 +1,16 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado (R$, contra os prêmios atuais) de cada cenário, em uma matriz achatada:
+ * resultados[(dia * choquesVol + vol) * choquesSpot + spot], na ordem dos eixos.
+ */
+public record MatrizEstresseResponse(
+    String mensagem,                // "SUCESSO: ..." ou "ERRO: ..." (sem resultados)
+    List<BigDecimal> choquesSpot,
+    List<BigDecimal> choquesVol,
+    List<Integer> diasUteis,
+    double[] resultados
+) {}
@@ -0,0 +1,12 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+/**
+ * Evento publicado (ApplicationEventPublisher) quando uma cotação nova muda o melhor spread
+ * vertical do ativo: outra estratégia ou outras pernas. 'anterior' ou 'atual' é null quando
+ * não havia/não há combinação válida.
+ */
+public record MelhorEstrategiaAlterada(
+    String idAcao,
+    CandidatoVertical anterior,
+    CandidatoVertical atual
+) {}
@@ -0,0 +1,16 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção imutável de uma série da cadeia de opções de um ativo.
+ * Contém apenas as colunas usadas pelos otimizadores (sem entidade gerenciada pelo Hibernate).
+ */
+public record OpcaoCadeia(
+    String ticker,          // Ticker da série (Ex: BOVAK135W2)
+    String tipo,            // "CALL" ou "PUT"
+    LocalDate vencimento,   // Data de vencimento da série
+    BigDecimal strike,      // Preço de exercício
+    BigDecimal preco        // Prêmio da opção
+) {}
@@ -10,10 +10,14 @@ public record OtimizacaoSpreadRequest(
     // Ativo objeto da opção (Ex: "VALE3")
     String ativoSubjacente,
 
-    // Critérios de otimização
-    BigDecimal riscoMaximoAceitavel,
-    BigDecimal retornoMinimoDesejado,
+    // Critérios de otimização (valores totais da operação, em R$; nulo = sem limite)
+    BigDecimal riscoMaximoAceitavel,    // Teto de riscoMaximoLiquidoTotal
+    BigDecimal retornoMinimoDesejado,   // Piso de lucroMaximoLiquidoTotal
     
     // Outros parâmetros de filtro
-    String dataVencimento
+    String dataVencimento,              // AAAA-MM-DD ou DD/MM/AAAA; nulo = todos os vencimentos
+
+    // Usados no cálculo completo do spread vencedor
+    BigDecimal cotacaoAtualAtivo,
+    BigDecimal taxasOperacionais
 ) {}
@@ -0,0 +1,11 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Vértice da curva de resultado no vencimento: entre dois vértices a curva é linear.
+ */
+public record PontoCurvaResultado(
+    BigDecimal cotacaoAtivo,
+    BigDecimal resultado        // R$, já descontados os prêmios de entrada
+) {}
@@ -0,0 +1,23 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+
+/**
+ * Candidato não dominado da fronteira de Pareto: nenhum outro vertical tem risco menor ou
+ * igual, lucro e probabilidade maiores ou iguais e vencimento igual ou mais próximo (com ao
+ * menos uma das quatro estritamente melhor).
+ */
+public record PontoPareto(
+    EstrategiaOtimizacao estrategia,
+    LocalDate vencimento,
+    List<PernaSpread> pernas,
+    BigDecimal riscoMaximoLiquidoTotal,
+    BigDecimal lucroMaximoLiquidoTotal,
+    BigDecimal probabilidadeLucro,      // 0 a 1, pelos deltas das pernas no breakeven
+    int diasAteVencimento,
+    BigDecimal relacaoRiscoRetornoLiquida
+) {}
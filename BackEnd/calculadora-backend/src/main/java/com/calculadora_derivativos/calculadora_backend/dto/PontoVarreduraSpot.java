@@ -0,0 +1,12 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Melhor estratégia vertical para uma cotação hipotética do ativo (null se nenhuma
+ * combinação válida).
+ */
+public record PontoVarreduraSpot(
+    BigDecimal cotacaoAtivo,
+    SpreadResponse melhorEstrategia
+) {}
@@ -0,0 +1,12 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.util.List;
+
+/**
+ * Posição aberta na carteira: as pernas de um spread (todas do mesmo ativo).
+ */
+public record PosicaoCarteira(
+    long id,
+    String idAcao,
+    List<PernaSpread> pernas
+) {}
@@ -0,0 +1,23 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Linha do backtest para um dia de snapshot: o spread escolhido pelo otimizador naquele dia
+ * e seu resultado no vencimento (com os acumulados até o dia).
+ */
+public record ResultadoDiaBacktest(
+    LocalDate data,                     // Dia do snapshot (entrada na operação)
+    String status,                      // LIQUIDADO, EM_ABERTO, SEM_SPREAD ou SEM_COTACAO
+    String estrategia,                  // Nome da estratégia escolhida (Ex: Bear Call Spread)
+    LocalDate vencimento,               // Vencimento do spread escolhido
+    List<PernaSpread> pernas,           // Pernas executadas
+    BigDecimal cotacaoEntrada,          // Fechamento do ativo no dia da entrada
+    BigDecimal custoLiquido,            // Fluxo inicial (negativo = débito)
+    BigDecimal cotacaoVencimento,       // Fechamento do ativo usado na liquidação
+    BigDecimal resultado,               // P&L da operação no vencimento (null se não liquidada)
+    BigDecimal resultadoAcumulado,      // P&L acumulado das operações liquidadas até aqui
+    BigDecimal drawdown                 // Queda atual em relação ao pico do acumulado
+) {}
@@ -0,0 +1,20 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resumo final de um backtest (última linha do stream NDJSON).
+ */
+public record ResumoBacktest(
+    String ativoSubjacente,
+    String estrategia,
+    LocalDate inicio,
+    LocalDate fim,
+    long diasProcessados,
+    long operacoesLiquidadas,
+    long operacoesVencedoras,
+    BigDecimal taxaAcerto,              // operacoesVencedoras / operacoesLiquidadas
+    BigDecimal resultadoAcumulado,      // P&L total das operações liquidadas
+    BigDecimal drawdownMaximo           // Maior queda do acumulado em relação ao pico
+) {}
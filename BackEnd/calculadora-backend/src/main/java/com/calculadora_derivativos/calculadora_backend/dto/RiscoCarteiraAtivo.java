@@ -0,0 +1,20 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Risco agregado das posições de um ativo: gregas líquidas (somadas com sinal e
+ * quantidade) e a curva de resultado no vencimento, com a inclinação após o último vértice.
+ */
+public record RiscoCarteiraAtivo(
+    String idAcao,
+    int posicoes,
+    BigDecimal delta,
+    BigDecimal gamma,
+    BigDecimal theta,
+    BigDecimal vega,
+    BigDecimal premioLiquido,           // Recebido (+) ou pago (-) na montagem, em R$
+    List<PontoCurvaResultado> curva,    // Começa na cotação zero; vértices nos strikes
+    BigDecimal inclinacaoFinal          // R$ por R$ de alta acima do último strike
+) {}
@@ -41,4 +41,6 @@ public class SpreadResponse {
     BigDecimal vegaTotal;
     // Campo opcional para otimizações
     LocalDate vencimento;
+    // Só nas otimizações com prazo (deadlineMs): parcial ou completa, e quanto foi avaliado
+    CoberturaBusca cobertura;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado da varredura de arbitragem (paridade put-call e box spreads), violações do maior
+ * para o menor lucro líquido.
+ */
+public record VarreduraArbitragemResponse(
+    String mensagem,
+    BigDecimal taxaJurosAnual,
+    int ativos,
+    int vencimentos,
+    // Strikes com CALL e PUT cotadas no mesmo vencimento
+    int strikesCasados,
+    long milissegundos,
+    List<ViolacaoArbitragem> violacoes
+) {}
@@ -0,0 +1,11 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da varredura de spot: um ponto por cotação, em ordem crescente.
+ */
+public record VarreduraSpotResponse(
+    String mensagem,                    // "SUCESSO: ..." ou "ERRO: ..." (sem pontos)
+    List<PontoVarreduraSpot> pontos
+) {}
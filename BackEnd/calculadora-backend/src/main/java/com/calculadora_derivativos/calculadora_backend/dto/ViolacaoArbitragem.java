@@ -0,0 +1,40 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Violação de paridade put-call (num strike) ou de preço de box spread (entre dois strikes)
+ * encontrada pela varredura de arbitragem. Valores unitários por ação; o lucro líquido já
+ * desconta as taxas operacionais de cada perna.
+ */
+public record ViolacaoArbitragem(
+    TipoArbitragem tipo,
+    String idAcao,
+    LocalDate vencimento,
+    List<BigDecimal> strikes,
+    // Pernas de opção; conversão e reversão têm ainda a perna no ativo à vista
+    List<PernaSpread> pernas,
+    // Cotação informada ou, sem ela, a implícita na cadeia do vencimento (mediana de C - P + K·fd)
+    BigDecimal spotReferencia,
+    // Paridade: C - P; box: (C1 - P1) - (C2 - P2)
+    BigDecimal valorMercado,
+    // Paridade: S - K·fd; box: (K2 - K1)·fd
+    BigDecimal valorTeorico,
+    BigDecimal desvioUnitario,
+    BigDecimal lucroLiquidoUnitario,
+    BigDecimal lucroLiquidoTotal
+) {
+
+    public enum TipoArbitragem {
+        // C - P acima da paridade: vende CALL, compra PUT e compra o ativo
+        CONVERSAO,
+        // C - P abaixo da paridade: compra CALL, vende PUT e vende o ativo
+        REVERSAO,
+        // Box acima do valor presente da largura: vende a trava de alta de CALL e a de baixa de PUT
+        BOX_VENDIDO,
+        // Box abaixo do valor presente da largura: compra as duas travas
+        BOX_COMPRADO
+    }
+}
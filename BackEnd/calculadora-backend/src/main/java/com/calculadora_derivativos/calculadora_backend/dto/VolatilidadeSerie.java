@@ -0,0 +1,13 @@
+package com.calculadora_derivativos.calculadora_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Volatilidade implícita e dias úteis de uma série (reprecificação Black-Scholes de
+ * calendários e diagonais sobre cadeias em heap).
+ */
+public record VolatilidadeSerie(
+    String ticker,
+    BigDecimal volImplicita,
+    Integer diasUteis
+) {}
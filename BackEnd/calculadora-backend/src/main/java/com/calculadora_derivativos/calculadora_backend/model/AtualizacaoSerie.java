@@ -0,0 +1,21 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+/**
+ * Cotação ao vivo de uma série já no formato das cadeias em memória: prêmio em ticks e
+ * volatilidade implícita (% ao dia útil) e gregas como gravadas no banco. NaN mantém o valor
+ * em vigor (o feed não mandou o campo).
+ */
+public record AtualizacaoSerie(
+    int preco,              // Prêmio em ticks
+    double volImplicita,
+    double delta,
+    double gamma,
+    double theta,
+    double vega
+) {
+
+    // Só o prêmio; vol e gregas ficam como estão
+    public static AtualizacaoSerie soPreco(int preco) {
+        return new AtualizacaoSerie(preco, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+    }
+}
@@ -0,0 +1,400 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+
+/**
+ * Cadeia de um ativo armazenada fora do heap, em colunas, em ByteBuffers diretos.
+ *
+ * Layout (n séries, colunas de 8 bytes primeiro para manter o alinhamento natural):
+ *   dados:   strike long | vencimento, diasUteis int | ticker 16 bytes ASCII | tipo byte
+ *   precos:  preco int
+ *   mercado: um buffer por coluna double - volImplicita, delta, gamma, theta, vega
+ * = 77 bytes por série em memória direta. No heap ficam apenas os objetos ByteBuffer e a
+ * tabela de offsets dos grupos (vencimento, tipo), de tamanho proporcional ao número de
+ * vencimentos e não ao de séries, e - só nos ativos que recebem cotações ao vivo - o índice de
+ * tickers (um int[] de 2n a 4n posições).
+ *
+ * Imutável depois de construído; as leituras usam get absoluto e podem ser concorrentes. Prêmio,
+ * vol e gregas ficam cada um num buffer à parte para que cotações ao vivo (comPrecos) copiem só
+ * as colunas que mudaram.
+ * As séries das cotações são localizadas por um índice ticker -> série (tabela de endereçamento
+ * aberto num int[]), montado na primeira cotação e compartilhado pelas cópias: aplicar um lote
+ * custa o tamanho do lote, sem decodificar os tickers da cadeia.
+ */
+public final class BlocoColunarOffHeap implements VisaoCadeia {
+
+    public static final int LARGURA_TICKER = 16;
+    public static final int BYTES_POR_SERIE = 6 * Long.BYTES + 3 * Integer.BYTES + LARGURA_TICKER + 1;
+
+    private final String idAcao;
+    private final long versao;
+    private final int n;
+    private final ByteBuffer dados;
+    private final ByteBuffer precos;
+    // mercado[VOL .. VEGA]: uma coluna double por buffer
+    private final ByteBuffer[] mercado;
+    // inicioGrupos[g] .. inicioGrupos[g + 1] (exclusivo) = séries do grupo g
+    private final int[] inicioGrupos;
+    private final IndiceTickers indiceTickers;
+
+    private static final int VOL = 0;
+    private static final int DELTA = 1;
+    private static final int GAMMA = 2;
+    private static final int THETA = 3;
+    private static final int VEGA = 4;
+    private static final int COLUNAS_MERCADO = 5;
+
+    // Offsets (em bytes) do início de cada coluna dentro de 'dados'
+    private final int offStrike;
+    private final int offVencimento;
+    private final int offDiasUteis;
+    private final int offTicker;
+    private final int offTipo;
+
+    private BlocoColunarOffHeap(String idAcao, long versao, int n, ByteBuffer dados, ByteBuffer precos,
+            ByteBuffer[] mercado, int[] inicioGrupos, IndiceTickers indiceTickers) {
+        this.idAcao = idAcao;
+        this.versao = versao;
+        this.n = n;
+        this.dados = dados;
+        this.precos = precos;
+        this.mercado = mercado;
+        this.inicioGrupos = inicioGrupos;
+        this.indiceTickers = indiceTickers;
+        this.offStrike = 0;
+        this.offVencimento = offStrike + n * Long.BYTES;
+        this.offDiasUteis = offVencimento + n * Integer.BYTES;
+        this.offTicker = offDiasUteis + n * Integer.BYTES;
+        this.offTipo = offTicker + n * LARGURA_TICKER;
+    }
+
+    @Override public String getIdAcao() { return idAcao; }
+    @Override public long getVersao() { return versao; }
+    @Override public int tamanho() { return n; }
+
+    @Override public int grupos() { return inicioGrupos.length - 1; }
+    @Override public int inicioGrupo(int grupo) { return inicioGrupos[grupo]; }
+    @Override public int fimGrupo(int grupo) { return inicioGrupos[grupo + 1]; }
+    @Override public byte tipoGrupo(int grupo) { return tipo(inicioGrupos[grupo]); }
+    @Override public int vencimentoGrupo(int grupo) { return vencimento(inicioGrupos[grupo]); }
+
+    // --- Colunas ---
+    @Override public long strike(int i) { return dados.getLong(offStrike + i * Long.BYTES); }
+    @Override public int preco(int i) { return precos.getInt(i * Integer.BYTES); }
+    public int vencimento(int i) { return dados.getInt(offVencimento + i * Integer.BYTES); }
+    @Override public int diasUteis(int i) { return dados.getInt(offDiasUteis + i * Integer.BYTES); }
+    public byte tipo(int i) { return dados.get(offTipo + i); }
+    @Override public double volImplicita(int i) { return mercado[VOL].getDouble(i * Double.BYTES); }
+    @Override public boolean temGregas() { return true; }
+    @Override public double delta(int i) { return mercado[DELTA].getDouble(i * Double.BYTES); }
+    @Override public double gamma(int i) { return mercado[GAMMA].getDouble(i * Double.BYTES); }
+    public double theta(int i) { return mercado[THETA].getDouble(i * Double.BYTES); }
+    public double vega(int i) { return mercado[VEGA].getDouble(i * Double.BYTES); }
+
+    @Override
+    public String ticker(int i) {
+        byte[] bytes = new byte[LARGURA_TICKER];
+        dados.get(offTicker + i * LARGURA_TICKER, bytes);
+        int tamanho = 0;
+        while (tamanho < LARGURA_TICKER && bytes[tamanho] != 0) tamanho++;
+        return new String(bytes, 0, tamanho, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public OpcaoCadeia paraOpcaoCadeia(int i) {
+        return new OpcaoCadeia(ticker(i), CotacaoCompacta.decodificarTipo(tipo(i)),
+                LocalDate.ofEpochDay(vencimento(i)), CotacaoCompacta.deTicks(strike(i)),
+                CotacaoCompacta.deTicks(preco(i)));
+    }
+
+    /**
+     * Conversão completa (com gregas) para a borda da API. Gregas ausentes na carga voltam null.
+     */
+    public Option paraOption(int i) {
+        Option option = new Option();
+        option.setTicker(ticker(i));
+        option.setIdAcao(idAcao);
+        option.setTipo(CotacaoCompacta.decodificarTipo(tipo(i)));
+        option.setVencimento(LocalDate.ofEpochDay(vencimento(i)));
+        option.setDiasUteis(diasUteis(i) < 0 ? null : diasUteis(i));
+        option.setStrike(CotacaoCompacta.deTicks(strike(i)));
+        option.setPreco(CotacaoCompacta.deTicks(preco(i)));
+        option.setVolImplicita(decimal(volImplicita(i)));
+        option.setDelta(decimal(delta(i)));
+        option.setGamma(decimal(gamma(i)));
+        option.setTheta(decimal(theta(i)));
+        option.setVega(decimal(vega(i)));
+        return option;
+    }
+
+    private static BigDecimal decimal(double valor) {
+        return Double.isNaN(valor) ? null : BigDecimal.valueOf(valor);
+    }
+
+    public long bytesOffHeap() {
+        long bytes = dados.capacity() + precos.capacity();
+        for (ByteBuffer coluna : mercado) {
+            bytes += coluna.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Cópia com as cotações ao vivo (ticker -> prêmio, vol e gregas), para atualização
+     * copy-on-write: só as colunas em que algum valor mudou são copiadas (para outros buffers
+     * diretos); as demais, os grupos e a versão são compartilhados. Quem ainda lê o bloco antigo
+     * não é afetado. Sem nenhuma alteração, devolve a própria instância.
+     */
+    public BlocoColunarOffHeap comPrecos(Map<String, AtualizacaoSerie> cotacoes) {
+        ByteBuffer novosPrecos = null;
+        ByteBuffer[] novoMercado = null;
+        for (Map.Entry<String, AtualizacaoSerie> cotacao : cotacoes.entrySet()) {
+            int i = indice(cotacao.getKey());
+            if (i < 0) continue;
+            AtualizacaoSerie serie = cotacao.getValue();
+            if (serie.preco() != preco(i)) {
+                if (novosPrecos == null) {
+                    novosPrecos = copiar(precos);
+                }
+                novosPrecos.putInt(i * Integer.BYTES, serie.preco());
+            }
+            novoMercado = comValor(novoMercado, VOL, i, serie.volImplicita());
+            novoMercado = comValor(novoMercado, DELTA, i, serie.delta());
+            novoMercado = comValor(novoMercado, GAMMA, i, serie.gamma());
+            novoMercado = comValor(novoMercado, THETA, i, serie.theta());
+            novoMercado = comValor(novoMercado, VEGA, i, serie.vega());
+        }
+        if (novosPrecos == null && novoMercado == null) {
+            return this;
+        }
+        return new BlocoColunarOffHeap(idAcao, versao, n, dados, novosPrecos != null ? novosPrecos : precos,
+                novoMercado != null ? novoMercado : mercado, inicioGrupos, indiceTickers);
+    }
+
+    // Grava o valor na cópia da coluna (copiada na primeira alteração); NaN ou igual: nada muda
+    private ByteBuffer[] comValor(ByteBuffer[] novoMercado, int coluna, int i, double valor) {
+        if (Double.isNaN(valor) || Double.compare(valor, mercado[coluna].getDouble(i * Double.BYTES)) == 0) {
+            return novoMercado;
+        }
+        if (novoMercado == null) {
+            novoMercado = mercado.clone();
+        }
+        if (novoMercado[coluna] == mercado[coluna]) {
+            novoMercado[coluna] = copiar(mercado[coluna]);
+        }
+        novoMercado[coluna].putDouble(i * Double.BYTES, valor);
+        return novoMercado;
+    }
+
+    private static ByteBuffer copiar(ByteBuffer coluna) {
+        ByteBuffer copia = ByteBuffer.allocateDirect(coluna.capacity()).order(ByteOrder.nativeOrder());
+        copia.put(0, coluna, 0, coluna.capacity());
+        return copia;
+    }
+
+    /**
+     * Série do ticker, ou -1 se ele não estiver no bloco. Compara os bytes gravados com o ticker
+     * procurado, sem decodificá-los.
+     */
+    @Override
+    public int indice(String ticker) {
+        int[] tabela = indiceTickers.tabela(this);
+        int mascara = tabela.length - 1;
+        for (int posicao = espalhar(ticker.hashCode()) & mascara; tabela[posicao] != 0;
+                posicao = (posicao + 1) & mascara) {
+            int i = tabela[posicao] - 1;
+            if (tickerIgual(i, ticker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean tickerIgual(int i, String ticker) {
+        int tamanho = ticker.length();
+        if (tamanho > LARGURA_TICKER) {
+            return false;
+        }
+        int base = offTicker + i * LARGURA_TICKER;
+        for (int k = 0; k < tamanho; k++) {
+            if ((dados.get(base + k) & 0xFF) != ticker.charAt(k)) {
+                return false;
+            }
+        }
+        return tamanho == LARGURA_TICKER || dados.get(base + tamanho) == 0;
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Tabela ticker -> série + 1 (0 = posição vazia), com ao menos o dobro de posições que
+     * séries. Montada uma vez por cadeia (na primeira consulta) e compartilhada pelas cópias de
+     * comPrecos, que têm os mesmos tickers nas mesmas posições.
+     */
+    private static final class IndiceTickers {
+
+        private volatile int[] tabela;
+
+        int[] tabela(BlocoColunarOffHeap bloco) {
+            int[] atual = tabela;
+            if (atual == null) {
+                synchronized (this) {
+                    atual = tabela;
+                    if (atual == null) {
+                        atual = montar(bloco);
+                        tabela = atual;
+                    }
+                }
+            }
+            return atual;
+        }
+
+        private static int[] montar(BlocoColunarOffHeap bloco) {
+            int[] tabela = new int[Integer.highestOneBit(Math.max(1, bloco.n) * 2) * 2];
+            int mascara = tabela.length - 1;
+            for (int i = 0; i < bloco.n; i++) {
+                int posicao = espalhar(bloco.ticker(i).hashCode()) & mascara;
+                while (tabela[posicao] != 0) {
+                    posicao = (posicao + 1) & mascara;
+                }
+                tabela[posicao] = i + 1;
+            }
+            return tabela;
+        }
+    }
+
+    // =============================================================================
+    // --- CONSTRUÇÃO ---
+    // =============================================================================
+
+    /**
+     * Acumula as séries de UM ativo (que devem chegar ordenadas por vencimento, tipo e strike,
+     * pois os grupos são os trechos consecutivos de mesmo vencimento e tipo) em arrays
+     * temporários e copia tudo para os buffers diretos em construir(). Só a cadeia do ativo em
+     * carga fica no heap, e apenas durante a carga.
+     */
+    public static final class Construtor {
+
+        private final String idAcao;
+        private int n;
+        private long[] strikes = new long[64];
+        private double[] vols = new double[64];
+        private double[] deltas = new double[64];
+        private double[] gammas = new double[64];
+        private double[] thetas = new double[64];
+        private double[] vegas = new double[64];
+        private int[] vencimentos = new int[64];
+        private int[] diasUteis = new int[64];
+        private int[] precos = new int[64];
+        private byte[] tickers = new byte[64 * LARGURA_TICKER];
+        private byte[] tipos = new byte[64];
+
+        public Construtor(String idAcao) {
+            this.idAcao = idAcao;
+        }
+
+        /**
+         * Adiciona uma série. Retorna false (série ignorada) se faltar algum campo usado no
+         * cálculo, se o tipo não for CALL/PUT ou se o ticker não couber em LARGURA_TICKER.
+         * Gregas/diasUteis ausentes são gravados como NaN/-1.
+         */
+        public boolean adicionar(String ticker, String tipo, LocalDate vencimento, Integer diasUteis,
+                BigDecimal strike, BigDecimal preco, BigDecimal volImplicita, BigDecimal delta,
+                BigDecimal gamma, BigDecimal theta, BigDecimal vega) {
+            byte codigoTipo = CotacaoCompacta.codificarTipo(tipo);
+            if (codigoTipo == CotacaoCompacta.TIPO_INVALIDO || ticker == null || ticker.length() > LARGURA_TICKER
+                    || vencimento == null || strike == null || preco == null) {
+                return false;
+            }
+            if (n == tipos.length) {
+                crescer();
+            }
+            strikes[n] = CotacaoCompacta.paraTicks(strike);
+            precos[n] = Math.toIntExact(CotacaoCompacta.paraTicks(preco));
+            vencimentos[n] = Math.toIntExact(vencimento.toEpochDay());
+            this.diasUteis[n] = diasUteis == null ? -1 : diasUteis;
+            vols[n] = duplo(volImplicita);
+            deltas[n] = duplo(delta);
+            gammas[n] = duplo(gamma);
+            thetas[n] = duplo(theta);
+            vegas[n] = duplo(vega);
+            tipos[n] = codigoTipo;
+            byte[] bytesTicker = ticker.getBytes(StandardCharsets.ISO_8859_1);
+            System.arraycopy(bytesTicker, 0, tickers, n * LARGURA_TICKER, bytesTicker.length);
+            n++;
+            return true;
+        }
+
+        public String getIdAcao() {
+            return idAcao;
+        }
+
+        public int tamanho() {
+            return n;
+        }
+
+        public BlocoColunarOffHeap construir(long versao) {
+            ByteBuffer dados = direto(n * (BYTES_POR_SERIE - Integer.BYTES - COLUNAS_MERCADO * Double.BYTES));
+            ByteBuffer colunaPrecos = direto(n * Integer.BYTES);
+            ByteBuffer[] mercado = new ByteBuffer[COLUNAS_MERCADO];
+            double[][] colunas = { vols, deltas, gammas, thetas, vegas };
+            for (int c = 0; c < COLUNAS_MERCADO; c++) {
+                mercado[c] = direto(n * Double.BYTES);
+                for (int i = 0; i < n; i++) mercado[c].putDouble(colunas[c][i]);
+            }
+            for (int i = 0; i < n; i++) dados.putLong(strikes[i]);
+            for (int[] coluna : new int[][] { vencimentos, diasUteis }) {
+                for (int i = 0; i < n; i++) dados.putInt(coluna[i]);
+            }
+            dados.put(tickers, 0, n * LARGURA_TICKER);
+            dados.put(tipos, 0, n);
+            for (int i = 0; i < n; i++) colunaPrecos.putInt(precos[i]);
+
+            // Tabela de offsets: um grupo por (vencimento, tipo) consecutivo
+            int[] inicios = new int[n + 1];
+            int grupos = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || vencimentos[i] != vencimentos[i - 1] || tipos[i] != tipos[i - 1]) {
+                    inicios[grupos++] = i;
+                }
+            }
+            inicios[grupos] = n;
+
+            return new BlocoColunarOffHeap(idAcao, versao, n, dados, colunaPrecos, mercado,
+                    Arrays.copyOf(inicios, grupos + 1), new IndiceTickers());
+        }
+
+        private static ByteBuffer direto(int bytes) {
+            return ByteBuffer.allocateDirect(Math.max(1, bytes)).order(ByteOrder.nativeOrder());
+        }
+
+        private void crescer() {
+            int capacidade = tipos.length * 2;
+            strikes = Arrays.copyOf(strikes, capacidade);
+            vols = Arrays.copyOf(vols, capacidade);
+            deltas = Arrays.copyOf(deltas, capacidade);
+            gammas = Arrays.copyOf(gammas, capacidade);
+            thetas = Arrays.copyOf(thetas, capacidade);
+            vegas = Arrays.copyOf(vegas, capacidade);
+            vencimentos = Arrays.copyOf(vencimentos, capacidade);
+            diasUteis = Arrays.copyOf(diasUteis, capacidade);
+            precos = Arrays.copyOf(precos, capacidade);
+            tickers = Arrays.copyOf(tickers, capacidade * LARGURA_TICKER);
+            tipos = Arrays.copyOf(tipos, capacidade);
+        }
+
+        private static double duplo(BigDecimal valor) {
+            return valor == null ? Double.NaN : valor.doubleValue();
+        }
+    }
+}
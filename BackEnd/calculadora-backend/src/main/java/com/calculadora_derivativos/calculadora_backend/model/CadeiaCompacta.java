@@ -0,0 +1,130 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+
+/**
+ * Cadeia de um ativo no formato compacto, imutável. As séries ficam em um único array
+ * ordenado por vencimento e tipo (mantendo a ordem de strike da consulta), dividido em grupos
+ * (vencimento, tipo): os otimizadores percorrem cada grupo por índice, sem montar mapas.
+ */
+public final class CadeiaCompacta implements VisaoCadeia {
+
+    private final String idAcao;
+    private final long versao;
+    private final DicionarioCodigos dicionario;
+    private final CotacaoCompacta[] cotacoes;
+    // inicioGrupos[g] .. inicioGrupos[g + 1] (exclusivo) = séries do grupo g
+    private final int[] inicioGrupos;
+
+    private CadeiaCompacta(String idAcao, long versao, DicionarioCodigos dicionario,
+            CotacaoCompacta[] cotacoes, int[] inicioGrupos) {
+        this.idAcao = idAcao;
+        this.versao = versao;
+        this.dicionario = dicionario;
+        this.cotacoes = cotacoes;
+        this.inicioGrupos = inicioGrupos;
+    }
+
+    /**
+     * Compacta a cadeia (na ordem de OptionRepository.findCadeiaByIdAcao). Séries sem strike,
+     * prêmio ou vencimento, ou de tipo desconhecido, são descartadas.
+     */
+    public static CadeiaCompacta compactar(String idAcao, List<OpcaoCadeia> cadeia,
+            DicionarioCodigos dicionario, long versao) {
+        int codigoAcao = dicionario.codificar(idAcao);
+        List<CotacaoCompacta> validas = new ArrayList<>(cadeia.size());
+        for (OpcaoCadeia opcao : cadeia) {
+            CotacaoCompacta cotacao = CotacaoCompacta.de(opcao, codigoAcao, dicionario);
+            if (cotacao != null) {
+                validas.add(cotacao);
+            }
+        }
+
+        CotacaoCompacta[] cotacoes = validas.toArray(CotacaoCompacta[]::new);
+        // Ordenação estável: dentro do grupo a ordem de strike da consulta é preservada
+        Arrays.sort(cotacoes, Comparator.comparingInt(CotacaoCompacta::vencimento)
+                .thenComparingInt(CotacaoCompacta::tipo));
+
+        int[] inicios = new int[cotacoes.length + 1];
+        int grupos = 0;
+        for (int i = 0; i < cotacoes.length; i++) {
+            if (i == 0 || cotacoes[i].vencimento() != cotacoes[i - 1].vencimento()
+                    || cotacoes[i].tipo() != cotacoes[i - 1].tipo()) {
+                inicios[grupos++] = i;
+            }
+        }
+        inicios[grupos] = cotacoes.length;
+
+        return new CadeiaCompacta(idAcao, versao, dicionario, cotacoes, Arrays.copyOf(inicios, grupos + 1));
+    }
+
+    /**
+     * Cópia com prêmios novos, para atualização copy-on-write: o array é clonado (só
+     * referências) e apenas as séries alteradas ganham um CotacaoCompacta novo. Grupos,
+     * dicionário e versão são compartilhados; quem ainda lê a cadeia antiga não é afetado. Sem
+     * nenhuma alteração, devolve a própria instância. Vol e gregas das cotações não são
+     * guardadas aqui: a cadeia em heap não as tem (temGregas() é false) e quem as usa lê do
+     * banco, onde a ingestão as grava.
+     */
+    public CadeiaCompacta comPrecos(Map<String, AtualizacaoSerie> cotacoesPorTicker) {
+        CotacaoCompacta[] novas = null;
+        for (int i = 0; i < cotacoes.length; i++) {
+            CotacaoCompacta cotacao = cotacoes[i];
+            AtualizacaoSerie atualizacao = cotacoesPorTicker.get(dicionario.termo(cotacao.ticker()));
+            if (atualizacao == null || atualizacao.preco() == cotacao.preco()) continue;
+            if (novas == null) {
+                novas = cotacoes.clone();
+            }
+            novas[i] = new CotacaoCompacta(cotacao.ticker(), cotacao.idAcao(), cotacao.tipo(),
+                    cotacao.vencimento(), cotacao.strike(), atualizacao.preco());
+        }
+        return novas == null ? this : new CadeiaCompacta(idAcao, versao, dicionario, novas, inicioGrupos);
+    }
+
+    @Override public String getIdAcao() { return idAcao; }
+    @Override public long getVersao() { return versao; }
+    public DicionarioCodigos getDicionario() { return dicionario; }
+
+    @Override public int tamanho() { return cotacoes.length; }
+    public CotacaoCompacta cotacao(int indice) { return cotacoes[indice]; }
+
+    // Busca linear pelo código do ticker: compara ints, sem decodificar os tickers da cadeia
+    @Override
+    public int indice(String ticker) {
+        int codigo = dicionario.codigo(ticker);
+        if (codigo < 0) {
+            return -1;
+        }
+        for (int i = 0; i < cotacoes.length; i++) {
+            if (cotacoes[i].ticker() == codigo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override public int grupos() { return inicioGrupos.length - 1; }
+    @Override public int inicioGrupo(int grupo) { return inicioGrupos[grupo]; }
+    @Override public int fimGrupo(int grupo) { return inicioGrupos[grupo + 1]; }
+    @Override public byte tipoGrupo(int grupo) { return cotacoes[inicioGrupos[grupo]].tipo(); }
+    @Override public int vencimentoGrupo(int grupo) { return cotacoes[inicioGrupos[grupo]].vencimento(); }
+
+    @Override public long strike(int indice) { return cotacoes[indice].strike(); }
+    @Override public int preco(int indice) { return cotacoes[indice].preco(); }
+
+    @Override
+    public OpcaoCadeia paraOpcaoCadeia(int indice) {
+        return cotacoes[indice].paraOpcaoCadeia(dicionario);
+    }
+
+    @Override
+    public String ticker(int indice) {
+        return dicionario.termo(cotacoes[indice].ticker());
+    }
+}
@@ -0,0 +1,144 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import java.util.Arrays;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+
+/**
+ * Cadeia com prêmios próprios sobre uma VisaoCadeia base: strikes, tickers e grupos vêm da
+ * base e os preços de um int[] mutável (ticks), iniciado com os da base. Usada pelo
+ * otimizador incremental para aplicar cotações novas sem recompactar a cadeia.
+ *
+ * Não é thread-safe: quem altera os preços sincroniza o acesso.
+ */
+public final class CadeiaReprecificada implements VisaoCadeia {
+
+    private final VisaoCadeia base;
+    private final int[] precos;
+
+    public CadeiaReprecificada(VisaoCadeia base) {
+        this.base = base;
+        this.precos = new int[base.tamanho()];
+        for (int i = 0; i < precos.length; i++) {
+            precos[i] = base.preco(i);
+        }
+    }
+
+    private CadeiaReprecificada(VisaoCadeia base, int[] precos) {
+        this.base = base;
+        this.precos = precos;
+    }
+
+    /**
+     * Troca o prêmio da série.
+     * @return true se o preço mudou.
+     */
+    public boolean alterarPreco(int indice, int preco) {
+        if (precos[indice] == preco) {
+            return false;
+        }
+        precos[indice] = preco;
+        return true;
+    }
+
+    // Cópia dos preços atuais, para montar respostas fora do lock de quem altera
+    public CadeiaReprecificada copia() {
+        return new CadeiaReprecificada(base, Arrays.copyOf(precos, precos.length));
+    }
+
+    public VisaoCadeia getBase() {
+        return base;
+    }
+
+    @Override
+    public String getIdAcao() {
+        return base.getIdAcao();
+    }
+
+    @Override
+    public long getVersao() {
+        return base.getVersao();
+    }
+
+    @Override
+    public int tamanho() {
+        return precos.length;
+    }
+
+    @Override
+    public int grupos() {
+        return base.grupos();
+    }
+
+    @Override
+    public int inicioGrupo(int grupo) {
+        return base.inicioGrupo(grupo);
+    }
+
+    @Override
+    public int fimGrupo(int grupo) {
+        return base.fimGrupo(grupo);
+    }
+
+    @Override
+    public byte tipoGrupo(int grupo) {
+        return base.tipoGrupo(grupo);
+    }
+
+    @Override
+    public int vencimentoGrupo(int grupo) {
+        return base.vencimentoGrupo(grupo);
+    }
+
+    @Override
+    public long strike(int indice) {
+        return base.strike(indice);
+    }
+
+    @Override
+    public int preco(int indice) {
+        return precos[indice];
+    }
+
+    @Override
+    public String ticker(int indice) {
+        return base.ticker(indice);
+    }
+
+    @Override
+    public int indice(String ticker) {
+        return base.indice(ticker);
+    }
+
+    @Override
+    public boolean temGregas() {
+        return base.temGregas();
+    }
+
+    @Override
+    public double delta(int indice) {
+        return base.delta(indice);
+    }
+
+    @Override
+    public double gamma(int indice) {
+        return base.gamma(indice);
+    }
+
+    @Override
+    public double volImplicita(int indice) {
+        return base.volImplicita(indice);
+    }
+
+    @Override
+    public int diasUteis(int indice) {
+        return base.diasUteis(indice);
+    }
+
+    @Override
+    public OpcaoCadeia paraOpcaoCadeia(int indice) {
+        OpcaoCadeia opcao = base.paraOpcaoCadeia(indice);
+        return new OpcaoCadeia(opcao.ticker(), opcao.tipo(), opcao.vencimento(), opcao.strike(),
+                CotacaoCompacta.deTicks(precos[indice]));
+    }
+}
@@ -0,0 +1,35 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Data;
+
+/**
+ * Fechamento diário do ativo subjacente (ex: BOVA11).
+ * Usado pelo backtest para liquidar os spreads no vencimento.
+ */
+@Data
+@Entity
+@Table(name = "cotacoes_ativo", uniqueConstraints = @UniqueConstraint(columnNames = {"id_acao", "data"}))
+public class CotacaoAtivo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_acao", nullable = false)
+    private String idAcao;
+
+    @Column(nullable = false)
+    private LocalDate data;
+
+    @Column(nullable = false, precision = 12, scale = 4)
+    private BigDecimal fechamento;
+}
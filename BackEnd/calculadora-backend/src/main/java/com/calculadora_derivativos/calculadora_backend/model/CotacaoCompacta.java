@@ -0,0 +1,95 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+
+/**
+ * Cotação de uma série em formato compacto (flyweight), usada pelos otimizadores no lugar
+ * da entidade Option.
+ *
+ * - Ticker e ativo são códigos do DicionarioCodigos (cada String existe uma única vez);
+ * - tipo é um byte (CALL/PUT);
+ * - vencimento é o epoch-day;
+ * - strike e prêmio são inteiros em ticks de 0,0001 (a mesma escala 4 usada no SpreadService).
+ *
+ * Medido com JOL (CotacaoCompactaTest): 44 bytes por série (40 da cotação + referência no array),
+ * contra ~570 bytes de uma Option carregada do CSV. A conversão de volta para
+ * OpcaoCadeia/Option só acontece na borda da API.
+ */
+public record CotacaoCompacta(
+    int ticker,         // Código do ticker no dicionário
+    int idAcao,         // Código do ativo-objeto no dicionário
+    byte tipo,          // CALL ou PUT
+    int vencimento,     // LocalDate.toEpochDay()
+    long strike,        // Strike em ticks
+    int preco           // Prêmio em ticks
+) {
+
+    public static final byte CALL = 0;
+    public static final byte PUT = 1;
+    public static final byte TIPO_INVALIDO = -1;
+
+    // Casas decimais dos ticks (mesmo SCALE do SpreadService)
+    public static final int ESCALA = 4;
+
+    public static byte codificarTipo(String tipo) {
+        if ("CALL".equalsIgnoreCase(tipo)) return CALL;
+        if ("PUT".equalsIgnoreCase(tipo)) return PUT;
+        return TIPO_INVALIDO;
+    }
+
+    public static String decodificarTipo(byte tipo) {
+        return tipo == CALL ? "CALL" : "PUT";
+    }
+
+    // Mesmo arredondamento (HALF_UP na escala 4) aplicado pelo cálculo em BigDecimal
+    public static long paraTicks(BigDecimal valor) {
+        return valor.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal deTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, ESCALA);
+    }
+
+    /**
+     * Compacta uma série da cadeia. Retorna null se faltar algum campo usado no cálculo
+     * ou se o tipo não for CALL/PUT (a série não pode compor um spread vertical).
+     */
+    public static CotacaoCompacta de(OpcaoCadeia opcao, int idAcao, DicionarioCodigos dicionario) {
+        byte tipo = codificarTipo(opcao.tipo());
+        if (tipo == TIPO_INVALIDO || opcao.ticker() == null || opcao.vencimento() == null
+                || opcao.strike() == null || opcao.preco() == null) {
+            return null;
+        }
+        return new CotacaoCompacta(
+                dicionario.codificar(opcao.ticker()),
+                idAcao,
+                tipo,
+                Math.toIntExact(opcao.vencimento().toEpochDay()),
+                paraTicks(opcao.strike()),
+                Math.toIntExact(paraTicks(opcao.preco())));
+    }
+
+    public LocalDate dataVencimento() {
+        return LocalDate.ofEpochDay(vencimento);
+    }
+
+    public OpcaoCadeia paraOpcaoCadeia(DicionarioCodigos dicionario) {
+        return new OpcaoCadeia(dicionario.termo(ticker), decodificarTipo(tipo), dataVencimento(),
+                deTicks(strike), deTicks(preco));
+    }
+
+    public Option paraOption(DicionarioCodigos dicionario) {
+        Option option = new Option();
+        option.setTicker(dicionario.termo(ticker));
+        option.setIdAcao(dicionario.termo(idAcao));
+        option.setTipo(decodificarTipo(tipo));
+        option.setVencimento(dataVencimento());
+        option.setStrike(deTicks(strike));
+        option.setPreco(deTicks(preco));
+        return option;
+    }
+}
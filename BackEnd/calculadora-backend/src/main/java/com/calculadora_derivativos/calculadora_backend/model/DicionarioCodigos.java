@@ -0,0 +1,58 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário de termos repetidos (tickers, ativos) para o modelo compacto de cotações.
+ * Cada termo distinto é guardado uma única vez e as cotações carregam apenas o código int.
+ * Os códigos são estáveis (nunca reutilizados) e a leitura é segura entre threads.
+ */
+public final class DicionarioCodigos {
+
+    private final ConcurrentHashMap<String, Integer> codigos = new ConcurrentHashMap<>();
+    private volatile String[] termos = new String[256];
+    private int proximo;
+
+    /**
+     * Código do termo, registrando-o na primeira ocorrência.
+     */
+    public int codificar(String termo) {
+        Integer codigo = codigos.get(termo);
+        if (codigo != null) {
+            return codigo;
+        }
+        synchronized (this) {
+            codigo = codigos.get(termo);
+            if (codigo != null) {
+                return codigo;
+            }
+            int novo = proximo++;
+            String[] atual = termos;
+            if (novo == atual.length) {
+                atual = Arrays.copyOf(atual, atual.length * 2);
+            }
+            atual[novo] = termo;
+            // Publica o array antes do código: quem lê o código sempre encontra o termo
+            termos = atual;
+            codigos.put(termo, novo);
+            return novo;
+        }
+    }
+
+    /**
+     * Código do termo, ou -1 se ele nunca foi registrado (não registra).
+     */
+    public int codigo(String termo) {
+        Integer codigo = codigos.get(termo);
+        return codigo == null ? -1 : codigo;
+    }
+
+    public String termo(int codigo) {
+        return termos[codigo];
+    }
+
+    public int tamanho() {
+        return codigos.size();
+    }
+}
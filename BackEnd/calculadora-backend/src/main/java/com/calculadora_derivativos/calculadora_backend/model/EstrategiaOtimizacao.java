@@ -0,0 +1,24 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+/**
+ * Estratégias verticais atendidas pelos otimizadores do SpreadService.
+ * MELHOR compara as quatro e devolve a de maior Relação Risco/Retorno Líquida.
+ */
+public enum EstrategiaOtimizacao {
+
+    BULL_CALL("Bull Call Spread"),   // Call-Alta: Compra CALL K baixo, Venda CALL K alto (Débito)
+    BEAR_PUT("Bear Put Spread"),     // Put-Baixa: Compra PUT K alto, Venda PUT K baixo (Débito)
+    BULL_PUT("Bull Put Spread"),     // Put-Alta: Venda PUT K alto, Compra PUT K baixo (Crédito)
+    BEAR_CALL("Bear Call Spread"),   // Call-Baixa: Venda CALL K baixo, Compra CALL K alto (Crédito)
+    MELHOR("Melhor Estratégia Vertical");
+
+    private final String nome;
+
+    EstrategiaOtimizacao(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+}
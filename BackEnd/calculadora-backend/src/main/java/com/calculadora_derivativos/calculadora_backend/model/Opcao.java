@@ -2,6 +2,8 @@ package com.calculadora_derivativos.calculadora_backend.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
@@ -12,7 +14,10 @@ import java.util.Objects;
 @Table(name = "opcoes_final_tratado") 
 public class Opcao {
 
+    // Mesma coluna auto-increment de Option: o DDL gerado não depende de qual entidade
+    // o Hibernate encontra primeiro na varredura (classes ou jar)
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id; 
 
     // Mapeia a coluna 'idAcao'
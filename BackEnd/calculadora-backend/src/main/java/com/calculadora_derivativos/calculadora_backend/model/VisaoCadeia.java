@@ -0,0 +1,84 @@
+package com.calculadora_derivativos.calculadora_backend.model;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+
+/**
+ * Visão somente leitura da cadeia de um ativo, em colunas primitivas, percorrida pelos
+ * otimizadores por índice. As séries estão ordenadas por vencimento e tipo e divididas em
+ * grupos (vencimento, tipo); dentro do grupo seguem a ordem de strike da origem.
+ *
+ * Implementações: CadeiaCompacta (heap) e BlocoColunarOffHeap (memória direta).
+ */
+public interface VisaoCadeia {
+
+    String getIdAcao();
+
+    // Versão dos dados no momento da carga (ver CacheCadeiasCompactas)
+    long getVersao();
+
+    int tamanho();
+
+    default boolean isEmpty() {
+        return tamanho() == 0;
+    }
+
+    int grupos();
+
+    int inicioGrupo(int grupo);
+
+    // Exclusivo
+    int fimGrupo(int grupo);
+
+    // Grupo que contém a série (busca linear: poucos grupos por ativo)
+    default int grupoDaSerie(int indice) {
+        int grupo = 0;
+        while (fimGrupo(grupo) <= indice) {
+            grupo++;
+        }
+        return grupo;
+    }
+
+    byte tipoGrupo(int grupo);
+
+    // LocalDate.toEpochDay() do vencimento do grupo
+    int vencimentoGrupo(int grupo);
+
+    // Strike da série em ticks de 0,0001 (CotacaoCompacta.ESCALA)
+    long strike(int indice);
+
+    // Prêmio da série em ticks de 0,0001
+    int preco(int indice);
+
+    String ticker(int indice);
+
+    // Série do ticker; -1 se ele não estiver na cadeia
+    int indice(String ticker);
+
+    // Conversão para a borda da API (ex: pernas do spread vencedor)
+    OpcaoCadeia paraOpcaoCadeia(int indice);
+
+    // Gregas, vol e dias úteis disponíveis na própria visão (BlocoColunarOffHeap); sem elas, buscar no banco
+    default boolean temGregas() {
+        return false;
+    }
+
+    // Delta como gravado (a PUT vem em módulo); NaN se ausente
+    default double delta(int indice) {
+        return Double.NaN;
+    }
+
+    // NaN se ausente
+    default double gamma(int indice) {
+        return Double.NaN;
+    }
+
+    // Volatilidade implícita como gravada (% ao dia útil); NaN se ausente
+    default double volImplicita(int indice) {
+        return Double.NaN;
+    }
+
+    // Dias úteis até o vencimento; -1 se ausente
+    default int diasUteis(int indice) {
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.calculadora_derivativos.calculadora_backend.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CotacaoAoVivo;
+
+/**
+ * Gravação (write-through) das cotações ao vivo em 'opcoes_final_tratado', em lotes de UPDATE
+ * (rewriteBatchedStatements=true na URL do MySQL). Feita fora do caminho da ingestão.
+ */
+@Repository
+public class CotacaoAoVivoRepository {
+
+    private static final String SQL_UPDATE =
+            "UPDATE opcoes_final_tratado SET preco = ?, vol_implicita = COALESCE(?, vol_implicita), "
+            + "delta = COALESCE(?, delta), gamma = COALESCE(?, gamma), theta = COALESCE(?, theta), "
+            + "vega = COALESCE(?, vega), data_hora = COALESCE(?, data_hora) WHERE ticker = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoLote;
+
+    public CotacaoAoVivoRepository(JdbcTemplate jdbcTemplate,
+            @Value("${ingestao.lote-gravacao:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Atualiza prêmio, volatilidade, gregas e data/hora das séries. Campos nulos não sobrescrevem
+     * o valor gravado; tickers inexistentes não afetam nenhuma linha.
+     */
+    public void atualizarEmLote(List<CotacaoAoVivo> cotacoes) {
+        if (cotacoes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_UPDATE, cotacoes, tamanhoLote, (ps, c) -> {
+            ps.setBigDecimal(1, c.preco());
+            ps.setBigDecimal(2, c.volImplicita());
+            ps.setBigDecimal(3, c.delta());
+            ps.setBigDecimal(4, c.gamma());
+            ps.setBigDecimal(5, c.theta());
+            ps.setBigDecimal(6, c.vega());
+            if (c.dataHora() != null) {
+                ps.setTimestamp(7, Timestamp.valueOf(c.dataHora()));
+            } else {
+                ps.setNull(7, Types.TIMESTAMP);
+            }
+            ps.setString(8, c.ticker());
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.calculadora_derivativos.calculadora_backend.repository;
+
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoAtivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório JPA dos fechamentos diários do ativo subjacente.
+ */
+public interface CotacaoAtivoRepository extends JpaRepository<CotacaoAtivo, Long> {
+
+    /**
+     * Busca os fechamentos de um ativo em um intervalo de datas (inclusivo), em ordem cronológica.
+     */
+    List<CotacaoAtivo> findByIdAcaoAndDataBetweenOrderByDataAsc(String idAcao, LocalDate inicio, LocalDate fim);
+
+    /**
+     * Fechamento de um ativo em uma data (chave única id_acao + data).
+     */
+    Optional<CotacaoAtivo> findByIdAcaoAndData(String idAcao, LocalDate data);
+}
@@ -0,0 +1,121 @@
+package com.calculadora_derivativos.calculadora_backend.repository;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositório JDBC da tabela particionada 'opcoes_snapshot' (histórico append-only de cotações).
+ * Não é uma entidade JPA: o particionamento exige DDL próprio (db/opcoes_snapshot.sql) e a
+ * ingestão é feita em lotes de INSERT (rewriteBatchedStatements=true na URL do MySQL).
+ */
+@Repository
+public class OpcaoSnapshotRepository {
+
+    private static final String SQL_INSERT =
+            "INSERT IGNORE INTO opcoes_snapshot (data_hora, ticker, id_acao, tipo, vencimento, dias_uteis, "
+            + "strike, preco, vol_implicita, delta, gamma, theta, vega) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoLote;
+
+    public OpcaoSnapshotRepository(JdbcTemplate jdbcTemplate,
+            @Value("${snapshot.lote-insercao:1000}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Insere as cotações em lote. Linhas já existentes para o mesmo (data_hora, ticker) são
+     * ignoradas, então reimportar o mesmo CSV não duplica nem sobrescreve o histórico.
+     * Opções sem algum campo NOT NULL da tabela não são gravadas: um null derrubaria o lote
+     * inteiro no MySQL em modo estrito (ou viraria '' / 0 fora dele).
+     * @return Quantidade de linhas enviadas ao banco.
+     */
+    public int inserirEmLote(List<Option> opcoes) {
+        List<Option> validas = opcoes.stream()
+                .filter(OpcaoSnapshotRepository::completa)
+                .toList();
+        if (validas.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(SQL_INSERT, validas, tamanhoLote, (ps, o) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(o.getDataHora()));
+            ps.setString(2, o.getTicker());
+            ps.setString(3, o.getIdAcao());
+            ps.setString(4, o.getTipo());
+            ps.setDate(5, Date.valueOf(o.getVencimento()));
+            if (o.getDiasUteis() != null) {
+                ps.setInt(6, o.getDiasUteis());
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+            ps.setBigDecimal(7, o.getStrike());
+            ps.setBigDecimal(8, o.getPreco());
+            ps.setBigDecimal(9, o.getVolImplicita());
+            ps.setBigDecimal(10, o.getDelta());
+            ps.setBigDecimal(11, o.getGamma());
+            ps.setBigDecimal(12, o.getTheta());
+            ps.setBigDecimal(13, o.getVega());
+        });
+        return validas.size();
+    }
+
+    // Colunas NOT NULL de db/opcoes_snapshot.sql
+    private static boolean completa(Option o) {
+        return o.getDataHora() != null && o.getTicker() != null && o.getIdAcao() != null && o.getTipo() != null
+                && o.getVencimento() != null && o.getStrike() != null && o.getPreco() != null;
+    }
+
+    /**
+     * Dias (em ordem crescente) com pelo menos uma cotação do ativo no intervalo [inicio, fim].
+     * O filtro por data_hora permite ao MySQL ler apenas as partições do intervalo.
+     */
+    public List<LocalDate> listarDiasComSnapshot(String idAcao, LocalDate inicio, LocalDate fim) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT DATE(data_hora) FROM opcoes_snapshot "
+                + "WHERE id_acao = ? AND data_hora >= ? AND data_hora < ? ORDER BY 1",
+                LocalDate.class,
+                idAcao, Timestamp.valueOf(inicio.atStartOfDay()), Timestamp.valueOf(fim.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Reconstrói a cadeia do ativo como estava no dia: séries ainda não vencidas, com a última
+     * cotação do dia de cada ticker, ordenadas por vencimento, tipo e strike (mesma ordem de
+     * OptionRepository.findCadeiaByIdAcao).
+     */
+    public List<OpcaoCadeia> buscarCadeiaDoDia(String idAcao, LocalDate dia) {
+        List<OpcaoCadeia> cadeia = new ArrayList<>();
+        String[] ultimoTicker = {null};
+
+        jdbcTemplate.query(
+                "SELECT ticker, tipo, vencimento, strike, preco FROM opcoes_snapshot "
+                + "WHERE id_acao = ? AND data_hora >= ? AND data_hora < ? AND vencimento > ? "
+                + "ORDER BY vencimento, tipo, strike, ticker, data_hora",
+                rs -> {
+                    OpcaoCadeia opcao = new OpcaoCadeia(rs.getString(1), rs.getString(2),
+                            rs.getDate(3).toLocalDate(), rs.getBigDecimal(4), rs.getBigDecimal(5));
+                    // Vários snapshots do mesmo ticker no dia: fica o último (data_hora crescente)
+                    if (opcao.ticker().equals(ultimoTicker[0])) {
+                        cadeia.set(cadeia.size() - 1, opcao);
+                    } else {
+                        cadeia.add(opcao);
+                    }
+                    ultimoTicker[0] = opcao.ticker();
+                },
+                idAcao, Timestamp.valueOf(dia.atStartOfDay()), Timestamp.valueOf(dia.plusDays(1).atStartOfDay()),
+                Date.valueOf(dia));
+        return cadeia;
+    }
+}
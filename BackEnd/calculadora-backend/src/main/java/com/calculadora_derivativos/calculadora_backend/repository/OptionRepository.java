@@ -1,20 +1,27 @@
 package com.calculadora_derivativos.calculadora_backend.repository;
 
+import com.calculadora_derivativos.calculadora_backend.dto.GregasSerie;
+import com.calculadora_derivativos.calculadora_backend.dto.VolatilidadeSerie;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
 import com.calculadora_derivativos.calculadora_backend.model.Option;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query; // Importa a anotação de Query
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param; // Importa a anotação de Parâmetro
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface OptionRepository extends JpaRepository<Option, Long> {
-    
+
     /**
      * Busca uma Option pelo ticker.
      */
-    Optional<Option> findByTicker(String ticker); 
-    
+    Optional<Option> findByTicker(String ticker);
+
     /**
      * Busca todas as opções de um ativo (idAcao) com um tipo específico (CALL/PUT).
      * Usado como ponto de partida para a otimização.
@@ -26,7 +33,7 @@ public interface OptionRepository extends JpaRepository<Option, Long> {
      * Essencial para garantir que ambas as pernas do spread estejam no mesmo vencimento.
      */
     List<Option> findByIdAcaoAndVencimentoAndTipo(String idAcao, LocalDate vencimento, String tipo);
-    
+
     /**
      * Busca todos os vencimentos distintos disponíveis para um ativo.
      * Útil para iterar sobre todos os grupos de vencimento possíveis.
@@ -34,4 +41,53 @@ public interface OptionRepository extends JpaRepository<Option, Long> {
      */
     @Query("SELECT DISTINCT o.vencimento FROM Option o WHERE o.idAcao = :idAcao ORDER BY o.vencimento ASC")
     List<LocalDate> findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(@Param("idAcao") String idAcao);
-}
\ No newline at end of file
+
+    /**
+     * Todos os ativos com opções na tabela, para as varreduras do mercado inteiro.
+     */
+    @Query("SELECT DISTINCT o.idAcao FROM Option o WHERE o.idAcao IS NOT NULL ORDER BY o.idAcao ASC")
+    List<String> findDistinctIdAcao();
+
+    /**
+     * Busca a cadeia completa de um ativo (CALLs e PUTs de todos os vencimentos) em uma única consulta.
+     * Projeta direto para o record OpcaoCadeia (sem entidades gerenciadas / dirty-checking),
+     * ordenado por vencimento, tipo e strike para que o otimizador apenas agrupe as linhas.
+     * O fetch size só tem efeito no MySQL com 'useCursorFetch=true' na URL de conexão.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia("
+            + "o.ticker, o.tipo, o.vencimento, o.strike, o.preco) "
+            + "FROM Option o WHERE o.idAcao = :idAcao "
+            + "ORDER BY o.vencimento ASC, o.tipo ASC, o.strike ASC")
+    List<OpcaoCadeia> findCadeiaByIdAcao(@Param("idAcao") String idAcao);
+
+    /**
+     * Delta e gamma de cada série do ativo (varredura de spot sobre cadeias em heap, que não
+     * guardam gregas).
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.calculadora_derivativos.calculadora_backend.dto.GregasSerie(o.ticker, o.delta, o.gamma) "
+            + "FROM Option o WHERE o.idAcao = :idAcao")
+    List<GregasSerie> findGregasByIdAcao(@Param("idAcao") String idAcao);
+
+    /**
+     * Volatilidade implícita e dias úteis de cada série do ativo (calendários e diagonais sobre
+     * cadeias em heap).
+     */
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.calculadora_derivativos.calculadora_backend.dto.VolatilidadeSerie(o.ticker, o.volImplicita, o.diasUteis) "
+            + "FROM Option o WHERE o.idAcao = :idAcao")
+    List<VolatilidadeSerie> findVolatilidadesByIdAcao(@Param("idAcao") String idAcao);
+}
@@ -0,0 +1,103 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PontoCurvaResultado;
+import com.calculadora_derivativos.calculadora_backend.dto.RiscoCarteiraAtivo;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+
+/**
+ * Agregados das posições de um ativo, em inteiros (somas exatas: incluir e retirar a mesma
+ * perna volta ao valor anterior, sem resíduo de ponto flutuante).
+ *
+ * - Gregas, strikes e prêmios em ticks (escala 4 do banco) vezes a quantidade com sinal.
+ * - Curva de resultado no vencimento: R(S) = a + b*S + soma c_K * max(S - K, 0).
+ *   CALL: c_K += q; PUT: max(K - S, 0) = K - S + max(S - K, 0), logo a += q*K, b -= q e
+ *   c_K += q; o prêmio de entrada entra em a. Os coeficientes c ficam em um TreeMap por
+ *   strike: cada perna custa O(log n) e a curva sai em uma passada pelos strikes.
+ *
+ * Cada perna é avaliada pelo valor intrínseco no próprio vencimento (com vencimentos
+ * diferentes, a curva soma os resultados de cada um). Não é thread-safe (CarteiraService
+ * sincroniza por ativo).
+ */
+final class AgregadoCarteira {
+
+    /** Perna resolvida no banco: valores por unidade e quantidade com sinal (+ compra). */
+    record Perna(byte tipo, long strike, long premio, long delta, long gamma, long theta, long vega,
+            long quantidade) {
+    }
+
+    private final String idAcao;
+    private int posicoes;
+    private long delta;
+    private long gamma;
+    private long theta;
+    private long vega;
+    private long premioLiquido;
+    private long constante;
+    private long inclinacao;
+    private final TreeMap<Long, Long> dobras = new TreeMap<>();
+
+    AgregadoCarteira(String idAcao) {
+        this.idAcao = idAcao;
+    }
+
+    int getPosicoes() {
+        return posicoes;
+    }
+
+    void incluir(List<Perna> pernas) {
+        aplicar(pernas, 1);
+        posicoes++;
+    }
+
+    void retirar(List<Perna> pernas) {
+        aplicar(pernas, -1);
+        posicoes--;
+    }
+
+    private void aplicar(List<Perna> pernas, int sinal) {
+        for (Perna perna : pernas) {
+            long q = sinal * perna.quantidade();
+            delta += q * perna.delta();
+            gamma += q * perna.gamma();
+            theta += q * perna.theta();
+            vega += q * perna.vega();
+
+            premioLiquido -= q * perna.premio();
+            constante -= q * perna.premio();
+            if (perna.tipo() == CotacaoCompacta.PUT) {
+                constante += q * perna.strike();
+                inclinacao -= q;
+            }
+            // Coeficiente zerado sai do mapa: a curva só tem vértices onde a inclinação muda
+            dobras.merge(perna.strike(), q, (atual, soma) -> atual + soma == 0 ? null : atual + soma);
+        }
+    }
+
+    RiscoCarteiraAtivo retrato() {
+        List<PontoCurvaResultado> curva = new ArrayList<>(dobras.size() + 1);
+        long anterior = 0;
+        long resultado = constante;
+        long declive = inclinacao;
+        curva.add(new PontoCurvaResultado(CotacaoCompacta.deTicks(0), CotacaoCompacta.deTicks(resultado)));
+        for (Map.Entry<Long, Long> dobra : dobras.entrySet()) {
+            resultado += declive * (dobra.getKey() - anterior);
+            curva.add(new PontoCurvaResultado(CotacaoCompacta.deTicks(dobra.getKey()), CotacaoCompacta.deTicks(resultado)));
+            anterior = dobra.getKey();
+            declive += dobra.getValue();
+        }
+        return new RiscoCarteiraAtivo(idAcao, posicoes,
+                CotacaoCompacta.deTicks(delta),
+                CotacaoCompacta.deTicks(gamma),
+                CotacaoCompacta.deTicks(theta),
+                CotacaoCompacta.deTicks(vega),
+                CotacaoCompacta.deTicks(premioLiquido),
+                curva,
+                BigDecimal.valueOf(declive));
+    }
+}
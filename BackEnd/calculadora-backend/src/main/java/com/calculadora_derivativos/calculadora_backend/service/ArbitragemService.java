@@ -0,0 +1,321 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraArbitragemResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.ViolacaoArbitragem;
+import com.calculadora_derivativos.calculadora_backend.dto.ViolacaoArbitragem.TipoArbitragem;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Varredura de arbitragem sobre as cadeias compactas: paridade put-call em cada strike com
+ * CALL e PUT cotadas no mesmo vencimento, e box spreads entre dois desses strikes.
+ *
+ * Para cada strike K do vencimento, x = C - P + K·fd (fd = fator de desconto até o vencimento).
+ * A paridade exige x = S; um box comprado entre K1 < K2 vale (K2 - K1)·fd, e o desvio do box a
+ * mercado é x1 - x2. Assim a paridade é um teste por strike e o melhor box de cada sentido num
+ * strike sai do máximo (ou mínimo) de x nos strikes abaixo dele: um único passe linear sobre os
+ * grupos de CALL e PUT, já ordenados por strike na cadeia, casando os strikes como num merge.
+ *
+ * Lucro líquido = |desvio| - taxas operacionais por perna (3 na paridade, contando o ativo à
+ * vista; 4 no box). Só são reportadas violações com lucro líquido positivo.
+ */
+@Service
+public class ArbitragemService {
+
+    private static final int PERNAS_PARIDADE = 3;
+    private static final int PERNAS_BOX = 4;
+    private static final double TICKS_POR_REAL = 10_000d;
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final OptionRepository optionRepository;
+    private final BigDecimal taxaJurosPadrao;
+
+    public ArbitragemService(CacheCadeiasCompactas cacheCadeias, OptionRepository optionRepository,
+            @Value("${arbitragem.taxa-juros-anual:0.1075}") BigDecimal taxaJurosPadrao) {
+        this.cacheCadeias = cacheCadeias;
+        this.optionRepository = optionRepository;
+        this.taxaJurosPadrao = taxaJurosPadrao;
+    }
+
+    /**
+     * Varre todos os ativos da tabela. Sem cotação informada, cada vencimento usa o spot
+     * implícito na própria cadeia.
+     */
+    public VarreduraArbitragemResponse varrerMercado(LocalDate vencimento, BigDecimal taxasOperacionais,
+            BigDecimal taxaJurosAnual, LocalDate dataReferencia) {
+        return varrer(optionRepository.findDistinctIdAcao(), vencimento, null, taxasOperacionais, taxaJurosAnual,
+                dataReferencia);
+    }
+
+    /**
+     * @param vencimento        Só este vencimento (nulo = todos os não vencidos).
+     * @param cotacaoAtualAtivo Spot da paridade (nulo = implícito na cadeia de cada vencimento).
+     * @param taxasOperacionais Taxas por perna, descontadas do desvio.
+     * @param taxaJurosAnual    Fração ao ano (nulo = arbitragem.taxa-juros-anual).
+     * @param dataReferencia    Data do cálculo do prazo (nulo = hoje).
+     */
+    public VarreduraArbitragemResponse varrerAtivo(String idAcao, LocalDate vencimento, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais, BigDecimal taxaJurosAnual, LocalDate dataReferencia) {
+        return varrer(List.of(idAcao), vencimento, cotacaoAtualAtivo, taxasOperacionais, taxaJurosAnual,
+                dataReferencia);
+    }
+
+    private VarreduraArbitragemResponse varrer(List<String> ativos, LocalDate vencimento, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais, BigDecimal taxaJurosAnual, LocalDate dataReferencia) {
+        if (taxasOperacionais == null || taxasOperacionais.signum() < 0) {
+            throw new IllegalArgumentException("taxasOperacionais deve ser informada e não negativa.");
+        }
+        BigDecimal taxaJuros = taxaJurosAnual != null ? taxaJurosAnual : taxaJurosPadrao;
+        if (taxaJuros.compareTo(BigDecimal.ONE.negate()) <= 0) {
+            throw new IllegalArgumentException("taxaJurosAnual deve ser maior que -1.");
+        }
+        long inicio = System.nanoTime();
+
+        Varredura varredura = new Varredura(
+                Math.log1p(taxaJuros.doubleValue()),
+                taxasOperacionais.doubleValue(),
+                cotacaoAtualAtivo != null ? cotacaoAtualAtivo.doubleValue() : Double.NaN,
+                vencimento != null ? vencimento.toEpochDay() : Long.MIN_VALUE,
+                (dataReferencia != null ? dataReferencia : LocalDate.now()).toEpochDay());
+        for (String idAcao : ativos) {
+            varredura.varrerCadeia(idAcao, cacheCadeias.obter(idAcao));
+        }
+
+        List<ViolacaoArbitragem> violacoes = varredura.violacoes;
+        violacoes.sort(Comparator.comparing(ViolacaoArbitragem::lucroLiquidoTotal).reversed());
+        String mensagem = violacoes.isEmpty()
+                ? "Nenhuma violação de paridade ou box com lucro líquido positivo."
+                : violacoes.size() + " violação(ões) com lucro líquido positivo.";
+        return new VarreduraArbitragemResponse(mensagem, taxaJuros, ativos.size(), varredura.vencimentos,
+                varredura.strikesCasados, (System.nanoTime() - inicio) / 1_000_000, violacoes);
+    }
+
+    /**
+     * Estado de uma varredura: parâmetros, buffers dos strikes casados (reaproveitados entre
+     * vencimentos) e violações encontradas.
+     */
+    private static final class Varredura {
+
+        private final double logJuros;
+        private final double taxas;
+        private final double spot;
+        private final long vencimentoFiltro;
+        private final long referencia;
+
+        private int[] calls = new int[0];
+        private int[] puts = new int[0];
+        private double[] x = new double[0];
+        private double[] ordenados = new double[0];
+
+        private final List<ViolacaoArbitragem> violacoes = new ArrayList<>();
+        private int vencimentos;
+        private int strikesCasados;
+
+        Varredura(double logJuros, double taxas, double spot, long vencimentoFiltro, long referencia) {
+            this.logJuros = logJuros;
+            this.taxas = taxas;
+            this.spot = spot;
+            this.vencimentoFiltro = vencimentoFiltro;
+            this.referencia = referencia;
+        }
+
+        void varrerCadeia(String idAcao, VisaoCadeia cadeia) {
+            // Grupos ordenados por vencimento e tipo: a PUT de um vencimento vem logo após a CALL
+            for (int grupo = 0; grupo + 1 < cadeia.grupos(); grupo++) {
+                if (cadeia.tipoGrupo(grupo) != CotacaoCompacta.CALL
+                        || cadeia.tipoGrupo(grupo + 1) != CotacaoCompacta.PUT
+                        || cadeia.vencimentoGrupo(grupo) != cadeia.vencimentoGrupo(grupo + 1)) {
+                    continue;
+                }
+                long vencimento = cadeia.vencimentoGrupo(grupo);
+                long diasCorridos = vencimento - referencia;
+                if (diasCorridos < 0) continue;
+                if (vencimentoFiltro != Long.MIN_VALUE && vencimento != vencimentoFiltro) continue;
+
+                varrerVencimento(idAcao, cadeia, grupo, grupo + 1, diasCorridos);
+                grupo++;
+            }
+        }
+
+        private void varrerVencimento(String idAcao, VisaoCadeia cadeia, int grupoCall, int grupoPut,
+                long diasCorridos) {
+            int inicioCall = cadeia.inicioGrupo(grupoCall);
+            int fimCall = cadeia.fimGrupo(grupoCall);
+            int inicioPut = cadeia.inicioGrupo(grupoPut);
+            int fimPut = cadeia.fimGrupo(grupoPut);
+            garantirCapacidade(Math.min(fimCall - inicioCall, fimPut - inicioPut));
+
+            int diasUteis = cadeia.temGregas() ? cadeia.diasUteis(inicioCall) : -1;
+            double prazoAnos = diasUteis >= 0 ? diasUteis / 252d : diasCorridos / 365d;
+            double desconto = Math.exp(-logJuros * prazoAnos);
+
+            // Merge dos dois grupos ordenados por strike; séries sem preço ficam de fora
+            int casados = 0;
+            int i = inicioCall;
+            int j = inicioPut;
+            while (i < fimCall && j < fimPut) {
+                long strikeCall = cadeia.strike(i);
+                long strikePut = cadeia.strike(j);
+                if (strikeCall < strikePut) {
+                    i++;
+                } else if (strikeCall > strikePut) {
+                    j++;
+                } else {
+                    if (cadeia.preco(i) > 0 && cadeia.preco(j) > 0) {
+                        calls[casados] = i;
+                        puts[casados] = j;
+                        x[casados] = (cadeia.preco(i) - cadeia.preco(j) + strikeCall * desconto) / TICKS_POR_REAL;
+                        casados++;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            if (casados == 0) return;
+            vencimentos++;
+            strikesCasados += casados;
+
+            double referenciaSpot = Double.isNaN(spot) ? mediana(casados) : spot;
+            LocalDate vencimento = LocalDate.ofEpochDay(cadeia.vencimentoGrupo(grupoCall));
+            Vencimento contexto = new Vencimento(idAcao, cadeia, vencimento, desconto, referenciaSpot);
+
+            // Melhor box vendido em k: max(x[a], a < k) - x[k]; melhor comprado: x[k] - min(x[a], a < k)
+            int indiceMaximo = -1;
+            int indiceMinimo = -1;
+            double melhorVendido = 0;
+            int vendidoBaixo = -1;
+            int vendidoAlto = -1;
+            double melhorComprado = 0;
+            int compradoBaixo = -1;
+            int compradoAlto = -1;
+            for (int k = 0; k < casados; k++) {
+                double desvio = x[k] - referenciaSpot;
+                if (Math.abs(desvio) - PERNAS_PARIDADE * taxas > 0) {
+                    violacoes.add(contexto.paridade(calls[k], puts[k], desvio, taxas));
+                }
+
+                if (k > 0) {
+                    double vendido = x[indiceMaximo] - x[k];
+                    if (vendido > melhorVendido) {
+                        melhorVendido = vendido;
+                        vendidoBaixo = indiceMaximo;
+                        vendidoAlto = k;
+                    }
+                    double comprado = x[k] - x[indiceMinimo];
+                    if (comprado > melhorComprado) {
+                        melhorComprado = comprado;
+                        compradoBaixo = indiceMinimo;
+                        compradoAlto = k;
+                    }
+                }
+                if (indiceMaximo < 0 || x[k] > x[indiceMaximo]) indiceMaximo = k;
+                if (indiceMinimo < 0 || x[k] < x[indiceMinimo]) indiceMinimo = k;
+            }
+
+            if (melhorVendido - PERNAS_BOX * taxas > 0) {
+                violacoes.add(contexto.box(TipoArbitragem.BOX_VENDIDO, calls[vendidoBaixo], puts[vendidoBaixo],
+                        calls[vendidoAlto], puts[vendidoAlto], melhorVendido, taxas));
+            }
+            if (melhorComprado - PERNAS_BOX * taxas > 0) {
+                violacoes.add(contexto.box(TipoArbitragem.BOX_COMPRADO, calls[compradoBaixo], puts[compradoBaixo],
+                        calls[compradoAlto], puts[compradoAlto], -melhorComprado, taxas));
+            }
+        }
+
+        // Spot implícito: mediana de x, robusta às poucas séries desatualizadas que se quer achar
+        private double mediana(int casados) {
+            System.arraycopy(x, 0, ordenados, 0, casados);
+            Arrays.sort(ordenados, 0, casados);
+            int meio = casados / 2;
+            return casados % 2 == 1 ? ordenados[meio] : (ordenados[meio - 1] + ordenados[meio]) / 2;
+        }
+
+        private void garantirCapacidade(int capacidade) {
+            if (calls.length >= capacidade) return;
+            calls = new int[capacidade];
+            puts = new int[capacidade];
+            x = new double[capacidade];
+            ordenados = new double[capacidade];
+        }
+    }
+
+    /**
+     * Monta as violações de um vencimento. Desvios em reais por ação; positivo = mercado acima
+     * do valor teórico.
+     */
+    private record Vencimento(String idAcao, VisaoCadeia cadeia, LocalDate vencimento, double desconto,
+            double spot) {
+
+        ViolacaoArbitragem paridade(int call, int put, double desvio, double taxas) {
+            boolean conversao = desvio > 0;
+            long strike = cadeia.strike(call);
+            double valorMercado = (cadeia.preco(call) - cadeia.preco(put)) / TICKS_POR_REAL;
+            List<PernaSpread> pernas = List.of(
+                    perna(call, !conversao),
+                    perna(put, conversao),
+                    new PernaSpread(idAcao, SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS, conversao ? "COMPRA" : "VENDA"));
+            return violacao(conversao ? TipoArbitragem.CONVERSAO : TipoArbitragem.REVERSAO, List.of(strike), pernas,
+                    valorMercado, spot - strike * desconto / TICKS_POR_REAL, desvio, PERNAS_PARIDADE * taxas);
+        }
+
+        /**
+         * Box entre o strike baixo e o alto; vendido = vende a CALL baixa e a PUT alta, compra a
+         * CALL alta e a PUT baixa (comprado é o inverso).
+         */
+        ViolacaoArbitragem box(TipoArbitragem tipo, int callBaixa, int putBaixa, int callAlta, int putAlta,
+                double desvio, double taxas) {
+            boolean comprado = tipo == TipoArbitragem.BOX_COMPRADO;
+            long strikeBaixo = cadeia.strike(callBaixa);
+            long strikeAlto = cadeia.strike(callAlta);
+            double valorMercado = (cadeia.preco(callBaixa) - cadeia.preco(putBaixa)
+                    - cadeia.preco(callAlta) + cadeia.preco(putAlta)) / TICKS_POR_REAL;
+            List<PernaSpread> pernas = List.of(
+                    perna(callBaixa, comprado),
+                    perna(callAlta, !comprado),
+                    perna(putBaixa, !comprado),
+                    perna(putAlta, comprado));
+            return violacao(tipo, List.of(strikeBaixo, strikeAlto), pernas, valorMercado,
+                    (strikeAlto - strikeBaixo) * desconto / TICKS_POR_REAL, desvio, PERNAS_BOX * taxas);
+        }
+
+        private PernaSpread perna(int indice, boolean compra) {
+            return new PernaSpread(cadeia.ticker(indice), SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS,
+                    compra ? "COMPRA" : "VENDA");
+        }
+
+        private ViolacaoArbitragem violacao(TipoArbitragem tipo, List<Long> strikes, List<PernaSpread> pernas,
+                double valorMercado, double valorTeorico, double desvio, double custo) {
+            double lucroUnitario = Math.abs(desvio) - custo;
+            return new ViolacaoArbitragem(
+                    tipo,
+                    idAcao,
+                    vencimento,
+                    strikes.stream().map(CotacaoCompacta::deTicks).toList(),
+                    pernas,
+                    valor(spot),
+                    valor(valorMercado),
+                    valor(valorTeorico),
+                    valor(desvio),
+                    valor(lucroUnitario),
+                    BigDecimal.valueOf(lucroUnitario * SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS)
+                            .setScale(2, RoundingMode.HALF_UP));
+        }
+
+        private static BigDecimal valor(double valor) {
+            return BigDecimal.valueOf(valor).setScale(CotacaoCompacta.ESCALA, RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.model.BlocoColunarOffHeap;
+
+/**
+ * Universo de opções (todos os ativos) residente fora do heap: um BlocoColunarOffHeap por
+ * ativo, montado a partir de uma varredura única e ordenada de 'opcoes_final_tratado'.
+ *
+ * O heap guarda só o mapa ativo -> bloco e as tabelas de offsets; as séries e gregas ficam em
+ * memória direta (limitada por -XX:MaxDirectMemorySize). Uma recarga monta os blocos novos e
+ * troca o mapa de uma vez; os blocos antigos são liberados quando o GC coleta seus buffers.
+ */
+@Component
+public class ArmazemColunarOffHeap {
+
+    private static final String SQL_UNIVERSO =
+            "SELECT id_acao, ticker, tipo, vencimento, dias_uteis, strike, preco, "
+            + "vol_implicita, delta, gamma, theta, vega FROM opcoes_final_tratado";
+    private static final String ORDEM = " ORDER BY id_acao, vencimento, tipo, strike";
+
+    // Resumo exposto em GET /universo
+    public record ResumoUniverso(boolean habilitado, int ativos, long series, long bytesOffHeap, long versao) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean habilitado;
+    private volatile Map<String, BlocoColunarOffHeap> blocos;
+    private volatile long versao;
+
+    public ArmazemColunarOffHeap(JdbcTemplate jdbcTemplate,
+            @Value("${universo.off-heap.habilitado:false}") boolean habilitado) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    // Já houve a carga completa (antes dela os otimizadores usam a cadeia em heap)
+    public boolean isCarregado() {
+        return blocos != null;
+    }
+
+    public BlocoColunarOffHeap obter(String idAcao) {
+        Map<String, BlocoColunarOffHeap> atual = blocos;
+        return atual == null ? null : atual.get(idAcao);
+    }
+
+    /**
+     * Recarrega o universo inteiro em uma varredura (ordenada por ativo, vencimento, tipo e strike).
+     */
+    public synchronized void carregarTudo(long novaVersao) {
+        long inicio = System.currentTimeMillis();
+        Map<String, BlocoColunarOffHeap> novos = new HashMap<>();
+        BlocoColunarOffHeap.Construtor[] emCarga = { null };
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_UNIVERSO + ORDEM);
+            // MySQL só faz streaming com useCursorFetch=true + fetchSize (ver application.properties)
+            ps.setFetchSize(1000);
+            return ps;
+        }, rs -> {
+            String idAcao = rs.getString("id_acao");
+            if (idAcao == null) {
+                return;
+            }
+            if (emCarga[0] == null || !emCarga[0].getIdAcao().equals(idAcao)) {
+                fechar(emCarga[0], novos, novaVersao);
+                emCarga[0] = new BlocoColunarOffHeap.Construtor(idAcao);
+            }
+            adicionar(emCarga[0], rs);
+        });
+        fechar(emCarga[0], novos, novaVersao);
+
+        blocos = Map.copyOf(novos);
+        versao = novaVersao;
+        ResumoUniverso resumo = resumo();
+        System.out.println("Universo off-heap carregado: " + resumo.ativos() + " ativos, " + resumo.series()
+                + " séries, " + resumo.bytesOffHeap() / 1024 + " KiB em " + (System.currentTimeMillis() - inicio) + " ms.");
+    }
+
+    /**
+     * Recarrega apenas um ativo (ex: após ingestão de novas cotações dele).
+     */
+    public synchronized void carregarAtivo(String idAcao, long novaVersao) {
+        if (blocos == null) {
+            return;
+        }
+        BlocoColunarOffHeap.Construtor construtor = new BlocoColunarOffHeap.Construtor(idAcao);
+        jdbcTemplate.query(SQL_UNIVERSO + " WHERE id_acao = ?" + ORDEM,
+                rs -> { adicionar(construtor, rs); }, idAcao);
+
+        Map<String, BlocoColunarOffHeap> novos = new HashMap<>(blocos);
+        novos.remove(idAcao);
+        fechar(construtor, novos, novaVersao);
+        blocos = Map.copyOf(novos);
+        versao = novaVersao;
+    }
+
+    public ResumoUniverso resumo() {
+        Map<String, BlocoColunarOffHeap> atual = blocos;
+        if (atual == null) {
+            return new ResumoUniverso(habilitado, 0, 0, 0, versao);
+        }
+        long series = 0;
+        long bytes = 0;
+        for (BlocoColunarOffHeap bloco : atual.values()) {
+            series += bloco.tamanho();
+            bytes += bloco.bytesOffHeap();
+        }
+        return new ResumoUniverso(habilitado, atual.size(), series, bytes, versao);
+    }
+
+    private static void adicionar(BlocoColunarOffHeap.Construtor construtor, ResultSet rs) throws SQLException {
+        Date vencimento = rs.getDate("vencimento");
+        Integer diasUteis = rs.getInt("dias_uteis");
+        if (rs.wasNull()) {
+            diasUteis = null;
+        }
+        construtor.adicionar(
+                rs.getString("ticker"),
+                rs.getString("tipo"),
+                vencimento == null ? null : vencimento.toLocalDate(),
+                diasUteis,
+                rs.getBigDecimal("strike"),
+                rs.getBigDecimal("preco"),
+                rs.getBigDecimal("vol_implicita"),
+                rs.getBigDecimal("delta"),
+                rs.getBigDecimal("gamma"),
+                rs.getBigDecimal("theta"),
+                rs.getBigDecimal("vega"));
+    }
+
+    private static void fechar(BlocoColunarOffHeap.Construtor construtor, Map<String, BlocoColunarOffHeap> destino,
+            long versao) {
+        if (construtor != null && construtor.tamanho() > 0) {
+            destino.put(construtor.getIdAcao(), construtor.construir(versao));
+        }
+    }
+}
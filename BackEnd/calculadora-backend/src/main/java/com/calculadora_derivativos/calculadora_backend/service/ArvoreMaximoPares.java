@@ -0,0 +1,92 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Árvore de segmentos (máximo) sobre as n x n combinações (primeira, segunda) de um grupo
+ * (vencimento, tipo) para uma vertical. A folha primeira * n + segunda guarda a R/R em
+ * centésimos do par, ou Long.MIN_VALUE se o par não vale para a vertical.
+ *
+ * Cada nó interno guarda a folha vencedora da sua faixa: maior R/R e, no empate, menor
+ * índice, que é a ordem linha a linha da busca completa (SpreadService.percorrerPares).
+ * Alterar uma folha custa O(log n); reavaliar os 2n pares de uma série, O(n log n).
+ */
+final class ArvoreMaximoPares {
+
+    private final int n;
+    private final int capacidade;      // potência de 2 >= n * n
+    private final long[] valores;      // por folha
+    private final int[] vencedores;    // por nó interno (1 .. capacidade - 1)
+
+    ArvoreMaximoPares(int n) {
+        this.n = n;
+        this.capacidade = Integer.highestOneBit(Math.max(1, n * n - 1)) << 1;
+        this.valores = new long[capacidade];
+        this.vencedores = new int[capacidade];
+        Arrays.fill(valores, Long.MIN_VALUE);
+    }
+
+    int getN() {
+        return n;
+    }
+
+    // Memória dos arrays: 12 bytes por folha (long do valor + int do vencedor)
+    long bytes() {
+        return (long) capacidade * (Long.BYTES + Integer.BYTES);
+    }
+
+    // Carga inicial: só a folha, sem propagar (chamar construir() depois)
+    void definirSemPropagar(int primeira, int segunda, long relacao) {
+        valores[primeira * n + segunda] = relacao;
+    }
+
+    void construir() {
+        for (int no = capacidade - 1; no >= 1; no--) {
+            vencedores[no] = vencedor(filho(2 * no), filho(2 * no + 1));
+        }
+    }
+
+    void definir(int primeira, int segunda, long relacao) {
+        int folha = primeira * n + segunda;
+        if (valores[folha] == relacao) {
+            return;
+        }
+        valores[folha] = relacao;
+        for (int no = (capacidade + folha) >> 1; no >= 1; no >>= 1) {
+            int novo = vencedor(filho(2 * no), filho(2 * no + 1));
+            if (vencedores[no] == novo && novo != folha) {
+                break;    // o vencedor da faixa não mudou e não é a folha alterada
+            }
+            vencedores[no] = novo;
+        }
+    }
+
+    // Folha vencedora da faixa do nó (nós >= capacidade são folhas)
+    int filho(int no) {
+        return no >= capacidade ? no - capacidade : vencedores[no];
+    }
+
+    boolean isFolha(int no) {
+        return no >= capacidade;
+    }
+
+    int raiz() {
+        return filho(1);
+    }
+
+    long valor(int folha) {
+        return valores[folha];
+    }
+
+    int primeira(int folha) {
+        return folha / n;
+    }
+
+    int segunda(int folha) {
+        return folha % n;
+    }
+
+    private int vencedor(int a, int b) {
+        return valores[b] > valores[a] ? b : a;
+    }
+}
@@ -0,0 +1,75 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS;
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.TAXAS_TOTAIS_OPERACAO;
+
+/**
+ * Métricas de um spread vertical de 2 pernas calculadas em inteiros, a partir dos ticks de
+ * CotacaoCompacta (escala 4). Reproduz exatamente as fórmulas e arredondamentos do
+ * SpreadService (lucro/risco líquidos em centavos, R/R com 6 casas HALF_EVEN exibido com
+ * 2 casas HALF_UP), para que os otimizadores ranqueiem os candidatos sem BigDecimal e só
+ * montem o SpreadResponse do vencedor.
+ *
+ * Com QUANTIDADE_CONTRATOS = 100, um tick (0,0001) por contrato vale exatamente 1 centavo
+ * no total da operação.
+ */
+public final class AvaliadorVerticalTicks {
+
+    // Taxas totais da operação em centavos (TAXAS_TOTAIS_OPERACAO = 44.00)
+    static final long TAXAS_CENTAVOS = TAXAS_TOTAIS_OPERACAO.movePointRight(2).longValueExact();
+
+    static {
+        if (QUANTIDADE_CONTRATOS != 100) {
+            throw new IllegalStateException("AvaliadorVerticalTicks assume QUANTIDADE_CONTRATOS = 100");
+        }
+    }
+
+    private AvaliadorVerticalTicks() {
+    }
+
+    /**
+     * Prêmio líquido unitário em ticks: positivo = crédito, negativo = débito.
+     */
+    public static long premioLiquido(long precoPrimeira, boolean primeiraComprada, long precoSegunda) {
+        return primeiraComprada ? precoSegunda - precoPrimeira : precoPrimeira - precoSegunda;
+    }
+
+    public static long lucroMaximoCentavos(long premioLiquido, long larguraStrikes) {
+        return premioLiquido >= 0
+                ? premioLiquido - TAXAS_CENTAVOS
+                : larguraStrikes + premioLiquido - TAXAS_CENTAVOS;
+    }
+
+    public static long riscoMaximoCentavos(long premioLiquido, long larguraStrikes) {
+        return premioLiquido >= 0
+                ? larguraStrikes - premioLiquido + TAXAS_CENTAVOS
+                : -premioLiquido + TAXAS_CENTAVOS;
+    }
+
+    /**
+     * Relação Risco/Retorno em centésimos (ex: 576 = 5.76), idêntica a
+     * relacaoRiscoRetornoLiquida do SpreadResponse. Risco não positivo resulta em 0.
+     */
+    public static long relacaoRiscoRetornoCentesimos(long lucroCentavos, long riscoCentavos) {
+        if (riscoCentavos <= 0) {
+            return 0;
+        }
+        // 1) Divisão com 6 casas, HALF_EVEN (SpreadFinanceiroUtils.arredondar)
+        long numerador = Math.multiplyExact(lucroCentavos, 1_000_000L);
+        long quociente = Math.floorDiv(numerador, riscoCentavos);
+        long resto2 = 2 * (numerador - quociente * riscoCentavos);
+        if (resto2 > riscoCentavos || (resto2 == riscoCentavos && (quociente & 1) != 0)) {
+            quociente++;
+        }
+        // 2) Exibição com 2 casas, HALF_UP (afasta do zero no empate)
+        return quociente >= 0 ? (quociente + 5_000) / 10_000 : -((-quociente + 5_000) / 10_000);
+    }
+
+    /**
+     * R/R em centésimos do vertical com o prêmio líquido e a largura de strikes (ambos em ticks).
+     */
+    public static long avaliar(long premioLiquido, long larguraStrikes) {
+        return relacaoRiscoRetornoCentesimos(lucroMaximoCentavos(premioLiquido, larguraStrikes),
+                riscoMaximoCentavos(premioLiquido, larguraStrikes));
+    }
+}
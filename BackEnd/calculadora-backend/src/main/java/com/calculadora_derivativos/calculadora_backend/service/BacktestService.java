@@ -0,0 +1,251 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.calculadora_derivativos.calculadora_backend.dto.FechamentoAtivo;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.ResultadoDiaBacktest;
+import com.calculadora_derivativos.calculadora_backend.dto.ResumoBacktest;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoAtivo;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.CotacaoAtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OpcaoSnapshotRepository;
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.arredondarParaMoeda;
+
+/**
+ * Backtest dos otimizadores: reexecuta a otimização sobre cada dia de snapshot histórico
+ * (opcoes_snapshot) e liquida o spread escolhido no vencimento com o fechamento do ativo.
+ *
+ * Os dias são independentes e avaliados em paralelo (backtestExecutor), mas os resultados são
+ * entregues em ordem cronológica e no máximo 'backtest.janela' dias ficam em memória ao mesmo
+ * tempo, então backtests de vários anos rodam com memória limitada.
+ */
+@Service
+public class BacktestService {
+
+    public static final String LIQUIDADO = "LIQUIDADO";
+    public static final String EM_ABERTO = "EM_ABERTO";
+    public static final String SEM_SPREAD = "SEM_SPREAD";
+    public static final String SEM_COTACAO = "SEM_COTACAO";
+
+    private final OpcaoSnapshotRepository snapshotRepository;
+    private final CotacaoAtivoRepository cotacaoAtivoRepository;
+    private final CalculadoraSpreadService spreadService;
+    private final ExecutorService executor;
+    private final int janela;
+    private final int horizonteVencimentoDias;
+
+    public BacktestService(OpcaoSnapshotRepository snapshotRepository,
+            CotacaoAtivoRepository cotacaoAtivoRepository,
+            CalculadoraSpreadService spreadService,
+            @Qualifier("backtestExecutor") ExecutorService executor,
+            @Value("${backtest.janela:32}") int janela,
+            @Value("${backtest.horizonte-vencimento-dias:730}") int horizonteVencimentoDias) {
+        this.snapshotRepository = snapshotRepository;
+        this.cotacaoAtivoRepository = cotacaoAtivoRepository;
+        this.spreadService = spreadService;
+        this.executor = executor;
+        this.janela = Math.max(1, janela);
+        this.horizonteVencimentoDias = horizonteVencimentoDias;
+    }
+
+    /**
+     * Executa o backtest, entregando cada dia (em ordem) ao consumidor 'saida'.
+     * @return Resumo com P&L acumulado, taxa de acerto e drawdown máximo.
+     */
+    public ResumoBacktest executar(String idAcao, LocalDate inicio, LocalDate fim, EstrategiaOtimizacao estrategia,
+            BigDecimal taxasOperacionais, Consumer<ResultadoDiaBacktest> saida) {
+
+        // Fechamentos do ativo: do início até o vencimento mais distante que uma entrada pode ter
+        NavigableMap<LocalDate, BigDecimal> fechamentos = new TreeMap<>();
+        for (CotacaoAtivo cotacao : cotacaoAtivoRepository.findByIdAcaoAndDataBetweenOrderByDataAsc(
+                idAcao, inicio, fim.plusDays(horizonteVencimentoDias))) {
+            fechamentos.put(cotacao.getData(), cotacao.getFechamento());
+        }
+
+        List<LocalDate> dias = snapshotRepository.listarDiasComSnapshot(idAcao, inicio, fim);
+        Acumulador acumulador = new Acumulador();
+        Deque<Future<ResultadoDiaBacktest>> pendentes = new ArrayDeque<>();
+        Iterator<LocalDate> proximosDias = dias.iterator();
+
+        try {
+            while (proximosDias.hasNext() || !pendentes.isEmpty()) {
+                // Mantém até 'janela' dias em processamento à frente do que já foi entregue
+                while (proximosDias.hasNext() && pendentes.size() < janela) {
+                    LocalDate dia = proximosDias.next();
+                    pendentes.add(executor.submit(
+                            () -> avaliarDia(idAcao, dia, estrategia, taxasOperacionais, fechamentos)));
+                }
+                saida.accept(acumulador.acumular(aguardar(pendentes.poll())));
+            }
+        } finally {
+            // Cliente desconectou ou houve erro: não deixa dias órfãos ocupando o pool
+            pendentes.forEach(f -> f.cancel(true));
+        }
+
+        return acumulador.resumo(idAcao, estrategia, inicio, fim);
+    }
+
+    /**
+     * Grava os fechamentos do ativo subjacente: cria o (ativo, data) que não existe e atualiza o
+     * fechamento do que já existe. Ids nunca vêm do cliente.
+     * @return Quantidade de fechamentos gravados.
+     * @throws IllegalArgumentException Se algum fechamento vier incompleto ou não positivo.
+     */
+    @Transactional
+    public int registrarFechamentos(List<FechamentoAtivo> fechamentos) {
+        for (FechamentoAtivo fechamento : fechamentos) {
+            if (fechamento == null || fechamento.idAcao() == null || fechamento.idAcao().isBlank()
+                    || fechamento.data() == null || fechamento.fechamento() == null
+                    || fechamento.fechamento().signum() <= 0) {
+                throw new IllegalArgumentException("Cada fechamento deve ter idAcao, data e fechamento positivo: "
+                        + fechamento);
+            }
+        }
+
+        List<CotacaoAtivo> cotacoes = new ArrayList<>(fechamentos.size());
+        for (FechamentoAtivo fechamento : fechamentos) {
+            CotacaoAtivo cotacao = cotacaoAtivoRepository.findByIdAcaoAndData(fechamento.idAcao(), fechamento.data())
+                    .orElseGet(CotacaoAtivo::new);
+            cotacao.setIdAcao(fechamento.idAcao());
+            cotacao.setData(fechamento.data());
+            cotacao.setFechamento(fechamento.fechamento());
+            cotacoes.add(cotacao);
+        }
+        return cotacaoAtivoRepository.saveAll(cotacoes).size();
+    }
+
+    private ResultadoDiaBacktest aguardar(Future<ResultadoDiaBacktest> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backtest interrompido.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao avaliar dia do backtest: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    // --- AVALIAÇÃO DE UM DIA (roda no pool, sem estado compartilhado) ---
+    private ResultadoDiaBacktest avaliarDia(String idAcao, LocalDate dia, EstrategiaOtimizacao estrategia,
+            BigDecimal taxasOperacionais, NavigableMap<LocalDate, BigDecimal> fechamentos) {
+
+        Map.Entry<LocalDate, BigDecimal> entrada = fechamentos.floorEntry(dia);
+        if (entrada == null) {
+            return new ResultadoDiaBacktest(dia, SEM_COTACAO, null, null, List.of(), null, null, null, null, null, null);
+        }
+        BigDecimal cotacaoEntrada = entrada.getValue();
+
+        List<OpcaoCadeia> cadeia = snapshotRepository.buscarCadeiaDoDia(idAcao, dia);
+        SpreadResponse escolhido = spreadService.otimizar(estrategia, idAcao, cotacaoEntrada, taxasOperacionais, cadeia);
+
+        List<PernaSpread> pernas = escolhido.getPernasExecutadas();
+        if (pernas == null || pernas.isEmpty() || escolhido.getVencimento() == null) {
+            return new ResultadoDiaBacktest(dia, SEM_SPREAD, null, null, List.of(), cotacaoEntrada, null, null, null,
+                    null, null);
+        }
+
+        Map<String, OpcaoCadeia> porTicker = new HashMap<>();
+        for (OpcaoCadeia opcao : cadeia) {
+            porTicker.put(opcao.ticker(), opcao);
+        }
+        String nomeEstrategia = classificar(pernas, porTicker);
+        LocalDate vencimento = escolhido.getVencimento();
+
+        // Só liquida se já existe fechamento no (ou após o) vencimento; senão a operação segue aberta
+        if (fechamentos.ceilingKey(vencimento) == null) {
+            return new ResultadoDiaBacktest(dia, EM_ABERTO, nomeEstrategia, vencimento, pernas, cotacaoEntrada,
+                    escolhido.getCustoLiquido(), null, null, null, null);
+        }
+        BigDecimal cotacaoVencimento = fechamentos.floorEntry(vencimento).getValue();
+
+        BigDecimal resultado = escolhido.getCustoLiquido();
+        for (PernaSpread perna : pernas) {
+            OpcaoCadeia opcao = porTicker.get(perna.ticker());
+            BigDecimal payoff = "CALL".equalsIgnoreCase(opcao.tipo())
+                    ? cotacaoVencimento.subtract(opcao.strike()).max(BigDecimal.ZERO)
+                    : opcao.strike().subtract(cotacaoVencimento).max(BigDecimal.ZERO);
+            payoff = payoff.multiply(BigDecimal.valueOf(perna.quantidade()));
+            resultado = "VENDA".equalsIgnoreCase(perna.operacao()) ? resultado.subtract(payoff) : resultado.add(payoff);
+        }
+
+        return new ResultadoDiaBacktest(dia, LIQUIDADO, nomeEstrategia, vencimento, pernas, cotacaoEntrada,
+                escolhido.getCustoLiquido(), cotacaoVencimento, arredondarParaMoeda(resultado), null, null);
+    }
+
+    /**
+     * Identifica a vertical pelas pernas (útil para MELHOR, cuja resposta não traz a estratégia escolhida).
+     */
+    private static String classificar(List<PernaSpread> pernas, Map<String, OpcaoCadeia> porTicker) {
+        PernaSpread pernaKBaixo = pernas.get(0);
+        for (PernaSpread perna : pernas) {
+            if (porTicker.get(perna.ticker()).strike().compareTo(porTicker.get(pernaKBaixo.ticker()).strike()) < 0) {
+                pernaKBaixo = perna;
+            }
+        }
+        boolean call = "CALL".equalsIgnoreCase(porTicker.get(pernaKBaixo.ticker()).tipo());
+        boolean compraKBaixo = "COMPRA".equalsIgnoreCase(pernaKBaixo.operacao());
+
+        EstrategiaOtimizacao estrategia = call
+                ? (compraKBaixo ? EstrategiaOtimizacao.BULL_CALL : EstrategiaOtimizacao.BEAR_CALL)
+                : (compraKBaixo ? EstrategiaOtimizacao.BULL_PUT : EstrategiaOtimizacao.BEAR_PUT);
+        return estrategia.getNome();
+    }
+
+    // --- ACUMULADOS (consumidos em ordem, na thread do chamador) ---
+    private static final class Acumulador {
+        private long diasProcessados;
+        private long liquidadas;
+        private long vencedoras;
+        private BigDecimal acumulado = BigDecimal.ZERO.setScale(2);
+        private BigDecimal pico = BigDecimal.ZERO.setScale(2);
+        private BigDecimal drawdownMaximo = BigDecimal.ZERO.setScale(2);
+
+        ResultadoDiaBacktest acumular(ResultadoDiaBacktest dia) {
+            diasProcessados++;
+            if (dia.resultado() != null) {
+                liquidadas++;
+                if (dia.resultado().signum() > 0) {
+                    vencedoras++;
+                }
+                acumulado = acumulado.add(dia.resultado());
+                pico = pico.max(acumulado);
+                drawdownMaximo = drawdownMaximo.max(pico.subtract(acumulado));
+            }
+            return new ResultadoDiaBacktest(dia.data(), dia.status(), dia.estrategia(), dia.vencimento(), dia.pernas(),
+                    dia.cotacaoEntrada(), dia.custoLiquido(), dia.cotacaoVencimento(), dia.resultado(),
+                    acumulado, pico.subtract(acumulado));
+        }
+
+        ResumoBacktest resumo(String idAcao, EstrategiaOtimizacao estrategia, LocalDate inicio, LocalDate fim) {
+            BigDecimal taxaAcerto = liquidadas > 0
+                    ? BigDecimal.valueOf(vencedoras).divide(BigDecimal.valueOf(liquidadas), 4, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            return new ResumoBacktest(idAcao, estrategia.getNome(), inicio, fim, diasProcessados, liquidadas,
+                    vencedoras, taxaAcerto, acumulado, drawdownMaximo);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+/**
+ * Black-Scholes sem juros (o prazo entre vencimentos das cadeias é de semanas a poucos
+ * meses), com a volatilidade já multiplicada pela raiz do prazo. Preços na unidade do spot e
+ * do strike (ticks, nos otimizadores).
+ */
+final class BlackScholes {
+
+    private BlackScholes() {
+    }
+
+    static double preco(boolean call, double spot, double strike, double sigmaRaizPrazo) {
+        if (sigmaRaizPrazo <= 0 || spot <= 0) {
+            return call ? Math.max(0, spot - strike) : Math.max(0, strike - spot);
+        }
+        double d1 = (Math.log(spot / strike) + sigmaRaizPrazo * sigmaRaizPrazo / 2) / sigmaRaizPrazo;
+        double d2 = d1 - sigmaRaizPrazo;
+        return call
+                ? spot * normal(d1) - strike * normal(d2)
+                : strike * normal(-d2) - spot * normal(-d1);
+    }
+
+    // Distribuição normal acumulada (erfc de Numerical Recipes, erro relativo < 1.2e-7)
+    static double normal(double x) {
+        double z = Math.abs(x) / Math.sqrt(2);
+        double t = 1 / (1 + 0.5 * z);
+        double erfc = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                        + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? 1 - erfc / 2 : erfc / 2;
+    }
+}
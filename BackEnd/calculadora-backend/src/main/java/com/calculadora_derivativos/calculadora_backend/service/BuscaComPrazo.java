@@ -0,0 +1,146 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CoberturaBusca;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+
+/**
+ * Busca das verticais com prazo (deadlineMs): visita primeiro os pares mais promissores e
+ * para, cooperativamente, quando o prazo acaba, com o melhor par de cada vertical encontrado
+ * até ali.
+ *
+ * Ordem: em cada grupo (vencimento, tipo) os strikes são ordenados pela distância ao spot. A
+ * camada r junta o r-ésimo strike mais próximo com os r anteriores (nos dois sentidos), e cada
+ * camada percorre os grupos do vencimento mais próximo ao mais distante. Ao fim da camada r,
+ * todos os pares entre os r+1 strikes mais próximos do spot de cada vencimento foram avaliados.
+ * O prazo é conferido antes de cada (camada, grupo); a primeira camada é sempre avaliada, para
+ * que haja resposta mesmo com o prazo esgotado na fila.
+ *
+ * O desempate entre R/R iguais segue a ordem da busca completa (índices crescentes), então uma
+ * busca que termina antes do prazo devolve o mesmo par que o SpreadService sem prazo.
+ */
+final class BuscaComPrazo {
+
+    private final VisaoCadeia cadeia;
+    private final Vertical[] verticais;
+    private final long prazoNanos;
+
+    // Grupos com séries de alguma das verticais: índices das séries por distância ao spot
+    private final int[][] ordens;
+    private final byte[] tipos;
+    private final long paresTotais;
+
+    // Melhor par de cada vertical (posição em 'estrategias'); -1 = nenhum
+    private final int[] melhorPrimeira;
+    private final int[] melhorSegunda;
+    private final long[] melhorRelacao;
+
+    private long paresAvaliados;
+    private int camadasCompletas;
+    private boolean parcial;
+
+    BuscaComPrazo(VisaoCadeia cadeia, List<EstrategiaOtimizacao> estrategias, long spotTicks, long prazoNanos) {
+        this.cadeia = cadeia;
+        this.prazoNanos = prazoNanos;
+        this.verticais = estrategias.stream().map(Vertical::de).toArray(Vertical[]::new);
+        this.melhorPrimeira = new int[verticais.length];
+        this.melhorSegunda = new int[verticais.length];
+        this.melhorRelacao = new long[verticais.length];
+        Arrays.fill(melhorPrimeira, -1);
+        Arrays.fill(melhorSegunda, -1);
+
+        List<int[]> ordensGrupos = new ArrayList<>();
+        List<Byte> tiposGrupos = new ArrayList<>();
+        long totais = 0;
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            int inicio = cadeia.inicioGrupo(grupo);
+            int fim = cadeia.fimGrupo(grupo);
+            byte tipo = cadeia.tipoGrupo(grupo);
+            if (fim - inicio < 2 || Arrays.stream(verticais).noneMatch(v -> v.tipo() == tipo)) continue;
+
+            ordensGrupos.add(IntStream.range(inicio, fim).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> Math.abs(cadeia.strike(i) - spotTicks))
+                            .thenComparingInt(i -> i))
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+            tiposGrupos.add(tipo);
+            totais += (long) (fim - inicio) * (fim - inicio - 1);
+        }
+        this.ordens = ordensGrupos.toArray(int[][]::new);
+        this.tipos = new byte[tiposGrupos.size()];
+        for (int g = 0; g < tipos.length; g++) {
+            tipos[g] = tiposGrupos.get(g);
+        }
+        this.paresTotais = totais;
+    }
+
+    void executar() {
+        int maiorGrupo = Arrays.stream(ordens).mapToInt(ordem -> ordem.length).max().orElse(0);
+        for (int camada = 1; camada < maiorGrupo; camada++) {
+            for (int g = 0; g < ordens.length; g++) {
+                int[] ordem = ordens[g];
+                if (camada >= ordem.length) continue;
+                if (camada > 1 && System.nanoTime() - prazoNanos >= 0) {
+                    parcial = true;
+                    return;
+                }
+
+                int nova = ordem[camada];
+                for (int k = 0; k < camada; k++) {
+                    avaliar(tipos[g], nova, ordem[k]);
+                    avaliar(tipos[g], ordem[k], nova);
+                }
+                paresAvaliados += 2L * camada;
+            }
+            camadasCompletas = camada;
+        }
+    }
+
+    private void avaliar(byte tipo, int primeira, int segunda) {
+        for (int v = 0; v < verticais.length; v++) {
+            Vertical vertical = verticais[v];
+            if (vertical.tipo() != tipo) continue;
+
+            long relacao = vertical.avaliar(cadeia.strike(primeira), cadeia.preco(primeira), cadeia.strike(segunda),
+                    cadeia.preco(segunda));
+            // Como na busca completa: só R/R positiva, e no empate o par que ela veria primeiro
+            if (relacao <= 0) continue;
+            if (relacao > melhorRelacao[v] || (relacao == melhorRelacao[v] && (primeira < melhorPrimeira[v]
+                    || (primeira == melhorPrimeira[v] && segunda < melhorSegunda[v])))) {
+                melhorRelacao[v] = relacao;
+                melhorPrimeira[v] = primeira;
+                melhorSegunda[v] = segunda;
+            }
+        }
+    }
+
+    long getParesAvaliados() {
+        return paresAvaliados;
+    }
+
+    boolean isParcial() {
+        return parcial;
+    }
+
+    // Índice da primeira perna do melhor par da vertical, ou -1
+    int primeira(int vertical) {
+        return melhorPrimeira[vertical];
+    }
+
+    int segunda(int vertical) {
+        return melhorSegunda[vertical];
+    }
+
+    CoberturaBusca cobertura(long inicioNanos) {
+        double percentual = paresTotais == 0 ? 100.0 : Math.round(paresAvaliados * 1000.0 / paresTotais) / 10.0;
+        int strikesCobertos = ordens.length == 0 ? 0 : camadasCompletas + 1;
+        return new CoberturaBusca(parcial, paresAvaliados, paresTotais, percentual, strikesCobertos,
+                (System.nanoTime() - inicioNanos) / 1_000_000);
+    }
+}
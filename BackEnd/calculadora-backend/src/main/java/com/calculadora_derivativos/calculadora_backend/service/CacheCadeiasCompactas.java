@@ -0,0 +1,185 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.model.BlocoColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.model.CadeiaCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.DicionarioCodigos;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Ponto único de acesso às cadeias usadas pelos otimizadores.
+ *
+ * - Com 'universo.off-heap.habilitado=true', o universo inteiro é carregado fora do heap
+ *   (ArmazemColunarOffHeap) quando a aplicação fica pronta, e as cadeias vêm de lá;
+ * - Caso contrário (ou para um ativo ausente do universo), a cadeia compacta em heap de cada
+ *   ativo é carregada do banco na primeira otimização e mantida até a próxima invalidação.
+ * Todas as cadeias em heap guardadas aqui compartilham o mesmo dicionário de tickers/ativos.
+ *
+ * Cotações ao vivo (aplicarPrecos) trocam a cadeia do ativo por uma cópia com os prêmios novos
+ * (copy-on-write): leitores em andamento continuam com a cadeia anterior e os seguintes recebem
+ * a nova. Um ativo do universo off-heap continua off-heap: a cópia é um bloco que compartilha
+ * as colunas inalteradas e só duplica as de prêmio, vol e gregas que mudaram. A cópia fica guardada aqui até a
+ * próxima invalidação.
+ *
+ * A versão é incrementada a cada invalidação, então quem guarda resultados derivados de uma
+ * cadeia pode detectar que eles ficaram velhos comparando VisaoCadeia.getVersao(). Cotações ao
+ * vivo não mudam essa versão (a estrutura da cadeia é a mesma), mas incrementam a versão de
+ * preços do ativo (getVersaoPrecos): quem reaproveita resultados entre requisições (ex: a
+ * coalescência de OtimizacaoCoalescidaService) deve considerar as duas.
+ */
+@Component
+public class CacheCadeiasCompactas {
+
+    private final OptionRepository optionRepository;
+    private final ArmazemColunarOffHeap armazem;
+    private final DicionarioCodigos dicionario = new DicionarioCodigos();
+    // Cadeias em heap carregadas do banco e cadeias (em heap ou off-heap) com cotações ao vivo
+    private final ConcurrentHashMap<String, VisaoCadeia> cadeias = new ConcurrentHashMap<>();
+    private final AtomicLong versao = new AtomicLong();
+    // Por ativo, incrementada a cada aplicarPrecos que muda a cadeia; nunca volta (não é zerada na invalidação)
+    private final ConcurrentHashMap<String, AtomicLong> versoesPrecos = new ConcurrentHashMap<>();
+    // Versão da última invalidarTodos: quem guarda estado por ativo sabe que deve descartá-lo todo
+    private volatile long versaoInvalidacaoTotal;
+
+    @Autowired
+    public CacheCadeiasCompactas(OptionRepository optionRepository, ArmazemColunarOffHeap armazem) {
+        this.optionRepository = optionRepository;
+        this.armazem = armazem;
+    }
+
+    // Somente cadeias em heap (sem universo off-heap)
+    public CacheCadeiasCompactas(OptionRepository optionRepository) {
+        this(optionRepository, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarUniverso() {
+        // A carga em segundo plano (DataLoader) pode ter terminado antes e já carregado o universo
+        if (offHeapHabilitado() && !armazem.isCarregado()) {
+            armazem.carregarTudo(versao.incrementAndGet());
+        }
+    }
+
+    /**
+     * Cadeia do ativo: do universo off-heap, se carregado, ou a compacta em heap (carregada do
+     * banco na primeira chamada ou após invalidar).
+     */
+    public VisaoCadeia obter(String idAcao) {
+        // Cadeia em heap já carregada ou com cotações ao vivo tem precedência
+        VisaoCadeia guardada = cadeias.get(idAcao);
+        if (guardada != null) {
+            return guardada;
+        }
+        if (offHeapHabilitado()) {
+            BlocoColunarOffHeap bloco = armazem.obter(idAcao);
+            if (bloco != null) {
+                return bloco;
+            }
+        }
+        return cadeias.computeIfAbsent(idAcao,
+                id -> CadeiaCompacta.compactar(id, optionRepository.findCadeiaByIdAcao(id), dicionario, versao.get()));
+    }
+
+    /**
+     * Compacta uma cadeia fornecida pelo chamador (ex: snapshot histórico) sem guardá-la. Usa um
+     * dicionário próprio, descartado com a cadeia: tickers históricos (backtests de anos) não
+     * entram no dicionário compartilhado, que só cresce.
+     */
+    public CadeiaCompacta compactar(String idAcao, List<OpcaoCadeia> cadeia) {
+        return CadeiaCompacta.compactar(idAcao, cadeia, new DicionarioCodigos(), versao.get());
+    }
+
+    /**
+     * Aplica cotações ao vivo (ticker -> prêmio em ticks, vol e gregas) à cadeia do ativo, em
+     * copy-on-write. Vol e gregas só ficam em memória no bloco off-heap; a cadeia em heap guarda
+     * o prêmio e as demais vêm do banco. A versão não muda: é a mesma cadeia, com preços mais
+     * novos. Tickers fora da cadeia são ignorados; um ativo sem séries não é guardado. Se algo
+     * mudou, a versão de preços do ativo é incrementada depois da troca: quem a lê já com o valor
+     * novo recebe a cadeia nova em obter().
+     * @return A cadeia em vigor após a troca (vazia se o ativo não tiver séries).
+     */
+    public VisaoCadeia aplicarPrecos(String idAcao, Map<String, AtualizacaoSerie> cotacoes) {
+        VisaoCadeia[] anterior = new VisaoCadeia[1];
+        VisaoCadeia nova = cadeias.compute(idAcao, (id, atual) -> {
+            VisaoCadeia base = atual != null ? atual : carregarBase(id);
+            anterior[0] = base;
+            return base.isEmpty() ? atual : comPrecos(base, cotacoes);
+        });
+        if (nova == null) {
+            return anterior[0];
+        }
+        if (nova != anterior[0]) {
+            versoesPrecos.computeIfAbsent(idAcao, id -> new AtomicLong()).incrementAndGet();
+        }
+        return nova;
+    }
+
+    // Cadeia sobre a qual aplicar a primeira cotação: o bloco off-heap, se houver, ou lida do banco
+    private VisaoCadeia carregarBase(String idAcao) {
+        BlocoColunarOffHeap bloco = offHeapHabilitado() ? armazem.obter(idAcao) : null;
+        if (bloco != null) {
+            return bloco;
+        }
+        return CadeiaCompacta.compactar(idAcao, optionRepository.findCadeiaByIdAcao(idAcao), dicionario,
+                versao.get());
+    }
+
+    private static VisaoCadeia comPrecos(VisaoCadeia cadeia, Map<String, AtualizacaoSerie> cotacoes) {
+        if (cadeia instanceof BlocoColunarOffHeap bloco) {
+            return bloco.comPrecos(cotacoes);
+        }
+        return ((CadeiaCompacta) cadeia).comPrecos(cotacoes);
+    }
+
+    public void invalidar(String idAcao) {
+        long nova = versao.incrementAndGet();
+        cadeias.remove(idAcao);
+        if (offHeapHabilitado() && armazem.isCarregado()) {
+            armazem.carregarAtivo(idAcao, nova);
+        }
+    }
+
+    public void invalidarTodos() {
+        long nova = versao.incrementAndGet();
+        versaoInvalidacaoTotal = nova;
+        cadeias.clear();
+        // Mesmo antes do evento de pronto: a carga em segundo plano (DataLoader) pode terminar
+        // enquanto ele lê a tabela ainda vazia (carregarTudo é sincronizado, esta recarga vem depois)
+        if (offHeapHabilitado()) {
+            armazem.carregarTudo(nova);
+        }
+    }
+
+    public long getVersao() {
+        return versao.get();
+    }
+
+    public long getVersaoPrecos(String idAcao) {
+        AtomicLong versaoPrecos = versoesPrecos.get(idAcao);
+        return versaoPrecos == null ? 0 : versaoPrecos.get();
+    }
+
+    public long getVersaoInvalidacaoTotal() {
+        return versaoInvalidacaoTotal;
+    }
+
+    public DicionarioCodigos getDicionario() {
+        return dicionario;
+    }
+
+    private boolean offHeapHabilitado() {
+        return armazem != null && armazem.isHabilitado();
+    }
+}
@@ -1,8 +1,12 @@
 package com.calculadora_derivativos.calculadora_backend.service;
 
 import java.math.BigDecimal;
+import java.util.List;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadRequest;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
 
 /**
  * Interface que define os métodos de cálculo e otimização de spreads.
@@ -47,4 +51,26 @@ public interface CalculadoraSpreadService {
      */
     SpreadResponse otimizarMelhorEstrategia(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
             BigDecimal taxasOperacionais);
-}
\ No newline at end of file
+
+    /**
+     * Retorna os K melhores spreads (maior Relação Risco/Retorno Líquida primeiro) da
+     * estratégia; MELHOR considera as 4 verticais.
+     */
+    List<SpreadResponse> otimizarTopK(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, int k);
+
+    /**
+     * Otimiza a estratégia (MELHOR = as 4 verticais) até o instante prazoNanos
+     * (System.nanoTime()); esgotado o prazo, retorna o melhor spread encontrado até ali, com a
+     * cobertura da busca (SpreadResponse.cobertura).
+     */
+    SpreadResponse otimizarComPrazo(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, long prazoNanos);
+
+    /**
+     * Executa a otimização sobre uma cadeia já carregada (ex: snapshot histórico no backtest),
+     * sem consultar o banco.
+     */
+    SpreadResponse otimizar(EstrategiaOtimizacao estrategia, String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais, List<OpcaoCadeia> cadeia);
+}
@@ -0,0 +1,233 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import static com.calculadora_derivativos.calculadora_backend.service.AvaliadorVerticalTicks.TAXAS_CENTAVOS;
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Otimização de calendários (mesmo strike) e diagonais (strikes diferentes): venda da série do
+ * vencimento curto e compra da série do mesmo tipo em um vencimento mais longo, por débito.
+ *
+ * O resultado é medido no vencimento curto: a perna curta vale o intrínseco e a longa é
+ * reprecificada por Black-Scholes (ReprecificadorCalendario) com a sua volatilidade implícita
+ * e os dias úteis que restam entre os dois vencimentos. Lucro e risco máximos são o maior e o
+ * menor P&L sobre a grade de spots, junto com os limites analíticos para spot -> 0 e
+ * spot -> infinito; as taxas entram como nas verticais, e vence a maior R/R.
+ *
+ * Cada par de vencimentos (curto, longo) é avaliado em paralelo (calendarioExecutor); os
+ * vencedores são comparados na ordem dos pares, então o resultado não depende do paralelismo.
+ * Séries sem volatilidade ou dias úteis ficam de fora.
+ */
+@Service
+public class CalendarioSpreadService {
+
+    public static final String CALENDARIO = "Calendar Spread";
+    public static final String DIAGONAL = "Diagonal Spread";
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final OptionRepository optionRepository;
+    private final ReprecificadorCalendario reprecificador;
+    private final ExecutorService executor;
+
+    public CalendarioSpreadService(CacheCadeiasCompactas cacheCadeias, OptionRepository optionRepository,
+            ReprecificadorCalendario reprecificador,
+            @Qualifier("calendarioExecutor") ExecutorService executor) {
+        this.cacheCadeias = cacheCadeias;
+        this.optionRepository = optionRepository;
+        this.reprecificador = reprecificador;
+        this.executor = executor;
+    }
+
+    // Melhor par (curta, longa) de um par de vencimentos; lucro/perda brutos em ticks
+    private record Candidato(int curta, int longa, long relacao, long lucroBruto, long perdaBruta) {
+    }
+
+    public SpreadResponse otimizarCalendario(String idAcao, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais) {
+        return otimizar(false, idAcao, cotacaoAtualAtivo, taxasOperacionais);
+    }
+
+    public SpreadResponse otimizarDiagonal(String idAcao, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais) {
+        return otimizar(true, idAcao, cotacaoAtualAtivo, taxasOperacionais);
+    }
+
+    private SpreadResponse otimizar(boolean diagonal, String idAcao, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        String nome = diagonal ? DIAGONAL : CALENDARIO;
+        if (cotacaoAtualAtivo == null || taxasOperacionais == null || cotacaoAtualAtivo.signum() <= 0) {
+            return SpreadService.createErrorResponse("ERRO: Informe cotação atual do ativo e taxas.", nome);
+        }
+        VisaoCadeia cadeia = cacheCadeias.obter(idAcao);
+        if (cadeia.isEmpty()) {
+            return SpreadService.createErrorResponse(
+                    "ERRO: Nenhuma data de vencimento encontrada para o ativo " + idAcao, nome);
+        }
+
+        VolatilidadesCadeia vols = VolatilidadesCadeia.carregar(cadeia, optionRepository);
+        long cotacao = CotacaoCompacta.paraTicks(cotacaoAtualAtivo);
+
+        // Pares de grupos do mesmo tipo com o segundo vencendo depois do primeiro
+        List<int[]> pares = new ArrayList<>();
+        for (int curto = 0; curto < cadeia.grupos(); curto++) {
+            for (int longo = 0; longo < cadeia.grupos(); longo++) {
+                if (cadeia.tipoGrupo(curto) == cadeia.tipoGrupo(longo)
+                        && cadeia.vencimentoGrupo(longo) > cadeia.vencimentoGrupo(curto)) {
+                    pares.add(new int[] { curto, longo });
+                }
+            }
+        }
+
+        List<Future<Candidato>> futuros = new ArrayList<>(pares.size());
+        try {
+            for (int[] par : pares) {
+                futuros.add(executor.submit(() -> melhorDoPar(cadeia, vols, par[0], par[1], diagonal, cotacao)));
+            }
+            Candidato melhor = null;
+            for (Future<Candidato> futuro : futuros) {
+                Candidato candidato = aguardar(futuro);
+                if (candidato != null && (melhor == null || candidato.relacao() > melhor.relacao())) {
+                    melhor = candidato;
+                }
+            }
+            if (melhor == null) {
+                return SpreadService.createErrorResponse("Nenhuma combinação de " + nome + " válida encontrada.", nome);
+            }
+            return montarResposta(nome, cadeia, vols, melhor, cotacao);
+        } finally {
+            futuros.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Candidato melhorDoPar(VisaoCadeia cadeia, VolatilidadesCadeia vols, int grupoCurto, int grupoLongo,
+            boolean diagonal, long cotacao) {
+        boolean call = cadeia.tipoGrupo(grupoCurto) == CotacaoCompacta.CALL;
+        LocalDate dataCurta = LocalDate.ofEpochDay(cadeia.vencimentoGrupo(grupoCurto));
+        double[] spots = ReprecificadorCalendario.grade(cotacao);
+        Candidato melhor = null;
+
+        for (int curta = cadeia.inicioGrupo(grupoCurto); curta < cadeia.fimGrupo(grupoCurto); curta++) {
+            if (vols.diasUteis()[curta] < 0) continue;
+            long strikeCurta = cadeia.strike(curta);
+
+            for (int longa = cadeia.inicioGrupo(grupoLongo); longa < cadeia.fimGrupo(grupoLongo); longa++) {
+                long strikeLonga = cadeia.strike(longa);
+                if ((strikeLonga != strikeCurta) != diagonal) continue;
+                long debito = (long) cadeia.preco(longa) - cadeia.preco(curta);
+                int diasRestantes = vols.diasUteis()[longa] - vols.diasUteis()[curta];
+                double vol = vols.vols()[longa];
+                if (debito <= 0 || diasRestantes <= 0 || Double.isNaN(vol) || vol <= 0) continue;
+
+                double[] valoresLonga = reprecificador.valores(cadeia.ticker(longa), dataCurta, call, strikeLonga,
+                        vol / 100 * Math.sqrt(diasRestantes), cotacao);
+                double[] extremos = extremos(call, strikeCurta, strikeLonga, debito, spots, valoresLonga);
+                long lucroBruto = Math.round(extremos[1]);
+                long perdaBruta = Math.round(-extremos[0]);
+                long relacao = AvaliadorVerticalTicks.relacaoRiscoRetornoCentesimos(lucroBruto - TAXAS_CENTAVOS,
+                        perdaBruta + TAXAS_CENTAVOS);
+                if (relacao > 0 && (melhor == null || relacao > melhor.relacao())) {
+                    melhor = new Candidato(curta, longa, relacao, lucroBruto, perdaBruta);
+                }
+            }
+        }
+        return melhor;
+    }
+
+    /** {menor, maior} P&L unitário (ticks) no vencimento curto, com os limites nas pontas. */
+    private static double[] extremos(boolean call, long strikeCurta, long strikeLonga, long debito, double[] spots,
+            double[] valoresLonga) {
+        // Spot -> 0 e spot -> infinito: a longa tende ao intrínseco
+        double pontaBaixa = call ? -debito : strikeLonga - strikeCurta - debito;
+        double pontaAlta = call ? strikeCurta - strikeLonga - debito : -debito;
+        double menor = Math.min(pontaBaixa, pontaAlta);
+        double maior = Math.max(pontaBaixa, pontaAlta);
+        for (int k = 0; k < spots.length; k++) {
+            double pnl = pnl(call, strikeCurta, debito, spots[k], valoresLonga[k]);
+            menor = Math.min(menor, pnl);
+            maior = Math.max(maior, pnl);
+        }
+        return new double[] { menor, maior };
+    }
+
+    private static double pnl(boolean call, long strikeCurta, long debito, double spot, double valorLonga) {
+        double intrinsecoCurta = call ? Math.max(0, spot - strikeCurta) : Math.max(0, strikeCurta - spot);
+        return valorLonga - intrinsecoCurta - debito;
+    }
+
+    private SpreadResponse montarResposta(String nome, VisaoCadeia cadeia, VolatilidadesCadeia vols, Candidato melhor,
+            long cotacao) {
+        int curta = melhor.curta();
+        int longa = melhor.longa();
+        boolean call = cadeia.tipoGrupo(cadeia.grupoDaSerie(curta)) == CotacaoCompacta.CALL;
+        LocalDate vencimentoCurto = LocalDate.ofEpochDay(cadeia.vencimentoGrupo(cadeia.grupoDaSerie(curta)));
+        LocalDate vencimentoLongo = LocalDate.ofEpochDay(cadeia.vencimentoGrupo(cadeia.grupoDaSerie(longa)));
+        long debito = (long) cadeia.preco(longa) - cadeia.preco(curta);
+        long lucro = melhor.lucroBruto() - TAXAS_CENTAVOS;
+        long risco = melhor.perdaBruta() + TAXAS_CENTAVOS;
+        BigDecimal relacao = BigDecimal.valueOf(melhor.relacao(), 2);
+
+        // Breakeven inferior: primeira passagem do P&L líquido de taxas para >= 0 na grade
+        double[] spots = ReprecificadorCalendario.grade(cotacao);
+        double[] valoresLonga = reprecificador.valores(cadeia.ticker(longa), vencimentoCurto, call, cadeia.strike(longa),
+                vols.vols()[longa] / 100 * Math.sqrt(vols.diasUteis()[longa] - vols.diasUteis()[curta]), cotacao);
+        BigDecimal breakeven = BigDecimal.ZERO;
+        double anterior = pnl(call, cadeia.strike(curta), debito, spots[0], valoresLonga[0]) - TAXAS_CENTAVOS;
+        for (int k = 1; k < spots.length; k++) {
+            double atual = pnl(call, cadeia.strike(curta), debito, spots[k], valoresLonga[k]) - TAXAS_CENTAVOS;
+            if (anterior < 0 && atual >= 0) {
+                double spot = spots[k - 1] + (spots[k] - spots[k - 1]) * (-anterior / (atual - anterior));
+                breakeven = BigDecimal.valueOf(spot / 10_000).setScale(2, RoundingMode.HALF_UP);
+                break;
+            }
+            anterior = atual;
+        }
+
+        return SpreadResponse.builder()
+                .mensagem(String.format("SUCESSO: %s (Vencimentos: %s / %s). Relação R/R: %s. "
+                        + "Perna longa reprecificada por Black-Scholes no vencimento curto.",
+                        nome, vencimentoCurto, vencimentoLongo, relacao))
+                .nomeEstrategia(nome)
+                .lucroMaximo(BigDecimal.valueOf(melhor.lucroBruto(), 2))
+                .prejuizoMaximo(BigDecimal.valueOf(melhor.perdaBruta(), 2))
+                .breakevenPoint(breakeven)
+                .pernasExecutadas(List.of(
+                        new PernaSpread(cadeia.ticker(curta), QUANTIDADE_CONTRATOS, "VENDA"),
+                        new PernaSpread(cadeia.ticker(longa), QUANTIDADE_CONTRATOS, "COMPRA")))
+                .custoLiquido(BigDecimal.valueOf(-debito, 2))
+                .premioLiquidoUnitario(CotacaoCompacta.deTicks(-debito))
+                .ganhoMaximoStrikeUnitario(CotacaoCompacta.deTicks(melhor.lucroBruto()))
+                .riscoMaximoTeoricoUnitario(CotacaoCompacta.deTicks(melhor.perdaBruta()))
+                .lucroMaximoLiquidoTotal(BigDecimal.valueOf(lucro, 2))
+                .riscoMaximoLiquidoTotal(BigDecimal.valueOf(risco, 2))
+                .relacaoRiscoRetornoLiquida(relacao)
+                .vencimento(vencimentoCurto)
+                .build();
+    }
+
+    private static Candidato aguardar(Future<Candidato> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca de calendários interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao avaliar par de vencimentos: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.PosicaoCarteira;
+import com.calculadora_derivativos.calculadora_backend.dto.RiscoCarteiraAtivo;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Carteira de spreads abertos (em memória) com o risco agregado por ativo.
+ *
+ * Incluir ou retirar uma posição resolve suas pernas no banco uma vez (prêmio atual como
+ * preço de entrada, gregas gravadas) e atualiza só o AgregadoCarteira do ativo, em
+ * O(pernas); o livro nunca é recalculado inteiro. As atualizações e os retratos de um
+ * ativo sincronizam no próprio agregado, então um retrato nunca vê uma posição pela metade
+ * e ativos diferentes não disputam o mesmo lock.
+ */
+@Service
+public class CarteiraService {
+
+    // Posição aberta: pernas como recebidas e já resolvidas (para retirar exatamente o que entrou)
+    private record Posicao(PosicaoCarteira dados, List<AgregadoCarteira.Perna> pernas) {
+    }
+
+    private final OptionRepository optionRepository;
+    private final ConcurrentHashMap<Long, Posicao> posicoes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AgregadoCarteira> agregados = new ConcurrentHashMap<>();
+    private final AtomicLong proximoId = new AtomicLong(1);
+
+    public CarteiraService(OptionRepository optionRepository) {
+        this.optionRepository = optionRepository;
+    }
+
+    /**
+     * @throws IllegalArgumentException Sem pernas, quantidade/operação inválida, ticker
+     *                                  desconhecido ou pernas de ativos diferentes.
+     */
+    public PosicaoCarteira incluir(List<PernaSpread> pernas) {
+        if (pernas == null || pernas.isEmpty()) {
+            throw new IllegalArgumentException("A posição precisa de ao menos uma perna.");
+        }
+        String idAcao = null;
+        List<AgregadoCarteira.Perna> resolvidas = new ArrayList<>(pernas.size());
+        for (PernaSpread perna : pernas) {
+            Option opcao = optionRepository.findByTicker(perna.ticker())
+                    .orElseThrow(() -> new IllegalArgumentException("Ticker não encontrado: " + perna.ticker()));
+            if (idAcao != null && !idAcao.equals(opcao.getIdAcao())) {
+                throw new IllegalArgumentException("As pernas de uma posição devem ser do mesmo ativo ("
+                        + idAcao + " e " + opcao.getIdAcao() + ").");
+            }
+            idAcao = opcao.getIdAcao();
+            resolvidas.add(resolver(perna, opcao));
+        }
+
+        PosicaoCarteira dados = new PosicaoCarteira(proximoId.getAndIncrement(), idAcao, List.copyOf(pernas));
+        AgregadoCarteira agregado = agregados.computeIfAbsent(idAcao, AgregadoCarteira::new);
+        synchronized (agregado) {
+            agregado.incluir(resolvidas);
+        }
+        posicoes.put(dados.id(), new Posicao(dados, resolvidas));
+        return dados;
+    }
+
+    /** @return A posição retirada (vazio se o id não existe ou já foi retirado). */
+    public Optional<PosicaoCarteira> retirar(long id) {
+        Posicao posicao = posicoes.remove(id);
+        if (posicao == null) {
+            return Optional.empty();
+        }
+        AgregadoCarteira agregado = agregados.get(posicao.dados().idAcao());
+        synchronized (agregado) {
+            agregado.retirar(posicao.pernas());
+        }
+        return Optional.of(posicao.dados());
+    }
+
+    public List<PosicaoCarteira> listar() {
+        return posicoes.values().stream()
+                .map(Posicao::dados)
+                .sorted(Comparator.comparingLong(PosicaoCarteira::id))
+                .toList();
+    }
+
+    /** Pernas de todas as posições abertas do ativo, na ordem de abertura. */
+    public List<PernaSpread> pernasAbertas(String idAcao) {
+        return listar().stream()
+                .filter(posicao -> posicao.idAcao().equals(idAcao))
+                .flatMap(posicao -> posicao.pernas().stream())
+                .toList();
+    }
+
+    /** Retrato consistente do ativo (vazio se nunca teve posição). */
+    public Optional<RiscoCarteiraAtivo> risco(String idAcao) {
+        AgregadoCarteira agregado = agregados.get(idAcao);
+        if (agregado == null) {
+            return Optional.empty();
+        }
+        synchronized (agregado) {
+            return Optional.of(agregado.retrato());
+        }
+    }
+
+    /** Retratos dos ativos com posições abertas, por ativo. */
+    public List<RiscoCarteiraAtivo> riscos() {
+        List<RiscoCarteiraAtivo> retratos = new ArrayList<>();
+        for (AgregadoCarteira agregado : agregados.values()) {
+            synchronized (agregado) {
+                if (agregado.getPosicoes() > 0) {
+                    retratos.add(agregado.retrato());
+                }
+            }
+        }
+        retratos.sort(Comparator.comparing(RiscoCarteiraAtivo::idAcao));
+        return retratos;
+    }
+
+    private static AgregadoCarteira.Perna resolver(PernaSpread perna, Option opcao) {
+        byte tipo = CotacaoCompacta.codificarTipo(opcao.getTipo());
+        if (tipo == CotacaoCompacta.TIPO_INVALIDO) {
+            throw new IllegalArgumentException("Tipo inválido para " + perna.ticker() + ": " + opcao.getTipo());
+        }
+        if (perna.quantidade() <= 0) {
+            throw new IllegalArgumentException("Quantidade inválida para " + perna.ticker() + ": " + perna.quantidade());
+        }
+        if (opcao.getStrike() == null || opcao.getPreco() == null) {
+            throw new IllegalArgumentException("Série sem strike ou prêmio: " + perna.ticker());
+        }
+        long quantidade = switch (perna.operacao() == null ? "" : perna.operacao().toUpperCase()) {
+            case "COMPRA" -> perna.quantidade();
+            case "VENDA" -> -perna.quantidade();
+            default -> throw new IllegalArgumentException("Operação inválida para " + perna.ticker()
+                    + " (use COMPRA ou VENDA): " + perna.operacao());
+        };
+        // O delta da PUT é gravado em módulo
+        long delta = gregaTicks(opcao.getDelta());
+        if (tipo == CotacaoCompacta.PUT) {
+            delta = -Math.abs(delta);
+        }
+        return new AgregadoCarteira.Perna(tipo,
+                CotacaoCompacta.paraTicks(opcao.getStrike()),
+                CotacaoCompacta.paraTicks(opcao.getPreco()),
+                delta,
+                gregaTicks(opcao.getGamma()),
+                gregaTicks(opcao.getTheta()),
+                gregaTicks(opcao.getVega()),
+                quantidade);
+    }
+
+    // Grega ausente conta como zero (gregas e preços têm a mesma escala 4 dos ticks)
+    private static long gregaTicks(BigDecimal valor) {
+        return valor == null ? 0 : CotacaoCompacta.paraTicks(valor);
+    }
+}
@@ -1,227 +1,218 @@
 package com.calculadora_derivativos.calculadora_backend.service;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime; // Importação adicionada
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.calculadora_derivativos.calculadora_backend.model.Option;
 import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
 
-@Component("dataLoaderService") 
+/**
+ * Carga inicial de opcoes_final_tratado (CSV do classpath ou planilha da B3), em segundo
+ * plano: o run() só agenda a carga no cargaDadosExecutor e retorna, então o processo fica
+ * vivo (e o health de liveness UP) independentemente do tamanho do arquivo. O progresso vai
+ * para EstadoCargaDados, que segura a prontidão e os endpoints (503) até o fim da carga.
+ *
+ * A gravação é feita em lotes de loteGravacao linhas durante a própria leitura, cada um na sua
+ * transação (saveAll) e já registrado no histórico: a memória da carga é a de um lote, não a do
+ * arquivo, e nenhuma transação segura a tabela inteira. Uma falha no meio da leitura deixa
+ * gravados os lotes anteriores.
+ */
+@Component("dataLoaderService")
 public class DataLoader implements CommandLineRunner {
 
     private final OptionRepository optionRepository;
-    
-    private static final String CSV_FILE = "opcoes_final_tratado.csv"; 
-    
-    // Formatadores para data/hora
-    private static final DateTimeFormatter DATE_TIME_FORMATTER_FULL = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-    private static final DateTimeFormatter DATE_FORMATTER_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-    // Formatadores para o Vencimento (mantidos do ajuste anterior)
-    private static final DateTimeFormatter VENCIMENTO_FORMATTER_ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter VENCIMENTO_FORMATTER_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-
-    public DataLoader(OptionRepository optionRepository) {
+    private final LeitorCsvOpcoes leitorCsv;
+    private final SnapshotService snapshotService;
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final LeitorPlanilhaOpcoes leitorPlanilha;
+    private final EstadoCargaDados estado;
+    private final ExecutorService executor;
+    private final String planilha;
+    private final int loteGravacao;
+
+    private static final String CSV_FILE = "opcoes_final_tratado.csv";
+
+    /**
+     * @param planilha Caminho do xlsx exportado da B3; se existir, é lido direto (sem o CSV
+     *                 gerado pelo limpar_excel_final.py).
+     */
+    public DataLoader(OptionRepository optionRepository, LeitorCsvOpcoes leitorCsv,
+            SnapshotService snapshotService, CacheCadeiasCompactas cacheCadeias,
+            LeitorPlanilhaOpcoes leitorPlanilha, EstadoCargaDados estado,
+            @Qualifier("cargaDadosExecutor") ExecutorService executor,
+            @Value("${dataloader.planilha:}") String planilha,
+            @Value("${dataloader.lote-gravacao:1000}") int loteGravacao) {
         this.optionRepository = optionRepository;
+        this.leitorCsv = leitorCsv;
+        this.snapshotService = snapshotService;
+        this.cacheCadeias = cacheCadeias;
+        this.leitorPlanilha = leitorPlanilha;
+        this.estado = estado;
+        this.executor = executor;
+        this.planilha = planilha;
+        this.loteGravacao = loteGravacao;
     }
 
-    // Método auxiliar para tentar analisar o vencimento em múltiplos formatos (mantido)
-    private LocalDate parseVencimento(String vencimentoStr) {
-        if (vencimentoStr.isEmpty()) {
-            return null;
-        }
-        
-        try {
-            return LocalDate.parse(vencimentoStr, VENCIMENTO_FORMATTER_ISO);
-        } catch (DateTimeParseException e) {
-            try {
-                return LocalDate.parse(vencimentoStr, VENCIMENTO_FORMATTER_BR);
-            } catch (DateTimeParseException ex) {
-                throw ex; // Falha em ambos
-            }
-        }
+    @Override
+    public void run(String... args) {
+        iniciar();
     }
-    
-    // NOVO MÉTODO AUXILIAR: Para analisar o campo dataHora que pode vir sem a hora.
-    private LocalDateTime parseDataHora(String dataHoraStr) {
-        if (dataHoraStr.isEmpty()) {
-            return null;
-        }
-        
-        // 1. Tenta analisar como LocalDateTime completo (com horas)
-        try {
-            return LocalDateTime.parse(dataHoraStr, DATE_TIME_FORMATTER_FULL);
-        } catch (DateTimeParseException e) {
-            // 2. Se falhar, tenta analisar como LocalDate (apenas data)
+
+    /**
+     * Agenda a carga em segundo plano (o Future é usado nos testes para aguardar o fim).
+     */
+    public Future<?> iniciar() {
+        return executor.submit(() -> {
             try {
-                LocalDate localDate = LocalDate.parse(dataHoraStr, DATE_FORMATTER_BR);
-                // 3. Combina o LocalDate com a meia-noite para criar um LocalDateTime
-                return LocalDateTime.of(localDate, LocalTime.MIDNIGHT);
-            } catch (DateTimeParseException ex) {
-                // Se ambos falharem, lança a exceção original (ou a última)
-                throw ex;
+                carregar();
+            } catch (Exception e) {
+                System.err.println("Erro na carga inicial de dados: " + e.getMessage());
+                estado.falhar("Erro na carga inicial de dados: " + e.getMessage());
             }
-        }
+        });
     }
 
-
-    @Override
-    @Transactional
-    public void run(String... args) throws Exception {
+    private void carregar() {
         if (optionRepository.count() > 0) {
             System.out.println("Dados de opções já carregados. Pulando carregamento do CSV.");
+            estado.iniciar("banco", -1);
+            estado.concluir("Dados de opções já carregados.");
             return;
         }
 
-        System.out.println("Iniciando carregamento de dados...");
-        
-        List<Option> opcoesParaSalvar = new ArrayList<>(); 
-        
+        System.out.println("Iniciando carregamento de dados em segundo plano...");
+
+        GravacaoEmLotes lotes = new GravacaoEmLotes();
+
         try {
-            Resource resource = new ClassPathResource(CSV_FILE);
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-                
-                String line = reader.readLine(); 
-                // ... (Mapeamento de cabeçalho e verificação de colunas permanecem o mesmo) ...
-
-                String[] headers = line.split(",");
-                Map<String, Integer> headerMap = new HashMap<>();
-                
-                for (int i = 0; i < headers.length; i++) { 
-                    headerMap.put(headers[i].trim().toLowerCase(), i); 
-                }
-                
-                System.out.println("Cabeçalho do CSV lido (Normalizado): " + headerMap.keySet());
-
-                Integer idAcaoIndex = headerMap.get("idacao"); 
-                Integer tickerIndex = headerMap.get("ticker");
-                Integer vencimentoIndex = headerMap.get("vencimento");
-                Integer diasUteisIndex = headerMap.get("diasuteis"); 
-                Integer dataHoraIndex = headerMap.get("datahora"); 
-                Integer tipoIndex = headerMap.get("tipo");
-                Integer strikeIndex = headerMap.get("strike");
-                Integer precoIndex = headerMap.get("premiopct"); 
-                Integer volImplicitaIndex = headerMap.get("volimplicita"); 
-                Integer deltaIndex = headerMap.get("delta");
-                Integer gammaIndex = headerMap.get("gamma");
-                Integer thetaIndex = headerMap.get("theta");
-                Integer vegaIndex = headerMap.get("vega");
-
-                if (tickerIndex == null || tipoIndex == null || strikeIndex == null || deltaIndex == null ||
-                    vencimentoIndex == null || thetaIndex == null || gammaIndex == null || vegaIndex == null ||
-                    idAcaoIndex == null || precoIndex == null || volImplicitaIndex == null || dataHoraIndex == null || diasUteisIndex == null) {
-                    
-                    System.err.println("Erro: Uma ou mais colunas necessárias não foram encontradas no CSV. Verifique a ortografia.");
-                    if (precoIndex == null) System.err.println(" - O campo 'preco' não foi encontrado (Esperado: 'premiopct')");
-                    if (dataHoraIndex == null) System.err.println(" - O campo 'datahora' não foi encontrado.");
-                    if (diasUteisIndex == null) System.err.println(" - O campo 'diasuteis' não foi encontrado.");
-                    return;
-                }
+            Path arquivoPlanilha = planilha.isBlank() ? null : Path.of(planilha);
+            if (arquivoPlanilha != null && !Files.isRegularFile(arquivoPlanilha)) {
+                System.err.println("Planilha '" + planilha + "' não encontrada. Usando o CSV '" + CSV_FILE + "'.");
+                arquivoPlanilha = null;
+            }
 
-                // 3. Processamento das Linhas do CSV
-                String dataLine;
-                long linhasIgnoradas = 0;
-                long linhaAtual = 1; 
-                
-                while ((dataLine = reader.readLine()) != null) {
-                    linhaAtual++;
-                    String[] values = dataLine.split(",");
-
-                    try {
-                        if (values.length < headers.length) { 
-                             linhasIgnoradas++;
-                             System.err.println("Linha " + linhaAtual + " IGNORADA: Linha incompleta.");
-                             continue;
-                        }
-
-                        // --- PARSING DE BIGDECIMAL e FILTRAGEM ---
-                        BigDecimal strike = new BigDecimal(values[strikeIndex].trim());
-                        BigDecimal preco = new BigDecimal(values[precoIndex].trim());
-                        BigDecimal delta = new BigDecimal(values[deltaIndex].trim());
-                        
-                        if (strike.compareTo(BigDecimal.ZERO) == 0 || preco.compareTo(BigDecimal.ZERO) == 0 || delta.compareTo(BigDecimal.ZERO) == 0) {
-                            linhasIgnoradas++;
-                            continue;
-                        }
-                        // --- FIM DA FILTRAGEM ---
-                        
-                        // Mapeamento
-                        Option option = new Option();
-                        
-                        option.setIdAcao(values[idAcaoIndex].trim());
-                        option.setTicker(values[tickerIndex].trim());
-                        
-                        // Vencimento: USA O MÉTODO AUXILIAR FLEXÍVEL (mantido do ajuste anterior)
-                        String vencimentoStr = values[vencimentoIndex].trim();
-                        LocalDate vencimento = parseVencimento(vencimentoStr);
-                        if (vencimento != null) {
-                            option.setVencimento(vencimento); 
-                        }
-
-                        // diasUteis (Integer)
-                        String diasUteisStr = values[diasUteisIndex].trim();
-                        if (!diasUteisStr.isEmpty()) {
-                            option.setDiasUteis(Integer.parseInt(diasUteisStr));
-                        }
-
-                        // dataHora: AGORA USA O NOVO MÉTODO AUXILIAR
-                        String dataHoraStr = values[dataHoraIndex].trim();
-                        option.setDataHora(parseDataHora(dataHoraStr));
-                        
-                        option.setTipo(values[tipoIndex].trim());
-                        option.setStrike(strike); 
-                        option.setPreco(preco); 
-                        
-                        // Outros BigDecimals
-                        option.setVolImplicita(new BigDecimal(values[volImplicitaIndex].trim())); 
-                        option.setDelta(delta);
-                        option.setGamma(new BigDecimal(values[gammaIndex].trim()));
-                        option.setTheta(new BigDecimal(values[thetaIndex].trim()));
-                        option.setVega(new BigDecimal(values[vegaIndex].trim()));
-
-                        opcoesParaSalvar.add(option);
-                        
-                    } catch (Exception e) {
-                        linhasIgnoradas++;
-                        System.err.println("Linha " + linhaAtual + " IGNORADA por erro de PARSE/FORMATO/Incompleta: " + dataLine + " | Erro: " + e.getMessage());
-                    }
+            // Leitura e validação das linhas (ver LeitorCsvOpcoes e LeitorPlanilhaOpcoes)
+            LeitorCsvOpcoes.Resultado resultado;
+            if (arquivoPlanilha != null) {
+                System.out.println("Lendo a planilha " + arquivoPlanilha + " em streaming...");
+                // A planilha é um zip: o tamanho do arquivo não mede o avanço das linhas
+                estado.iniciar(arquivoPlanilha.toString(), -1);
+                resultado = leitorPlanilha.ler(arquivoPlanilha, opcao -> {
+                    estado.linhaLida();
+                    lotes.adicionar(opcao);
+                });
+            } else {
+                Resource resource = new ClassPathResource(CSV_FILE);
+                estado.iniciar(CSV_FILE, resource.contentLength());
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new EntradaContada(resource.getInputStream(), estado), StandardCharsets.UTF_8))) {
+                    resultado = leitorCsv.ler(reader, opcao -> {
+                        estado.linhaLida();
+                        lotes.adicionar(opcao);
+                    });
                 }
+            }
+            if (!resultado.cabecalhoValido()) {
+                estado.falhar("Cabeçalho inválido em " + estado.progresso().fonte() + ".");
+                return;
+            }
 
-                // 4. SALVAMENTO EM LOTE
-                if (!opcoesParaSalvar.isEmpty()) {
-                    System.out.println("\nIniciando persistência de " + opcoesParaSalvar.size() + " opções no MySQL...");
-                    optionRepository.saveAll(opcoesParaSalvar); 
-                    System.out.println("Persistência em lote concluída!");
-                }
-                
-                // Log Final
-                long totalOpcoesSalvas = optionRepository.count();
-                System.out.println("\nCarregamento de dados finalizado. Total de opções carregadas: " + totalOpcoesSalvas);
-                System.out.println("Total de linhas ignoradas: " + linhasIgnoradas);
+            // 4. ÚLTIMO LOTE (os cheios foram gravados durante a leitura)
+            estado.gravando();
+            lotes.gravar();
+            if (lotes.gravadas > 0) {
+                System.out.println("Persistência em lote concluída!");
+                // Cadeias compactas carregadas antes da carga ficaram desatualizadas
+                cacheCadeias.invalidarTodos();
+                System.out.println("Snapshot histórico registrado: " + lotes.registradasSnapshot + " cotações.");
             }
 
+            // Log Final
+            long totalOpcoesSalvas = optionRepository.count();
+            System.out.println("\nCarregamento de dados finalizado. Total de opções carregadas: " + totalOpcoesSalvas);
+            System.out.println("Total de linhas ignoradas: " + resultado.linhasIgnoradas());
+            estado.concluir("Total de opções carregadas: " + totalOpcoesSalvas + ". Linhas ignoradas: "
+                    + resultado.linhasIgnoradas() + ".");
+
         } catch (IOException e) {
-            System.err.println("Erro ao ler o recurso CSV. Verifique se '" + CSV_FILE + "' está no diretório resources/: " + e.getMessage());
+            System.err.println("Erro ao ler o recurso CSV/planilha. Verifique se '" + CSV_FILE + "' está no diretório resources/ ou o caminho de dataloader.planilha: " + e.getMessage());
+            estado.falhar("Erro ao ler o recurso CSV/planilha: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Buffer de no máximo loteGravacao opções: cada lote cheio vai para opcoes_final_tratado
+     * (saveAll, na sua transação) e para o histórico opcoes_snapshot, e o buffer é esvaziado.
+     */
+    private final class GravacaoEmLotes {
+
+        private final List<Option> lote = new ArrayList<>(loteGravacao);
+        private long gravadas;
+        private long registradasSnapshot;
+
+        void adicionar(Option opcao) {
+            lote.add(opcao);
+            if (lote.size() >= loteGravacao) {
+                gravar();
+            }
+        }
+
+        void gravar() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            optionRepository.saveAll(lote);
+            estado.linhasGravadas(lote.size());
+            gravadas += lote.size();
+            // HISTÓRICO: acrescenta o lote em opcoes_snapshot (não sobrescreve cargas anteriores)
+            registradasSnapshot += snapshotService.registrar(lote);
+            lote.clear();
+        }
+    }
+
+    // Conta os bytes lidos da fonte para o percentual de progresso
+    private static final class EntradaContada extends FilterInputStream {
+
+        private final EstadoCargaDados estado;
+
+        EntradaContada(InputStream entrada, EstadoCargaDados estado) {
+            super(entrada);
+            this.estado = estado;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int lido = super.read();
+            if (lido >= 0) {
+                estado.bytesLidos(1);
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] b, int deslocamento, int tamanho) throws IOException {
+            int lidos = super.read(b, deslocamento, tamanho);
+            if (lidos > 0) {
+                estado.bytesLidos(lidos);
+            }
+            return lidos;
         }
     }
-}
\ No newline at end of file
+}
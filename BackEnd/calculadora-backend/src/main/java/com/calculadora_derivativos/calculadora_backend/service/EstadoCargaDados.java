@@ -0,0 +1,93 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Progresso da carga inicial feita em segundo plano pelo DataLoader. Enquanto a carga está em
+ * andamento a aplicação está viva, mas não pronta: a prontidão (health "readiness") fica
+ * fora de serviço e os endpoints respondem 503 com este progresso.
+ *
+ * Uma carga que falha libera a aplicação (como antes, o erro é registrado e o serviço segue
+ * com o que já estiver no banco).
+ */
+@Component
+public class EstadoCargaDados {
+
+    public enum Fase {
+        AGUARDANDO, LENDO, GRAVANDO, CONCLUIDA, FALHOU
+    }
+
+    /** Retrato do progresso (percentual nulo quando o tamanho da fonte é desconhecido). */
+    public record Progresso(Fase fase, String fonte, long linhasLidas, long linhasGravadas, Double percentualLido,
+            long milissegundos, String mensagem) {
+    }
+
+    private volatile Fase fase = Fase.AGUARDANDO;
+    private volatile String fonte;
+    private volatile String mensagem;
+    private volatile long bytesTotais = -1;
+    private volatile long inicio = System.currentTimeMillis();
+    private volatile long fim;
+    private final AtomicLong bytesLidos = new AtomicLong();
+    private final AtomicLong linhasLidas = new AtomicLong();
+    private final AtomicLong linhasGravadas = new AtomicLong();
+
+    public boolean isPronto() {
+        Fase atual = fase;
+        return atual == Fase.CONCLUIDA || atual == Fase.FALHOU;
+    }
+
+    public Fase getFase() {
+        return fase;
+    }
+
+    void iniciar(String fonte, long bytesTotais) {
+        this.fonte = fonte;
+        this.bytesTotais = bytesTotais;
+        this.inicio = System.currentTimeMillis();
+        this.fim = 0;
+        bytesLidos.set(0);
+        linhasLidas.set(0);
+        linhasGravadas.set(0);
+        this.mensagem = null;
+        this.fase = Fase.LENDO;
+    }
+
+    void bytesLidos(long quantidade) {
+        bytesLidos.addAndGet(quantidade);
+    }
+
+    void linhaLida() {
+        linhasLidas.incrementAndGet();
+    }
+
+    void gravando() {
+        fase = Fase.GRAVANDO;
+    }
+
+    void linhasGravadas(long quantidade) {
+        linhasGravadas.addAndGet(quantidade);
+    }
+
+    void concluir(String mensagem) {
+        this.mensagem = mensagem;
+        this.fim = System.currentTimeMillis();
+        this.fase = Fase.CONCLUIDA;
+    }
+
+    void falhar(String mensagem) {
+        this.mensagem = mensagem;
+        this.fim = System.currentTimeMillis();
+        this.fase = Fase.FALHOU;
+    }
+
+    public Progresso progresso() {
+        long total = bytesTotais;
+        Double percentual = total > 0 ? Math.min(100.0, Math.round(bytesLidos.get() * 1000.0 / total) / 10.0) : null;
+        long termino = fim > 0 ? fim : System.currentTimeMillis();
+        return new Progresso(fase, fonte, linhasLidas.get(), linhasGravadas.get(), percentual, termino - inicio,
+                mensagem);
+    }
+}
@@ -0,0 +1,228 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoVertical;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.model.CadeiaReprecificada;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+
+/**
+ * Estado do otimizador incremental de um ativo: os preços atuais (CadeiaReprecificada) e,
+ * por grupo (vencimento, tipo) e vertical, uma ArvoreMaximoPares com a R/R de todos os pares.
+ *
+ * Uma cotação nova reavalia apenas os pares que incluem a série (O(n log n), n = strikes do
+ * grupo); o melhor de cada vertical sai das raízes dos grupos e o top-K de uma busca pelas
+ * árvores, sem percorrer a cadeia de novo. Não é thread-safe (OtimizadorIncrementalService
+ * sincroniza por ativo).
+ */
+final class EstadoIncremental {
+
+    // Par avaliado: índices na cadeia (não no grupo) e R/R em centésimos
+    record Par(EstrategiaOtimizacao estrategia, int primeira, int segunda, long relacao) {
+
+        boolean mesmasPernas(Par outro) {
+            return outro != null && estrategia == outro.estrategia
+                    && primeira == outro.primeira && segunda == outro.segunda;
+        }
+    }
+
+    private static final int VERTICAIS = Vertical.VERTICAIS.size();
+
+    private final CadeiaReprecificada cadeia;
+    private final Map<String, Integer> indicePorTicker = new HashMap<>();
+    private final int[] grupoDaSerie;
+    // [grupo][vertical]; null se o tipo do grupo não é o da vertical ou há menos de 2 séries
+    private final ArvoreMaximoPares[][] arvores;
+    private final Vertical[] verticais = new Vertical[VERTICAIS];
+
+    EstadoIncremental(VisaoCadeia base) {
+        this.cadeia = new CadeiaReprecificada(base);
+        this.grupoDaSerie = new int[base.tamanho()];
+        this.arvores = new ArvoreMaximoPares[base.grupos()][VERTICAIS];
+        for (int v = 0; v < VERTICAIS; v++) {
+            verticais[v] = Vertical.de(Vertical.VERTICAIS.get(v));
+        }
+
+        for (int grupo = 0; grupo < base.grupos(); grupo++) {
+            int inicio = base.inicioGrupo(grupo);
+            int fim = base.fimGrupo(grupo);
+            for (int i = inicio; i < fim; i++) {
+                grupoDaSerie[i] = grupo;
+                indicePorTicker.put(base.ticker(i), i);
+            }
+            if (fim - inicio < 2) continue;
+
+            for (int v = 0; v < VERTICAIS; v++) {
+                if (verticais[v].tipo() != base.tipoGrupo(grupo)) continue;
+                ArvoreMaximoPares arvore = new ArvoreMaximoPares(fim - inicio);
+                for (int p = 0; p < arvore.getN(); p++) {
+                    for (int s = 0; s < arvore.getN(); s++) {
+                        arvore.definirSemPropagar(p, s, avaliar(v, inicio + p, inicio + s));
+                    }
+                }
+                arvore.construir();
+                arvores[grupo][v] = arvore;
+            }
+        }
+    }
+
+    VisaoCadeia getBase() {
+        return cadeia.getBase();
+    }
+
+    // Cópia dos preços atuais para montar respostas fora do lock
+    CadeiaReprecificada fotografia() {
+        return cadeia.copia();
+    }
+
+    // Estimativa da memória das árvores (o restante do estado é O(n) e desprezível perto delas)
+    long bytesEstimados() {
+        long bytes = 0;
+        for (ArvoreMaximoPares[] porVertical : arvores) {
+            for (ArvoreMaximoPares arvore : porVertical) {
+                if (arvore != null) {
+                    bytes += arvore.bytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    boolean contem(String ticker) {
+        return indicePorTicker.containsKey(ticker);
+    }
+
+    /**
+     * Aplica o prêmio (ticks) da série e reavalia só os pares que a incluem, nas verticais do
+     * seu grupo.
+     * @return false se o ticker não está na cadeia ou o preço não mudou.
+     */
+    boolean alterarPreco(String ticker, int preco) {
+        Integer indice = indicePorTicker.get(ticker);
+        if (indice == null || !cadeia.alterarPreco(indice, preco)) {
+            return false;
+        }
+
+        int grupo = grupoDaSerie[indice];
+        int inicio = cadeia.inicioGrupo(grupo);
+        int local = indice - inicio;
+        for (int v = 0; v < VERTICAIS; v++) {
+            ArvoreMaximoPares arvore = arvores[grupo][v];
+            if (arvore == null) continue;
+            for (int outra = 0; outra < arvore.getN(); outra++) {
+                arvore.definir(local, outra, avaliar(v, indice, inicio + outra));
+                arvore.definir(outra, local, avaliar(v, inicio + outra, indice));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Melhor par da vertical (R/R > 0), com o mesmo desempate da busca completa: o primeiro
+     * grupo e, dentro dele, o primeiro par na ordem linha a linha.
+     */
+    Par melhor(EstrategiaOtimizacao estrategia) {
+        int v = Vertical.VERTICAIS.indexOf(estrategia);
+        Par melhor = null;
+        for (int grupo = 0; grupo < arvores.length; grupo++) {
+            ArvoreMaximoPares arvore = arvores[grupo][v];
+            if (arvore == null) continue;
+            int folha = arvore.raiz();
+            long relacao = arvore.valor(folha);
+            if (relacao > 0 && (melhor == null || relacao > melhor.relacao())) {
+                melhor = par(estrategia, grupo, arvore, folha);
+            }
+        }
+        return melhor;
+    }
+
+    // Melhor entre as 4 verticais; no empate fica a primeira de Vertical.VERTICAIS
+    Par melhorGeral() {
+        Par melhor = null;
+        for (EstrategiaOtimizacao estrategia : Vertical.VERTICAIS) {
+            Par atual = melhor(estrategia);
+            if (atual != null && (melhor == null || atual.relacao() > melhor.relacao())) {
+                melhor = atual;
+            }
+        }
+        return melhor;
+    }
+
+    // Nó pendente da busca do top-K; 'folha' é a vencedora da faixa do nó
+    private record No(int v, int grupo, ArvoreMaximoPares arvore, int no, int folha, long relacao) {
+    }
+
+    /**
+     * Os K melhores pares (R/R > 0) das estratégias, em ordem decrescente de R/R e, no empate,
+     * na ordem de descoberta de SpreadService.otimizarTopK (estratégia, grupo, par). Busca pelo
+     * melhor primeiro nas árvores: só desce pelos nós que ainda podem entrar no top-K.
+     */
+    List<Par> topK(List<EstrategiaOtimizacao> estrategias, int k) {
+        Comparator<No> ordem = Comparator.comparingLong(No::relacao).reversed()
+                .thenComparingInt(No::v)
+                .thenComparingInt(No::grupo)
+                .thenComparingInt(No::folha);
+        PriorityQueue<No> fronteira = new PriorityQueue<>(ordem);
+        for (EstrategiaOtimizacao estrategia : estrategias) {
+            int v = Vertical.VERTICAIS.indexOf(estrategia);
+            for (int grupo = 0; grupo < arvores.length; grupo++) {
+                adicionar(fronteira, v, grupo, arvores[grupo][v], 1);
+            }
+        }
+
+        List<Par> resultado = new ArrayList<>(k);
+        while (resultado.size() < k && !fronteira.isEmpty()) {
+            No atual = fronteira.poll();
+            if (atual.arvore().isFolha(atual.no())) {
+                resultado.add(par(Vertical.VERTICAIS.get(atual.v()), atual.grupo(), atual.arvore(), atual.folha()));
+            } else {
+                adicionar(fronteira, atual.v(), atual.grupo(), atual.arvore(), 2 * atual.no());
+                adicionar(fronteira, atual.v(), atual.grupo(), atual.arvore(), 2 * atual.no() + 1);
+            }
+        }
+        return resultado;
+    }
+
+    private static void adicionar(PriorityQueue<No> fronteira, int v, int grupo, ArvoreMaximoPares arvore, int no) {
+        if (arvore == null) return;
+        int folha = arvore.filho(no);
+        long relacao = arvore.valor(folha);
+        if (relacao > 0) {
+            fronteira.add(new No(v, grupo, arvore, no, folha, relacao));
+        }
+    }
+
+    CandidatoVertical paraCandidato(Par par) {
+        if (par == null) {
+            return null;
+        }
+        Vertical vertical = Vertical.de(par.estrategia());
+        return new CandidatoVertical(par.estrategia(),
+                LocalDate.ofEpochDay(cadeia.vencimentoGrupo(grupoDaSerie[par.primeira()])),
+                List.of(new PernaSpread(cadeia.ticker(par.primeira()), QUANTIDADE_CONTRATOS, vertical.operacaoPrimeira()),
+                        new PernaSpread(cadeia.ticker(par.segunda()), QUANTIDADE_CONTRATOS, vertical.operacaoSegunda())),
+                BigDecimal.valueOf(par.relacao(), 2));
+    }
+
+    private Par par(EstrategiaOtimizacao estrategia, int grupo, ArvoreMaximoPares arvore, int folha) {
+        int inicio = cadeia.inicioGrupo(grupo);
+        return new Par(estrategia, inicio + arvore.primeira(folha), inicio + arvore.segunda(folha),
+                arvore.valor(folha));
+    }
+
+    private long avaliar(int v, int primeira, int segunda) {
+        return verticais[v].avaliar(cadeia.strike(primeira), cadeia.preco(primeira),
+                cadeia.strike(segunda), cadeia.preco(segunda));
+    }
+}
@@ -0,0 +1,218 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Teste de estresse de um spread (ou das posições de um ativo na carteira): cada perna é
+ * reprecificada por Black-Scholes (BlackScholes, sem juros) em todos os cenários da grade
+ * choque de spot x choque de vol x dias úteis à frente, e o resultado é a soma de
+ * quantidade * (preço no cenário - prêmio atual).
+ *
+ * A volatilidade gravada é % ao dia útil (σ√t = vol/100 · √du, como nos calendários); o
+ * choque vem em pontos de vol anualizada e entra como choque / 100 / √252 ao dia. Perna que
+ * vence antes do dia do cenário vale o intrínseco.
+ *
+ * As pernas viram vetores primitivos uma vez; as linhas (dia, vol) da matriz são divididas em
+ * blocos avaliados em paralelo (estresseExecutor), cada bloco escrevendo a sua faixa do
+ * double[] de resultados (sem objetos por célula).
+ */
+@Service
+public class EstresseService {
+
+    private static final double RAIZ_DIAS_UTEIS_ANO = Math.sqrt(252);
+    // Blocos por thread: equilibra linhas de custos diferentes (pernas vencidas são mais baratas)
+    private static final int BLOCOS_POR_THREAD = 4;
+
+    private final OptionRepository optionRepository;
+    private final CarteiraService carteiraService;
+    private final ExecutorService executor;
+    private final int celulasMaximo;
+    private final int threads;
+
+    public EstresseService(OptionRepository optionRepository, CarteiraService carteiraService,
+            @Qualifier("estresseExecutor") ExecutorService executor,
+            @Value("${estresse.celulas-maximo:1000000}") int celulasMaximo,
+            @Value("${estresse.threads:0}") int threads) {
+        this.optionRepository = optionRepository;
+        this.carteiraService = carteiraService;
+        this.executor = executor;
+        this.celulasMaximo = celulasMaximo;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Pernas em colunas: valores por unidade e quantidade com sinal (+ compra). */
+    private record Pernas(boolean[] call, double[] strike, double[] premio, double[] quantidade,
+            double[] volDiaria, int[] diasUteis) {
+    }
+
+    public MatrizEstresseResponse estressarSpread(MatrizEstresseRequest request) {
+        return estressar(request, request.pernas());
+    }
+
+    public MatrizEstresseResponse estressarCarteira(String idAcao, MatrizEstresseRequest request) {
+        List<PernaSpread> pernas = carteiraService.pernasAbertas(idAcao);
+        if (pernas.isEmpty()) {
+            return erro("ERRO: Nenhuma posição aberta para o ativo " + idAcao, request);
+        }
+        return estressar(request, pernas);
+    }
+
+    private MatrizEstresseResponse estressar(MatrizEstresseRequest request, List<PernaSpread> pernasSpread) {
+        if (request.cotacaoAtualAtivo() == null || request.cotacaoAtualAtivo().signum() <= 0) {
+            return erro("ERRO: Informe a cotação atual do ativo.", request);
+        }
+        if (vazia(request.choquesSpot()) || vazia(request.choquesVol()) || vazia(request.diasUteis())) {
+            return erro("ERRO: Informe choquesSpot, choquesVol e diasUteis (ao menos um valor em cada).", request);
+        }
+        // Validados aqui: um valor nulo só apareceria como NPE nas threads do estresseExecutor
+        if (temNulo(request.choquesSpot()) || temNulo(request.choquesVol()) || temNulo(request.diasUteis())) {
+            return erro("ERRO: choquesSpot, choquesVol e diasUteis não podem ter valores nulos.", request);
+        }
+        long celulas = (long) request.choquesSpot().size() * request.choquesVol().size() * request.diasUteis().size();
+        if (celulas > celulasMaximo) {
+            return erro("ERRO: Grade com " + celulas + " cenários (máximo " + celulasMaximo + ").", request);
+        }
+        if (pernasSpread == null || pernasSpread.isEmpty()) {
+            return erro("ERRO: Informe as pernas do spread.", request);
+        }
+
+        Pernas pernas;
+        try {
+            pernas = resolver(pernasSpread);
+        } catch (IllegalArgumentException e) {
+            return erro("ERRO: " + e.getMessage(), request);
+        }
+
+        double cotacao = request.cotacaoAtualAtivo().doubleValue();
+        double[] spots = new double[request.choquesSpot().size()];
+        for (int s = 0; s < spots.length; s++) {
+            spots[s] = cotacao * (1 + request.choquesSpot().get(s).doubleValue());
+        }
+        double[] choquesVol = new double[request.choquesVol().size()];
+        for (int v = 0; v < choquesVol.length; v++) {
+            choquesVol[v] = request.choquesVol().get(v).doubleValue() / 100 / RAIZ_DIAS_UTEIS_ANO;
+        }
+        int[] dias = request.diasUteis().stream().mapToInt(Integer::intValue).toArray();
+
+        double[] resultados = new double[(int) celulas];
+        int linhas = dias.length * choquesVol.length;
+        int blocos = Math.min(linhas, threads * BLOCOS_POR_THREAD);
+        List<Future<?>> futuros = new ArrayList<>(blocos);
+        for (int b = 0; b < blocos; b++) {
+            int inicio = (int) ((long) linhas * b / blocos);
+            int fim = (int) ((long) linhas * (b + 1) / blocos);
+            futuros.add(executor.submit(() -> avaliarLinhas(pernas, spots, choquesVol, dias, inicio, fim, resultados)));
+        }
+        for (Future<?> futuro : futuros) {
+            aguardar(futuro);
+        }
+
+        return new MatrizEstresseResponse(
+                String.format("SUCESSO: %d cenários x %d pernas.", celulas, pernas.call().length),
+                request.choquesSpot(), request.choquesVol(), request.diasUteis(), resultados);
+    }
+
+    // Linhas [inicio, fim) da matriz; linha = dia * choquesVol + vol
+    private static void avaliarLinhas(Pernas pernas, double[] spots, double[] choquesVol, int[] dias,
+            int inicio, int fim, double[] resultados) {
+        int n = pernas.call().length;
+        double[] sigmaRaizPrazo = new double[n];
+        for (int linha = inicio; linha < fim; linha++) {
+            int dia = dias[linha / choquesVol.length];
+            double choque = choquesVol[linha % choquesVol.length];
+            for (int p = 0; p < n; p++) {
+                int restantes = pernas.diasUteis()[p] - dia;
+                // Vencida (ou vol chocada negativa): BlackScholes devolve o intrínseco com σ√t = 0
+                sigmaRaizPrazo[p] = restantes <= 0 ? 0
+                        : Math.max(0, pernas.volDiaria()[p] + choque) * Math.sqrt(restantes);
+            }
+            int base = linha * spots.length;
+            for (int s = 0; s < spots.length; s++) {
+                double resultado = 0;
+                for (int p = 0; p < n; p++) {
+                    double preco = BlackScholes.preco(pernas.call()[p], spots[s], pernas.strike()[p], sigmaRaizPrazo[p]);
+                    resultado += pernas.quantidade()[p] * (preco - pernas.premio()[p]);
+                }
+                resultados[base + s] = Math.round(resultado * 100) / 100.0;
+            }
+        }
+    }
+
+    private Pernas resolver(List<PernaSpread> pernasSpread) {
+        int n = pernasSpread.size();
+        Pernas pernas = new Pernas(new boolean[n], new double[n], new double[n], new double[n], new double[n], new int[n]);
+        for (int p = 0; p < n; p++) {
+            PernaSpread perna = pernasSpread.get(p);
+            if (perna == null) {
+                throw new IllegalArgumentException("Perna nula na posição " + p + ".");
+            }
+            // O sinal vem da operação: quantidade sempre positiva, como na carteira
+            if (perna.quantidade() <= 0) {
+                throw new IllegalArgumentException("Quantidade inválida para " + perna.ticker() + ": " + perna.quantidade());
+            }
+            Optional<Option> encontrada = optionRepository.findByTicker(perna.ticker());
+            if (encontrada.isEmpty()) {
+                throw new IllegalArgumentException("Ticker não encontrado: " + perna.ticker());
+            }
+            Option opcao = encontrada.get();
+            if (opcao.getStrike() == null || opcao.getPreco() == null || opcao.getVolImplicita() == null
+                    || opcao.getDiasUteis() == null) {
+                throw new IllegalArgumentException("Série sem strike, prêmio, volatilidade ou dias úteis: " + perna.ticker());
+            }
+            boolean compra = "COMPRA".equalsIgnoreCase(perna.operacao());
+            if (!compra && !"VENDA".equalsIgnoreCase(perna.operacao())) {
+                throw new IllegalArgumentException("Operação inválida para " + perna.ticker()
+                        + " (use COMPRA ou VENDA): " + perna.operacao());
+            }
+            pernas.call()[p] = "CALL".equalsIgnoreCase(opcao.getTipo());
+            pernas.strike()[p] = opcao.getStrike().doubleValue();
+            pernas.premio()[p] = opcao.getPreco().doubleValue();
+            pernas.quantidade()[p] = compra ? perna.quantidade() : -perna.quantidade();
+            pernas.volDiaria()[p] = opcao.getVolImplicita().doubleValue() / 100;
+            pernas.diasUteis()[p] = opcao.getDiasUteis();
+        }
+        return pernas;
+    }
+
+    private static boolean vazia(List<?> lista) {
+        return lista == null || lista.isEmpty();
+    }
+
+    // List.of(...).contains(null) lança NPE: percorre em vez de perguntar
+    private static boolean temNulo(List<?> lista) {
+        return lista.stream().anyMatch(Objects::isNull);
+    }
+
+    private static MatrizEstresseResponse erro(String mensagem, MatrizEstresseRequest request) {
+        return new MatrizEstresseResponse(mensagem, request.choquesSpot(), request.choquesVol(), request.diasUteis(),
+                new double[0]);
+    }
+
+    private static void aguardar(Future<?> futuro) {
+        try {
+            futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Teste de estresse interrompido.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao avaliar cenários: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
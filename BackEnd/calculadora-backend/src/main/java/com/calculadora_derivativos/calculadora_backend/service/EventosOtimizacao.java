@@ -0,0 +1,132 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos do JDK Flight Recorder para as fases das otimizações do SpreadService: busca da
+ * cadeia, enumeração dos candidatos, avaliação do payoff (calcularOtimizacao) e montagem da
+ * resposta. Numa gravação (GravacaoJfrService ou -XX:StartFlightRecording) aparecem em
+ * "Calculadora > Otimização", ao lado de GC, alocações e JDBC da mesma thread.
+ *
+ * Sem gravação ativa os eventos não são registrados e o custo é só o do objeto; os campos são
+ * preenchidos apenas quando o evento vai ser gravado (shouldCommit).
+ */
+public final class EventosOtimizacao {
+
+    public static final String ESTRATEGIA_MANUAL = "MANUAL";
+
+    private EventosOtimizacao() {
+    }
+
+    @Name("calculadora.BuscaCadeia")
+    @Label("Busca da cadeia")
+    @Description("Obtenção da cadeia do ativo: cache em heap, universo off-heap ou banco (MySQL) na primeira vez")
+    @Category({ "Calculadora", "Otimização" })
+    @StackTrace(false)
+    public static final class BuscaCadeia extends Event {
+        @Label("Ativo")
+        String ativo;
+        @Label("Estratégia")
+        String estrategia;
+        @Label("Séries")
+        int series;
+        @Label("Grupos (vencimento, tipo)")
+        int grupos;
+
+        void concluir(String ativo, String estrategia, VisaoCadeia cadeia) {
+            end();
+            if (shouldCommit()) {
+                this.ativo = ativo;
+                this.estrategia = estrategia;
+                this.series = cadeia.tamanho();
+                this.grupos = cadeia.grupos();
+                commit();
+            }
+        }
+    }
+
+    @Name("calculadora.EnumeracaoCandidatos")
+    @Label("Enumeração dos candidatos")
+    @Description("Percurso dos pares de strikes em ticks, com a R/R de cada candidato")
+    @Category({ "Calculadora", "Otimização" })
+    @StackTrace(false)
+    public static final class EnumeracaoCandidatos extends Event {
+        @Label("Ativo")
+        String ativo;
+        @Label("Estratégia")
+        String estrategia;
+        @Label("Pares percorridos")
+        long pares;
+        @Label("Busca parcial (prazo)")
+        boolean parcial;
+
+        void concluir(String ativo, String estrategia, long pares, boolean parcial) {
+            end();
+            if (shouldCommit()) {
+                this.ativo = ativo;
+                this.estrategia = estrategia;
+                this.pares = pares;
+                this.parcial = parcial;
+                commit();
+            }
+        }
+    }
+
+    @Name("calculadora.AvaliacaoPayoff")
+    @Label("Avaliação do payoff")
+    @Description("Simulação do payoff em BigDecimal (calcularOtimizacao) de um spread")
+    @Category({ "Calculadora", "Otimização" })
+    @StackTrace(false)
+    public static final class AvaliacaoPayoff extends Event {
+        @Label("Ativo")
+        String ativo;
+        @Label("Estratégia")
+        String estrategia;
+        @Label("Pernas")
+        int pernas;
+        @Label("Pontos simulados")
+        int pontos;
+
+        void concluir(String ativo, String estrategia, int pernas, int pontos) {
+            end();
+            if (shouldCommit()) {
+                this.ativo = ativo;
+                this.estrategia = estrategia;
+                this.pernas = pernas;
+                this.pontos = pontos;
+                commit();
+            }
+        }
+    }
+
+    @Name("calculadora.MontagemResposta")
+    @Label("Montagem da resposta")
+    @Description("Cálculo completo e SpreadResponse dos candidatos escolhidos (inclui a avaliação do payoff)")
+    @Category({ "Calculadora", "Otimização" })
+    @StackTrace(false)
+    public static final class MontagemResposta extends Event {
+        @Label("Ativo")
+        String ativo;
+        @Label("Estratégia")
+        String estrategia;
+        @Label("Candidatos montados")
+        int candidatos;
+
+        void concluir(String ativo, String estrategia, int candidatos) {
+            end();
+            if (shouldCommit()) {
+                this.ativo = ativo;
+                this.estrategia = estrategia;
+                this.candidatos = candidatos;
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoExportado;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+
+/**
+ * Exportação de todos os pares que os otimizadores avaliam (não só o vencedor), para pesquisa
+ * offline. Os candidatos são entregues um a um, na ordem da busca (grupos, primeira perna x
+ * segunda perna), à medida que são calculados: a memória não cresce com o tamanho da cadeia.
+ *
+ * Cada par de strikes é percorrido uma vez e gera a vertical de débito e a espelhada de
+ * crédito do tipo, pelo mesmo percurso da busca de MELHOR
+ * (SpreadService.percorrerParesEspelhados). Lucro, risco e R/R vêm de AvaliadorVerticalTicks e
+ * coincidem com os do SpreadResponse; o breakeven segue a mesma regra de calcularSpread, com as
+ * taxas operacionais por contrato.
+ */
+@Service
+public class ExportacaoCandidatosService {
+
+    private final CacheCadeiasCompactas cacheCadeias;
+
+    public ExportacaoCandidatosService(CacheCadeiasCompactas cacheCadeias) {
+        this.cacheCadeias = cacheCadeias;
+    }
+
+    /**
+     * @param estrategia        Vertical exportada, ou MELHOR para as 4.
+     * @param vencimento        Só este vencimento (nulo = todos).
+     * @param taxasOperacionais Taxas por contrato, usadas no breakeven.
+     * @param destino           Recebe cada candidato; uma exceção interrompe a exportação.
+     * @return Quantidade de candidatos exportados.
+     */
+    public long exportar(String idAcao, EstrategiaOtimizacao estrategia, LocalDate vencimento,
+            BigDecimal taxasOperacionais, Consumer<CandidatoExportado> destino) {
+        VisaoCadeia cadeia = cacheCadeias.obter(idAcao);
+        long taxaTicks = CotacaoCompacta.paraTicks(taxasOperacionais);
+
+        Vertical[] verticais = new Vertical[Vertical.VERTICAIS.size()];
+        boolean[] selecionadas = new boolean[verticais.length];
+        for (int v = 0; v < verticais.length; v++) {
+            verticais[v] = Vertical.de(Vertical.VERTICAIS.get(v));
+            selecionadas[v] = estrategia == EstrategiaOtimizacao.MELHOR || Vertical.VERTICAIS.get(v) == estrategia;
+        }
+
+        long[] exportados = { 0 };
+        SpreadService.percorrerParesEspelhados(cadeia,
+                grupo -> {
+                    if (vencimento != null && cadeia.vencimentoGrupo(grupo) != vencimento.toEpochDay()) return false;
+                    byte tipo = cadeia.tipoGrupo(grupo);
+                    return selecionadas[Vertical.DEBITO_POR_TIPO[tipo]] || selecionadas[Vertical.CREDITO_POR_TIPO[tipo]];
+                },
+                (grupo, v, i, j, largura, premio) -> {
+                    if (!selecionadas[v]) return;
+                    destino.accept(candidato(cadeia, v, verticais[v],
+                            LocalDate.ofEpochDay(cadeia.vencimentoGrupo(grupo)), i, j, largura, premio, taxaTicks));
+                    exportados[0]++;
+                });
+        return exportados[0];
+    }
+
+    private static CandidatoExportado candidato(VisaoCadeia cadeia, int posicao, Vertical vertical,
+            LocalDate vencimento, int primeira, int segunda, long largura, long premio, long taxaTicks) {
+        long lucro = AvaliadorVerticalTicks.lucroMaximoCentavos(premio, largura);
+        long risco = AvaliadorVerticalTicks.riscoMaximoCentavos(premio, largura);
+
+        return new CandidatoExportado(
+                Vertical.VERTICAIS.get(posicao),
+                vencimento,
+                cadeia.ticker(primeira),
+                CotacaoCompacta.deTicks(cadeia.strike(primeira)),
+                CotacaoCompacta.deTicks(cadeia.preco(primeira)),
+                cadeia.ticker(segunda),
+                CotacaoCompacta.deTicks(cadeia.strike(segunda)),
+                CotacaoCompacta.deTicks(cadeia.preco(segunda)),
+                CotacaoCompacta.deTicks(largura),
+                CotacaoCompacta.deTicks(premio),
+                BigDecimal.valueOf(lucro, 2),
+                BigDecimal.valueOf(risco, 2),
+                BigDecimal.valueOf(AvaliadorVerticalTicks.relacaoRiscoRetornoCentesimos(lucro, risco), 2),
+                breakeven(vertical, cadeia.strike(primeira), cadeia.strike(segunda), premio, taxaTicks));
+    }
+
+    /**
+     * Breakeven como em calcularSpread: fluxo unitário líquido = prêmio - taxas das 2 pernas;
+     * débito a partir do strike comprado, crédito a partir do vendido (PUT abaixo, CALL acima).
+     */
+    private static BigDecimal breakeven(Vertical vertical, long strikePrimeira, long strikeSegunda, long premio,
+            long taxaTicks) {
+        long fluxoUnitario = Math.abs(premio - 2 * taxaTicks);
+        boolean primeiraComprada = vertical.primeiraComprada();
+        long ticks;
+        if (premio < 0) {
+            ticks = (primeiraComprada ? strikePrimeira : strikeSegunda) + fluxoUnitario;
+        } else {
+            long strikeVendido = primeiraComprada ? strikeSegunda : strikePrimeira;
+            ticks = vertical.tipo() == CotacaoCompacta.PUT ? strikeVendido - fluxoUnitario : strikeVendido + fluxoUnitario;
+        }
+        return CotacaoCompacta.deTicks(ticks).setScale(2, RoundingMode.HALF_UP);
+    }
+}
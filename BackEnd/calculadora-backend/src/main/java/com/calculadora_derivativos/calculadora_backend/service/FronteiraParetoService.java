@@ -0,0 +1,199 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import static com.calculadora_derivativos.calculadora_backend.service.AvaliadorVerticalTicks.TAXAS_CENTAVOS;
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.FronteiraParetoResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.PontoPareto;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Fronteira de Pareto dos verticais de um ativo em 4 dimensões: risco máximo líquido (menor),
+ * lucro máximo líquido (maior), probabilidade de lucro (maior) e dias até o vencimento
+ * (menor).
+ *
+ * Todos os pares das 4 verticais com R/R positiva são avaliados em ticks, em colunas
+ * primitivas. A fronteira sai por skyline com ordenação (sort-filter-skyline): ordenados por
+ * risco crescente e, no empate, pelas demais dimensões, nenhum candidato pode ser dominado
+ * por um que vem depois dele; basta então comparar cada um com a fronteira já formada.
+ *
+ * Probabilidade de lucro: P(S > K) em cada strike é o delta da CALL (ou 1 - |delta| da PUT),
+ * interpolado linearmente entre os dois strikes no breakeven líquido de taxas. Pares com
+ * perna sem delta e com prêmio no sentido oposto ao da vertical ficam de fora.
+ */
+@Service
+public class FronteiraParetoService {
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final OptionRepository optionRepository;
+
+    public FronteiraParetoService(CacheCadeiasCompactas cacheCadeias, OptionRepository optionRepository) {
+        this.cacheCadeias = cacheCadeias;
+        this.optionRepository = optionRepository;
+    }
+
+    /** Candidatos em colunas: o índice é a ordem de descoberta (vertical, grupo, i, j). */
+    private static final class Candidatos {
+        final byte[] vertical;
+        final int[] primeira;
+        final int[] segunda;
+        final long[] risco;
+        final long[] lucro;
+        final double[] probabilidade;
+        final int[] dias;
+        int tamanho;
+
+        Candidatos(int capacidade) {
+            vertical = new byte[capacidade];
+            primeira = new int[capacidade];
+            segunda = new int[capacidade];
+            risco = new long[capacidade];
+            lucro = new long[capacidade];
+            probabilidade = new double[capacidade];
+            dias = new int[capacidade];
+        }
+
+        // b domina a? (o risco de b já é <= pela ordenação; aqui vale a comparação completa)
+        boolean domina(int b, int a) {
+            return risco[b] <= risco[a] && lucro[b] >= lucro[a] && probabilidade[b] >= probabilidade[a]
+                    && dias[b] <= dias[a]
+                    && (risco[b] < risco[a] || lucro[b] > lucro[a] || probabilidade[b] > probabilidade[a]
+                            || dias[b] < dias[a]);
+        }
+    }
+
+    /**
+     * @param dataReferencia Data para os dias até o vencimento (nula = hoje); vencimentos
+     *                       anteriores a ela são ignorados.
+     */
+    public FronteiraParetoResponse calcular(String idAcao, LocalDate dataReferencia) {
+        VisaoCadeia cadeia = cacheCadeias.obter(idAcao);
+        if (cadeia.isEmpty()) {
+            return new FronteiraParetoResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + idAcao,
+                    0, List.of());
+        }
+        LocalDate referencia = dataReferencia != null ? dataReferencia : LocalDate.now();
+        double[] deltas = GregasCadeia.carregar(cadeia, optionRepository).deltas();
+
+        // Cada par ordenado de um grupo é válido em exatamente uma das 2 verticais do tipo
+        int capacidade = 0;
+        for (int g = 0; g < cadeia.grupos(); g++) {
+            int n = cadeia.fimGrupo(g) - cadeia.inicioGrupo(g);
+            capacidade += n * (n - 1);
+        }
+        Candidatos c = new Candidatos(capacidade);
+        int semDelta = 0;
+
+        for (int v = 0; v < Vertical.VERTICAIS.size(); v++) {
+            Vertical vertical = Vertical.de(Vertical.VERTICAIS.get(v));
+            boolean comprada = vertical.primeiraComprada();
+            // Bull Call e Bull Put lucram com a alta (acima do breakeven)
+            boolean alta = (vertical.tipo() == CotacaoCompacta.CALL) == comprada;
+
+            for (int g = 0; g < cadeia.grupos(); g++) {
+                int dias = (int) (cadeia.vencimentoGrupo(g) - referencia.toEpochDay());
+                if (cadeia.tipoGrupo(g) != vertical.tipo() || dias < 0) continue;
+                boolean call = vertical.tipo() == CotacaoCompacta.CALL;
+
+                for (int i = cadeia.inicioGrupo(g); i < cadeia.fimGrupo(g); i++) {
+                    for (int j = cadeia.inicioGrupo(g); j < cadeia.fimGrupo(g); j++) {
+                        long strikeI = cadeia.strike(i);
+                        long strikeJ = cadeia.strike(j);
+                        long largura = vertical.strikeCrescente() ? strikeJ - strikeI : strikeI - strikeJ;
+                        if (i == j || largura <= 0) continue;
+
+                        long premio = AvaliadorVerticalTicks.premioLiquido(cadeia.preco(i), comprada, cadeia.preco(j));
+                        if (comprada ? premio >= 0 : premio < 0) continue;
+                        long lucro = AvaliadorVerticalTicks.lucroMaximoCentavos(premio, largura);
+                        long risco = AvaliadorVerticalTicks.riscoMaximoCentavos(premio, largura);
+                        if (AvaliadorVerticalTicks.relacaoRiscoRetornoCentesimos(lucro, risco) <= 0) continue;
+
+                        if (Double.isNaN(deltas[i]) || Double.isNaN(deltas[j])) {
+                            semDelta++;
+                            continue;
+                        }
+                        // Com lucro e risco positivos o breakeven fica entre os dois strikes
+                        long breakeven = alta ? strikeI - premio + TAXAS_CENTAVOS : strikeI + premio - TAXAS_CENTAVOS;
+                        double acimaI = call ? deltas[i] : 1 - Math.abs(deltas[i]);
+                        double acimaJ = call ? deltas[j] : 1 - Math.abs(deltas[j]);
+                        double t = (double) (breakeven - strikeI) / (strikeJ - strikeI);
+                        double acima = Math.max(0, Math.min(1, acimaI + t * (acimaJ - acimaI)));
+
+                        int k = c.tamanho++;
+                        c.vertical[k] = (byte) v;
+                        c.primeira[k] = i;
+                        c.segunda[k] = j;
+                        c.risco[k] = risco;
+                        c.lucro[k] = lucro;
+                        c.probabilidade[k] = alta ? acima : 1 - acima;
+                        c.dias[k] = dias;
+                    }
+                }
+            }
+        }
+
+        Integer[] ordem = new Integer[c.tamanho];
+        for (int k = 0; k < ordem.length; k++) {
+            ordem[k] = k;
+        }
+        // Estável: no empate completo fica a ordem de descoberta
+        Arrays.sort(ordem, Comparator.<Integer>comparingLong(k -> c.risco[k])
+                .thenComparing(Comparator.<Integer>comparingLong(k -> c.lucro[k]).reversed())
+                .thenComparing(Comparator.<Integer>comparingDouble(k -> c.probabilidade[k]).reversed())
+                .thenComparingInt(k -> c.dias[k]));
+
+        int[] fronteira = new int[c.tamanho];
+        int naFronteira = 0;
+        for (int k : ordem) {
+            boolean dominado = false;
+            for (int f = 0; f < naFronteira && !dominado; f++) {
+                dominado = c.domina(fronteira[f], k);
+            }
+            if (!dominado) {
+                fronteira[naFronteira++] = k;
+            }
+        }
+
+        List<PontoPareto> pontos = new ArrayList<>(naFronteira);
+        for (int f = 0; f < naFronteira; f++) {
+            pontos.add(paraPonto(cadeia, c, fronteira[f]));
+        }
+        String mensagem = String.format("SUCESSO: %d candidatos não dominados entre %d verticais avaliados.",
+                naFronteira, c.tamanho);
+        if (semDelta > 0) {
+            mensagem += String.format(" %d pares sem delta ignorados.", semDelta);
+        }
+        return new FronteiraParetoResponse(mensagem, c.tamanho, pontos);
+    }
+
+    private static PontoPareto paraPonto(VisaoCadeia cadeia, Candidatos c, int k) {
+        EstrategiaOtimizacao estrategia = Vertical.VERTICAIS.get(c.vertical[k]);
+        Vertical vertical = Vertical.de(estrategia);
+        int primeira = c.primeira[k];
+        int segunda = c.segunda[k];
+        int grupo = cadeia.grupoDaSerie(primeira);
+        return new PontoPareto(estrategia,
+                LocalDate.ofEpochDay(cadeia.vencimentoGrupo(grupo)),
+                List.of(new PernaSpread(cadeia.ticker(primeira), QUANTIDADE_CONTRATOS, vertical.operacaoPrimeira()),
+                        new PernaSpread(cadeia.ticker(segunda), QUANTIDADE_CONTRATOS, vertical.operacaoSegunda())),
+                BigDecimal.valueOf(c.risco[k], 2),
+                BigDecimal.valueOf(c.lucro[k], 2),
+                BigDecimal.valueOf(c.probabilidade[k]).setScale(4, RoundingMode.HALF_UP),
+                c.dias[k],
+                BigDecimal.valueOf(AvaliadorVerticalTicks.relacaoRiscoRetornoCentesimos(c.lucro[k], c.risco[k]), 2));
+    }
+}
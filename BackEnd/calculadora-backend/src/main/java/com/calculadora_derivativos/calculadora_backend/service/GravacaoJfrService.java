@@ -0,0 +1,132 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Gravação do JDK Flight Recorder sob demanda, para perfilar o tráfego real sem reiniciar a
+ * aplicação. No máximo uma gravação por vez, sempre limitada: a duração pedida é cortada em
+ * 'diagnostico.jfr.duracao-maxima-s' (a JVM para a gravação sozinha ao fim dela) e o tamanho
+ * em disco em 'diagnostico.jfr.tamanho-maximo-mb' (os trechos mais antigos são descartados).
+ *
+ * Além dos eventos da configuração escolhida ("default", ~1% de sobrecarga, ou "profile"), os
+ * eventos de EventosOtimizacao são sempre habilitados, com limiar zero, e os que copiam o
+ * ambiente do processo para o arquivo (variáveis de ambiente e propriedades de sistema, onde
+ * ficam senhas e chaves) são sempre desligados.
+ */
+@Service
+public class GravacaoJfrService {
+
+    public record EstadoGravacao(boolean ativa, String situacao, String configuracao, Instant inicio,
+            long duracaoSegundos, long bytes) {
+    }
+
+    private static final String[] EVENTOS_OTIMIZACAO = {
+            "calculadora.BuscaCadeia", "calculadora.EnumeracaoCandidatos",
+            "calculadora.AvaliacaoPayoff", "calculadora.MontagemResposta" };
+
+    private static final String[] EVENTOS_DESLIGADOS = {
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty" };
+
+    private final Duration duracaoMaxima;
+    private final long tamanhoMaximoBytes;
+
+    private Recording gravacao;
+    private String configuracao;
+
+    public GravacaoJfrService(@Value("${diagnostico.jfr.duracao-maxima-s:300}") long duracaoMaximaSegundos,
+            @Value("${diagnostico.jfr.tamanho-maximo-mb:100}") long tamanhoMaximoMb) {
+        this.duracaoMaxima = Duration.ofSeconds(duracaoMaximaSegundos);
+        this.tamanhoMaximoBytes = tamanhoMaximoMb * 1024 * 1024;
+    }
+
+    /**
+     * Inicia a gravação.
+     * @throws IllegalStateException Se já houver uma gravação em andamento.
+     * @throws IllegalArgumentException Se a configuração não existir na JVM.
+     */
+    public synchronized EstadoGravacao iniciar(long duracaoSegundos, String nomeConfiguracao) {
+        if (gravacao != null && gravacao.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Já existe uma gravação JFR em andamento.");
+        }
+        descartar();
+
+        Configuration base;
+        try {
+            base = Configuration.getConfiguration(nomeConfiguracao);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuração JFR inválida: " + nomeConfiguracao
+                    + " (use 'default' ou 'profile').", e);
+        }
+
+        Duration duracao = duracaoSegundos <= 0 ? duracaoMaxima
+                : Duration.ofSeconds(Math.min(duracaoSegundos, duracaoMaxima.toSeconds()));
+        Recording nova = new Recording(base);
+        nova.setName("calculadora-sob-demanda");
+        nova.setToDisk(true);
+        nova.setDuration(duracao);
+        nova.setMaxSize(tamanhoMaximoBytes);
+        for (String evento : EVENTOS_OTIMIZACAO) {
+            nova.enable(evento).withThreshold(Duration.ZERO);
+        }
+        for (String evento : EVENTOS_DESLIGADOS) {
+            nova.disable(evento);
+        }
+        nova.start();
+
+        gravacao = nova;
+        configuracao = nomeConfiguracao;
+        return estado();
+    }
+
+    /**
+     * Para a gravação (se ainda estiver rodando) e grava o arquivo .jfr num temporário, que passa
+     * a ser do chamador (deve apagá-lo depois de enviado). A gravação é descartada.
+     * @throws IllegalStateException Se nenhuma gravação foi iniciada.
+     */
+    public synchronized Path parar() throws IOException {
+        if (gravacao == null) {
+            throw new IllegalStateException("Nenhuma gravação JFR foi iniciada.");
+        }
+        try {
+            if (gravacao.getState() == RecordingState.RUNNING) {
+                gravacao.stop();
+            }
+            Path arquivo = Files.createTempFile("calculadora-", ".jfr");
+            gravacao.dump(arquivo);
+            return arquivo;
+        } finally {
+            descartar();
+        }
+    }
+
+    public synchronized EstadoGravacao estado() {
+        if (gravacao == null) {
+            return new EstadoGravacao(false, "NENHUMA", null, null, 0, 0);
+        }
+        Duration duracao = gravacao.getDuration();
+        return new EstadoGravacao(gravacao.getState() == RecordingState.RUNNING, gravacao.getState().name(),
+                configuracao, gravacao.getStartTime(), duracao == null ? 0 : duracao.toSeconds(), gravacao.getSize());
+    }
+
+    @PreDestroy
+    public synchronized void descartar() {
+        if (gravacao != null) {
+            gravacao.close();
+            gravacao = null;
+            configuracao = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.calculadora_derivativos.calculadora_backend.dto.GregasSerie;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Delta e gamma de cada série da cadeia, por índice: da própria visão quando ela as tem
+ * (BlocoColunarOffHeap) ou do banco, em uma consulta por ativo. Ausentes ficam NaN; o delta
+ * da PUT vem em módulo, como gravado.
+ */
+record GregasCadeia(double[] deltas, double[] gammas) {
+
+    static GregasCadeia carregar(VisaoCadeia cadeia, OptionRepository optionRepository) {
+        double[] deltas = new double[cadeia.tamanho()];
+        double[] gammas = new double[cadeia.tamanho()];
+        if (cadeia.temGregas()) {
+            for (int i = 0; i < cadeia.tamanho(); i++) {
+                deltas[i] = cadeia.delta(i);
+                gammas[i] = cadeia.gamma(i);
+            }
+        } else {
+            Map<String, GregasSerie> porTicker = new HashMap<>();
+            for (GregasSerie gregas : optionRepository.findGregasByIdAcao(cadeia.getIdAcao())) {
+                porTicker.put(gregas.ticker(), gregas);
+            }
+            for (int i = 0; i < cadeia.tamanho(); i++) {
+                GregasSerie gregas = porTicker.get(cadeia.ticker(i));
+                deltas[i] = gregas == null || gregas.delta() == null ? Double.NaN : gregas.delta().doubleValue();
+                gammas[i] = gregas == null || gregas.gamma() == null ? Double.NaN : gregas.gamma().doubleValue();
+            }
+        }
+        return new GregasCadeia(deltas, gammas);
+    }
+}
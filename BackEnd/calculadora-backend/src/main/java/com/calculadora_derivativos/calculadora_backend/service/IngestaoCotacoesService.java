@@ -0,0 +1,242 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CotacaoAoVivo;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.CotacaoAoVivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingestão de cotações ao vivo (NDJSON por HTTP ou WebSocket).
+ *
+ * Receber uma cotação só a registra em dois mapas de pendentes por ticker (coalescência: entre
+ * dois descarregamentos fica apenas a mais recente de cada série), então o caminho da ingestão
+ * não toca cadeia nem banco:
+ * - a cada 'ingestao.memoria.intervalo-ms' as pendentes são aplicadas, por ativo, à cadeia em
+ *   memória (CacheCadeiasCompactas.aplicarPrecos, copy-on-write: prêmio, vol e gregas) e ao
+ *   otimizador incremental (prêmio);
+ * - a cada 'ingestao.banco.intervalo-ms' são gravadas em lote em opcoes_final_tratado. Se a
+ *   gravação falha, voltam para a fila (sem sobrescrever cotações mais novas).
+ *
+ * Métricas: ingestao.cotacoes (por resultado) e ingestao.pendentes (por destino).
+ */
+@Service
+public class IngestaoCotacoesService {
+
+    /**
+     * Resultado da leitura de um lote NDJSON.
+     * @param rejeitadas Linhas com JSON inválido, sem ticker ou com preço não positivo.
+     */
+    public record ResumoIngestao(long recebidas, long rejeitadas) {
+    }
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final OtimizadorIncrementalService otimizadorIncremental;
+    private final OptionRepository optionRepository;
+    private final CotacaoAoVivoRepository cotacaoRepository;
+    private final ObjectReader leitor;
+
+    private final ConcurrentHashMap<String, CotacaoAoVivo> pendentesMemoria = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CotacaoAoVivo> pendentesBanco = new ConcurrentHashMap<>();
+    // Ativo de cada ticker já resolvido no banco: só tickers existentes entram aqui
+    private final ConcurrentHashMap<String, String> acaoPorTicker = new ConcurrentHashMap<>();
+
+    private final Counter recebidas;
+    private final Counter rejeitadas;
+    private final Counter aplicadas;
+    private final Counter desconhecidas;
+    private final Counter gravadas;
+
+    public IngestaoCotacoesService(CacheCadeiasCompactas cacheCadeias,
+            OtimizadorIncrementalService otimizadorIncremental, OptionRepository optionRepository,
+            CotacaoAoVivoRepository cotacaoRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.cacheCadeias = cacheCadeias;
+        this.otimizadorIncremental = otimizadorIncremental;
+        this.optionRepository = optionRepository;
+        this.cotacaoRepository = cotacaoRepository;
+        this.leitor = objectMapper.readerFor(CotacaoAoVivo.class);
+
+        this.recebidas = contador(meterRegistry, "recebida");
+        this.rejeitadas = contador(meterRegistry, "rejeitada");
+        this.aplicadas = contador(meterRegistry, "aplicada");
+        this.desconhecidas = contador(meterRegistry, "desconhecida");
+        this.gravadas = contador(meterRegistry, "gravada");
+        Gauge.builder("ingestao.pendentes", pendentesMemoria, Map::size).tag("destino", "memoria")
+                .register(meterRegistry);
+        Gauge.builder("ingestao.pendentes", pendentesBanco, Map::size).tag("destino", "banco")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("ingestao.cotacoes")
+                .description("Cotações ao vivo por resultado")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra a cotação para os próximos descarregamentos.
+     * @return false se for rejeitada (sem ticker ou com preço nulo/não positivo).
+     */
+    public boolean receber(CotacaoAoVivo cotacao) {
+        if (cotacao == null || cotacao.ticker() == null || cotacao.ticker().isBlank()
+                || cotacao.preco() == null || cotacao.preco().signum() <= 0) {
+            rejeitadas.increment();
+            return false;
+        }
+        pendentesMemoria.merge(cotacao.ticker(), cotacao, CotacaoAoVivo::maisRecente);
+        pendentesBanco.merge(cotacao.ticker(), cotacao, CotacaoAoVivo::maisRecente);
+        recebidas.increment();
+        return true;
+    }
+
+    /**
+     * Lê um lote NDJSON (uma cotação por linha; linhas em branco são ignoradas). Uma linha
+     * inválida é contada como rejeitada sem interromper o restante.
+     */
+    public ResumoIngestao receberNdjson(BufferedReader reader) throws IOException {
+        long aceitas = 0;
+        long invalidas = 0;
+        String linha;
+        while ((linha = reader.readLine()) != null) {
+            if (linha.isBlank()) continue;
+            CotacaoAoVivo cotacao;
+            try {
+                cotacao = leitor.readValue(linha);
+            } catch (IOException e) {
+                rejeitadas.increment();
+                invalidas++;
+                continue;
+            }
+            if (receber(cotacao)) {
+                aceitas++;
+            } else {
+                invalidas++;
+            }
+        }
+        return new ResumoIngestao(aceitas, invalidas);
+    }
+
+    /**
+     * Aplica as cotações pendentes à cadeia em memória e ao otimizador incremental, uma troca
+     * de cadeia por ativo. O ativo de cada cotação é o do ticker no banco, nunca o informado
+     * pelo cliente: tickers desconhecidos, com idAcao divergente ou fora da cadeia em memória
+     * são descartados, então nenhum ativo novo é criado no cache ou no otimizador.
+     * @return Quantidade de cotações aplicadas.
+     */
+    @Scheduled(fixedDelayString = "${ingestao.memoria.intervalo-ms:100}")
+    public int aplicarPendentes() {
+        Map<String, Map<String, CotacaoAoVivo>> cotacoesPorAcao = new HashMap<>();
+        for (String ticker : pendentesMemoria.keySet()) {
+            CotacaoAoVivo cotacao = pendentesMemoria.remove(ticker);
+            if (cotacao == null) continue;
+            String idAcao = resolverAcao(cotacao);
+            if (idAcao == null) {
+                desconhecidas.increment();
+                continue;
+            }
+            cotacoesPorAcao.computeIfAbsent(idAcao, id -> new HashMap<>()).put(ticker, cotacao);
+        }
+
+        int total = 0;
+        for (Map.Entry<String, Map<String, CotacaoAoVivo>> acao : cotacoesPorAcao.entrySet()) {
+            Map<String, AtualizacaoSerie> atualizacoes = new HashMap<>();
+            Map<String, BigDecimal> precos = new HashMap<>();
+            acao.getValue().forEach((ticker, cotacao) -> {
+                atualizacoes.put(ticker, paraAtualizacao(cotacao));
+                precos.put(ticker, cotacao.preco());
+            });
+            VisaoCadeia cadeia = cacheCadeias.aplicarPrecos(acao.getKey(), atualizacoes);
+            // Séries fora da cadeia em memória (ou ativo sem cadeia) não chegam ao otimizador
+            precos.keySet().removeIf(ticker -> cadeia.indice(ticker) < 0);
+            desconhecidas.increment(atualizacoes.size() - precos.size());
+            if (!precos.isEmpty()) {
+                otimizadorIncremental.atualizarCotacoes(acao.getKey(), precos);
+            }
+            total += precos.size();
+        }
+        aplicadas.increment(total);
+        return total;
+    }
+
+    /**
+     * Grava as cotações pendentes no banco em lote.
+     * @return Quantidade de cotações gravadas.
+     */
+    @Scheduled(fixedDelayString = "${ingestao.banco.intervalo-ms:1000}")
+    public int gravarPendentes() {
+        List<CotacaoAoVivo> lote = new ArrayList<>(pendentesBanco.size());
+        for (String ticker : pendentesBanco.keySet()) {
+            CotacaoAoVivo cotacao = pendentesBanco.remove(ticker);
+            if (cotacao != null) {
+                lote.add(cotacao);
+            }
+        }
+
+        try {
+            cotacaoRepository.atualizarEmLote(lote);
+        } catch (RuntimeException e) {
+            // Devolve à fila; uma cotação mais nova que chegou nesse meio-tempo prevalece
+            for (CotacaoAoVivo cotacao : lote) {
+                pendentesBanco.merge(cotacao.ticker(), cotacao, (nova, antiga) -> CotacaoAoVivo.maisRecente(antiga, nova));
+            }
+            System.err.println("Falha ao gravar " + lote.size() + " cotações ao vivo (nova tentativa no próximo ciclo): "
+                    + e.getMessage());
+            return 0;
+        }
+        gravadas.increment(lote.size());
+        return lote.size();
+    }
+
+    // No desligamento, descarrega o que ainda está pendente
+    @PreDestroy
+    public void descarregar() {
+        aplicarPendentes();
+        gravarPendentes();
+    }
+
+    // Prêmio em ticks; vol e gregas ausentes na cotação ficam NaN (mantêm o valor em memória)
+    private static AtualizacaoSerie paraAtualizacao(CotacaoAoVivo cotacao) {
+        return new AtualizacaoSerie(Math.toIntExact(CotacaoCompacta.paraTicks(cotacao.preco())),
+                duplo(cotacao.volImplicita()), duplo(cotacao.delta()), duplo(cotacao.gamma()),
+                duplo(cotacao.theta()), duplo(cotacao.vega()));
+    }
+
+    private static double duplo(BigDecimal valor) {
+        return valor == null ? Double.NaN : valor.doubleValue();
+    }
+
+    // Ativo do ticker no banco; null se desconhecido ou se o idAcao informado não confere
+    private String resolverAcao(CotacaoAoVivo cotacao) {
+        // Sem cache negativo: um ticker novo passa a ser aceito depois de carregado no banco
+        String idAcao = acaoPorTicker.computeIfAbsent(cotacao.ticker(),
+                ticker -> optionRepository.findByTicker(ticker).map(Option::getIdAcao).orElse(null));
+        if (idAcao == null || (cotacao.idAcao() != null && !cotacao.idAcao().isBlank()
+                && !cotacao.idAcao().equals(idAcao))) {
+            return null;
+        }
+        return idAcao;
+    }
+}
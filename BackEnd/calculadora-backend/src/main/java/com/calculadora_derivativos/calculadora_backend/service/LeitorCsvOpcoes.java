@@ -0,0 +1,200 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime; // Importação adicionada
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+
+/**
+ * Lê o CSV gerado pelo script Python (opcoes_final_tratado.csv) linha a linha,
+ * entregando cada Option válida ao consumidor informado (sem acumular o arquivo em memória).
+ * Usado pelo DataLoader e pela importação de snapshots históricos.
+ */
+@Component
+public class LeitorCsvOpcoes {
+
+    // Formatadores para data/hora
+    private static final DateTimeFormatter DATE_TIME_FORMATTER_FULL = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter DATE_FORMATTER_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Formatadores para o Vencimento (mantidos do ajuste anterior)
+    private static final DateTimeFormatter VENCIMENTO_FORMATTER_ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter VENCIMENTO_FORMATTER_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Resultado da leitura de um arquivo.
+     * @param cabecalhoValido false quando faltam colunas obrigatórias (nenhuma linha é lida).
+     */
+    public record Resultado(boolean cabecalhoValido, long linhasAceitas, long linhasIgnoradas) {
+    }
+
+    // Método auxiliar para tentar analisar o vencimento em múltiplos formatos (mantido)
+    LocalDate parseVencimento(String vencimentoStr) {
+        if (vencimentoStr.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(vencimentoStr, VENCIMENTO_FORMATTER_ISO);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(vencimentoStr, VENCIMENTO_FORMATTER_BR);
+            } catch (DateTimeParseException ex) {
+                throw ex; // Falha em ambos
+            }
+        }
+    }
+
+    // NOVO MÉTODO AUXILIAR: Para analisar o campo dataHora que pode vir sem a hora.
+    LocalDateTime parseDataHora(String dataHoraStr) {
+        if (dataHoraStr.isEmpty()) {
+            return null;
+        }
+
+        // 1. Tenta analisar como LocalDateTime completo (com horas)
+        try {
+            return LocalDateTime.parse(dataHoraStr, DATE_TIME_FORMATTER_FULL);
+        } catch (DateTimeParseException e) {
+            // 2. Se falhar, tenta analisar como LocalDate (apenas data)
+            try {
+                LocalDate localDate = LocalDate.parse(dataHoraStr, DATE_FORMATTER_BR);
+                // 3. Combina o LocalDate com a meia-noite para criar um LocalDateTime
+                return LocalDateTime.of(localDate, LocalTime.MIDNIGHT);
+            } catch (DateTimeParseException ex) {
+                // Se ambos falharem, lança a exceção original (ou a última)
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Lê o CSV e entrega cada opção válida ao 'destino'.
+     * Linhas incompletas, com erro de formato ou com strike/prêmio/delta zerados são ignoradas.
+     */
+    public Resultado ler(BufferedReader reader, Consumer<Option> destino) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            System.err.println("Erro: CSV vazio (sem cabeçalho).");
+            return new Resultado(false, 0, 0);
+        }
+
+        String[] headers = line.split(",");
+        Map<String, Integer> headerMap = new HashMap<>();
+
+        for (int i = 0; i < headers.length; i++) {
+            headerMap.put(headers[i].trim().toLowerCase(), i);
+        }
+
+        System.out.println("Cabeçalho do CSV lido (Normalizado): " + headerMap.keySet());
+
+        Integer idAcaoIndex = headerMap.get("idacao");
+        Integer tickerIndex = headerMap.get("ticker");
+        Integer vencimentoIndex = headerMap.get("vencimento");
+        Integer diasUteisIndex = headerMap.get("diasuteis");
+        Integer dataHoraIndex = headerMap.get("datahora");
+        Integer tipoIndex = headerMap.get("tipo");
+        Integer strikeIndex = headerMap.get("strike");
+        Integer precoIndex = headerMap.get("premiopct");
+        Integer volImplicitaIndex = headerMap.get("volimplicita");
+        Integer deltaIndex = headerMap.get("delta");
+        Integer gammaIndex = headerMap.get("gamma");
+        Integer thetaIndex = headerMap.get("theta");
+        Integer vegaIndex = headerMap.get("vega");
+
+        if (tickerIndex == null || tipoIndex == null || strikeIndex == null || deltaIndex == null ||
+            vencimentoIndex == null || thetaIndex == null || gammaIndex == null || vegaIndex == null ||
+            idAcaoIndex == null || precoIndex == null || volImplicitaIndex == null || dataHoraIndex == null || diasUteisIndex == null) {
+
+            System.err.println("Erro: Uma ou mais colunas necessárias não foram encontradas no CSV. Verifique a ortografia.");
+            if (precoIndex == null) System.err.println(" - O campo 'preco' não foi encontrado (Esperado: 'premiopct')");
+            if (dataHoraIndex == null) System.err.println(" - O campo 'datahora' não foi encontrado.");
+            if (diasUteisIndex == null) System.err.println(" - O campo 'diasuteis' não foi encontrado.");
+            return new Resultado(false, 0, 0);
+        }
+
+        // Processamento das Linhas do CSV
+        String dataLine;
+        long linhasAceitas = 0;
+        long linhasIgnoradas = 0;
+        long linhaAtual = 1;
+
+        while ((dataLine = reader.readLine()) != null) {
+            linhaAtual++;
+            String[] values = dataLine.split(",");
+            Option option = new Option();
+
+            try {
+                if (values.length < headers.length) {
+                     linhasIgnoradas++;
+                     System.err.println("Linha " + linhaAtual + " IGNORADA: Linha incompleta.");
+                     continue;
+                }
+
+                // --- PARSING DE BIGDECIMAL e FILTRAGEM ---
+                BigDecimal strike = new BigDecimal(values[strikeIndex].trim());
+                BigDecimal preco = new BigDecimal(values[precoIndex].trim());
+                BigDecimal delta = new BigDecimal(values[deltaIndex].trim());
+
+                if (strike.compareTo(BigDecimal.ZERO) == 0 || preco.compareTo(BigDecimal.ZERO) == 0 || delta.compareTo(BigDecimal.ZERO) == 0) {
+                    linhasIgnoradas++;
+                    continue;
+                }
+                // --- FIM DA FILTRAGEM ---
+
+                // Mapeamento
+                option.setIdAcao(values[idAcaoIndex].trim());
+                option.setTicker(values[tickerIndex].trim());
+
+                // Vencimento: USA O MÉTODO AUXILIAR FLEXÍVEL (mantido do ajuste anterior)
+                String vencimentoStr = values[vencimentoIndex].trim();
+                LocalDate vencimento = parseVencimento(vencimentoStr);
+                if (vencimento != null) {
+                    option.setVencimento(vencimento);
+                }
+
+                // diasUteis (Integer)
+                String diasUteisStr = values[diasUteisIndex].trim();
+                if (!diasUteisStr.isEmpty()) {
+                    option.setDiasUteis(Integer.parseInt(diasUteisStr));
+                }
+
+                // dataHora: AGORA USA O NOVO MÉTODO AUXILIAR
+                String dataHoraStr = values[dataHoraIndex].trim();
+                option.setDataHora(parseDataHora(dataHoraStr));
+
+                option.setTipo(values[tipoIndex].trim());
+                option.setStrike(strike);
+                option.setPreco(preco);
+
+                // Outros BigDecimals
+                option.setVolImplicita(new BigDecimal(values[volImplicitaIndex].trim()));
+                option.setDelta(delta);
+                option.setGamma(new BigDecimal(values[gammaIndex].trim()));
+                option.setTheta(new BigDecimal(values[thetaIndex].trim()));
+                option.setVega(new BigDecimal(values[vegaIndex].trim()));
+
+            } catch (Exception e) {
+                linhasIgnoradas++;
+                System.err.println("Linha " + linhaAtual + " IGNORADA por erro de PARSE/FORMATO/Incompleta: " + dataLine + " | Erro: " + e.getMessage());
+                continue;
+            }
+
+            // Fora do try: falhas do destino (ex: banco) não são confundidas com linha inválida
+            destino.accept(option);
+            linhasAceitas++;
+        }
+
+        return new Resultado(true, linhasAceitas, linhasIgnoradas);
+    }
+}
@@ -0,0 +1,381 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+
+/**
+ * Lê a planilha exportada (xlsx de "Opções BOVA11 - CALLs e PUTs ...") direto no backend,
+ * substituindo o script limpar_excel_final.py + CSV intermediário.
+ *
+ * A primeira aba é percorrida em streaming (SAX sobre o XML da planilha, via XSSFReader):
+ * cada linha é limpa e entregue ao consumidor assim que termina, sem montar a planilha em
+ * memória. As regras são as do script:
+ * - cabeçalho na 2ª linha (a 1ª é o título mesclado), dados a partir da 3ª; cada coluna é
+ *   achada pelo primeiro nome possível contido (sem diferenciar maiúsculas) no cabeçalho;
+ * - números: sem espaços, '.' de milhar removido e ',' decimal virando '.'; inválido = 0;
+ * - strike e prêmio / 100, vol implícita |x| / 100, delta/gamma/vega |x| / 10000 e
+ *   theta / 10000 (com sinal), todos com 4 casas;
+ * - tipo pela 1ª letra: C/E = CALL, P/A = PUT;
+ * - vencimento dia/mês/ano; linhas sem ticker (> 5 caracteres), strike, prêmio, delta ou
+ *   vega são ignoradas.
+ * O ativo vem do nome do arquivo ("Opções XXXX ...") ou é BOVA11, como no script.
+ */
+@Component
+public class LeitorPlanilhaOpcoes {
+
+    private static final String ATIVO_PADRAO = "BOVA11";
+    private static final Pattern ATIVO_NO_NOME = Pattern.compile("Opções\\s+(\\w+)", Pattern.UNICODE_CHARACTER_CLASS);
+
+    // Linhas (base 0) do cabeçalho e da primeira linha de dados
+    private static final int LINHA_CABECALHO = 1;
+    private static final int PRIMEIRA_LINHA_DADOS = 2;
+
+    // Nome final -> nomes possíveis no Excel (COLUNAS_MAP do script, na mesma ordem)
+    private static final Map<String, List<String>> COLUNAS = new LinkedHashMap<>();
+    static {
+        COLUNAS.put("ticker", List.of("Ticker"));
+        COLUNAS.put("vencimento", List.of("Vencimento"));
+        COLUNAS.put("diasUteis", List.of("Dias úteis"));
+        COLUNAS.put("tipo", List.of("Tipo", "TipoF.M."));
+        COLUNAS.put("strike", List.of("Strike"));
+        COLUNAS.put("premioPct", List.of("Prêmio", "Último", "Último "));
+        COLUNAS.put("volImplicita", List.of("Vol. Implícita (%)", "Vol. Impl.", "Vol. Implícita"));
+        COLUNAS.put("delta", List.of("Delta"));
+        COLUNAS.put("gamma", List.of("Gamma"));
+        COLUNAS.put("theta", List.of("Theta ($)", "Theta (%)", "Theta"));
+        COLUNAS.put("vega", List.of("Vega"));
+        COLUNAS.put("dataHora", List.of("Data/Hora"));
+    }
+    // O filtro de qualidade do script depende de delta e vega
+    private static final List<String> COLUNAS_ESSENCIAIS = List.of("ticker", "strike", "premioPct", "delta", "vega");
+
+    private static final BigDecimal FATOR_PRECO = new BigDecimal("100");
+    private static final BigDecimal FATOR_GREGA = new BigDecimal("10000");
+    private static final BigDecimal FATOR_VI = new BigDecimal("100");
+
+    private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final DateTimeFormatter DATA_HORA_BR = DateTimeFormatter.ofPattern("d/M/yyyy H:mm[:ss]");
+    // Datas gravadas como número de série do Excel (sistema 1900)
+    private static final LocalDate EPOCA_EXCEL = LocalDate.of(1899, 12, 30);
+
+    /** Ativo base pelo nome do arquivo, como no script (padrão BOVA11). */
+    public static String ativoDoNomeArquivo(String nomeArquivo) {
+        if (nomeArquivo == null) {
+            return ATIVO_PADRAO;
+        }
+        String nome = nomeArquivo.substring(Math.max(nomeArquivo.lastIndexOf('/'), nomeArquivo.lastIndexOf('\\')) + 1);
+        Matcher matcher = ATIVO_NO_NOME.matcher(nome);
+        return matcher.find() ? matcher.group(1).toUpperCase() : ATIVO_PADRAO;
+    }
+
+    public LeitorCsvOpcoes.Resultado ler(Path planilha, Consumer<Option> destino) throws IOException {
+        try (OPCPackage pacote = OPCPackage.open(planilha.toFile(), PackageAccess.READ)) {
+            return ler(pacote, ativoDoNomeArquivo(planilha.getFileName().toString()), destino);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Planilha inválida: " + e.getMessage(), e);
+        }
+    }
+
+    public LeitorCsvOpcoes.Resultado ler(InputStream planilha, String idAcao, Consumer<Option> destino)
+            throws IOException {
+        try (OPCPackage pacote = OPCPackage.open(planilha)) {
+            return ler(pacote, idAcao, destino);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Planilha inválida: " + e.getMessage(), e);
+        }
+    }
+
+    private LeitorCsvOpcoes.Resultado ler(OPCPackage pacote, String idAcao, Consumer<Option> destino)
+            throws IOException, OpenXML4JException {
+        ReadOnlySharedStringsTable textos;
+        try {
+            textos = new ReadOnlySharedStringsTable(pacote);
+        } catch (SAXException e) {
+            throw new IOException("Textos compartilhados inválidos: " + e.getMessage(), e);
+        }
+        XSSFReader leitor = new XSSFReader(pacote);
+        Linhas linhas = new Linhas(idAcao, destino);
+
+        try (InputStream aba = leitor.getSheetsData().next()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new ManipuladorCelulas(textos, linhas));
+            parser.parse(new InputSource(aba));
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Erro ao ler a planilha: " + e.getMessage(), e);
+        }
+
+        if (linhas.indices == null) {
+            System.err.println("Erro: As colunas essenciais " + COLUNAS_ESSENCIAIS
+                    + " não foram encontradas no cabeçalho da planilha.");
+            return new LeitorCsvOpcoes.Resultado(false, 0, 0);
+        }
+        return new LeitorCsvOpcoes.Resultado(true, linhas.aceitas, linhas.ignoradas);
+    }
+
+    /** Eventos SAX -> linhas de valores brutos (coluna -> texto), uma de cada vez. */
+    private static final class ManipuladorCelulas extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable textos;
+        private final Linhas linhas;
+        private final Map<Integer, String> celulas = new HashMap<>();
+        private final StringBuilder texto = new StringBuilder();
+        private int linha;
+        private int coluna;
+        private String tipoCelula;
+        private boolean capturando;
+
+        ManipuladorCelulas(ReadOnlySharedStringsTable textos, Linhas linhas) {
+            this.textos = textos;
+            this.linhas = linhas;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atributos) {
+            switch (localName) {
+                case "row" -> {
+                    String r = atributos.getValue("r");
+                    linha = r != null ? Integer.parseInt(r) - 1 : linha + 1;
+                    celulas.clear();
+                }
+                case "c" -> {
+                    coluna = indiceColuna(atributos.getValue("r"), celulas.size());
+                    tipoCelula = atributos.getValue("t");
+                    texto.setLength(0);
+                }
+                // <v> (valor) ou <t> de texto embutido (pode vir em vários trechos <r><t>)
+                case "v", "t" -> capturando = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int inicio, int tamanho) {
+            if (capturando) {
+                texto.append(ch, inicio, tamanho);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> capturando = false;
+                case "c" -> {
+                    String valor = texto.toString();
+                    if ("s".equals(tipoCelula) && !valor.isEmpty()) {
+                        valor = textos.getItemAt(Integer.parseInt(valor.trim())).getString();
+                    }
+                    celulas.put(coluna, valor);
+                }
+                case "row" -> linhas.processar(linha, celulas);
+                default -> {
+                }
+            }
+        }
+
+        // "AB12" -> 27; sem referência, a próxima coluna
+        private static int indiceColuna(String referencia, int proxima) {
+            if (referencia == null) {
+                return proxima;
+            }
+            int indice = 0;
+            for (int i = 0; i < referencia.length() && Character.isLetter(referencia.charAt(i)); i++) {
+                indice = indice * 26 + (Character.toUpperCase(referencia.charAt(i)) - 'A' + 1);
+            }
+            return indice - 1;
+        }
+    }
+
+    /** Cabeçalho e limpeza de cada linha de dados (regras do script). */
+    private static final class Linhas {
+
+        private final String idAcao;
+        private final Consumer<Option> destino;
+        private Map<String, Integer> indices;
+        private long aceitas;
+        private long ignoradas;
+
+        Linhas(String idAcao, Consumer<Option> destino) {
+            this.idAcao = idAcao;
+            this.destino = destino;
+        }
+
+        void processar(int linha, Map<Integer, String> celulas) {
+            if (linha == LINHA_CABECALHO) {
+                indices = mapearCabecalho(celulas);
+            } else if (linha >= PRIMEIRA_LINHA_DADOS && indices != null) {
+                Option opcao = limpar(celulas);
+                if (opcao == null) {
+                    ignoradas++;
+                    return;
+                }
+                destino.accept(opcao);
+                aceitas++;
+            }
+        }
+
+        private static Map<String, Integer> mapearCabecalho(Map<Integer, String> celulas) {
+            int ultima = celulas.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            Map<String, Integer> encontradas = new HashMap<>();
+            for (Map.Entry<String, List<String>> coluna : COLUNAS.entrySet()) {
+                busca:
+                for (String nomeExcel : coluna.getValue()) {
+                    for (int i = 0; i <= ultima; i++) {
+                        String cabecalho = celulas.getOrDefault(i, "").strip();
+                        if (cabecalho.toLowerCase().contains(nomeExcel.toLowerCase())) {
+                            encontradas.put(coluna.getKey(), i);
+                            break busca;
+                        }
+                    }
+                }
+                if (!encontradas.containsKey(coluna.getKey())) {
+                    System.out.println("AVISO: Coluna '" + coluna.getKey() + "' não encontrada na planilha.");
+                }
+            }
+            return encontradas.keySet().containsAll(COLUNAS_ESSENCIAIS) ? encontradas : null;
+        }
+
+        private Option limpar(Map<Integer, String> celulas) {
+            String ticker = valor(celulas, "ticker").strip();
+            BigDecimal strike = escalar(numero(celulas, "strike"), FATOR_PRECO);
+            BigDecimal premio = escalar(numero(celulas, "premioPct"), FATOR_PRECO);
+            BigDecimal delta = escalar(numero(celulas, "delta").abs(), FATOR_GREGA);
+            BigDecimal vega = escalar(numero(celulas, "vega").abs(), FATOR_GREGA);
+
+            // Filtro de qualidade final do script
+            if (ticker.length() <= 5 || strike.signum() <= 0 || premio.signum() <= 0 || delta.signum() == 0
+                    || vega.signum() == 0) {
+                return null;
+            }
+            String tipo = tipo(valor(celulas, "tipo"));
+            LocalDate vencimento = vencimento(valor(celulas, "vencimento"));
+            // Sem vencimento ou tipo a série não entra em nenhuma cadeia
+            if (tipo == null || vencimento == null) {
+                return null;
+            }
+
+            Option opcao = new Option();
+            opcao.setIdAcao(idAcao);
+            opcao.setTicker(ticker);
+            opcao.setVencimento(vencimento);
+            opcao.setDiasUteis(numero(celulas, "diasUteis").intValue());
+            opcao.setTipo(tipo);
+            opcao.setStrike(strike);
+            opcao.setPreco(premio);
+            opcao.setVolImplicita(escalar(numero(celulas, "volImplicita").abs(), FATOR_VI));
+            opcao.setDelta(delta);
+            opcao.setGamma(escalar(numero(celulas, "gamma").abs(), FATOR_GREGA));
+            opcao.setTheta(escalar(numero(celulas, "theta"), FATOR_GREGA));
+            opcao.setVega(vega);
+            opcao.setDataHora(dataHora(valor(celulas, "dataHora")));
+            return opcao;
+        }
+
+        private String valor(Map<Integer, String> celulas, String coluna) {
+            Integer indice = indices.get(coluna);
+            String valor = indice == null ? null : celulas.get(indice);
+            return valor == null ? "" : valor;
+        }
+
+        // strip, remove '.', ',' -> '.', inválido = 0 (to_numeric(errors='coerce') + fillna(0.0))
+        private BigDecimal numero(Map<Integer, String> celulas, String coluna) {
+            String limpo = valor(celulas, coluna).strip().replace(".", "").replace(",", ".");
+            try {
+                return new BigDecimal(limpo);
+            } catch (NumberFormatException e) {
+                return BigDecimal.ZERO;
+            }
+        }
+    }
+
+    private static BigDecimal escalar(BigDecimal valor, BigDecimal fator) {
+        return valor.divide(fator).setScale(4, RoundingMode.HALF_EVEN);
+    }
+
+    private static String tipo(String valor) {
+        String limpo = valor.strip().toUpperCase();
+        if (limpo.isEmpty()) {
+            return null;
+        }
+        return switch (limpo.charAt(0)) {
+            case 'C', 'E' -> "CALL";
+            case 'P', 'A' -> "PUT";
+            default -> String.valueOf(limpo.charAt(0));
+        };
+    }
+
+    private static LocalDate vencimento(String valor) {
+        String limpo = valor.strip();
+        try {
+            if (limpo.contains("/")) {
+                return LocalDate.parse(limpo.split(" ")[0], DATA_BR);
+            }
+            if (limpo.contains("-")) {
+                return LocalDate.parse(limpo.substring(0, Math.min(10, limpo.length())));
+            }
+            if (!limpo.isEmpty()) {
+                return EPOCA_EXCEL.plusDays(new BigDecimal(limpo).longValue());
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            // Data inválida: como o NaT do script, a linha não é carregada
+        }
+        return null;
+    }
+
+    private static LocalDateTime dataHora(String valor) {
+        String limpo = valor.strip();
+        try {
+            if (limpo.contains("/")) {
+                return limpo.contains(":") ? LocalDateTime.parse(limpo, DATA_HORA_BR)
+                        : LocalDate.parse(limpo, DATA_BR).atStartOfDay();
+            }
+            if (limpo.contains("-")) {
+                return limpo.length() > 10 ? LocalDateTime.parse(limpo.replace(' ', 'T'))
+                        : LocalDate.parse(limpo).atStartOfDay();
+            }
+            if (!limpo.isEmpty()) {
+                // Série do Excel: parte inteira = dia, fração = hora do dia
+                BigDecimal serie = new BigDecimal(limpo);
+                long dias = serie.longValue();
+                long segundos = serie.subtract(BigDecimal.valueOf(dias)).multiply(BigDecimal.valueOf(86_400))
+                        .setScale(0, RoundingMode.HALF_UP).longValue();
+                return EPOCA_EXCEL.plusDays(dias).atTime(LocalTime.ofSecondOfDay(Math.min(segundos, 86_399)));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            // dataHora é opcional
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fachada dos otimizadores com coalescência de requisições idênticas (single-flight).
+ *
+ * Requisições simultâneas com a mesma estratégia, ativo, cotação, taxas e versão dos dados
+ * (da cadeia e dos preços ao vivo do ativo) compartilham UMA execução do SpreadService: a
+ * primeira calcula e as demais aguardam e recebem o mesmo resultado (ou a mesma exceção).
+ * Terminada a execução a chave sai do mapa, então não há cache de resultados - uma requisição
+ * posterior calcula de novo.
+ *
+ * Métricas (Micrometer): spread.otimizacao.executadas, spread.otimizacao.coalescidas
+ * (por estratégia) e spread.otimizacao.em-voo.
+ */
+@Service
+@Primary
+public class OtimizacaoCoalescidaService implements CalculadoraSpreadService {
+
+    // Chave de coalescência; cotação e taxas normalizadas (138.0 == 138.00)
+    private record ChaveOtimizacao(EstrategiaOtimizacao estrategia, String idAcao, BigDecimal cotacao,
+            BigDecimal taxas, long versaoDados, long versaoPrecos) {
+    }
+
+    private final SpreadService spreadService;
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<ChaveOtimizacao, CompletableFuture<SpreadResponse>> emVoo = new ConcurrentHashMap<>();
+
+    public OtimizacaoCoalescidaService(SpreadService spreadService, CacheCadeiasCompactas cacheCadeias,
+            MeterRegistry meterRegistry) {
+        this.spreadService = spreadService;
+        this.cacheCadeias = cacheCadeias;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("spread.otimizacao.em-voo", emVoo, ConcurrentHashMap::size)
+                .description("Otimizações distintas em execução")
+                .register(meterRegistry);
+    }
+
+    // Cálculo manual é barato e específico de cada requisição: não coalesce
+    @Override
+    public SpreadResponse calcularSpread(SpreadRequest request) {
+        return spreadService.calcularSpread(request);
+    }
+
+    @Override
+    public SpreadResponse otimizarBullCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return coalescer(EstrategiaOtimizacao.BULL_CALL, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                () -> spreadService.otimizarBullCallSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    @Override
+    public SpreadResponse otimizarBearPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return coalescer(EstrategiaOtimizacao.BEAR_PUT, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                () -> spreadService.otimizarBearPutSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    @Override
+    public SpreadResponse otimizarBullPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return coalescer(EstrategiaOtimizacao.BULL_PUT, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                () -> spreadService.otimizarBullPutSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    @Override
+    public SpreadResponse otimizarBearCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return coalescer(EstrategiaOtimizacao.BEAR_CALL, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                () -> spreadService.otimizarBearCallSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    @Override
+    public SpreadResponse otimizarMelhorEstrategia(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return coalescer(EstrategiaOtimizacao.MELHOR, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                () -> spreadService.otimizarMelhorEstrategia(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+    }
+
+    // Listas top-K variam com K e são servidas em streaming: não coalesce
+    @Override
+    public List<SpreadResponse> otimizarTopK(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, int k) {
+        return spreadService.otimizarTopK(estrategia, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, k);
+    }
+
+    // O resultado depende do prazo de cada requisição: não coalesce
+    @Override
+    public SpreadResponse otimizarComPrazo(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, long prazoNanos) {
+        return spreadService.otimizarComPrazo(estrategia, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                prazoNanos);
+    }
+
+    // Cadeia fornecida pelo chamador (backtest): não há chave estável para coalescer
+    @Override
+    public SpreadResponse otimizar(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, List<OpcaoCadeia> cadeia) {
+        return spreadService.otimizar(estrategia, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, cadeia);
+    }
+
+    private SpreadResponse coalescer(EstrategiaOtimizacao estrategia, String idAcao, BigDecimal cotacao,
+            BigDecimal taxas, Supplier<SpreadResponse> otimizacao) {
+
+        ChaveOtimizacao chave = new ChaveOtimizacao(estrategia, idAcao, normalizar(cotacao), normalizar(taxas),
+                cacheCadeias.getVersao(), cacheCadeias.getVersaoPrecos(idAcao));
+        CompletableFuture<SpreadResponse> nova = new CompletableFuture<>();
+        CompletableFuture<SpreadResponse> existente = emVoo.putIfAbsent(chave, nova);
+
+        if (existente != null) {
+            // Já existe uma execução idêntica: aguarda o resultado dela
+            contador("spread.otimizacao.coalescidas", estrategia).increment();
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+
+        contador("spread.otimizacao.executadas", estrategia).increment();
+        try {
+            SpreadResponse resposta = otimizacao.get();
+            nova.complete(resposta);
+            return resposta;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emVoo.remove(chave, nova);
+        }
+    }
+
+    private Counter contador(String nome, EstrategiaOtimizacao estrategia) {
+        return Counter.builder(nome)
+                .tag("estrategia", estrategia.name())
+                .register(meterRegistry);
+    }
+
+    private static BigDecimal normalizar(BigDecimal valor) {
+        return valor == null ? null : valor.stripTrailingZeros();
+    }
+}
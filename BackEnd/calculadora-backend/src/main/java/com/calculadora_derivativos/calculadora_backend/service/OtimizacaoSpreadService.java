@@ -1,91 +1,264 @@
 package com.calculadora_derivativos.calculadora_backend.service;
 
-import java.math.BigDecimal;
+import static com.calculadora_derivativos.calculadora_backend.service.AvaliadorVerticalTicks.TAXAS_CENTAVOS;
+import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.MIN_RISCO_RETORNO_LIQUIDO;
+
 import java.math.RoundingMode;
-import java.util.Collections;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 import org.springframework.stereotype.Service;
 
 import com.calculadora_derivativos.calculadora_backend.dto.OtimizacaoSpreadRequest;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
 
 /**
- * Serviço responsável por encontrar a melhor estratégia de spread (otimização).
- * O código foi adaptado para usar o padrão Builder do Lombok, resolvendo o erro
- * de
- * construtor após a adição do campo 'nomeEstrategia' em SpreadResponse.
+ * Serviço responsável por encontrar a melhor estratégia de spread (otimização) dentro dos
+ * critérios do usuário: risco máximo, retorno mínimo e vencimento.
+ *
+ * Busca nas 4 verticais da cadeia em cache (VisaoCadeia), em ticks, com as restrições
+ * aplicadas DURANTE a enumeração:
+ * - vencimento: grupos de outro vencimento não são percorridos;
+ * - crédito (Bull Put, Bear Call): o crédito nunca passa do prêmio da perna vendida, então
+ *   pernas vendidas baratas demais são descartadas e, com os strikes em ordem, a segunda perna
+ *   para de se afastar quando a largura estoura o risco máximo ou a R/R mínima;
+ * - débito (Bull Call, Bear Put): pares com débito acima do risco ou largura abaixo do mínimo
+ *   para o retorno não chegam a ser avaliados.
+ * Entre os pares que cumprem as restrições (e a R/R mínima MIN_RISCO_RETORNO_LIQUIDO), vence
+ * a maior R/R, com o mesmo desempate do SpreadService. Só o vencedor passa pelo cálculo
+ * completo.
+ *
+ * Pares com o prêmio no sentido oposto ao da vertical (crédito em Bull Call, débito em Bear
+ * Call: cotações invertidas) são descartados.
  */
 @Service
 public class OtimizacaoSpreadService {
 
-        private static final int SCALE = 6;
-        private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
         private static final String SPREAD_NAME = "Spread Otimizado";
+        private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+        // R/R mínima em centésimos (1.0 = 100)
+        private static final long MIN_RELACAO_CENTESIMOS = MIN_RISCO_RETORNO_LIQUIDO.movePointRight(2)
+                        .setScale(0, RoundingMode.CEILING).longValueExact();
+
+        private final CacheCadeiasCompactas cacheCadeias;
+        private final SpreadService spreadService;
+
+        public OtimizacaoSpreadService(CacheCadeiasCompactas cacheCadeias, SpreadService spreadService) {
+                this.cacheCadeias = cacheCadeias;
+                this.spreadService = spreadService;
+        }
+
+        /**
+         * Resultado da busca com a quantidade de pares que chegaram a ser avaliados (os demais
+         * foram podados pelas restrições).
+         */
+        public record ResultadoOtimizacao(SpreadResponse spread, long paresAvaliados) {
+        }
 
         public SpreadResponse otimizar(OtimizacaoSpreadRequest request) {
-                // Lógica de otimização de spread... (Placeholder)
-
-                // Simulação de que o melhor spread foi encontrado e seus dados foram
-                // calculados.
-                // Na prática, 'melhorSpread' seria um objeto complexo com todos os dados
-                // calculados.
-                SpreadResponse melhorSpread = simularMelhorResultado();
-
-                if (melhorSpread == null) {
-                        // Caso não encontre nenhuma combinação válida
-                        // CORREÇÃO: Usando SpreadResponse.builder()
-                        return SpreadResponse.builder()
-                                        .mensagem("Nenhuma estratégia de spread otimizada foi encontrada dentro dos critérios fornecidos.")
-                                        .nomeEstrategia(SPREAD_NAME)
-                                        .lucroMaximo(BigDecimal.ZERO)
-                                        .prejuizoMaximo(BigDecimal.ZERO)
-                                        .breakevenPoint(BigDecimal.ZERO)
-                                        .pernasExecutadas(Collections.emptyList())
-                                        .custoLiquido(BigDecimal.ZERO)
-                                        .premioLiquidoUnitario(BigDecimal.ZERO)
-                                        .ganhoMaximoStrikeUnitario(BigDecimal.ZERO)
-                                        .riscoMaximoTeoricoUnitario(BigDecimal.ZERO)
-                                        .lucroMaximoLiquidoTotal(BigDecimal.ZERO)
-                                        .riscoMaximoLiquidoTotal(BigDecimal.ZERO)
-                                        .relacaoRiscoRetornoLiquida(BigDecimal.ZERO)
-                                        .build();
+                return otimizarComEstatisticas(request).spread();
+        }
+
+        public ResultadoOtimizacao otimizarComEstatisticas(OtimizacaoSpreadRequest request) {
+                if (request == null || request.ativoSubjacente() == null || request.ativoSubjacente().isBlank()) {
+                        return new ResultadoOtimizacao(
+                                        SpreadService.createErrorResponse("ERRO: Informe o ativo subjacente.", SPREAD_NAME), 0);
+                }
+                if (request.cotacaoAtualAtivo() == null || request.taxasOperacionais() == null) {
+                        return new ResultadoOtimizacao(SpreadService.createErrorResponse(
+                                        "ERRO: Informe cotação atual do ativo e taxas.", SPREAD_NAME), 0);
+                }
+
+                Integer vencimento = null;
+                if (request.dataVencimento() != null && !request.dataVencimento().isBlank()) {
+                        LocalDate data = parseData(request.dataVencimento().trim());
+                        if (data == null) {
+                                return new ResultadoOtimizacao(SpreadService.createErrorResponse(
+                                                "ERRO: Data de vencimento inválida: " + request.dataVencimento(), SPREAD_NAME), 0);
+                        }
+                        vencimento = (int) data.toEpochDay();
+                }
+
+                // Limites em centavos: o risco arredonda para baixo e o retorno para cima (nunca afrouxam)
+                long riscoMaximo = request.riscoMaximoAceitavel() == null ? Long.MAX_VALUE
+                                : request.riscoMaximoAceitavel().movePointRight(2).setScale(0, RoundingMode.FLOOR)
+                                                .longValueExact();
+                long lucroMinimo = request.retornoMinimoDesejado() == null ? Long.MIN_VALUE
+                                : request.retornoMinimoDesejado().movePointRight(2).setScale(0, RoundingMode.CEILING)
+                                                .longValueExact();
+
+                VisaoCadeia cadeia = cacheCadeias.obter(request.ativoSubjacente());
+                Busca busca = new Busca(cadeia, vencimento, riscoMaximo, lucroMinimo);
+                for (EstrategiaOtimizacao estrategia : Vertical.VERTICAIS) {
+                        busca.percorrer(estrategia);
+                }
+
+                if (busca.melhorEstrategia == null) {
+                        return new ResultadoOtimizacao(SpreadService.createErrorResponse(
+                                        "Nenhuma estratégia de spread otimizada foi encontrada dentro dos critérios fornecidos.",
+                                        SPREAD_NAME),
+                                        busca.avaliados);
+                }
+
+                SpreadResponse melhor = spreadService.montarCandidato(busca.melhorEstrategia, cadeia,
+                                busca.melhorPrimeira, busca.melhorSegunda, request.ativoSubjacente(),
+                                request.cotacaoAtualAtivo(), request.taxasOperacionais());
+                return new ResultadoOtimizacao(melhor.toBuilder()
+                                .mensagem("SUCESSO: Melhor spread dentro dos critérios: " + melhor.getMensagem())
+                                .build(), busca.avaliados);
+        }
+
+        /** Estado da busca: restrições em ticks/centavos e o melhor par encontrado até aqui. */
+        private static final class Busca {
+
+                private final VisaoCadeia cadeia;
+                private final Integer vencimento;
+                private final long riscoMaximo;
+                private final long lucroMinimo;
+
+                private EstrategiaOtimizacao melhorEstrategia;
+                private int melhorPrimeira;
+                private int melhorSegunda;
+                private long melhorRelacao = Long.MIN_VALUE;
+                private long avaliados;
+
+                Busca(VisaoCadeia cadeia, Integer vencimento, long riscoMaximo, long lucroMinimo) {
+                        this.cadeia = cadeia;
+                        this.vencimento = vencimento;
+                        this.riscoMaximo = riscoMaximo;
+                        this.lucroMinimo = lucroMinimo;
+                }
+
+                void percorrer(EstrategiaOtimizacao estrategia) {
+                        Vertical vertical = Vertical.de(estrategia);
+                        // Débito: o risco é débito + taxas; abaixo das taxas nenhum par serve
+                        if (vertical.primeiraComprada() && riscoMaximo < TAXAS_CENTAVOS) {
+                                return;
+                        }
+                        for (int g = 0; g < cadeia.grupos(); g++) {
+                                if (cadeia.tipoGrupo(g) != vertical.tipo()
+                                                || (vencimento != null && cadeia.vencimentoGrupo(g) != vencimento)) {
+                                        continue;
+                                }
+                                int inicio = cadeia.inicioGrupo(g);
+                                int fim = cadeia.fimGrupo(g);
+                                boolean ordenado = ordenadoPorStrike(inicio, fim);
+                                for (int i = inicio; i < fim; i++) {
+                                        if (vertical.primeiraComprada()) {
+                                                percorrerDebito(estrategia, vertical, i, inicio, fim);
+                                        } else {
+                                                percorrerCredito(estrategia, vertical, i, inicio, fim, ordenado);
+                                        }
+                                }
+                        }
+                }
+
+                /** Perna i vendida: crédito = P(i) - P(j) <= P(i). */
+                private void percorrerCredito(EstrategiaOtimizacao estrategia, Vertical vertical, int i, int inicio,
+                                int fim, boolean ordenado) {
+                        long precoVendida = cadeia.preco(i);
+                        // lucro = crédito - taxas >= lucroMinimo
+                        if (lucroMinimo != Long.MIN_VALUE && precoVendida < lucroMinimo + TAXAS_CENTAVOS) {
+                                return;
+                        }
+                        // risco = largura - crédito + taxas <= riscoMaximo
+                        long larguraMaxima = riscoMaximo == Long.MAX_VALUE ? Long.MAX_VALUE
+                                        : riscoMaximo + precoVendida - TAXAS_CENTAVOS;
+                        // R/R: 100 * (crédito - taxas) >= min * (largura - crédito + taxas)
+                        long lucroTeto = precoVendida - TAXAS_CENTAVOS;
+                        if (MIN_RELACAO_CENTESIMOS > 0) {
+                                larguraMaxima = Math.min(larguraMaxima,
+                                                lucroTeto + Math.floorDiv(100 * lucroTeto, MIN_RELACAO_CENTESIMOS));
+                        }
+                        if (larguraMaxima <= 0) {
+                                return;
+                        }
+
+                        int passo = vertical.strikeCrescente() ? 1 : -1;
+                        for (int j = i + passo; j >= inicio && j < fim; j += passo) {
+                                long largura = Math.abs(cadeia.strike(j) - cadeia.strike(i));
+                                if (largura > larguraMaxima) {
+                                        // Strikes em ordem: daqui em diante a largura só aumenta
+                                        if (ordenado) {
+                                                break;
+                                        }
+                                        continue;
+                                }
+                                avaliar(estrategia, vertical, i, j);
+                        }
+                }
+
+                /** Perna i comprada: débito = P(i) - P(j), risco = débito + taxas. */
+                private void percorrerDebito(EstrategiaOtimizacao estrategia, Vertical vertical, int i, int inicio,
+                                int fim) {
+                        long precoComprada = cadeia.preco(i);
+                        long debitoMaximo = riscoMaximo == Long.MAX_VALUE ? Long.MAX_VALUE : riscoMaximo - TAXAS_CENTAVOS;
+                        // lucro = largura - débito - taxas >= lucroMinimo e >= min * risco, com débito > 0
+                        long larguraMinima = TAXAS_CENTAVOS + Math.ceilDiv(MIN_RELACAO_CENTESIMOS * TAXAS_CENTAVOS, 100);
+                        if (lucroMinimo != Long.MIN_VALUE) {
+                                larguraMinima = Math.max(larguraMinima, lucroMinimo + TAXAS_CENTAVOS);
+                        }
+
+                        int passo = vertical.strikeCrescente() ? 1 : -1;
+                        for (int j = i + passo; j >= inicio && j < fim; j += passo) {
+                                long debito = precoComprada - cadeia.preco(j);
+                                if (debito > debitoMaximo
+                                                || Math.abs(cadeia.strike(j) - cadeia.strike(i)) < larguraMinima) {
+                                        continue;
+                                }
+                                avaliar(estrategia, vertical, i, j);
+                        }
                 }
 
-                // --- Retorno de Sucesso ---
-                // CORREÇÃO: Usando SpreadResponse.builder() para construir a resposta final
-                return SpreadResponse.builder()
-                                .mensagem("Otimização concluída. Melhor estratégia: " + SPREAD_NAME)
-                                .nomeEstrategia(SPREAD_NAME) // CAMPO ADICIONADO E SETADO
-                                .lucroMaximo(melhorSpread.getLucroMaximo())
-                                .prejuizoMaximo(melhorSpread.getPrejuizoMaximo())
-                                .breakevenPoint(melhorSpread.getBreakevenPoint())
-                                .pernasExecutadas(melhorSpread.getPernasExecutadas())
-                                .custoLiquido(melhorSpread.getCustoLiquido())
-                                .premioLiquidoUnitario(melhorSpread.getPremioLiquidoUnitario())
-                                .ganhoMaximoStrikeUnitario(melhorSpread.getGanhoMaximoStrikeUnitario())
-                                .riscoMaximoTeoricoUnitario(melhorSpread.getRiscoMaximoTeoricoUnitario())
-                                .lucroMaximoLiquidoTotal(melhorSpread.getLucroMaximoLiquidoTotal())
-                                .riscoMaximoLiquidoTotal(melhorSpread.getRiscoMaximoLiquidoTotal())
-                                .relacaoRiscoRetornoLiquida(melhorSpread.getRelacaoRiscoRetornoLiquida())
-                                .build();
+                private void avaliar(EstrategiaOtimizacao estrategia, Vertical vertical, int i, int j) {
+                        long largura = vertical.strikeCrescente() ? cadeia.strike(j) - cadeia.strike(i)
+                                        : cadeia.strike(i) - cadeia.strike(j);
+                        if (largura <= 0) {
+                                return;
+                        }
+                        long premio = AvaliadorVerticalTicks.premioLiquido(cadeia.preco(i), vertical.primeiraComprada(),
+                                        cadeia.preco(j));
+                        // Crédito em vertical de débito (ou vice-versa): cotação invertida
+                        if (vertical.primeiraComprada() ? premio >= 0 : premio < 0) {
+                                return;
+                        }
+                        avaliados++;
+                        long lucro = AvaliadorVerticalTicks.lucroMaximoCentavos(premio, largura);
+                        long risco = AvaliadorVerticalTicks.riscoMaximoCentavos(premio, largura);
+                        if (risco <= 0 || risco > riscoMaximo || lucro < lucroMinimo
+                                        || 100 * lucro < MIN_RELACAO_CENTESIMOS * risco) {
+                                return;
+                        }
+                        long relacao = AvaliadorVerticalTicks.relacaoRiscoRetornoCentesimos(lucro, risco);
+                        // Empate: fica o primeiro na ordem (vertical, grupo, i, j) do SpreadService
+                        boolean mesmoInicio = estrategia == melhorEstrategia && i == melhorPrimeira;
+                        if (relacao > melhorRelacao || (relacao == melhorRelacao && mesmoInicio && j < melhorSegunda)) {
+                                melhorRelacao = relacao;
+                                melhorEstrategia = estrategia;
+                                melhorPrimeira = i;
+                                melhorSegunda = j;
+                        }
+                }
+
+                private boolean ordenadoPorStrike(int inicio, int fim) {
+                        for (int i = inicio + 1; i < fim; i++) {
+                                if (cadeia.strike(i) < cadeia.strike(i - 1)) {
+                                        return false;
+                                }
+                        }
+                        return true;
+                }
         }
 
-        /** Simula a criação de um SpreadResponse completo após a otimização. */
-        private SpreadResponse simularMelhorResultado() {
-                return SpreadResponse.builder()
-                                .mensagem("Resultado Otimizado")
-                                .nomeEstrategia(SPREAD_NAME)
-                                .lucroMaximo(new BigDecimal("1000.00"))
-                                .prejuizoMaximo(new BigDecimal("200.00"))
-                                .breakevenPoint(new BigDecimal("15.50"))
-                                .pernasExecutadas(Collections.emptyList())
-                                .custoLiquido(new BigDecimal("-50.00"))
-                                .premioLiquidoUnitario(new BigDecimal("-0.50"))
-                                .ganhoMaximoStrikeUnitario(new BigDecimal("950.00"))
-                                .riscoMaximoTeoricoUnitario(new BigDecimal("200.00"))
-                                .lucroMaximoLiquidoTotal(new BigDecimal("990.00"))
-                                .riscoMaximoLiquidoTotal(new BigDecimal("210.00"))
-                                .relacaoRiscoRetornoLiquida(new BigDecimal("4.71"))
-                                .build();
+        private static LocalDate parseData(String texto) {
+                try {
+                        return texto.contains("/") ? LocalDate.parse(texto, DATA_BR) : LocalDate.parse(texto);
+                } catch (DateTimeParseException e) {
+                        return null;
+                }
         }
 }
@@ -0,0 +1,225 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoVertical;
+import com.calculadora_derivativos.calculadora_backend.dto.MelhorEstrategiaAlterada;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CadeiaReprecificada;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+
+/**
+ * Otimizador incremental: mantém, por ativo, a R/R de todos os pares das 4 verticais
+ * (EstadoIncremental) e, quando o prêmio de uma série muda, reavalia só os pares que a
+ * incluem, no grupo (vencimento, tipo) dela. O melhor de cada vertical e o top-K ficam
+ * disponíveis sem refazer a busca completa do SpreadService.
+ *
+ * O estado de um ativo é criado na primeira chamada a partir da cadeia do CacheCadeiasCompactas
+ * e recriado quando ela é recarregada (nova versão após invalidação do cache), descartando as
+ * cotações aplicadas até então. Cotações ao vivo trocam a cadeia do cache sem mudar a versão;
+ * a ingestão as aplica aqui também, então o estado não precisa ser recriado. Quando uma
+ * atualização muda o melhor spread geral (outra estratégia ou outras pernas), publica
+ * MelhorEstrategiaAlterada.
+ *
+ * Memória: cada grupo (vencimento, tipo) com n strikes tem 2 árvores de 12 bytes por folha,
+ * com a potência de 2 >= n² folhas (n = 200 e 12 vencimentos: ~36 MB por ativo). Os estados
+ * somados ficam limitados a 'incremental.memoria-maxima-mb': ao passar do limite, os ativos
+ * acessados há mais tempo são descartados (LRU) e recriados da cadeia do cache, que já tem as
+ * cotações ao vivo, se voltarem a ser usados. invalidarTodos no cache descarta todos eles.
+ */
+@Service
+public class OtimizadorIncrementalService {
+
+    private static final long MEMORIA_MAXIMA_PADRAO_MB = 256;
+
+    // Estado de um ativo e o instante lógico do último acesso (para o LRU)
+    private static final class Entrada {
+        private final EstadoIncremental estado;
+        private final long bytes;
+        private volatile long ultimoAcesso;
+
+        Entrada(EstadoIncremental estado) {
+            this.estado = estado;
+            this.bytes = estado.bytesEstimados();
+        }
+    }
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final SpreadService spreadService;
+    private final ApplicationEventPublisher publicador;
+    private final long memoriaMaximaBytes;
+    private final ConcurrentHashMap<String, Entrada> estados = new ConcurrentHashMap<>();
+    private final AtomicLong relogio = new AtomicLong();
+    private volatile long versaoInvalidacaoTotal;
+
+    @Autowired
+    public OtimizadorIncrementalService(CacheCadeiasCompactas cacheCadeias, SpreadService spreadService,
+            ApplicationEventPublisher publicador,
+            @Value("${incremental.memoria-maxima-mb:256}") long memoriaMaximaMb) {
+        this.cacheCadeias = cacheCadeias;
+        this.spreadService = spreadService;
+        this.publicador = publicador;
+        this.memoriaMaximaBytes = memoriaMaximaMb * 1024 * 1024;
+        this.versaoInvalidacaoTotal = cacheCadeias.getVersaoInvalidacaoTotal();
+    }
+
+    public OtimizadorIncrementalService(CacheCadeiasCompactas cacheCadeias, SpreadService spreadService,
+            ApplicationEventPublisher publicador) {
+        this(cacheCadeias, spreadService, publicador, MEMORIA_MAXIMA_PADRAO_MB);
+    }
+
+    /**
+     * Aplica os prêmios novos (ticker -> preço) de uma vez e publica no máximo um evento.
+     * Tickers fora da cadeia do ativo e preços nulos são ignorados.
+     * @return Quantidade de séries cujo prêmio mudou.
+     */
+    public int atualizarCotacoes(String idAcao, Map<String, BigDecimal> precos) {
+        EstadoIncremental estado = estado(idAcao);
+        int alteradas = 0;
+        EstadoIncremental.Par anterior;
+        EstadoIncremental.Par atual;
+        MelhorEstrategiaAlterada evento = null;
+
+        synchronized (estado) {
+            anterior = estado.melhorGeral();
+            for (Map.Entry<String, BigDecimal> cotacao : precos.entrySet()) {
+                if (cotacao.getValue() == null) continue;
+                int preco = Math.toIntExact(CotacaoCompacta.paraTicks(cotacao.getValue()));
+                if (estado.alterarPreco(cotacao.getKey(), preco)) {
+                    alteradas++;
+                }
+            }
+            atual = alteradas > 0 ? estado.melhorGeral() : anterior;
+            boolean mudou = atual == null ? anterior != null : !atual.mesmasPernas(anterior);
+            if (mudou) {
+                evento = new MelhorEstrategiaAlterada(idAcao, estado.paraCandidato(anterior),
+                        estado.paraCandidato(atual));
+            }
+        }
+
+        // Fora do lock: listeners síncronos não seguram as próximas atualizações do ativo
+        if (evento != null) {
+            publicador.publishEvent(evento);
+        }
+        return alteradas;
+    }
+
+    public boolean atualizarCotacao(String idAcao, String ticker, BigDecimal preco) {
+        return atualizarCotacoes(idAcao, Map.of(ticker, preco)) > 0;
+    }
+
+    /**
+     * Melhor par de cada vertical com os preços atuais; a chave MELHOR traz o melhor geral.
+     * Verticais sem combinação válida ficam de fora.
+     */
+    public Map<EstrategiaOtimizacao, CandidatoVertical> melhores(String idAcao) {
+        EstadoIncremental estado = estado(idAcao);
+        Map<EstrategiaOtimizacao, CandidatoVertical> melhores = new EnumMap<>(EstrategiaOtimizacao.class);
+        synchronized (estado) {
+            for (EstrategiaOtimizacao estrategia : Vertical.VERTICAIS) {
+                EstadoIncremental.Par par = estado.melhor(estrategia);
+                if (par != null) {
+                    melhores.put(estrategia, estado.paraCandidato(par));
+                }
+            }
+            EstadoIncremental.Par geral = estado.melhorGeral();
+            if (geral != null) {
+                melhores.put(EstrategiaOtimizacao.MELHOR, estado.paraCandidato(geral));
+            }
+        }
+        return melhores;
+    }
+
+    /**
+     * Os K melhores spreads com os preços atuais, no mesmo formato e ordem de
+     * SpreadService.otimizarTopK. Só os K escolhidos passam pelo cálculo completo.
+     */
+    public List<SpreadResponse> otimizarTopK(EstrategiaOtimizacao estrategia, String idAcao,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, int k) {
+        if (k <= 0 || cotacaoAtualAtivo == null || taxasOperacionais == null) {
+            return List.of();
+        }
+        List<EstrategiaOtimizacao> estrategias = estrategia == EstrategiaOtimizacao.MELHOR
+                ? Vertical.VERTICAIS
+                : List.of(estrategia);
+
+        EstadoIncremental estado = estado(idAcao);
+        List<EstadoIncremental.Par> pares;
+        CadeiaReprecificada precos;
+        synchronized (estado) {
+            pares = estado.topK(estrategias, k);
+            precos = estado.fotografia();
+        }
+
+        List<SpreadResponse> resultado = new ArrayList<>(pares.size());
+        for (EstadoIncremental.Par par : pares) {
+            resultado.add(spreadService.montarCandidato(par.estrategia(), precos, par.primeira(), par.segunda(),
+                    idAcao, cotacaoAtualAtivo, taxasOperacionais));
+        }
+        return resultado;
+    }
+
+    /**
+     * Ativos com estado mantido e a memória estimada das suas árvores.
+     */
+    public int getEstadosMantidos() {
+        return estados.size();
+    }
+
+    public long getBytesEstados() {
+        return estados.values().stream().mapToLong(entrada -> entrada.bytes).sum();
+    }
+
+    // Estado do ativo, recriado se o cache recarregou a cadeia (outra versão)
+    private EstadoIncremental estado(String idAcao) {
+        long invalidacao = cacheCadeias.getVersaoInvalidacaoTotal();
+        if (invalidacao != versaoInvalidacaoTotal) {
+            versaoInvalidacaoTotal = invalidacao;
+            estados.clear();
+        }
+
+        VisaoCadeia cadeia = cacheCadeias.obter(idAcao);
+        Entrada entrada = estados.compute(idAcao, (id, atual) -> atual != null
+                && atual.estado.getBase().getVersao() == cadeia.getVersao() ? atual
+                        : new Entrada(new EstadoIncremental(cadeia)));
+        boolean nova = entrada.ultimoAcesso == 0;
+        entrada.ultimoAcesso = relogio.incrementAndGet();
+        if (nova) {
+            limitarMemoria(idAcao);
+        }
+        return entrada.estado;
+    }
+
+    // Descarta os estados acessados há mais tempo até caber no limite (o do ativo pedido fica)
+    private void limitarMemoria(String manter) {
+        long total = getBytesEstados();
+        while (total > memoriaMaximaBytes) {
+            Map.Entry<String, Entrada> maisAntiga = null;
+            for (Map.Entry<String, Entrada> atual : estados.entrySet()) {
+                if (atual.getKey().equals(manter)) continue;
+                if (maisAntiga == null || atual.getValue().ultimoAcesso < maisAntiga.getValue().ultimoAcesso) {
+                    maisAntiga = atual;
+                }
+            }
+            if (maisAntiga == null) {
+                return;
+            }
+            if (estados.remove(maisAntiga.getKey(), maisAntiga.getValue())) {
+                total -= maisAntiga.getValue().bytes;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Raia de execução isolada (bulkhead) para uma classe de endpoints: threads e fila próprias,
+ * ambas limitadas. Quando threads e fila estão ocupadas a tarefa é recusada na hora
+ * (RaiaSaturadaException -> 503 com Retry-After), em vez de esperar e segurar a thread do Tomcat.
+ *
+ * Métricas (tag 'raia'): raia.ativas, raia.fila, raia.capacidade e raia.rejeicoes.
+ */
+public class RaiaExecucao {
+
+    private final String nome;
+    private final int retryAfterSegundos;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejeicoes;
+
+    public RaiaExecucao(String nome, int threads, int capacidadeFila, int retryAfterSegundos,
+            MeterRegistry meterRegistry) {
+        this.nome = nome;
+        this.retryAfterSegundos = retryAfterSegundos;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacidadeFila)),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "raia-" + nome + "-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("raia.ativas", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("raia", nome).register(meterRegistry);
+        Gauge.builder("raia.fila", executor, e -> e.getQueue().size())
+                .tag("raia", nome).register(meterRegistry);
+        Gauge.builder("raia.capacidade", executor, e -> e.getMaximumPoolSize() + e.getQueue().remainingCapacity()
+                + e.getQueue().size())
+                .tag("raia", nome).register(meterRegistry);
+        this.rejeicoes = Counter.builder("raia.rejeicoes")
+                .tag("raia", nome).register(meterRegistry);
+    }
+
+    /**
+     * Executa a tarefa na raia.
+     * @throws RaiaSaturadaException se threads e fila estiverem todas ocupadas.
+     */
+    public <T> CompletableFuture<T> submeter(Supplier<T> tarefa) {
+        try {
+            return CompletableFuture.supplyAsync(tarefa, executor);
+        } catch (RejectedExecutionException e) {
+            rejeicoes.increment();
+            throw new RaiaSaturadaException(nome, retryAfterSegundos);
+        }
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
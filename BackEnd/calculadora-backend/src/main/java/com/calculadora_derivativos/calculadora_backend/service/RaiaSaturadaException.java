@@ -0,0 +1,26 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+/**
+ * Lançada quando uma RaiaExecucao está com threads e fila ocupadas.
+ */
+public class RaiaSaturadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String raia;
+    private final int retryAfterSegundos;
+
+    public RaiaSaturadaException(String raia, int retryAfterSegundos) {
+        super("Raia '" + raia + "' saturada. Tente novamente em " + retryAfterSegundos + "s.");
+        this.raia = raia;
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public String getRaia() {
+        return raia;
+    }
+
+    public int getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
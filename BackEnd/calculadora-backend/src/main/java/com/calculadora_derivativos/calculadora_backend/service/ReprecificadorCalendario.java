@@ -0,0 +1,82 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reprecificação Black-Scholes da perna longa de calendários e diagonais no vencimento da
+ * perna curta, sobre uma grade de spots em torno da cotação atual.
+ *
+ * O valor de uma série em uma data depende só de (ticker, data de avaliação, cotação, vol x
+ * raiz do prazo restante), então a curva é calculada uma vez por chave e reaproveitada por
+ * todas as pernas curtas do mesmo vencimento, em todas as requisições com a mesma cotação.
+ * O cache é limitado a 'calendario.cache-maximo' curvas (ao estourar, recomeça vazio).
+ */
+@Component
+public class ReprecificadorCalendario {
+
+    // Grade de spots no vencimento curto: 60% a 140% da cotação atual, passo de 1%
+    static final int PONTOS_GRADE = 81;
+    private static final double FATOR_INICIAL = 0.60;
+    private static final double PASSO_FATOR = 0.01;
+
+    private record Chave(String ticker, LocalDate dataAvaliacao, long cotacao, double sigmaRaizPrazo) {
+    }
+
+    private final ConcurrentHashMap<Chave, double[]> cache = new ConcurrentHashMap<>();
+    private final int tamanhoMaximo;
+    private final AtomicLong consultas = new AtomicLong();
+    private final AtomicLong calculos = new AtomicLong();
+
+    public ReprecificadorCalendario(@Value("${calendario.cache-maximo:50000}") int tamanhoMaximo) {
+        this.tamanhoMaximo = Math.max(1, tamanhoMaximo);
+    }
+
+    /** Spots da grade, em ticks, para a cotação atual (ticks). */
+    static double[] grade(long cotacao) {
+        double[] spots = new double[PONTOS_GRADE];
+        for (int k = 0; k < PONTOS_GRADE; k++) {
+            spots[k] = cotacao * (FATOR_INICIAL + k * PASSO_FATOR);
+        }
+        return spots;
+    }
+
+    /**
+     * Valor (ticks) da série em cada ponto de grade(cotacao) na data de avaliação. O array é
+     * compartilhado pelo cache: somente leitura.
+     */
+    double[] valores(String ticker, LocalDate dataAvaliacao, boolean call, long strike, double sigmaRaizPrazo,
+            long cotacao) {
+        consultas.incrementAndGet();
+        Chave chave = new Chave(ticker, dataAvaliacao, cotacao, sigmaRaizPrazo);
+        double[] valores = cache.get(chave);
+        if (valores != null) {
+            return valores;
+        }
+        if (cache.size() >= tamanhoMaximo) {
+            cache.clear();
+        }
+        return cache.computeIfAbsent(chave, c -> {
+            calculos.incrementAndGet();
+            double[] spots = grade(cotacao);
+            double[] curva = new double[spots.length];
+            for (int k = 0; k < spots.length; k++) {
+                curva[k] = BlackScholes.preco(call, spots[k], strike, sigmaRaizPrazo);
+            }
+            return curva;
+        });
+    }
+
+    public long getConsultas() {
+        return consultas.get();
+    }
+
+    // Curvas efetivamente calculadas (consultas - calculos = acertos do cache)
+    public long getCalculos() {
+        return calculos.get();
+    }
+}
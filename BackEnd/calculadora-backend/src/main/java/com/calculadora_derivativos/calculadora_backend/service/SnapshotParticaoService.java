@@ -0,0 +1,119 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Manutenção das partições mensais da tabela 'opcoes_snapshot'.
+ * Cada mês tem a partição pAAAAMM (data_hora menor que o 1º dia do mês seguinte); p_futuro recebe o resto.
+ *
+ * Os métodos rodam fora de transação (NOT_SUPPORTED): ALTER TABLE faz commit implícito no MySQL
+ * e não pode participar da transação de quem chamou (ex: DataLoader).
+ */
+@Service
+public class SnapshotParticaoService {
+
+    private static final String TABELA = "opcoes_snapshot";
+    private static final String PARTICAO_FUTURO = "p_futuro";
+    private static final DateTimeFormatter FORMATO_NOME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retencaoMeses;
+
+    public SnapshotParticaoService(JdbcTemplate jdbcTemplate,
+            @Value("${snapshot.retencao-meses:24}") int retencaoMeses) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retencaoMeses = retencaoMeses;
+    }
+
+    /**
+     * Lista os meses que já possuem partição própria (em ordem crescente).
+     */
+    public List<YearMonth> listarParticoesMensais() {
+        List<String> nomes = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABELA);
+
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nome : nomes) {
+            if (!PARTICAO_FUTURO.equals(nome)) {
+                meses.add(YearMonth.parse(nome, FORMATO_NOME));
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Garante uma partição para cada mês informado. O mês que falta é separado (REORGANIZE) da
+     * partição que hoje recebe suas linhas: a primeira partição mensal posterior, ou p_futuro.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized void garantirParticoes(Collection<YearMonth> meses) {
+        TreeSet<YearMonth> existentes = new TreeSet<>(listarParticoesMensais());
+
+        for (YearMonth mes : new TreeSet<>(meses)) {
+            if (existentes.contains(mes)) {
+                continue;
+            }
+
+            YearMonth mesPosterior = existentes.higher(mes);
+            String alvo = mesPosterior != null ? nomeParticao(mesPosterior) : PARTICAO_FUTURO;
+            String limiteAlvo = mesPosterior != null ? limiteSuperior(mesPosterior) : "MAXVALUE";
+
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " REORGANIZE PARTITION " + alvo + " INTO ("
+                    + "PARTITION " + nomeParticao(mes) + " VALUES LESS THAN (" + limiteSuperior(mes) + "), "
+                    + "PARTITION " + alvo + " VALUES LESS THAN (" + limiteAlvo + "))");
+            existentes.add(mes);
+            System.out.println("Partição " + nomeParticao(mes) + " criada em " + TABELA + ".");
+        }
+    }
+
+    /**
+     * Remove (DROP PARTITION) todos os meses anteriores ao limite. Não usa DELETE: o custo é
+     * o de apagar os arquivos da partição, independente da quantidade de linhas.
+     * @return Meses removidos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized List<YearMonth> purgarAnterioresA(YearMonth limite) {
+        List<YearMonth> removidos = listarParticoesMensais().stream()
+                .filter(mes -> mes.isBefore(limite))
+                .toList();
+
+        if (!removidos.isEmpty()) {
+            String particoes = String.join(", ", removidos.stream().map(this::nomeParticao).toList());
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " DROP PARTITION " + particoes);
+            System.out.println("Partições removidas de " + TABELA + ": " + particoes);
+        }
+        return removidos;
+    }
+
+    /**
+     * Purga agendada: mantém apenas os últimos 'snapshot.retencao-meses' meses.
+     */
+    @Scheduled(cron = "${snapshot.purga.cron:0 30 3 * * *}")
+    public void purgarPorRetencao() {
+        purgarAnterioresA(YearMonth.now().minusMonths(retencaoMeses));
+    }
+
+    private String nomeParticao(YearMonth mes) {
+        return mes.format(FORMATO_NOME);
+    }
+
+    // Limite exclusivo da partição: meia-noite do 1º dia do mês seguinte
+    private String limiteSuperior(YearMonth mes) {
+        return "'" + mes.plusMonths(1).atDay(1) + " 00:00:00'";
+    }
+}
@@ -0,0 +1,90 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.OpcaoSnapshotRepository;
+
+/**
+ * Ingestão do histórico de cotações (tabela particionada 'opcoes_snapshot').
+ * Diferente de 'opcoes_final_tratado' (um registro por ticker), aqui cada carga é acrescentada,
+ * preservando as cadeias passadas.
+ */
+@Service
+public class SnapshotService {
+
+    private final OpcaoSnapshotRepository snapshotRepository;
+    private final SnapshotParticaoService particaoService;
+    private final LeitorCsvOpcoes leitorCsv;
+    private final int tamanhoLote;
+
+    /**
+     * Resumo de uma importação.
+     */
+    public record ResultadoImportacao(long linhasLidas, long linhasIgnoradas, long linhasGravadas) {
+    }
+
+    public SnapshotService(OpcaoSnapshotRepository snapshotRepository, SnapshotParticaoService particaoService,
+            LeitorCsvOpcoes leitorCsv, @Value("${snapshot.lote-insercao:1000}") int tamanhoLote) {
+        this.snapshotRepository = snapshotRepository;
+        this.particaoService = particaoService;
+        this.leitorCsv = leitorCsv;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Acrescenta as cotações ao histórico, criando antes as partições mensais que faltarem.
+     * @return Quantidade de linhas enviadas ao banco.
+     */
+    public int registrar(List<Option> opcoes) {
+        Set<YearMonth> meses = opcoes.stream()
+                .map(Option::getDataHora)
+                .filter(Objects::nonNull)
+                .map(YearMonth::from)
+                .collect(Collectors.toSet());
+        if (meses.isEmpty()) {
+            return 0;
+        }
+
+        particaoService.garantirParticoes(meses);
+        return snapshotRepository.inserirEmLote(opcoes);
+    }
+
+    /**
+     * Importa um CSV antigo (mesmo layout de opcoes_final_tratado.csv) direto para o histórico,
+     * em lotes de 'snapshot.lote-insercao' linhas: o arquivo nunca é carregado inteiro em memória.
+     */
+    public ResultadoImportacao importarCsv(InputStream csv) throws IOException {
+        List<Option> lote = new ArrayList<>(tamanhoLote);
+        long[] gravadas = {0};
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            LeitorCsvOpcoes.Resultado resultado = leitorCsv.ler(reader, opcao -> {
+                lote.add(opcao);
+                if (lote.size() >= tamanhoLote) {
+                    gravadas[0] += registrar(lote);
+                    lote.clear();
+                }
+            });
+
+            if (!lote.isEmpty()) {
+                gravadas[0] += registrar(lote);
+            }
+            return new ResultadoImportacao(resultado.linhasAceitas() + resultado.linhasIgnoradas(),
+                    resultado.linhasIgnoradas(), gravadas[0]);
+        }
+    }
+}
@@ -2,19 +2,27 @@ package com.calculadora_derivativos.calculadora_backend.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 
 import org.springframework.stereotype.Service;
 
+import com.calculadora_derivativos.calculadora_backend.dto.CoberturaBusca;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
 import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadRequest;
 import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
 import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
 import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
 import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
 import static com.calculadora_derivativos.calculadora_backend.service.SpreadFinanceiroUtils.QUANTIDADE_CONTRATOS;
@@ -27,6 +35,11 @@ public class SpreadService implements CalculadoraSpreadService {
 
     private final OptionRepository optionRepository;
     private final AtivoRepository ativoRepository;
+    private final CacheCadeiasCompactas cacheCadeias;
+
+    // Custo médio (ns) do cálculo completo de um vencedor, reservado do prazo da busca
+    // (otimizarComPrazo). Média móvel; atualizações concorrentes podem se perder sem prejuízo.
+    private volatile long custoMontagemNanos = TimeUnit.MILLISECONDS.toNanos(5);
 
     private static final int SCALE = 4;
     private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
@@ -42,16 +55,19 @@ public class SpreadService implements CalculadoraSpreadService {
     private record ResultadoPayoff(
             BigDecimal lucroMaximoBruto, BigDecimal prejuizoMaximoBruto,
             BigDecimal breakevenPoint, BigDecimal premioLiquidoUnitario,
-            BigDecimal ganhoMaximoStrikeUnitario, BigDecimal riscoMaximoTeoricoUnitario) {
+            BigDecimal ganhoMaximoStrikeUnitario, BigDecimal riscoMaximoTeoricoUnitario, int pontosSimulados) {
     }
 
-    public SpreadService(OptionRepository optionRepository, AtivoRepository ativoRepository) {
+    public SpreadService(OptionRepository optionRepository, AtivoRepository ativoRepository,
+            CacheCadeiasCompactas cacheCadeias) {
         this.optionRepository = optionRepository;
         this.ativoRepository = ativoRepository;
+        this.cacheCadeias = cacheCadeias;
     }
 
     // --- MÉTODO AUXILIAR PARA RESPOSTAS DE ERRO (Refatoração) ---
-    private SpreadResponse createErrorResponse(String mensagem, String nomeEstrategia) {
+    // Também usado pelos demais otimizadores, para que o frontend receba sempre o mesmo corpo de erro
+    public static SpreadResponse createErrorResponse(String mensagem, String nomeEstrategia) {
         return SpreadResponse.builder()
                 .mensagem(mensagem)
                 .nomeEstrategia(nomeEstrategia)
@@ -72,6 +88,17 @@ public class SpreadService implements CalculadoraSpreadService {
     // --- MÉTODO PRINCIPAL DA API (CÁLCULO MANUAL) ---
     @Override
     public SpreadResponse calcularSpread(SpreadRequest request) {
+        // Cálculo manual: cada perna é buscada no banco pelo ticker
+        return calcularSpread(request, EventosOtimizacao.ESTRATEGIA_MANUAL,
+                ticker -> optionRepository.findByTicker(ticker).map(SpreadService::paraOpcaoCadeia));
+    }
+
+    /**
+     * Núcleo do cálculo de spread. Os dados de cada perna vêm do 'resolvedor', que pode ser o
+     * banco (cálculo manual) ou a cadeia já carregada em memória (otimizadores).
+     */
+    private SpreadResponse calcularSpread(SpreadRequest request, String estrategia,
+            Function<String, Optional<OpcaoCadeia>> resolvedor) {
 
         String ativoSubjacente = request.ativoSubjacente();
         List<PernaSpread> pernas = request.pernas();
@@ -101,7 +128,7 @@ public class SpreadService implements CalculadoraSpreadService {
 
         for (PernaSpread perna : pernas) {
             String ticker = perna.ticker();
-            Optional<Option> optionOptional = optionRepository.findByTicker(ticker);
+            Optional<OpcaoCadeia> optionOptional = resolvedor.apply(ticker);
 
             // Tratamento de erro 3: Ticker não encontrado
             if (optionOptional.isEmpty()) {
@@ -110,9 +137,9 @@ public class SpreadService implements CalculadoraSpreadService {
                         "Erro");
             }
 
-            Option dadosOpcao = optionOptional.get();
+            OpcaoCadeia dadosOpcao = optionOptional.get();
 
-            BigDecimal precoPremio = dadosOpcao.getPreco().setScale(SCALE, ROUNDING_MODE);
+            BigDecimal precoPremio = dadosOpcao.preco().setScale(SCALE, ROUNDING_MODE);
             BigDecimal quantidade = BigDecimal.valueOf(perna.quantidade());
             BigDecimal valorPernaBruto = precoPremio.multiply(quantidade).setScale(SCALE, ROUNDING_MODE);
             // Taxas são sempre um custo, por isso subtraímos do fluxo de caixa
@@ -137,13 +164,16 @@ public class SpreadService implements CalculadoraSpreadService {
 
             // Adiciona a perna calculada para o Payoff
             pernasParaCalculo.add(new PernaCalculada(
-                    ticker, dadosOpcao.getTipo(), dadosOpcao.getStrike().setScale(SCALE, ROUNDING_MODE),
+                    ticker, dadosOpcao.tipo(), dadosOpcao.strike().setScale(SCALE, ROUNDING_MODE),
                     perna.quantidade(), perna.operacao(), precoPremio));
         }
 
         // 2. CHAMADA DA LÓGICA DE PAYOFF BRUTO
+        EventosOtimizacao.AvaliacaoPayoff eventoPayoff = new EventosOtimizacao.AvaliacaoPayoff();
+        eventoPayoff.begin();
         ResultadoPayoff resultadoBruto = this.calcularOtimizacao(pernasParaCalculo, custoLiquidoTotal,
                 precoAtualSubjacente, premioLiquidoTotalBruto);
+        eventoPayoff.concluir(ativoSubjacente, estrategia, pernasParaCalculo.size(), resultadoBruto.pontosSimulados());
 
         // 3. CALCULAR AS MÉTRICAS LÍQUIDAS TOTAIS
 
@@ -212,6 +242,7 @@ public class SpreadService implements CalculadoraSpreadService {
 
         BigDecimal precoSimulado = precoMinimo;
         BigDecimal passoSimulacao = new BigDecimal("0.01").setScale(SCALE, ROUNDING_MODE);
+        int pontosSimulados = 0;
 
         // Loop de simulação do Payoff
         while (precoSimulado.compareTo(precoMaximo) <= 0) {
@@ -252,6 +283,7 @@ public class SpreadService implements CalculadoraSpreadService {
             }
 
             precoSimulado = precoSimulado.add(passoSimulacao).setScale(SCALE, ROUNDING_MODE);
+            pontosSimulados++;
         }
 
         // --- CÁLCULO DAS MÉTRICAS UNITÁRIAS (Para Spreads Verticais de 2 pernas) ---
@@ -343,7 +375,8 @@ public class SpreadService implements CalculadoraSpreadService {
                 breakevenPointCorrigido.setScale(SCALE, ROUNDING_MODE),
                 premioLiquidoUnitario,
                 ganhoMaximoStrikeUnitario,
-                riscoMaximoTeoricoUnitario);
+                riscoMaximoTeoricoUnitario,
+                pontosSimulados);
     }
 
     // --- FUNÇÕES DE CÁLCULO LÍQUIDO TOTAIS ---
@@ -389,234 +422,339 @@ public class SpreadService implements CalculadoraSpreadService {
     }
 
     // =============================================================================
-    // --- MÉTODOS DE OTIMIZAÇÃO (Busca no DB - IMPLEMENTAÇÃO REAL) ---
+    // --- CADEIA COMPACTA (heap ou off-heap, uma única carga por ativo) ---
     // =============================================================================
 
-    /**
-     * Otimiza o Bull Call Spread (Compra CALL K baixo, Venda CALL K alto - Débito).
-     * Busca em todos os vencimentos e encontra o par com a melhor Relação Risco/Retorno Líquida.
-     */
-    public SpreadResponse otimizarBullCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
-            BigDecimal taxasOperacionais) {
-        
-        List<LocalDate> vencimentos = optionRepository.findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(ativoSubjacente);
-        
-        if (vencimentos.isEmpty()) {
-            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, "Bull Call Spread");
-        }
+    // Cadeia do ativo (cache, universo off-heap ou banco), com o evento JFR da busca
+    private VisaoCadeia obterCadeia(String ativoSubjacente, EstrategiaOtimizacao estrategia) {
+        EventosOtimizacao.BuscaCadeia evento = new EventosOtimizacao.BuscaCadeia();
+        evento.begin();
+        VisaoCadeia cadeia = cacheCadeias.obter(ativoSubjacente);
+        evento.concluir(ativoSubjacente, estrategia.name(), cadeia);
+        return cadeia;
+    }
 
-        SpreadResponse melhorSpread = createErrorResponse("Nenhuma combinação de Bull Call Spread válida encontrada.", "Bull Call Spread");
-        BigDecimal melhorRiscoRetorno = BigDecimal.ZERO;
-
-        // Itera sobre CADA vencimento
-        for (LocalDate vencimento : vencimentos) {
-            // Busca todas as CALLs para este vencimento
-            List<Option> callsNoVencimento = optionRepository.findByIdAcaoAndVencimentoAndTipo(ativoSubjacente, vencimento, "CALL");
-            
-            if (callsNoVencimento.size() < 2) continue;
-
-            // Loop Exaustivo (Brute-Force) para encontrar o melhor par
-            for (Option compraPerna : callsNoVencimento) {
-                for (Option vendaPerna : callsNoVencimento) {
-
-                    // Critério Bull Call: Compra K Baixo < Venda K Alto
-                    if (compraPerna.getStrike().compareTo(vendaPerna.getStrike()) < 0) {
-                        
-                        List<PernaSpread> pernas = List.of(
-                                new PernaSpread(compraPerna.getTicker(), QUANTIDADE_CONTRATOS, "COMPRA"),
-                                new PernaSpread(vendaPerna.getTicker(), QUANTIDADE_CONTRATOS, "VENDA")
-                        );
-
-                        SpreadRequest request = new SpreadRequest(
-                                ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, pernas);
-
-                        SpreadResponse candidato = calcularSpread(request);
-
-                        if (!"Erro".equals(candidato.getNomeEstrategia()) && candidato.getRelacaoRiscoRetornoLiquida().compareTo(melhorRiscoRetorno) > 0) {
-                            melhorRiscoRetorno = candidato.getRelacaoRiscoRetornoLiquida();
-                            melhorSpread = candidato.toBuilder().vencimento(vencimento).build(); // Guarda o vencimento
-                        }
-                    }
-                }
+    // Pares (i, j) percorridos nos grupos do tipo da vertical (todos os grupos para MELHOR)
+    private static long contarPares(VisaoCadeia cadeia, EstrategiaOtimizacao estrategia) {
+        int tipo = estrategia == EstrategiaOtimizacao.MELHOR ? -1 : Vertical.de(estrategia).tipo();
+        long pares = 0;
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            long series = cadeia.fimGrupo(grupo) - cadeia.inicioGrupo(grupo);
+            if (tipo < 0 || cadeia.tipoGrupo(grupo) == tipo) {
+                pares += series * (series - 1);
             }
         }
+        return pares;
+    }
 
-        // Retorno Final
-        if (melhorRiscoRetorno.compareTo(BigDecimal.ZERO) > 0) {
-            String novaMensagem = String.format(
-                    "SUCESSO: Melhor Bull Call Spread encontrado (Vencimento: %s). Relação R/R: %s.",
-                    melhorSpread.getVencimento().toString(), 
-                    melhorSpread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE));
+    // Converte a entidade para a projeção usada nos cálculos
+    private static OpcaoCadeia paraOpcaoCadeia(Option option) {
+        return new OpcaoCadeia(option.getTicker(), option.getTipo(), option.getVencimento(),
+                option.getStrike(), option.getPreco());
+    }
 
-            return melhorSpread.toBuilder().mensagem(novaMensagem).build();
-        } else {
-            return melhorSpread; 
-        }
+    // Índices (na cadeia compacta) das pernas do melhor par encontrado
+    private record ParVencedor(int primeira, int segunda) {
+    }
+
+    // Recebe cada par válido de uma vertical com a R/R em centésimos
+    @FunctionalInterface
+    private interface ConsumidorPar {
+        void aceitar(int primeira, int segunda, long relacaoCentesimos);
     }
 
     /**
-     * * Otimiza o Bear Put Spread (Compra Put K alto, Venda Put K baixo - Débito).
-     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     * Percorre em ticks (AvaliadorVerticalTicks) todos os pares da vertical, sem BigDecimal nem
+     * SpreadResponse por candidato, na mesma ordem da busca original: grupos (vencimento, tipo)
+     * e, dentro deles, primeira perna x segunda perna.
      */
-    public SpreadResponse otimizarBearPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
-            BigDecimal taxasOperacionais) {
-        
-        List<LocalDate> vencimentos = optionRepository.findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(ativoSubjacente);
-        if (vencimentos.isEmpty()) {
-            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, "Bear Put Spread");
+    private static void percorrerPares(VisaoCadeia cadeia, Vertical vertical, ConsumidorPar consumidor) {
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            int inicio = cadeia.inicioGrupo(grupo);
+            int fim = cadeia.fimGrupo(grupo);
+            if (cadeia.tipoGrupo(grupo) != vertical.tipo() || fim - inicio < 2) continue;
+
+            for (int i = inicio; i < fim; i++) {
+                long strikePrimeira = cadeia.strike(i);
+                int precoPrimeira = cadeia.preco(i);
+                for (int j = inicio; j < fim; j++) {
+                    long relacao = vertical.avaliar(strikePrimeira, precoPrimeira, cadeia.strike(j), cadeia.preco(j));
+                    if (relacao == Long.MIN_VALUE) continue;
+
+                    consumidor.aceitar(i, j, relacao);
+                }
+            }
         }
+    }
 
-        SpreadResponse melhorSpread = createErrorResponse("Nenhuma combinação de Bear Put Spread válida encontrada.", "Bear Put Spread");
-        BigDecimal melhorRiscoRetorno = BigDecimal.ZERO;
-
-        for (LocalDate vencimento : vencimentos) {
-            List<Option> putsNoVencimento = optionRepository.findByIdAcaoAndVencimentoAndTipo(ativoSubjacente, vencimento, "PUT");
-            
-            if (putsNoVencimento.size() < 2) continue;
+    /**
+     * Mantém o primeiro par com R/R estritamente maior, então o vencedor é o mesmo que o
+     * cálculo completo em BigDecimal escolheria.
+     */
+    private static ParVencedor buscarMelhorPar(VisaoCadeia cadeia, Vertical vertical) {
+        ParVencedor[] melhor = { null };
+        long[] melhorRelacao = { 0 };
+        percorrerPares(cadeia, vertical, (i, j, relacao) -> {
+            if (relacao > melhorRelacao[0]) {
+                melhorRelacao[0] = relacao;
+                melhor[0] = new ParVencedor(i, j);
+            }
+        });
+        return melhor[0];
+    }
 
-            for (Option compraPerna : putsNoVencimento) { // Compra é no K Alto
-                for (Option vendaPerna : putsNoVencimento) { // Venda é no K Baixo
+    // Recebe cada par válido com a posição da vertical em Vertical.VERTICAIS
+    @FunctionalInterface
+    private interface ConsumidorParVertical {
+        void aceitar(int vertical, int primeira, int segunda, long relacaoCentesimos);
+    }
 
-                    // Critério Bear Put: Compra K Alto > Venda K Baixo
-                    if (compraPerna.getStrike().compareTo(vendaPerna.getStrike()) > 0) {
-                        
-                        List<PernaSpread> pernas = List.of(
-                                new PernaSpread(compraPerna.getTicker(), QUANTIDADE_CONTRATOS, "COMPRA"),
-                                new PernaSpread(vendaPerna.getTicker(), QUANTIDADE_CONTRATOS, "VENDA")
-                        );
+    // Recebe cada par com a largura e o prêmio líquido (ticks, com o sinal da vertical)
+    @FunctionalInterface
+    interface ConsumidorParEspelhado {
+        void aceitar(int grupo, int vertical, int primeira, int segunda, long largura, long premio);
+    }
 
-                        SpreadRequest request = new SpreadRequest(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, pernas);
-                        SpreadResponse candidato = calcularSpread(request);
+    private static void percorrerParesEspelhados(VisaoCadeia cadeia, ConsumidorParVertical consumidor) {
+        percorrerParesEspelhados(cadeia, grupo -> true, (grupo, v, i, j, largura, premio) ->
+                consumidor.aceitar(v, i, j, AvaliadorVerticalTicks.avaliar(premio, largura)));
+    }
 
-                        if (!"Erro".equals(candidato.getNomeEstrategia()) && candidato.getRelacaoRiscoRetornoLiquida().compareTo(melhorRiscoRetorno) > 0) {
-                            melhorRiscoRetorno = candidato.getRelacaoRiscoRetornoLiquida();
-                            melhorSpread = candidato.toBuilder().vencimento(vencimento).build();
-                        }
-                    }
+    /**
+     * Percorre as 4 verticais de uma vez: cada par (i, j) de cada grupo aceito é visitado uma
+     * única vez, com largura e prêmio calculados uma vez, e entregue à vertical de débito do tipo
+     * e à sua espelhada de crédito (mesmas pernas, operações trocadas, prêmio com sinal oposto).
+     * Para cada vertical a ordem dos pares é a mesma de percorrerPares. Também usado pela
+     * exportação de candidatos (ExportacaoCandidatosService).
+     */
+    static void percorrerParesEspelhados(VisaoCadeia cadeia, IntPredicate grupoAceito,
+            ConsumidorParEspelhado consumidor) {
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            int inicio = cadeia.inicioGrupo(grupo);
+            int fim = cadeia.fimGrupo(grupo);
+            if (fim - inicio < 2 || !grupoAceito.test(grupo)) continue;
+
+            byte tipo = cadeia.tipoGrupo(grupo);
+            int debito = Vertical.DEBITO_POR_TIPO[tipo];
+            int credito = Vertical.CREDITO_POR_TIPO[tipo];
+            boolean crescente = Vertical.STRIKE_CRESCENTE_POR_TIPO[tipo];
+
+            for (int i = inicio; i < fim; i++) {
+                long strikePrimeira = cadeia.strike(i);
+                int precoPrimeira = cadeia.preco(i);
+                for (int j = inicio; j < fim; j++) {
+                    long largura = crescente ? cadeia.strike(j) - strikePrimeira : strikePrimeira - cadeia.strike(j);
+                    if (largura <= 0) continue;
+
+                    // Prêmio da vertical de débito (compra a primeira perna); a de crédito recebe o oposto
+                    long premio = AvaliadorVerticalTicks.premioLiquido(precoPrimeira, true, cadeia.preco(j));
+                    consumidor.aceitar(grupo, debito, i, j, largura, premio);
+                    consumidor.aceitar(grupo, credito, i, j, largura, -premio);
                 }
             }
         }
-        
-        if (melhorRiscoRetorno.compareTo(BigDecimal.ZERO) > 0) {
-            String novaMensagem = String.format(
-                    "SUCESSO: Melhor Bear Put Spread encontrado (Vencimento: %s). Relação R/R: %s.",
-                    melhorSpread.getVencimento().toString(), 
-                    melhorSpread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE));
+    }
 
-            return melhorSpread.toBuilder().mensagem(novaMensagem).build();
-        } else {
-            return melhorSpread;
-        }
+    /**
+     * Melhor par de cada vertical (posições de Vertical.VERTICAIS; nulo = nenhum) numa única
+     * passada, com o mesmo desempate de buscarMelhorPar.
+     */
+    private static ParVencedor[] buscarMelhoresPares(VisaoCadeia cadeia) {
+        ParVencedor[] melhores = new ParVencedor[Vertical.VERTICAIS.size()];
+        long[] melhorRelacao = new long[melhores.length];
+        percorrerParesEspelhados(cadeia, (v, i, j, relacao) -> {
+            if (relacao > melhorRelacao[v]) {
+                melhorRelacao[v] = relacao;
+                melhores[v] = new ParVencedor(i, j);
+            }
+        });
+        return melhores;
     }
 
     /**
-     * * Otimiza o Bull Put Spread (Venda PUT K alto, Compra PUT K baixo - Crédito).
-     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     * Borda da API: converte apenas as duas pernas do par de volta para OpcaoCadeia e passa pelo
+     * cálculo completo (calcularSpread), que monta o SpreadResponse.
      */
-    public SpreadResponse otimizarBullPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
-            BigDecimal taxasOperacionais) {
-        
-        List<LocalDate> vencimentos = optionRepository.findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(ativoSubjacente);
-        if (vencimentos.isEmpty()) {
-            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, "Bull Put Spread");
+    private SpreadResponse montarSpread(EstrategiaOtimizacao estrategia, VisaoCadeia cadeia, ParVencedor par,
+            String ativoSubjacente, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais) {
+        Vertical vertical = Vertical.de(estrategia);
+        OpcaoCadeia primeira = cadeia.paraOpcaoCadeia(par.primeira());
+        OpcaoCadeia segunda = cadeia.paraOpcaoCadeia(par.segunda());
+        Map<String, OpcaoCadeia> pernasDoPar = Map.of(primeira.ticker(), primeira, segunda.ticker(), segunda);
+
+        List<PernaSpread> pernas = List.of(
+                new PernaSpread(primeira.ticker(), QUANTIDADE_CONTRATOS, vertical.operacaoPrimeira()),
+                new PernaSpread(segunda.ticker(), QUANTIDADE_CONTRATOS, vertical.operacaoSegunda()));
+        SpreadRequest request = new SpreadRequest(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, pernas);
+        return calcularSpread(request, estrategia.name(), ticker -> Optional.ofNullable(pernasDoPar.get(ticker)))
+                .toBuilder().vencimento(primeira.vencimento()).build();
+    }
+
+    /**
+     * Otimiza uma vertical: ranqueia os pares em ticks e só o vencedor passa pelo cálculo
+     * completo.
+     */
+    private SpreadResponse otimizarVertical(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, VisaoCadeia cadeia) {
+
+        String nome = estrategia.getNome();
+        if (cadeia.isEmpty()) {
+            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, nome);
         }
 
-        SpreadResponse melhorSpread = createErrorResponse("Nenhuma combinação de Bull Put Spread válida encontrada.", "Bull Put Spread");
-        BigDecimal melhorRiscoRetorno = BigDecimal.ZERO;
+        // Sem cotação ou taxas o cálculo completo rejeita todos os candidatos
+        ParVencedor par = null;
+        if (cotacaoAtualAtivo != null && taxasOperacionais != null) {
+            EventosOtimizacao.EnumeracaoCandidatos evento = new EventosOtimizacao.EnumeracaoCandidatos();
+            evento.begin();
+            par = buscarMelhorPar(cadeia, Vertical.de(estrategia));
+            evento.concluir(ativoSubjacente, estrategia.name(), contarPares(cadeia, estrategia), false);
+        }
+        return concluirVertical(estrategia, cadeia, par, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais);
+    }
 
-        for (LocalDate vencimento : vencimentos) {
-            List<Option> putsNoVencimento = optionRepository.findByIdAcaoAndVencimentoAndTipo(ativoSubjacente, vencimento, "PUT");
-            
-            if (putsNoVencimento.size() < 2) continue;
+    // Resposta da vertical a partir do par vencedor (nulo = nenhum par válido)
+    private SpreadResponse concluirVertical(EstrategiaOtimizacao estrategia, VisaoCadeia cadeia, ParVencedor par,
+            String ativoSubjacente, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais) {
+        String nome = estrategia.getNome();
+        if (par == null) {
+            return createErrorResponse("Nenhuma combinação de " + nome + " válida encontrada.", nome);
+        }
 
-            for (Option vendaPerna : putsNoVencimento) { // Venda é no K Alto
-                for (Option compraPerna : putsNoVencimento) { // Compra é no K Baixo
+        EventosOtimizacao.MontagemResposta evento = new EventosOtimizacao.MontagemResposta();
+        evento.begin();
+        SpreadResponse melhorSpread = montarSpread(estrategia, cadeia, par, ativoSubjacente,
+                cotacaoAtualAtivo, taxasOperacionais);
+        evento.concluir(ativoSubjacente, estrategia.name(), 1);
+        String novaMensagem = String.format(
+                "SUCESSO: Melhor %s encontrado (Vencimento: %s). Relação R/R: %s.",
+                nome,
+                melhorSpread.getVencimento().toString(),
+                melhorSpread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE));
+
+        return melhorSpread.toBuilder().mensagem(novaMensagem).build();
+    }
 
-                    // Critério Bull Put: Venda K Alto > Compra K Baixo
-                    if (vendaPerna.getStrike().compareTo(compraPerna.getStrike()) > 0) {
-                        
-                        List<PernaSpread> pernas = List.of(
-                                new PernaSpread(vendaPerna.getTicker(), QUANTIDADE_CONTRATOS, "VENDA"),
-                                new PernaSpread(compraPerna.getTicker(), QUANTIDADE_CONTRATOS, "COMPRA")
-                        );
+    // Candidato do top-K; 'ordem' preserva a ordem de descoberta no desempate
+    private record CandidatoTopK(EstrategiaOtimizacao estrategia, ParVencedor par, long relacao, long ordem) {
+    }
 
-                        SpreadRequest request = new SpreadRequest(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, pernas);
-                        SpreadResponse candidato = calcularSpread(request);
+    /**
+     * Os K melhores spreads (maior R/R primeiro) da estratégia, ou das 4 verticais para MELHOR.
+     * O ranking é feito em ticks com um heap de tamanho K; só os K escolhidos viram SpreadResponse.
+     */
+    @Override
+    public List<SpreadResponse> otimizarTopK(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, int k) {
+        VisaoCadeia cadeia = obterCadeia(ativoSubjacente, estrategia);
+        if (k <= 0 || cadeia.isEmpty() || cotacaoAtualAtivo == null || taxasOperacionais == null) {
+            return List.of();
+        }
 
-                        if (!"Erro".equals(candidato.getNomeEstrategia()) && candidato.getRelacaoRiscoRetornoLiquida().compareTo(melhorRiscoRetorno) > 0) {
-                            melhorRiscoRetorno = candidato.getRelacaoRiscoRetornoLiquida();
-                            melhorSpread = candidato.toBuilder().vencimento(vencimento).build();
-                        }
-                    }
-                }
+        // Heap mínimo: o pior dos K atuais fica no topo e é o primeiro a sair
+        Comparator<CandidatoTopK> pior = Comparator.comparingLong(CandidatoTopK::relacao)
+                .thenComparing(Comparator.comparingLong(CandidatoTopK::ordem).reversed());
+        PriorityQueue<CandidatoTopK> melhores = new PriorityQueue<>(k + 1, pior);
+
+        // Ordem da busca vertical a vertical (VERTICAIS) e, em cada uma, linha a linha: como
+        // MELHOR percorre as 4 numa passada só, ela vem dos índices e não da chegada
+        long tamanho = cadeia.tamanho();
+        ConsumidorParVertical consumidor = (v, i, j, relacao) -> {
+            if (relacao <= 0) return;
+            long ordem = (v * tamanho + i) * tamanho + j;
+            if (melhores.size() == k) {
+                CandidatoTopK topo = melhores.peek();
+                if (relacao < topo.relacao() || (relacao == topo.relacao() && ordem > topo.ordem())) return;
             }
-        }
-        
-        if (melhorRiscoRetorno.compareTo(BigDecimal.ZERO) > 0) {
-            String novaMensagem = String.format(
-                    "SUCESSO: Melhor Bull Put Spread encontrado (Vencimento: %s). Relação R/R: %s.",
-                    melhorSpread.getVencimento().toString(), 
-                    melhorSpread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE));
+            melhores.add(new CandidatoTopK(Vertical.VERTICAIS.get(v), new ParVencedor(i, j), relacao, ordem));
+            if (melhores.size() > k) {
+                melhores.poll();
+            }
+        };
 
-            return melhorSpread.toBuilder().mensagem(novaMensagem).build();
+        EventosOtimizacao.EnumeracaoCandidatos enumeracao = new EventosOtimizacao.EnumeracaoCandidatos();
+        enumeracao.begin();
+        if (estrategia == EstrategiaOtimizacao.MELHOR) {
+            percorrerParesEspelhados(cadeia, consumidor);
         } else {
-            return melhorSpread;
+            int posicao = Vertical.VERTICAIS.indexOf(estrategia);
+            percorrerPares(cadeia, Vertical.de(estrategia),
+                    (i, j, relacao) -> consumidor.aceitar(posicao, i, j, relacao));
         }
+        enumeracao.concluir(ativoSubjacente, estrategia.name(), contarPares(cadeia, estrategia), false);
+
+        List<CandidatoTopK> ordenados = new ArrayList<>(melhores);
+        ordenados.sort(pior.reversed());
+
+        EventosOtimizacao.MontagemResposta montagem = new EventosOtimizacao.MontagemResposta();
+        montagem.begin();
+        List<SpreadResponse> resultado = new ArrayList<>(ordenados.size());
+        for (CandidatoTopK candidato : ordenados) {
+            resultado.add(montarCandidato(candidato.estrategia(), cadeia, candidato.par().primeira(),
+                    candidato.par().segunda(), ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+        }
+        montagem.concluir(ativoSubjacente, estrategia.name(), resultado.size());
+        return resultado;
     }
 
     /**
-     * * Otimiza o Bear Call Spread (Venda CALL K baixo, Compra CALL K alto - Crédito).
-     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     * Um candidato de lista (top-K, otimizador incremental): SpreadResponse completo do par, com
+     * o nome da vertical e a R/R na mensagem.
      */
-    public SpreadResponse otimizarBearCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
-            BigDecimal taxasOperacionais) {
-        
-        List<LocalDate> vencimentos = optionRepository.findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(ativoSubjacente);
-        if (vencimentos.isEmpty()) {
-            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, "Bear Call Spread");
-        }
-
-        SpreadResponse melhorSpread = createErrorResponse("Nenhuma combinação de Bear Call Spread válida encontrada.", "Bear Call Spread");
-        BigDecimal melhorRiscoRetorno = BigDecimal.ZERO;
-
-        for (LocalDate vencimento : vencimentos) {
-            List<Option> callsNoVencimento = optionRepository.findByIdAcaoAndVencimentoAndTipo(ativoSubjacente, vencimento, "CALL");
-            
-            if (callsNoVencimento.size() < 2) continue;
+    SpreadResponse montarCandidato(EstrategiaOtimizacao estrategia, VisaoCadeia cadeia, int primeira, int segunda,
+            String ativoSubjacente, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais) {
+        SpreadResponse spread = montarSpread(estrategia, cadeia, new ParVencedor(primeira, segunda),
+                ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais);
+        return spread.toBuilder()
+                .nomeEstrategia(estrategia.getNome())
+                .mensagem(String.format("%s (Vencimento: %s). Relação R/R: %s.",
+                        estrategia.getNome(), spread.getVencimento(),
+                        spread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE)))
+                .build();
+    }
 
-            for (Option vendaPerna : callsNoVencimento) { // Venda é no K Baixo
-                for (Option compraPerna : callsNoVencimento) { // Compra é no K Alto
+    // =============================================================================
+    // --- MÉTODOS DE OTIMIZAÇÃO (Cadeia compacta em cache - IMPLEMENTAÇÃO REAL) ---
+    // =============================================================================
 
-                    // Critério Bear Call: Venda K Baixo < Compra K Alto
-                    if (vendaPerna.getStrike().compareTo(compraPerna.getStrike()) < 0) {
-                        
-                        List<PernaSpread> pernas = List.of(
-                                new PernaSpread(vendaPerna.getTicker(), QUANTIDADE_CONTRATOS, "VENDA"),
-                                new PernaSpread(compraPerna.getTicker(), QUANTIDADE_CONTRATOS, "COMPRA")
-                        );
+    /**
+     * Otimiza o Bull Call Spread (Compra CALL K baixo, Venda CALL K alto - Débito).
+     * Busca em todos os vencimentos e encontra o par com a melhor Relação Risco/Retorno Líquida.
+     */
+    public SpreadResponse otimizarBullCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return otimizarVertical(EstrategiaOtimizacao.BULL_CALL, ativoSubjacente, cotacaoAtualAtivo,
+                taxasOperacionais, obterCadeia(ativoSubjacente, EstrategiaOtimizacao.BULL_CALL));
+    }
 
-                        SpreadRequest request = new SpreadRequest(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, pernas);
-                        SpreadResponse candidato = calcularSpread(request);
+    /**
+     * * Otimiza o Bear Put Spread (Compra Put K alto, Venda Put K baixo - Débito).
+     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     */
+    public SpreadResponse otimizarBearPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return otimizarVertical(EstrategiaOtimizacao.BEAR_PUT, ativoSubjacente, cotacaoAtualAtivo,
+                taxasOperacionais, obterCadeia(ativoSubjacente, EstrategiaOtimizacao.BEAR_PUT));
+    }
 
-                        if (!"Erro".equals(candidato.getNomeEstrategia()) && candidato.getRelacaoRiscoRetornoLiquida().compareTo(melhorRiscoRetorno) > 0) {
-                            melhorRiscoRetorno = candidato.getRelacaoRiscoRetornoLiquida();
-                            melhorSpread = candidato.toBuilder().vencimento(vencimento).build();
-                        }
-                    }
-                }
-            }
-        }
-        
-        if (melhorRiscoRetorno.compareTo(BigDecimal.ZERO) > 0) {
-            String novaMensagem = String.format(
-                    "SUCESSO: Melhor Bear Call Spread encontrado (Vencimento: %s). Relação R/R: %s.",
-                    melhorSpread.getVencimento().toString(), 
-                    melhorSpread.getRelacaoRiscoRetornoLiquida().setScale(2, ROUNDING_MODE));
+    /**
+     * * Otimiza o Bull Put Spread (Venda PUT K alto, Compra PUT K baixo - Crédito).
+     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     */
+    public SpreadResponse otimizarBullPutSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return otimizarVertical(EstrategiaOtimizacao.BULL_PUT, ativoSubjacente, cotacaoAtualAtivo,
+                taxasOperacionais, obterCadeia(ativoSubjacente, EstrategiaOtimizacao.BULL_PUT));
+    }
 
-            return melhorSpread.toBuilder().mensagem(novaMensagem).build();
-        } else {
-            return melhorSpread;
-        }
+    /**
+     * * Otimiza o Bear Call Spread (Venda CALL K baixo, Compra CALL K alto - Crédito).
+     * Objetivo: Maximizar a Relação Risco/Retorno Líquida.
+     */
+    public SpreadResponse otimizarBearCallSpread(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais) {
+        return otimizarVertical(EstrategiaOtimizacao.BEAR_CALL, ativoSubjacente, cotacaoAtualAtivo,
+                taxasOperacionais, obterCadeia(ativoSubjacente, EstrategiaOtimizacao.BEAR_CALL));
     }
 
     // =============================================================================
@@ -630,15 +768,35 @@ public class SpreadService implements CalculadoraSpreadService {
     @Override
     public SpreadResponse otimizarMelhorEstrategia(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
             BigDecimal taxasOperacionais) {
+        // Uma única cadeia compacta (em cache), compartilhada pelas 4 estratégias
+        return otimizarMelhorEstrategia(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais,
+                obterCadeia(ativoSubjacente, EstrategiaOtimizacao.MELHOR));
+    }
+
+    private SpreadResponse otimizarMelhorEstrategia(String ativoSubjacente, BigDecimal cotacaoAtualAtivo,
+            BigDecimal taxasOperacionais, VisaoCadeia cadeia) {
+
+        // 1. Coleta resultados de todas as estratégias: uma passada pelos pares alimenta as 4
+        //    (Bull/Bear Call e Bull/Bear Put são espelhadas e avaliam os mesmos pares)
+        if (cadeia.isEmpty() || cotacaoAtualAtivo == null || taxasOperacionais == null) {
+            return escolherMelhorEstrategia(List.of());
+        }
+        EventosOtimizacao.EnumeracaoCandidatos evento = new EventosOtimizacao.EnumeracaoCandidatos();
+        evento.begin();
+        ParVencedor[] pares = buscarMelhoresPares(cadeia);
+        evento.concluir(ativoSubjacente, EstrategiaOtimizacao.MELHOR.name(),
+                contarPares(cadeia, EstrategiaOtimizacao.MELHOR), false);
 
-        // 1. Coleta resultados de todas as estratégias
         List<SpreadResponse> resultados = new ArrayList<>();
-        
-        resultados.add(otimizarBullCallSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
-        resultados.add(otimizarBearPutSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
-        resultados.add(otimizarBullPutSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
-        resultados.add(otimizarBearCallSpread(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais));
+        for (int v = 0; v < pares.length; v++) {
+            resultados.add(concluirVertical(Vertical.VERTICAIS.get(v), cadeia, pares[v], ativoSubjacente,
+                    cotacaoAtualAtivo, taxasOperacionais));
+        }
+
+        return escolherMelhorEstrategia(resultados);
+    }
 
+    private SpreadResponse escolherMelhorEstrategia(List<SpreadResponse> resultados) {
         // 2. Filtra erros e encontra a melhor Relação Risco/Retorno
         Optional<SpreadResponse> melhorSpreadOptional = resultados.stream()
                 // Filtra os resultados que não são de erro (assumindo que "Erro" é o nome da estratégia de erro)
@@ -667,4 +825,71 @@ public class SpreadService implements CalculadoraSpreadService {
                     "Melhor Estratégia Vertical");
         }
     }
-}
\ No newline at end of file
+
+    // =============================================================================
+    // --- OTIMIZAÇÃO COM PRAZO (deadlineMs) ---
+    // =============================================================================
+
+    /**
+     * Otimiza a vertical (ou as 4, para MELHOR) até o prazo: os pares são visitados a partir dos
+     * strikes mais próximos do spot e dos vencimentos mais próximos (BuscaComPrazo) e, esgotado
+     * o prazo, vale o melhor par encontrado até ali. A resposta traz a cobertura da busca; se ela
+     * terminou antes do prazo, o spread é o mesmo da otimização sem prazo.
+     *
+     * @param prazoNanos Instante limite em System.nanoTime() (marcado na chegada da requisição).
+     */
+    @Override
+    public SpreadResponse otimizarComPrazo(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, long prazoNanos) {
+        long inicio = System.nanoTime();
+        VisaoCadeia cadeia = obterCadeia(ativoSubjacente, estrategia);
+        boolean melhor = estrategia == EstrategiaOtimizacao.MELHOR;
+        String nome = melhor ? "Melhor Estratégia Vertical" : estrategia.getNome();
+        if (cadeia.isEmpty()) {
+            return createErrorResponse("ERRO: Nenhuma data de vencimento encontrada para o ativo " + ativoSubjacente, nome);
+        }
+        // Sem cotação não há strike "no dinheiro" para ordenar a busca
+        if (cotacaoAtualAtivo == null || taxasOperacionais == null) {
+            return createErrorResponse("ERRO: Informe cotação atual do ativo e taxas.", nome);
+        }
+
+        List<EstrategiaOtimizacao> estrategias = melhor ? Vertical.VERTICAIS : List.of(estrategia);
+        // A busca para antes do prazo o bastante para o cálculo completo dos vencedores
+        BuscaComPrazo busca = new BuscaComPrazo(cadeia, estrategias, CotacaoCompacta.paraTicks(cotacaoAtualAtivo),
+                prazoNanos - custoMontagemNanos * estrategias.size());
+        EventosOtimizacao.EnumeracaoCandidatos enumeracao = new EventosOtimizacao.EnumeracaoCandidatos();
+        enumeracao.begin();
+        busca.executar();
+        enumeracao.concluir(ativoSubjacente, estrategia.name(), busca.getParesAvaliados(), busca.isParcial());
+
+        long inicioMontagem = System.nanoTime();
+        List<SpreadResponse> resultados = new ArrayList<>(estrategias.size());
+        for (int v = 0; v < estrategias.size(); v++) {
+            ParVencedor par = busca.primeira(v) < 0 ? null : new ParVencedor(busca.primeira(v), busca.segunda(v));
+            resultados.add(concluirVertical(estrategias.get(v), cadeia, par, ativoSubjacente, cotacaoAtualAtivo,
+                    taxasOperacionais));
+        }
+        long custoMedido = (System.nanoTime() - inicioMontagem) / estrategias.size();
+        custoMontagemNanos += (custoMedido - custoMontagemNanos) / 8;
+        SpreadResponse resposta = melhor ? escolherMelhorEstrategia(resultados) : resultados.get(0);
+
+        CoberturaBusca cobertura = busca.cobertura(inicio);
+        String mensagem = !cobertura.parcial() ? resposta.getMensagem()
+                : String.format("%s Busca parcial: %s%% dos pares avaliados no prazo (%d strikes mais próximos do spot em todos os vencimentos).",
+                        resposta.getMensagem(), cobertura.percentualAvaliado(), cobertura.strikesCobertosPorVencimento());
+        return resposta.toBuilder().mensagem(mensagem).cobertura(cobertura).build();
+    }
+
+    /**
+     * Otimiza sobre uma cadeia fornecida pelo chamador (ex: snapshot histórico), sem acessar o banco.
+     */
+    @Override
+    public SpreadResponse otimizar(EstrategiaOtimizacao estrategia, String ativoSubjacente,
+            BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais, List<OpcaoCadeia> cadeia) {
+        VisaoCadeia compacta = cacheCadeias.compactar(ativoSubjacente, cadeia);
+        if (estrategia == EstrategiaOtimizacao.MELHOR) {
+            return otimizarMelhorEstrategia(ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, compacta);
+        }
+        return otimizarVertical(estrategia, ativoSubjacente, cotacaoAtualAtivo, taxasOperacionais, compacta);
+    }
+}
@@ -0,0 +1,176 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PontoVarreduraSpot;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraSpotResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CadeiaReprecificada;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Varredura de spot: a melhor estratégia vertical para cada cotação hipotética do ativo.
+ *
+ * A R/R líquida não depende da cotação, só dos prêmios; o que muda com o spot são os prêmios.
+ * Cada série é reprecificada por delta-gamma (P + delta * dS + gamma * dS^2 / 2, mínimo de
+ * 1 tick), com dS = spot - cotação atual. Séries sem gregas mantêm o prêmio.
+ *
+ * Os prêmios de todas as séries em todos os spots são calculados uma vez; depois cada par da
+ * cadeia é visitado UMA vez e avaliado em ticks para todos os spots e verticais, mantendo o
+ * melhor de cada (spot, vertical). Só o vencedor de cada spot passa pelo cálculo completo
+ * (breakeven, lucro e risco totais) com a cotação do ponto.
+ */
+@Service
+public class VarreduraSpotService {
+
+    // Limite de pontos por varredura
+    static final int PONTOS_MAXIMOS = 201;
+
+    private final CacheCadeiasCompactas cacheCadeias;
+    private final OptionRepository optionRepository;
+    private final SpreadService spreadService;
+
+    public VarreduraSpotService(CacheCadeiasCompactas cacheCadeias, OptionRepository optionRepository,
+            SpreadService spreadService) {
+        this.cacheCadeias = cacheCadeias;
+        this.optionRepository = optionRepository;
+        this.spreadService = spreadService;
+    }
+
+    public VarreduraSpotResponse varrer(String idAcao, BigDecimal cotacaoAtualAtivo, BigDecimal taxasOperacionais,
+            BigDecimal spotMinimo, BigDecimal spotMaximo, BigDecimal passo) {
+
+        if (cotacaoAtualAtivo == null || taxasOperacionais == null || spotMinimo == null || spotMaximo == null
+                || passo == null) {
+            return erro("ERRO: Informe cotação atual, taxas, spot mínimo, spot máximo e passo.");
+        }
+        if (passo.signum() <= 0 || spotMinimo.signum() <= 0 || spotMinimo.compareTo(spotMaximo) > 0) {
+            return erro("ERRO: Faixa de spot inválida (0 < mínimo <= máximo e passo > 0).");
+        }
+        List<BigDecimal> spots = new ArrayList<>();
+        for (BigDecimal spot = spotMinimo; spot.compareTo(spotMaximo) <= 0; spot = spot.add(passo)) {
+            if (spots.size() == PONTOS_MAXIMOS) {
+                return erro("ERRO: A varredura é limitada a " + PONTOS_MAXIMOS + " pontos; aumente o passo.");
+            }
+            spots.add(spot);
+        }
+
+        VisaoCadeia cadeia = cacheCadeias.obter(idAcao);
+        if (cadeia.isEmpty()) {
+            return erro("ERRO: Nenhuma data de vencimento encontrada para o ativo " + idAcao);
+        }
+
+        int[][] precos = reprecificar(cadeia, cotacaoAtualAtivo, spots);
+        int pontos = spots.size();
+        int verticais = Vertical.VERTICAIS.size();
+        long[][] melhorRelacao = new long[pontos][verticais];
+        int[][] melhorPrimeira = new int[pontos][verticais];
+        int[][] melhorSegunda = new int[pontos][verticais];
+        Vertical[] parametros = new Vertical[verticais];
+        for (int v = 0; v < verticais; v++) {
+            parametros[v] = Vertical.de(Vertical.VERTICAIS.get(v));
+        }
+
+        // Uma passada: cada par, na ordem da busca completa, avaliado em todos os spots
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            int inicio = cadeia.inicioGrupo(grupo);
+            int fim = cadeia.fimGrupo(grupo);
+            if (fim - inicio < 2) continue;
+
+            for (int i = inicio; i < fim; i++) {
+                int[] precosPrimeira = precos[i];
+                for (int j = inicio; j < fim; j++) {
+                    if (i == j) continue;
+                    int[] precosSegunda = precos[j];
+                    for (int v = 0; v < verticais; v++) {
+                        Vertical vertical = parametros[v];
+                        if (vertical.tipo() != cadeia.tipoGrupo(grupo)) continue;
+                        long largura = vertical.strikeCrescente()
+                                ? cadeia.strike(j) - cadeia.strike(i)
+                                : cadeia.strike(i) - cadeia.strike(j);
+                        if (largura <= 0) continue;
+
+                        boolean primeiraComprada = vertical.primeiraComprada();
+                        for (int p = 0; p < pontos; p++) {
+                            long premio = AvaliadorVerticalTicks.premioLiquido(precosPrimeira[p], primeiraComprada,
+                                    precosSegunda[p]);
+                            long relacao = AvaliadorVerticalTicks.avaliar(premio, largura);
+                            if (relacao > melhorRelacao[p][v]) {
+                                melhorRelacao[p][v] = relacao;
+                                melhorPrimeira[p][v] = i;
+                                melhorSegunda[p][v] = j;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<PontoVarreduraSpot> resultado = new ArrayList<>(pontos);
+        for (int p = 0; p < pontos; p++) {
+            // Melhor entre as verticais; no empate fica a primeira (mesma regra de otimizarMelhorEstrategia)
+            int vencedora = -1;
+            for (int v = 0; v < verticais; v++) {
+                if (melhorRelacao[p][v] > 0 && (vencedora < 0 || melhorRelacao[p][v] > melhorRelacao[p][vencedora])) {
+                    vencedora = v;
+                }
+            }
+            SpreadResponse melhor = null;
+            if (vencedora >= 0) {
+                int primeira = melhorPrimeira[p][vencedora];
+                int segunda = melhorSegunda[p][vencedora];
+                CadeiaReprecificada noPonto = new CadeiaReprecificada(cadeia);
+                noPonto.alterarPreco(primeira, precos[primeira][p]);
+                noPonto.alterarPreco(segunda, precos[segunda][p]);
+                melhor = spreadService.montarCandidato(Vertical.VERTICAIS.get(vencedora), noPonto, primeira, segunda,
+                        idAcao, spots.get(p), taxasOperacionais);
+            }
+            resultado.add(new PontoVarreduraSpot(spots.get(p), melhor));
+        }
+
+        return new VarreduraSpotResponse(String.format(
+                "SUCESSO: %d pontos de %s a %s (prêmios reprecificados por delta-gamma a partir de %s).",
+                pontos, spotMinimo, spots.get(pontos - 1), cotacaoAtualAtivo), resultado);
+    }
+
+    /**
+     * Prêmio (ticks) de cada série em cada spot: precos[serie][ponto], contíguo por série
+     * para o laço interno da passada de pares.
+     */
+    private int[][] reprecificar(VisaoCadeia cadeia, BigDecimal cotacaoAtualAtivo, List<BigDecimal> spots) {
+        GregasCadeia gregas = GregasCadeia.carregar(cadeia, optionRepository);
+        double[] deltas = gregas.deltas();
+        double[] gammas = gregas.gammas();
+
+        double[] deslocamentos = new double[spots.size()];
+        for (int p = 0; p < spots.size(); p++) {
+            deslocamentos[p] = spots.get(p).subtract(cotacaoAtualAtivo).doubleValue();
+        }
+
+        int[][] precos = new int[cadeia.tamanho()][spots.size()];
+        for (int grupo = 0; grupo < cadeia.grupos(); grupo++) {
+            // O delta da PUT é gravado em módulo
+            double sinal = cadeia.tipoGrupo(grupo) == CotacaoCompacta.PUT ? -1 : 1;
+            for (int i = cadeia.inicioGrupo(grupo); i < cadeia.fimGrupo(grupo); i++) {
+                double delta = Double.isNaN(deltas[i]) ? 0 : sinal * Math.abs(deltas[i]);
+                double gamma = Double.isNaN(gammas[i]) ? 0 : gammas[i];
+                for (int p = 0; p < spots.size(); p++) {
+                    double ds = deslocamentos[p];
+                    long variacao = Math.round((delta * ds + 0.5 * gamma * ds * ds) * 10_000);
+                    precos[i][p] = (int) Math.max(1, cadeia.preco(i) + variacao);
+                }
+            }
+        }
+        return precos;
+    }
+
+    private static VarreduraSpotResponse erro(String mensagem) {
+        return new VarreduraSpotResponse(mensagem, List.of());
+    }
+}
@@ -0,0 +1,65 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.List;
+
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+
+/**
+ * Parâmetros de busca de cada vertical: tipo das séries, operação da primeira perna e
+ * sentido do strike da primeira para a segunda perna.
+ */
+record Vertical(byte tipo, String operacaoPrimeira, String operacaoSegunda, boolean strikeCrescente) {
+
+    // Ordem em que MELHOR compara as verticais (e desempata)
+    static final List<EstrategiaOtimizacao> VERTICAIS = List.of(EstrategiaOtimizacao.BULL_CALL,
+            EstrategiaOtimizacao.BEAR_PUT, EstrategiaOtimizacao.BULL_PUT, EstrategiaOtimizacao.BEAR_CALL);
+
+    /*
+     * Verticais espelhadas por tipo (índice CALL/PUT): a de débito (primeira perna comprada) e a
+     * de crédito percorrem os mesmos pares, com a mesma largura e o prêmio líquido com sinal
+     * trocado. Posições em VERTICAIS.
+     */
+    static final int[] DEBITO_POR_TIPO = new int[2];
+    static final int[] CREDITO_POR_TIPO = new int[2];
+    static final boolean[] STRIKE_CRESCENTE_POR_TIPO = new boolean[2];
+
+    static {
+        for (int v = 0; v < VERTICAIS.size(); v++) {
+            Vertical vertical = de(VERTICAIS.get(v));
+            (vertical.primeiraComprada() ? DEBITO_POR_TIPO : CREDITO_POR_TIPO)[vertical.tipo()] = v;
+            STRIKE_CRESCENTE_POR_TIPO[vertical.tipo()] = vertical.strikeCrescente();
+        }
+    }
+
+    static Vertical de(EstrategiaOtimizacao estrategia) {
+        return switch (estrategia) {
+            // Compra CALL K baixo, Venda CALL K alto (Débito)
+            case BULL_CALL -> new Vertical(CotacaoCompacta.CALL, "COMPRA", "VENDA", true);
+            // Compra PUT K alto, Venda PUT K baixo (Débito)
+            case BEAR_PUT -> new Vertical(CotacaoCompacta.PUT, "COMPRA", "VENDA", false);
+            // Venda PUT K alto, Compra PUT K baixo (Crédito)
+            case BULL_PUT -> new Vertical(CotacaoCompacta.PUT, "VENDA", "COMPRA", false);
+            // Venda CALL K baixo, Compra CALL K alto (Crédito)
+            case BEAR_CALL -> new Vertical(CotacaoCompacta.CALL, "VENDA", "COMPRA", true);
+            case MELHOR -> throw new IllegalArgumentException("MELHOR não é uma vertical simples");
+        };
+    }
+
+    boolean primeiraComprada() {
+        return "COMPRA".equals(operacaoPrimeira);
+    }
+
+    /**
+     * R/R em centésimos do par (AvaliadorVerticalTicks), ou Long.MIN_VALUE se os strikes não
+     * estiverem no sentido da vertical (largura não positiva: par inválido).
+     */
+    long avaliar(long strikePrimeira, int precoPrimeira, long strikeSegunda, int precoSegunda) {
+        long largura = strikeCrescente ? strikeSegunda - strikePrimeira : strikePrimeira - strikeSegunda;
+        if (largura <= 0) {
+            return Long.MIN_VALUE;
+        }
+        long premio = AvaliadorVerticalTicks.premioLiquido(precoPrimeira, primeiraComprada(), precoSegunda);
+        return AvaliadorVerticalTicks.avaliar(premio, largura);
+    }
+}
@@ -0,0 +1,38 @@
+package com.calculadora_derivativos.calculadora_backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.calculadora_derivativos.calculadora_backend.dto.VolatilidadeSerie;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Volatilidade implícita (% ao dia útil, como gravada) e dias úteis de cada série da cadeia,
+ * por índice: da própria visão quando ela os tem (BlocoColunarOffHeap) ou do banco, em uma
+ * consulta por ativo. Ausentes ficam NaN / -1.
+ */
+record VolatilidadesCadeia(double[] vols, int[] diasUteis) {
+
+    static VolatilidadesCadeia carregar(VisaoCadeia cadeia, OptionRepository optionRepository) {
+        double[] vols = new double[cadeia.tamanho()];
+        int[] diasUteis = new int[cadeia.tamanho()];
+        if (cadeia.temGregas()) {
+            for (int i = 0; i < cadeia.tamanho(); i++) {
+                vols[i] = cadeia.volImplicita(i);
+                diasUteis[i] = cadeia.diasUteis(i);
+            }
+        } else {
+            Map<String, VolatilidadeSerie> porTicker = new HashMap<>();
+            for (VolatilidadeSerie serie : optionRepository.findVolatilidadesByIdAcao(cadeia.getIdAcao())) {
+                porTicker.put(serie.ticker(), serie);
+            }
+            for (int i = 0; i < cadeia.tamanho(); i++) {
+                VolatilidadeSerie serie = porTicker.get(cadeia.ticker(i));
+                vols[i] = serie == null || serie.volImplicita() == null ? Double.NaN : serie.volImplicita().doubleValue();
+                diasUteis[i] = serie == null || serie.diasUteis() == null ? -1 : serie.diasUteis();
+            }
+        }
+        return new VolatilidadesCadeia(vols, diasUteis);
+    }
+}
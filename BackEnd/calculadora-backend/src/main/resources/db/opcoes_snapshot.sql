@@ -0,0 +1,29 @@
+-- =====================================================================
+-- Histórico de cotações (append-only), uma linha por (data_hora, ticker).
+-- Particionado por mês de data_hora: a purga de meses antigos é feita com
+-- DROP PARTITION (SnapshotParticaoService), nunca com DELETE de linhas.
+-- A partição p_futuro recebe tudo que ainda não tem partição mensal e é
+-- dividida (REORGANIZE) à medida que novos meses são ingeridos.
+-- =====================================================================
+CREATE TABLE IF NOT EXISTS opcoes_snapshot (
+    data_hora     DATETIME      NOT NULL,
+    ticker        VARCHAR(20)   NOT NULL,
+    id_acao       VARCHAR(12)   NOT NULL,
+    tipo          VARCHAR(4)    NOT NULL,
+    vencimento    DATE          NOT NULL,
+    dias_uteis    INT,
+    strike        DECIMAL(12,4) NOT NULL,
+    preco         DECIMAL(12,4) NOT NULL,
+    vol_implicita DECIMAL(10,4),
+    delta         DECIMAL(10,4),
+    gamma         DECIMAL(10,4),
+    theta         DECIMAL(10,4),
+    vega          DECIMAL(10,4),
+    PRIMARY KEY (data_hora, ticker),
+    -- Busca por vencimento: (id_acao, vencimento, tipo, strike) + preco cobre a consulta;
+    -- data_hora e ticker já vêm da chave primária embutida no índice secundário (InnoDB).
+    KEY idx_snapshot_cadeia (id_acao, vencimento, tipo, strike, preco)
+) ENGINE=InnoDB
+PARTITION BY RANGE COLUMNS (data_hora) (
+    PARTITION p_futuro VALUES LESS THAN (MAXVALUE)
+);
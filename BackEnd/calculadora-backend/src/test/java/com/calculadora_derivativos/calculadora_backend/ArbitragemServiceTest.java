@@ -0,0 +1,158 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraArbitragemResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.ViolacaoArbitragem;
+import com.calculadora_derivativos.calculadora_backend.dto.ViolacaoArbitragem.TipoArbitragem;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.ArbitragemService;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+
+/**
+ * Testes da varredura de arbitragem: a série desatualizada viola a paridade e abre um box,
+ * uma cadeia coerente com a taxa de juros não gera violações.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ArbitragemServiceTest {
+
+        private static final LocalDate REFERENCIA = LocalDate.of(2025, 10, 15);
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        private ArbitragemService arbitragemService;
+
+        @BeforeEach
+        void setUp() {
+                arbitragemService = new ArbitragemService(new CacheCadeiasCompactas(optionRepository), optionRepository,
+                                new BigDecimal("0.1075"));
+        }
+
+        // Com juros zero, C - P + K = 100 em todos os strikes, menos no 110 (PUT defasada em 1,00)
+        private void cadeiaComSerieDesatualizada() {
+                CadeiaTeste.de("BOVA11")
+                                .call("BOVAK95", "95.00", "6.00")
+                                .call("BOVAK100", "100.00", "3.00")
+                                .call("BOVAK105", "105.00", "1.00")
+                                .call("BOVAK110", "110.00", "0.50")
+                                // Sem PUT correspondente: fica fora da varredura
+                                .call("BOVAK115", "115.00", "0.20")
+                                .put("BOVAW95", "95.00", "1.00")
+                                .put("BOVAW100", "100.00", "3.00")
+                                .put("BOVAW105", "105.00", "6.00")
+                                .put("BOVAW110", "110.00", "9.50")
+                                // Vencimento já passado na data de referência: ignorado
+                                .vencimento(REFERENCIA.minusDays(5))
+                                .call("BOVAJ100", "100.00", "9.00")
+                                .put("BOVAV100", "100.00", "0.10")
+                                .registrarCadeia(optionRepository);
+        }
+
+        @Test
+        void testVarrer_SerieDesatualizadaGeraConversaoEBoxComprado() {
+                cadeiaComSerieDesatualizada();
+
+                VarreduraArbitragemResponse resposta = arbitragemService.varrerAtivo("BOVA11", null, null, TAXAS,
+                                BigDecimal.ZERO, REFERENCIA);
+
+                assertEquals(1, resposta.vencimentos());
+                assertEquals(4, resposta.strikesCasados());
+                assertEquals(2, resposta.violacoes().size());
+
+                // Spot implícito = mediana de x = 100; no strike 110, C - P = -9,00 contra S - K = -10,00
+                ViolacaoArbitragem conversao = resposta.violacoes().get(0);
+                assertEquals(TipoArbitragem.CONVERSAO, conversao.tipo());
+                assertEquals(VENCIMENTO, conversao.vencimento());
+                assertEquals(0, new BigDecimal("110").compareTo(conversao.strikes().get(0)));
+                assertEquals(0, new BigDecimal("100").compareTo(conversao.spotReferencia()));
+                assertEquals(0, new BigDecimal("-9").compareTo(conversao.valorMercado()));
+                assertEquals(0, new BigDecimal("-10").compareTo(conversao.valorTeorico()));
+                assertEquals(0, new BigDecimal("0.97").compareTo(conversao.lucroLiquidoUnitario()));
+                assertEquals(new BigDecimal("97.00"), conversao.lucroLiquidoTotal());
+                assertEquals(List.of(
+                                new PernaSpread("BOVAK110", 100, "VENDA"),
+                                new PernaSpread("BOVAW110", 100, "COMPRA"),
+                                new PernaSpread("BOVA11", 100, "COMPRA")), conversao.pernas());
+
+                // Box 95/110 a mercado: (6 - 1) - (0,50 - 9,50) = 14 contra 15 de valor teórico
+                ViolacaoArbitragem box = resposta.violacoes().get(1);
+                assertEquals(TipoArbitragem.BOX_COMPRADO, box.tipo());
+                assertEquals(0, new BigDecimal("95").compareTo(box.strikes().get(0)));
+                assertEquals(0, new BigDecimal("110").compareTo(box.strikes().get(1)));
+                assertEquals(0, new BigDecimal("14").compareTo(box.valorMercado()));
+                assertEquals(0, new BigDecimal("15").compareTo(box.valorTeorico()));
+                assertEquals(0, new BigDecimal("-1").compareTo(box.desvioUnitario()));
+                assertEquals(new BigDecimal("96.00"), box.lucroLiquidoTotal());
+                assertEquals(List.of(
+                                new PernaSpread("BOVAK95", 100, "COMPRA"),
+                                new PernaSpread("BOVAK110", 100, "VENDA"),
+                                new PernaSpread("BOVAW95", 100, "VENDA"),
+                                new PernaSpread("BOVAW110", 100, "COMPRA")), box.pernas());
+        }
+
+        @Test
+        void testVarrer_CotacaoInformadaETaxasAltasFiltramViolacoes() {
+                cadeiaComSerieDesatualizada();
+
+                // Spot 101: os strikes 95 a 105 passam a violar a paridade (reversões de 1,00)
+                VarreduraArbitragemResponse comSpot = arbitragemService.varrerAtivo("BOVA11", VENCIMENTO,
+                                new BigDecimal("101"), TAXAS, BigDecimal.ZERO, REFERENCIA);
+                assertEquals(3, comSpot.violacoes().stream()
+                                .filter(violacao -> violacao.tipo() == TipoArbitragem.REVERSAO).count());
+                assertTrue(comSpot.violacoes().stream().noneMatch(violacao -> violacao.tipo() == TipoArbitragem.CONVERSAO));
+
+                // Taxas de 0,25 por perna consomem o desvio de 1,00 do box (4 pernas), não o da paridade (3)
+                VarreduraArbitragemResponse taxasAltas = arbitragemService.varrerAtivo("BOVA11", null, null,
+                                new BigDecimal("0.25"), BigDecimal.ZERO, REFERENCIA);
+                assertEquals(1, taxasAltas.violacoes().size());
+                assertEquals(TipoArbitragem.CONVERSAO, taxasAltas.violacoes().get(0).tipo());
+                assertEquals(new BigDecimal("25.00"), taxasAltas.violacoes().get(0).lucroLiquidoTotal());
+
+                assertThrows(IllegalArgumentException.class, () -> arbitragemService.varrerAtivo("BOVA11", null, null,
+                                new BigDecimal("-0.01"), null, REFERENCIA));
+        }
+
+        @Test
+        void testVarrerMercado_CadeiaCoerenteComOsJurosNaoTemViolacoes() {
+                // C - P = S - K·fd, com fd = 1,1075^(-30/365), arredondado a centavos
+                double desconto = Math.pow(1.1075, -30 / 365d);
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                List<OpcaoCadeia> puts = new ArrayList<>();
+                for (int strike = 90; strike <= 110; strike += 5) {
+                        BigDecimal valorPresente = BigDecimal.valueOf(strike * desconto);
+                        BigDecimal put = new BigDecimal("2.00").add(BigDecimal.valueOf(strike - 90).multiply(new BigDecimal("0.80")));
+                        BigDecimal call = new BigDecimal("100").subtract(valorPresente).add(put).setScale(2, RoundingMode.HALF_UP);
+                        cadeia.add(new OpcaoCadeia("PETRK" + strike, "CALL", VENCIMENTO, BigDecimal.valueOf(strike), call));
+                        puts.add(new OpcaoCadeia("PETRW" + strike, "PUT", VENCIMENTO, BigDecimal.valueOf(strike), put));
+                }
+                cadeia.addAll(puts);
+                when(optionRepository.findDistinctIdAcao()).thenReturn(List.of("PETR4"));
+                when(optionRepository.findCadeiaByIdAcao("PETR4")).thenReturn(cadeia);
+
+                VarreduraArbitragemResponse resposta = arbitragemService.varrerMercado(null, TAXAS, null, REFERENCIA);
+
+                assertEquals(1, resposta.ativos());
+                assertEquals(0, new BigDecimal("0.1075").compareTo(resposta.taxaJurosAnual()));
+                assertEquals(5, resposta.strikesCasados());
+                assertTrue(resposta.violacoes().isEmpty(), () -> resposta.violacoes().toString());
+        }
+}
@@ -0,0 +1,164 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.FechamentoAtivo;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.ResultadoDiaBacktest;
+import com.calculadora_derivativos.calculadora_backend.dto.ResumoBacktest;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoAtivo;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.CotacaoAtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OpcaoSnapshotRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.BacktestService;
+
+/**
+ * Testes do BacktestService: replay de snapshots com o otimizador real (SpreadService).
+ */
+@ExtendWith(MockitoExtension.class)
+public class BacktestServiceTest {
+
+        private static final LocalDate DIA_1 = LocalDate.of(2025, 10, 1);
+        private static final LocalDate DIA_2 = LocalDate.of(2025, 10, 2);
+        private static final LocalDate DIA_3 = LocalDate.of(2025, 10, 3);
+
+        @Mock
+        private OpcaoSnapshotRepository snapshotRepository;
+
+        @Mock
+        private CotacaoAtivoRepository cotacaoAtivoRepository;
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private ExecutorService executor;
+        private BacktestService backtestService;
+
+        @BeforeEach
+        void setUp() {
+                executor = Executors.newFixedThreadPool(2);
+                backtestService = new BacktestService(snapshotRepository, cotacaoAtivoRepository,
+                                CadeiaTeste.servicos(optionRepository, ativoRepository).spreadService(), executor, 2, 730);
+        }
+
+        @AfterEach
+        void tearDown() {
+                executor.shutdownNow();
+        }
+
+        // Cadeia em que o melhor spread é sempre o Bear Call 135/140 (crédito de 4.70)
+        private static List<OpcaoCadeia> cadeia(LocalDate vencimento) {
+                return CadeiaTeste.de("BOVA11").vencimento(vencimento)
+                                .call("K135", "135.00", "8.70")
+                                .call("K140", "140.00", "4.00")
+                                .call("K145", "145.00", "1.50")
+                                .opcoes();
+        }
+
+        private static CotacaoAtivo fechamento(LocalDate data, String valor) {
+                CotacaoAtivo cotacao = new CotacaoAtivo();
+                cotacao.setIdAcao("BOVA11");
+                cotacao.setData(data);
+                cotacao.setFechamento(new BigDecimal(valor));
+                return cotacao;
+        }
+
+        @Test
+        void testBacktest_LiquidaNoVencimentoEAcumulaEmOrdem() {
+                LocalDate venc1 = LocalDate.of(2025, 11, 14);
+                LocalDate venc2 = LocalDate.of(2025, 12, 19);
+                LocalDate venc3 = LocalDate.of(2026, 1, 16);
+
+                when(cotacaoAtivoRepository.findByIdAcaoAndDataBetweenOrderByDataAsc(eq("BOVA11"), eq(DIA_1), any()))
+                                .thenReturn(List.of(
+                                                fechamento(DIA_1, "138.00"),
+                                                fechamento(venc1, "137.00"),
+                                                fechamento(venc2, "142.00")));
+                when(snapshotRepository.listarDiasComSnapshot("BOVA11", DIA_1, DIA_3))
+                                .thenReturn(List.of(DIA_1, DIA_2, DIA_3));
+                when(snapshotRepository.buscarCadeiaDoDia("BOVA11", DIA_1)).thenReturn(cadeia(venc1));
+                when(snapshotRepository.buscarCadeiaDoDia("BOVA11", DIA_2)).thenReturn(cadeia(venc2));
+                when(snapshotRepository.buscarCadeiaDoDia("BOVA11", DIA_3)).thenReturn(cadeia(venc3));
+
+                List<ResultadoDiaBacktest> dias = new ArrayList<>();
+                ResumoBacktest resumo = backtestService.executar("BOVA11", DIA_1, DIA_3, EstrategiaOtimizacao.MELHOR,
+                                new BigDecimal("0.01"), dias::add);
+
+                assertEquals(List.of(DIA_1, DIA_2, DIA_3), dias.stream().map(ResultadoDiaBacktest::data).toList());
+
+                // Crédito líquido 468.00; a 137.00 a CALL 135 vendida custa 200.00 -> +268.00
+                ResultadoDiaBacktest primeiro = dias.get(0);
+                assertEquals(BacktestService.LIQUIDADO, primeiro.status());
+                assertEquals("Bear Call Spread", primeiro.estrategia());
+                assertEquals(new BigDecimal("268.00"), primeiro.resultado());
+
+                // A 142.00: -700.00 + 200.00 + 468.00 = -32.00
+                ResultadoDiaBacktest segundo = dias.get(1);
+                assertEquals(new BigDecimal("-32.00"), segundo.resultado());
+                assertEquals(new BigDecimal("236.00"), segundo.resultadoAcumulado());
+                assertEquals(new BigDecimal("32.00"), segundo.drawdown());
+
+                // Sem fechamento no vencimento: operação continua aberta
+                ResultadoDiaBacktest terceiro = dias.get(2);
+                assertEquals(BacktestService.EM_ABERTO, terceiro.status());
+                assertNull(terceiro.resultado());
+
+                assertEquals(3, resumo.diasProcessados());
+                assertEquals(2, resumo.operacoesLiquidadas());
+                assertEquals(1, resumo.operacoesVencedoras());
+                assertEquals(new BigDecimal("0.5000"), resumo.taxaAcerto());
+                assertEquals(new BigDecimal("236.00"), resumo.resultadoAcumulado());
+                assertEquals(new BigDecimal("32.00"), resumo.drawdownMaximo());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void testRegistrarFechamentos_AtualizaExistenteSemAceitarIdDoCliente() {
+                CotacaoAtivo existente = fechamento(DIA_1, "138.00");
+                existente.setId(7L);
+                when(cotacaoAtivoRepository.findByIdAcaoAndData("BOVA11", DIA_1)).thenReturn(Optional.of(existente));
+                when(cotacaoAtivoRepository.findByIdAcaoAndData("BOVA11", DIA_2)).thenReturn(Optional.empty());
+                when(cotacaoAtivoRepository.saveAll(any())).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+                int gravados = backtestService.registrarFechamentos(List.of(
+                                new FechamentoAtivo("BOVA11", DIA_1, new BigDecimal("139.50")),
+                                new FechamentoAtivo("BOVA11", DIA_2, new BigDecimal("140.00"))));
+
+                assertEquals(2, gravados);
+                ArgumentCaptor<List<CotacaoAtivo>> gravadas = ArgumentCaptor.forClass(List.class);
+                verify(cotacaoAtivoRepository).saveAll(gravadas.capture());
+                assertSame(existente, gravadas.getValue().get(0));
+                assertEquals(new BigDecimal("139.50"), existente.getFechamento());
+                assertNull(gravadas.getValue().get(1).getId());
+
+                assertThrows(IllegalArgumentException.class, () -> backtestService.registrarFechamentos(List.of(
+                                new FechamentoAtivo("BOVA11", DIA_3, null))));
+        }
+}
@@ -0,0 +1,170 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.model.BlocoColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.ArmazemColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes do armazenamento colunar fora do heap.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BlocoColunarOffHeapTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        @Mock
+        private ArmazemColunarOffHeap armazem;
+
+        // Cadeia de SpreadServiceOtimizacaoTest, já na ordem (vencimento, tipo, strike)
+        private static BlocoColunarOffHeap cadeiaBova11() {
+                return CadeiaTeste.bova11().blocoOffHeap(7);
+        }
+
+        @Test
+        void testColunas_LeemOQueFoiGravado() {
+                BlocoColunarOffHeap bloco = cadeiaBova11();
+
+                assertEquals(5, bloco.tamanho());
+                assertEquals(2, bloco.grupos());
+                assertEquals(CotacaoCompacta.CALL, bloco.tipoGrupo(0));
+                assertEquals(3, bloco.fimGrupo(0));
+                assertEquals(CotacaoCompacta.PUT, bloco.tipoGrupo(1));
+                assertEquals(VENCIMENTO.toEpochDay(), bloco.vencimentoGrupo(1));
+                assertEquals(1_400_000L, bloco.strike(1));
+                assertEquals(5_000, bloco.preco(3));
+                assertEquals("BOVAW140", bloco.ticker(4));
+                assertEquals(0.35, bloco.delta(4));
+                assertEquals(5L * BlocoColunarOffHeap.BYTES_POR_SERIE, bloco.bytesOffHeap());
+
+                Option option = bloco.paraOption(0);
+                assertEquals("BOVA11", option.getIdAcao());
+                assertEquals(new BigDecimal("135.0000"), option.getStrike());
+                assertNull(option.getDiasUteis());
+                assertNull(option.getVega());
+        }
+
+        @Test
+        void testConstrutor_IgnoraSerieInvalida() {
+                BlocoColunarOffHeap.Construtor construtor = new BlocoColunarOffHeap.Construtor("BOVA11");
+
+                assertFalse(construtor.adicionar("BOVAK135", "FUTURO", VENCIMENTO, null, BigDecimal.ONE,
+                                BigDecimal.ONE, null, null, null, null, null));
+                assertFalse(construtor.adicionar("TICKER_MUITO_LONGO_1", "CALL", VENCIMENTO, null, BigDecimal.ONE,
+                                BigDecimal.ONE, null, null, null, null, null));
+                assertEquals(0, construtor.tamanho());
+        }
+
+        /**
+         * As séries ficam em memória direta: o buffer pool 'direct' cresce com o bloco.
+         */
+        @Test
+        void testMemoria_SeriesFicamForaDoHeap() {
+                BufferPoolMXBean direto = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                                .filter(pool -> "direct".equals(pool.getName()))
+                                .findFirst().orElseThrow();
+
+                BlocoColunarOffHeap.Construtor construtor = new BlocoColunarOffHeap.Construtor("PETR4");
+                for (int i = 0; i < 20_000; i++) {
+                        construtor.adicionar("PETRK" + i, "CALL", VENCIMENTO.plusWeeks(i / 1_000), null,
+                                        BigDecimal.valueOf(2_000 + i, 2), BigDecimal.valueOf(i % 500, 2),
+                                        null, null, null, null, null);
+                }
+                BlocoColunarOffHeap bloco = construtor.construir(1);
+
+                assertEquals(20, bloco.grupos());
+                assertEquals(20_000L * BlocoColunarOffHeap.BYTES_POR_SERIE, bloco.bytesOffHeap());
+                // Outros buffers diretos podem ser liberados em paralelo: compara com o total em uso
+                assertTrue(direto.getMemoryUsed() >= bloco.bytesOffHeap());
+        }
+
+        /**
+         * Cotação ao vivo sobre o universo off-heap: o ativo continua servido por um bloco
+         * off-heap (só a coluna de prêmios é copiada) e o bloco original não muda.
+         */
+        @Test
+        void testAplicarPrecos_MantemOAtivoForaDoHeap() {
+                BlocoColunarOffHeap original = cadeiaBova11();
+                when(armazem.isHabilitado()).thenReturn(true);
+                when(armazem.obter("BOVA11")).thenReturn(original);
+                CacheCadeiasCompactas cache = new CacheCadeiasCompactas(optionRepository, armazem);
+
+                cache.aplicarPrecos("BOVA11", Map.of("BOVAK140", AtualizacaoSerie.soPreco(43_000),
+                                "FORA_DA_CADEIA", AtualizacaoSerie.soPreco(1)));
+
+                BlocoColunarOffHeap atualizado = assertInstanceOf(BlocoColunarOffHeap.class, cache.obter("BOVA11"));
+                assertNotSame(original, atualizado);
+                assertEquals(43_000, atualizado.preco(1));
+                assertEquals(40_000, original.preco(1));
+                assertEquals(original.preco(0), atualizado.preco(0));
+                assertEquals(original.delta(1), atualizado.delta(1));
+                assertEquals(original.getVersao(), atualizado.getVersao());
+                assertSame(atualizado, atualizado.comPrecos(Map.of("BOVAK140", AtualizacaoSerie.soPreco(43_000))));
+                // Gregas ao vivo: só muda a coluna alterada; o bloco anterior segue com o valor antigo
+                BlocoColunarOffHeap comDelta = atualizado.comPrecos(Map.of("BOVAK140",
+                                new AtualizacaoSerie(43_000, Double.NaN, 0.62, Double.NaN, Double.NaN, Double.NaN)));
+                assertEquals(0.62, comDelta.delta(1));
+                assertEquals(0.60, atualizado.delta(1));
+                assertEquals(atualizado.gamma(1), comDelta.gamma(1));
+                assertEquals(43_000, comDelta.preco(1));
+                // Índice de tickers: prefixo de um ticker gravado não é o ticker
+                assertEquals(4, atualizado.indice("BOVAW140"));
+                assertEquals(-1, atualizado.indice("BOVAW14"));
+                assertEquals(-1, atualizado.indice("BOVAW1400"));
+                verify(optionRepository, never()).findCadeiaByIdAcao(anyString());
+        }
+
+        /**
+         * Com o universo off-heap carregado o otimizador lê direto das colunas, sem ir ao banco,
+         * e escolhe o mesmo spread que a cadeia em heap.
+         */
+        @Test
+        void testOtimizador_LeDoBlocoOffHeap() {
+                when(armazem.isHabilitado()).thenReturn(true);
+                when(armazem.obter("BOVA11")).thenReturn(cadeiaBova11());
+                SpreadService spreadService = new SpreadService(optionRepository, ativoRepository,
+                                new CacheCadeiasCompactas(optionRepository, armazem));
+
+                SpreadResponse resposta = spreadService.otimizarMelhorEstrategia("BOVA11", COTACAO, TAXAS);
+
+                assertEquals(new BigDecimal("5.76"), resposta.getRelacaoRiscoRetornoLiquida());
+                assertEquals(VENCIMENTO, resposta.getVencimento());
+                assertEquals("BOVAK135", resposta.getPernasExecutadas().get(0).ticker());
+                assertEquals("VENDA", resposta.getPernasExecutadas().get(0).operacao());
+                verify(optionRepository, never()).findCadeiaByIdAcao(anyString());
+        }
+}
@@ -0,0 +1,213 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.calculadora_derivativos.calculadora_backend.dto.GregasSerie;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.VolatilidadeSerie;
+import com.calculadora_derivativos.calculadora_backend.model.BlocoColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Cadeia de opções de teste, montada série a série, e os serviços que os testes dos
+ * otimizadores criam sobre o OptionRepository mockado.
+ *
+ * Cada série entra com call/put (no vencimento corrente, alterado por vencimento()) e recebe
+ * gregas e volatilidade opcionais; a cadeia é então devolvida no formato que o teste precisa
+ * (OpcaoCadeia, Option, GregasSerie, bloco off-heap) ou registrada no repositório.
+ */
+final class CadeiaTeste {
+
+        static final LocalDate VENCIMENTO = LocalDate.of(2025, 11, 14);
+        static final BigDecimal COTACAO = new BigDecimal("138.00");
+        static final BigDecimal TAXAS = new BigDecimal("0.01");
+
+        /**
+         * Cache e SpreadService sobre o mesmo repositório, como no contexto da aplicação.
+         */
+        record Servicos(CacheCadeiasCompactas cache, SpreadService spreadService) {
+        }
+
+        static Servicos servicos(OptionRepository optionRepository, AtivoRepository ativoRepository) {
+                CacheCadeiasCompactas cache = new CacheCadeiasCompactas(optionRepository);
+                return new Servicos(cache, new SpreadService(optionRepository, ativoRepository, cache));
+        }
+
+        private static final class Serie {
+                private final String ticker;
+                private final String tipo;
+                private final LocalDate vencimento;
+                private final BigDecimal strike;
+                private final BigDecimal preco;
+                private BigDecimal delta;
+                private BigDecimal gamma;
+                private BigDecimal theta;
+                private BigDecimal vega;
+                private BigDecimal volImplicita;
+                private Integer diasUteis;
+
+                private Serie(String ticker, String tipo, LocalDate vencimento, String strike, String preco) {
+                        this.ticker = ticker;
+                        this.tipo = tipo;
+                        this.vencimento = vencimento;
+                        this.strike = new BigDecimal(strike);
+                        this.preco = new BigDecimal(preco);
+                }
+        }
+
+        private final String idAcao;
+        private final List<Serie> series = new ArrayList<>();
+        private LocalDate vencimento = VENCIMENTO;
+
+        private CadeiaTeste(String idAcao) {
+                this.idAcao = idAcao;
+        }
+
+        static CadeiaTeste de(String idAcao) {
+                return new CadeiaTeste(idAcao);
+        }
+
+        /**
+         * Cadeia BOVA11 dos testes dos otimizadores: 3 CALLs e 2 PUTs em VENCIMENTO. Com COTACAO e
+         * TAXAS o melhor spread é o Bear Call 135/140 (crédito 4.70, lucro 426.00 / risco 74.00).
+         */
+        static CadeiaTeste bova11() {
+                return de("BOVA11")
+                                .call("BOVAK135", "135.00", "8.70").gregas("0.95", "0.02")
+                                .call("BOVAK140", "140.00", "4.00").gregas("0.60", "0.05")
+                                .call("BOVAK145", "145.00", "1.50").gregas("0.30", "0.04")
+                                .put("BOVAW135", "135.00", "0.50").gregas("0.10", "0.02")
+                                .put("BOVAW140", "140.00", "2.00").gregas("0.35", "0.05");
+        }
+
+        // Vencimento das séries adicionadas a seguir
+        CadeiaTeste vencimento(LocalDate vencimento) {
+                this.vencimento = vencimento;
+                return this;
+        }
+
+        CadeiaTeste call(String ticker, String strike, String preco) {
+                return serie(ticker, "CALL", strike, preco);
+        }
+
+        CadeiaTeste put(String ticker, String strike, String preco) {
+                return serie(ticker, "PUT", strike, preco);
+        }
+
+        CadeiaTeste serie(String ticker, String tipo, String strike, String preco) {
+                series.add(new Serie(ticker, tipo, vencimento, strike, preco));
+                return this;
+        }
+
+        // Delta (PUT em módulo, como gravado) e gamma da última série
+        CadeiaTeste gregas(String delta, String gamma) {
+                Serie ultima = ultima();
+                ultima.delta = new BigDecimal(delta);
+                ultima.gamma = new BigDecimal(gamma);
+                return this;
+        }
+
+        CadeiaTeste thetaVega(String theta, String vega) {
+                Serie ultima = ultima();
+                ultima.theta = new BigDecimal(theta);
+                ultima.vega = new BigDecimal(vega);
+                return this;
+        }
+
+        // Vol (% ao dia útil, como gravada) e dias úteis até o vencimento da última série
+        CadeiaTeste vol(String volImplicita, int diasUteis) {
+                Serie ultima = ultima();
+                ultima.volImplicita = new BigDecimal(volImplicita);
+                ultima.diasUteis = diasUteis;
+                return this;
+        }
+
+        private Serie ultima() {
+                return series.get(series.size() - 1);
+        }
+
+        List<OpcaoCadeia> opcoes() {
+                return series.stream()
+                                .map(s -> new OpcaoCadeia(s.ticker, s.tipo, s.vencimento, s.strike, s.preco))
+                                .toList();
+        }
+
+        List<GregasSerie> gregas() {
+                return series.stream()
+                                .filter(s -> s.delta != null)
+                                .map(s -> new GregasSerie(s.ticker, s.delta, s.gamma))
+                                .toList();
+        }
+
+        List<VolatilidadeSerie> volatilidades() {
+                return series.stream()
+                                .filter(s -> s.volImplicita != null)
+                                .map(s -> new VolatilidadeSerie(s.ticker, s.volImplicita, s.diasUteis))
+                                .toList();
+        }
+
+        List<Option> options() {
+                return series.stream().map(s -> {
+                        Option option = new Option();
+                        option.setIdAcao(idAcao);
+                        option.setTicker(s.ticker);
+                        option.setTipo(s.tipo);
+                        option.setVencimento(s.vencimento);
+                        option.setStrike(s.strike);
+                        option.setPreco(s.preco);
+                        option.setDelta(s.delta);
+                        option.setGamma(s.gamma);
+                        option.setTheta(s.theta);
+                        option.setVega(s.vega);
+                        option.setVolImplicita(s.volImplicita);
+                        option.setDiasUteis(s.diasUteis);
+                        return option;
+                }).toList();
+        }
+
+        // As séries devem ter sido adicionadas na ordem (vencimento, tipo, strike)
+        BlocoColunarOffHeap blocoOffHeap(long versao) {
+                BlocoColunarOffHeap.Construtor construtor = new BlocoColunarOffHeap.Construtor(idAcao);
+                for (Serie s : series) {
+                        construtor.adicionar(s.ticker, s.tipo, s.vencimento, s.diasUteis, s.strike, s.preco,
+                                        s.volImplicita, s.delta, s.gamma, s.theta, s.vega);
+                }
+                return construtor.construir(versao);
+        }
+
+        // --- Registro no repositório mockado ---
+
+        CadeiaTeste registrarCadeia(OptionRepository optionRepository) {
+                when(optionRepository.findCadeiaByIdAcao(idAcao)).thenReturn(opcoes());
+                return this;
+        }
+
+        CadeiaTeste registrarGregas(OptionRepository optionRepository) {
+                when(optionRepository.findGregasByIdAcao(idAcao)).thenReturn(gregas());
+                return this;
+        }
+
+        CadeiaTeste registrarVolatilidades(OptionRepository optionRepository) {
+                when(optionRepository.findVolatilidadesByIdAcao(idAcao)).thenReturn(volatilidades());
+                return this;
+        }
+
+        // findByTicker de cada série; leniente porque cada teste consulta só algumas
+        CadeiaTeste registrarPorTicker(OptionRepository optionRepository) {
+                for (Option option : options()) {
+                        lenient().when(optionRepository.findByTicker(option.getTicker())).thenReturn(Optional.of(option));
+                }
+                return this;
+        }
+}
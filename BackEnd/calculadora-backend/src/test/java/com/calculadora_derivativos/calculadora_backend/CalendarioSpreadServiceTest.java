@@ -0,0 +1,148 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.ArmazemColunarOffHeap;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.CalendarioSpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.ReprecificadorCalendario;
+
+/**
+ * Testes da busca de calendários e diagonais com a perna longa reprecificada por
+ * Black-Scholes no vencimento curto (valores esperados calculados à parte com a mesma grade).
+ */
+@ExtendWith(MockitoExtension.class)
+public class CalendarioSpreadServiceTest {
+
+        private static final LocalDate CURTO = LocalDate.of(2025, 11, 14);
+        private static final LocalDate LONGO = LocalDate.of(2025, 12, 19);
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private ArmazemColunarOffHeap armazem;
+
+        private ExecutorService executor;
+        private ReprecificadorCalendario reprecificador;
+        private CalendarioSpreadService calendario;
+
+        @BeforeEach
+        void setUp() {
+                executor = Executors.newFixedThreadPool(2);
+                reprecificador = new ReprecificadorCalendario(1000);
+                calendario = new CalendarioSpreadService(new CacheCadeiasCompactas(optionRepository), optionRepository,
+                                reprecificador, executor);
+        }
+
+        @AfterEach
+        void tearDown() {
+                executor.shutdownNow();
+        }
+
+        // Vol em % ao dia útil; 19 e 43 dias úteis até cada vencimento
+        private static CadeiaTeste bova11() {
+                return CadeiaTeste.de("BOVA11").vencimento(CURTO)
+                                .call("BOVAK135", "135.00", "5.20").vol("1.05", 19)
+                                .call("BOVAK140", "140.00", "2.10").vol("1.10", 19)
+                                .call("BOVAK145", "145.00", "0.60").vol("1.15", 19)
+                                .vencimento(LONGO)
+                                .call("BOVAL135", "135.00", "7.00").vol("1.10", 43)
+                                .call("BOVAL140", "140.00", "4.20").vol("1.15", 43)
+                                .call("BOVAL145", "145.00", "2.30").vol("1.20", 43);
+        }
+
+        private void cadeiaBova11() {
+                bova11().registrarCadeia(optionRepository)
+                                .registrarVolatilidades(optionRepository);
+        }
+
+        @Test
+        void testCalendario_MelhorRRComPernaLongaReprecificada() {
+                cadeiaBova11();
+
+                SpreadResponse resposta = calendario.otimizarCalendario("BOVA11", COTACAO, TAXAS);
+
+                assertTrue(resposta.getMensagem().startsWith("SUCESSO"), resposta.getMensagem());
+                assertEquals(CalendarioSpreadService.CALENDARIO, resposta.getNomeEstrategia());
+                // Calendário 145: débito 1.70, lucro 120.93 (pico no strike) / risco 170.00 + 44.00
+                assertEquals(List.of(new PernaSpread("BOVAK145", 100, "VENDA"), new PernaSpread("BOVAL145", 100, "COMPRA")),
+                                resposta.getPernasExecutadas());
+                assertEquals(new BigDecimal("120.93"), resposta.getLucroMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("214.00"), resposta.getRiscoMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("0.57"), resposta.getRelacaoRiscoRetornoLiquida());
+                assertEquals(new BigDecimal("-170.00"), resposta.getCustoLiquido());
+                assertEquals(CURTO, resposta.getVencimento());
+        }
+
+        @Test
+        void testDiagonal_ReaproveitaCurvasDoCalendario() {
+                cadeiaBova11();
+
+                calendario.otimizarCalendario("BOVA11", COTACAO, TAXAS);
+                // Uma curva por série longa (todas avaliadas no mesmo vencimento curto)
+                assertEquals(3, reprecificador.getCalculos());
+
+                SpreadResponse diagonal = calendario.otimizarDiagonal("BOVA11", COTACAO, TAXAS);
+                assertEquals(3, reprecificador.getCalculos());
+                assertTrue(reprecificador.getConsultas() > 3);
+
+                assertEquals(CalendarioSpreadService.DIAGONAL, diagonal.getNomeEstrategia());
+                // Vende a 145 curta e compra a 140 longa: débito 3.60, lucro 219.00 / risco 404.00
+                assertEquals(List.of(new PernaSpread("BOVAK145", 100, "VENDA"), new PernaSpread("BOVAL140", 100, "COMPRA")),
+                                diagonal.getPernasExecutadas());
+                assertEquals(new BigDecimal("219.00"), diagonal.getLucroMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("404.00"), diagonal.getRiscoMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("0.54"), diagonal.getRelacaoRiscoRetornoLiquida());
+        }
+
+        /**
+         * Com o universo off-heap a vol vem do bloco: uma vol ao vivo na perna longa muda a
+         * reprecificação e o resultado do calendário, sem consultar o banco.
+         */
+        @Test
+        void testCalendario_VolAoVivoNoBlocoOffHeapMudaOResultado() {
+                when(armazem.isHabilitado()).thenReturn(true);
+                when(armazem.obter("BOVA11")).thenReturn(bova11().blocoOffHeap(1));
+                CacheCadeiasCompactas cache = new CacheCadeiasCompactas(optionRepository, armazem);
+                calendario = new CalendarioSpreadService(cache, optionRepository, reprecificador, executor);
+
+                SpreadResponse antes = calendario.otimizarCalendario("BOVA11", COTACAO, TAXAS);
+                assertEquals(new BigDecimal("120.93"), antes.getLucroMaximoLiquidoTotal());
+
+                // Mesmo prêmio, vol da BOVAL145 de 1.20 para 1.50
+                cache.aplicarPrecos("BOVA11", Map.of("BOVAL145",
+                                new AtualizacaoSerie(23_000, 1.50, Double.NaN, Double.NaN, Double.NaN, Double.NaN)));
+                SpreadResponse depois = calendario.otimizarCalendario("BOVA11", COTACAO, TAXAS);
+
+                // Mesmas pernas, perna longa mais cara no vencimento curto: lucro 205.86 / risco 214.00
+                assertEquals(antes.getPernasExecutadas(), depois.getPernasExecutadas());
+                assertEquals(new BigDecimal("205.86"), depois.getLucroMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("0.96"), depois.getRelacaoRiscoRetornoLiquida());
+                verify(optionRepository, never()).findVolatilidadesByIdAcao(anyString());
+        }
+}
@@ -0,0 +1,100 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Teste de carga ponta a ponta do SpreadController: a aplicação sobe com H2 (perfil
+ * desempenho) e a cadeia sintética, e o GeradorCargaHttp exercita o cálculo manual e os
+ * otimizadores nos modelos aberto e fechado, relatando p50/p95/p99 e req/s por endpoint.
+ *
+ * Fora do "mvn test" comum; rode com:
+ *   mvn -Pdesempenho test -Ddesempenho.modelo=ambos|aberto|fechado -Ddesempenho.concorrencia=16
+ *       -Ddesempenho.taxa=100 -Ddesempenho.duracao-s=10 -Ddesempenho.aquecimento-s=3
+ * O relatório também é gravado em target/desempenho/relatorio.txt.
+ */
+@Tag("desempenho")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("desempenho")
+@Import(GeradorCadeiaSintetica.class)
+public class CargaHttpDesempenhoTest {
+
+        private static final String ATIVO = GeradorCadeiaSintetica.idAcao(0);
+        private static final String COTACAO = "cotacaoAtualAtivo=" + GeradorCadeiaSintetica.SPOT + "&taxasOperacionais=0.01";
+
+        @LocalServerPort
+        private int porta;
+
+        private static String propriedade(String nome, String padrao) {
+                return System.getProperty("desempenho." + nome, padrao);
+        }
+
+        private List<GeradorCargaHttp.Alvo> alvos() {
+                String base = "http://localhost:" + porta;
+                // Bear Call com strikes perto do spot (índices 20 e 25 da cadeia sintética)
+                String manual = "{\"ativoSubjacente\":\"" + ATIVO + "\",\"cotacaoAtualAtivo\":100.00,"
+                                + "\"taxasOperacionais\":0.01,\"pernas\":["
+                                + "{\"ticker\":\"SINT1A20C\",\"quantidade\":100,\"operacao\":\"VENDA\"},"
+                                + "{\"ticker\":\"SINT1A25C\",\"quantidade\":100,\"operacao\":\"COMPRA\"}]}";
+                return List.of(
+                                new GeradorCargaHttp.Alvo("manual", () -> HttpRequest.newBuilder(
+                                                URI.create(base + "/spread/manual/calcular"))
+                                                .header("Content-Type", "application/json")
+                                                .POST(HttpRequest.BodyPublishers.ofString(manual)).build()),
+                                new GeradorCargaHttp.Alvo("melhor", () -> HttpRequest.newBuilder(
+                                                URI.create(base + "/spread/otimizar/melhor/" + ATIVO + "?" + COTACAO)).GET().build()),
+                                new GeradorCargaHttp.Alvo("top-10", () -> HttpRequest.newBuilder(
+                                                URI.create(base + "/spread/otimizar/top/" + ATIVO + "?k=10&" + COTACAO)).GET().build()));
+        }
+
+        @Test
+        void testCarga_SpreadController() throws Exception {
+                String modelo = propriedade("modelo", "ambos");
+                int concorrencia = Integer.parseInt(propriedade("concorrencia", "16"));
+                double taxa = Double.parseDouble(propriedade("taxa", "100"));
+                Duration duracao = Duration.ofSeconds(Long.parseLong(propriedade("duracao-s", "10")));
+                Duration aquecimento = Duration.ofSeconds(Long.parseLong(propriedade("aquecimento-s", "3")));
+
+                List<GeradorCargaHttp.Estatisticas> resultados = new ArrayList<>();
+                try (GeradorCargaHttp carga = new GeradorCargaHttp()) {
+                        for (GeradorCargaHttp.Alvo alvo : alvos()) {
+                                if (!modelo.equals("aberto")) {
+                                        resultados.add(carga.fechado(alvo, concorrencia, aquecimento, duracao));
+                                }
+                                if (!modelo.equals("fechado")) {
+                                        resultados.add(carga.aberto(alvo, taxa, aquecimento, duracao, Duration.ofSeconds(60)));
+                                }
+                        }
+                }
+
+                String tabela = GeradorCargaHttp.tabela(resultados);
+                System.out.println("\n" + tabela);
+                gravar(tabela);
+
+                for (GeradorCargaHttp.Estatisticas estatisticas : resultados) {
+                        assertTrue(estatisticas.sucessos() > 0, "Nenhuma resposta 2xx em " + estatisticas.alvo());
+                        assertEquals(0, estatisticas.erros(), "Respostas com erro em " + estatisticas.alvo());
+                }
+        }
+
+        private static void gravar(String tabela) throws IOException {
+                Path relatorio = Path.of("target", "desempenho", "relatorio.txt");
+                Files.createDirectories(relatorio.getParent());
+                Files.writeString(relatorio, tabela);
+        }
+}
@@ -0,0 +1,159 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.PontoCurvaResultado;
+import com.calculadora_derivativos.calculadora_backend.dto.PosicaoCarteira;
+import com.calculadora_derivativos.calculadora_backend.dto.RiscoCarteiraAtivo;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CarteiraService;
+
+/**
+ * Testes da carteira: agregados incrementais (gregas e curva no vencimento) e retratos
+ * consistentes com atualizações concorrentes.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CarteiraServiceTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        private CarteiraService carteira;
+
+        private static final List<PernaSpread> BEAR_CALL = List.of(
+                        new PernaSpread("BOVAK135", 100, "VENDA"), new PernaSpread("BOVAK140", 100, "COMPRA"));
+
+        @BeforeEach
+        void setUp() {
+                carteira = new CarteiraService(optionRepository);
+                lenient().when(optionRepository.findByTicker(anyString())).thenReturn(Optional.empty());
+                CadeiaTeste.de("BOVA11")
+                                .call("BOVAK135", "135.00", "8.70").gregas("0.95", "0.02").thetaVega("-0.05", "0.10")
+                                .call("BOVAK140", "140.00", "4.00").gregas("0.60", "0.05").thetaVega("-0.08", "0.20")
+                                .put("BOVAW140", "140.00", "2.00").gregas("0.35", "0.05").thetaVega("-0.07", "0.20")
+                                .registrarPorTicker(optionRepository);
+                CadeiaTeste.de("PETR4")
+                                .call("PETRK30", "30.00", "1.00").gregas("0.50", "0.10").thetaVega("-0.02", "0.05")
+                                .registrarPorTicker(optionRepository);
+        }
+
+        private static List<BigDecimal[]> curva(RiscoCarteiraAtivo risco) {
+                List<BigDecimal[]> pontos = new ArrayList<>();
+                for (PontoCurvaResultado ponto : risco.curva()) {
+                        pontos.add(new BigDecimal[] { ponto.cotacaoAtivo().stripTrailingZeros(),
+                                        ponto.resultado().stripTrailingZeros() });
+                }
+                return pontos;
+        }
+
+        private static void assertCurva(String[][] esperado, RiscoCarteiraAtivo risco) {
+                List<BigDecimal[]> obtido = curva(risco);
+                assertEquals(esperado.length, obtido.size());
+                for (int p = 0; p < esperado.length; p++) {
+                        assertEquals(new BigDecimal(esperado[p][0]).stripTrailingZeros(), obtido.get(p)[0]);
+                        assertEquals(new BigDecimal(esperado[p][1]).stripTrailingZeros(), obtido.get(p)[1]);
+                }
+        }
+
+        @Test
+        void testAgregados_IncluirERetirar() {
+                carteira.incluir(BEAR_CALL);
+                RiscoCarteiraAtivo soBearCall = carteira.risco("BOVA11").orElseThrow();
+                // Crédito 4.70 x 100; perde 5.00 x 100 acima de 140
+                assertEquals(new BigDecimal("470.0000"), soBearCall.premioLiquido());
+                assertCurva(new String[][] { { "0", "470" }, { "135", "470" }, { "140", "-30" } }, soBearCall);
+                assertEquals(0, soBearCall.inclinacaoFinal().signum());
+
+                PosicaoCarteira put = carteira.incluir(List.of(new PernaSpread("BOVAW140", 100, "COMPRA")));
+                RiscoCarteiraAtivo comPut = carteira.risco("BOVA11").orElseThrow();
+                assertEquals(2, comPut.posicoes());
+                // Delta: -95 + 60 - 35 (delta da PUT gravado em módulo); gamma: -2 + 5 + 5
+                assertEquals(new BigDecimal("-70.0000"), comPut.delta());
+                assertEquals(new BigDecimal("8.0000"), comPut.gamma());
+                assertEquals(new BigDecimal("-10.0000"), comPut.theta());
+                assertEquals(new BigDecimal("30.0000"), comPut.vega());
+                assertCurva(new String[][] { { "0", "14270" }, { "135", "770" }, { "140", "-230" } }, comPut);
+
+                // Retirar desfaz exatamente a contribuição da posição
+                assertEquals(Optional.of(put), carteira.retirar(put.id()));
+                assertEquals(soBearCall, carteira.risco("BOVA11").orElseThrow());
+                assertTrue(carteira.retirar(put.id()).isEmpty());
+        }
+
+        @Test
+        void testIncluir_PosicaoInvalida() {
+                assertThrows(IllegalArgumentException.class, () -> carteira.incluir(List.of(
+                                new PernaSpread("BOVAK135", 100, "VENDA"), new PernaSpread("PETRK30", 100, "COMPRA"))));
+                assertThrows(IllegalArgumentException.class,
+                                () -> carteira.incluir(List.of(new PernaSpread("XXXXX99", 100, "COMPRA"))));
+                assertThrows(IllegalArgumentException.class,
+                                () -> carteira.incluir(List.of(new PernaSpread("BOVAK135", 100, "ZERAR"))));
+                assertTrue(carteira.riscos().isEmpty());
+                assertTrue(carteira.listar().isEmpty());
+        }
+
+        @Test
+        void testRetratos_ConsistentesComAtualizacoesConcorrentes() throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                AtomicBoolean rodando = new AtomicBoolean(true);
+                try {
+                        // Leitor: todo retrato deve ter posições inteiras (crédito e delta proporcionais)
+                        Future<Integer> leitor = executor.submit(() -> {
+                                int retratos = 0;
+                                while (rodando.get()) {
+                                        Optional<RiscoCarteiraAtivo> risco = carteira.risco("BOVA11");
+                                        if (risco.isEmpty()) continue;
+                                        int posicoes = risco.get().posicoes();
+                                        assertEquals(0, new BigDecimal(470 * posicoes).compareTo(risco.get().premioLiquido()));
+                                        assertEquals(0, new BigDecimal(-35 * posicoes).compareTo(risco.get().delta()));
+                                        retratos++;
+                                }
+                                return retratos;
+                        });
+                        List<Future<?>> escritores = new ArrayList<>();
+                        for (int t = 0; t < 3; t++) {
+                                escritores.add(executor.submit(() -> {
+                                        for (int n = 0; n < 2_000; n++) {
+                                                PosicaoCarteira posicao = carteira.incluir(BEAR_CALL);
+                                                if (n % 2 == 0) {
+                                                        carteira.retirar(posicao.id());
+                                                }
+                                        }
+                                }));
+                        }
+                        for (Future<?> escritor : escritores) {
+                                escritor.get(30, TimeUnit.SECONDS);
+                        }
+                        rodando.set(false);
+                        assertTrue(leitor.get(30, TimeUnit.SECONDS) > 0);
+                } finally {
+                        rodando.set(false);
+                        executor.shutdownNow();
+                }
+
+                RiscoCarteiraAtivo risco = carteira.risco("BOVA11").orElseThrow();
+                assertEquals(3_000, risco.posicoes());
+                assertEquals(3_000, carteira.listar().size());
+                assertEquals(new BigDecimal("1410000.0000"), risco.premioLiquido());
+        }
+}
@@ -0,0 +1,139 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.calculadora_derivativos.calculadora_backend.config.CodificacaoRespostas;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Comparação de tamanho e tempo de serialização de uma lista top-K em JSON, CBOR e Smile
+ * (mesma escrita em streaming do endpoint /spread/otimizar/top). A medição de tempo tem a tag
+ * "desempenho"; o restante roda no build normal.
+ */
+public class CodificacaoRespostasBenchmarkTest {
+
+        private static final int ITENS = 200;
+        private static final int AQUECIMENTO = 50;
+        private static final int RODADAS = 200;
+
+        private CodificacaoRespostas codificacao;
+
+        @BeforeEach
+        void setUp() {
+                // Mesma configuração de datas do mapper do Spring Boot
+                ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+                codificacao = new CodificacaoRespostas(json, Jackson2ObjectMapperBuilder.json()
+                                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        }
+
+        private static List<SpreadResponse> topK() {
+                List<SpreadResponse> spreads = new ArrayList<>();
+                for (int i = 0; i < ITENS; i++) {
+                        BigDecimal strike = BigDecimal.valueOf(12_000 + 50 * i, 2);
+                        spreads.add(SpreadResponse.builder()
+                                        .mensagem("Bear Call Spread (Vencimento: 2025-11-14). Relação R/R: 5.76.")
+                                        .nomeEstrategia("Bear Call Spread")
+                                        .lucroMaximo(new BigDecimal("469.9900"))
+                                        .prejuizoMaximo(new BigDecimal("30.0100"))
+                                        .breakevenPoint(strike.add(new BigDecimal("4.6800")))
+                                        .pernasExecutadas(List.of(
+                                                        new PernaSpread("BOVAK" + (120 + i), 100, "VENDA"),
+                                                        new PernaSpread("BOVAK" + (125 + i), 100, "COMPRA")))
+                                        .custoLiquido(new BigDecimal("468.00"))
+                                        .premioLiquidoUnitario(new BigDecimal("4.7000"))
+                                        .ganhoMaximoStrikeUnitario(new BigDecimal("5.0000"))
+                                        .riscoMaximoTeoricoUnitario(new BigDecimal("0.3000"))
+                                        .lucroMaximoLiquidoTotal(new BigDecimal("426.00"))
+                                        .riscoMaximoLiquidoTotal(new BigDecimal("74.00"))
+                                        .relacaoRiscoRetornoLiquida(BigDecimal.valueOf(576 - i, 2))
+                                        .vencimento(LocalDate.of(2025, 11, 14))
+                                        .build());
+                }
+                return spreads;
+        }
+
+        private static byte[] serializar(ObjectMapper mapper, List<SpreadResponse> spreads) throws IOException {
+                ByteArrayOutputStream saida = new ByteArrayOutputStream(64 * 1024);
+                try (SequenceWriter escritor = mapper.writer().writeValuesAsArray(saida)) {
+                        for (SpreadResponse spread : spreads) {
+                                escritor.write(spread);
+                        }
+                }
+                return saida.toByteArray();
+        }
+
+        @Test
+        void testTamanho_BinariosMenoresQueJson() throws IOException {
+                List<SpreadResponse> spreads = topK();
+                long json = serializar(codificacao.mapperPara(MediaType.APPLICATION_JSON), spreads).length;
+
+                assertTrue(serializar(codificacao.getCbor(), spreads).length < json, "CBOR deveria ser menor que JSON");
+                assertTrue(serializar(codificacao.getSmile(), spreads).length < json, "Smile deveria ser menor que JSON");
+        }
+
+        // Tempos só com o perfil desempenho (mvn -Pdesempenho test): nada é impresso no build normal
+        @Test
+        @Tag("desempenho")
+        void testBenchmark_TamanhoETempoPorFormato() throws IOException {
+                List<SpreadResponse> spreads = topK();
+                MediaType[] formatos = { MediaType.APPLICATION_JSON, CodificacaoRespostas.CBOR, CodificacaoRespostas.SMILE };
+
+                System.out.println("Serialização de " + ITENS + " SpreadResponse (top-K):");
+                for (MediaType formato : formatos) {
+                        ObjectMapper mapper = codificacao.mapperPara(formato);
+                        for (int i = 0; i < AQUECIMENTO; i++) {
+                                serializar(mapper, spreads);
+                        }
+                        long bytes = 0;
+                        long inicio = System.nanoTime();
+                        for (int i = 0; i < RODADAS; i++) {
+                                bytes = serializar(mapper, spreads).length;
+                        }
+                        double microsPorLista = (System.nanoTime() - inicio) / 1_000.0 / RODADAS;
+                        System.out.printf("  %-28s %8d bytes  %8.1f us/lista%n", formato, bytes, microsPorLista);
+                }
+        }
+
+        @Test
+        void testBinario_MesmoConteudoDoJson() throws IOException {
+                List<SpreadResponse> spreads = topK().subList(0, 3);
+
+                JsonNode json = codificacao.mapperPara(MediaType.APPLICATION_JSON)
+                                .readTree(serializar(codificacao.mapperPara(MediaType.APPLICATION_JSON), spreads));
+                JsonNode cbor = codificacao.getCbor().readTree(serializar(codificacao.getCbor(), spreads));
+                JsonNode smile = codificacao.getSmile().readTree(serializar(codificacao.getSmile(), spreads));
+
+                assertEquals("2025-11-14", cbor.get(0).get("vencimento").asText());
+                assertEquals(json.get(2).get("relacaoRiscoRetornoLiquida").decimalValue(),
+                                cbor.get(2).get("relacaoRiscoRetornoLiquida").decimalValue());
+                assertEquals(json.get(1).get("pernasExecutadas"), smile.get(1).get("pernasExecutadas"));
+        }
+
+        @Test
+        void testNegociacao_PeloAccept() {
+                assertEquals(MediaType.APPLICATION_JSON, codificacao.negociar(null));
+                assertEquals(MediaType.APPLICATION_JSON, codificacao.negociar("*/*"));
+                assertEquals(CodificacaoRespostas.CBOR, codificacao.negociar("application/cbor"));
+                assertEquals(CodificacaoRespostas.SMILE,
+                                codificacao.negociar("application/json;q=0.5, application/x-jackson-smile"));
+        }
+}
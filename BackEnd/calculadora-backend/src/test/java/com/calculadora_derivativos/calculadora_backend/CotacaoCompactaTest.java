@@ -0,0 +1,180 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.CadeiaCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.CotacaoCompacta;
+import com.calculadora_derivativos.calculadora_backend.model.DicionarioCodigos;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.AvaliadorVerticalTicks;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes do modelo compacto de cotações: footprint em memória e equivalência do cálculo
+ * em ticks com o cálculo completo em BigDecimal.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CotacaoCompactaTest {
+
+        private static final int SERIES = 2_000;
+        private static final LocalDate VENCIMENTO = LocalDate.of(2025, 11, 14);
+
+        static {
+                // Records não aceitam Unsafe.objectFieldOffset; o JOL descobre os offsets de outra forma
+                System.setProperty("jol.magicFieldOffset", "true");
+        }
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        // Option como é carregada do CSV (todas as colunas preenchidas)
+        private static Option optionCompleta(int i) {
+                Option option = new Option();
+                option.setId((long) i);
+                option.setTicker("BOVAK" + (100 + i) + "W" + (i % 5));
+                option.setIdAcao(new String("BOVA11"));
+                option.setTipo(i % 2 == 0 ? new String("CALL") : new String("PUT"));
+                option.setVencimento(VENCIMENTO.plusWeeks(i % 8));
+                option.setDiasUteis(20 + i % 8);
+                option.setDataHora(LocalDateTime.of(2025, 10, 1, 17, 30));
+                option.setStrike(new BigDecimal("100.00").add(BigDecimal.valueOf(i, 2)));
+                option.setPreco(new BigDecimal("1.2345").add(BigDecimal.valueOf(i, 4)));
+                option.setVolImplicita(new BigDecimal("0.2731"));
+                option.setDelta(new BigDecimal("0.512345"));
+                option.setGamma(new BigDecimal("0.041234"));
+                option.setTheta(new BigDecimal("-0.031234"));
+                option.setVega(new BigDecimal("0.151234"));
+                return option;
+        }
+
+        @Test
+        void testFootprint_CotacaoCompactaOcupaUmaFracaoDaOption() {
+                List<Option> options = new ArrayList<>();
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                for (int i = 0; i < SERIES; i++) {
+                        Option option = optionCompleta(i);
+                        options.add(option);
+                        cadeia.add(new OpcaoCadeia(option.getTicker(), option.getTipo(), option.getVencimento(),
+                                        option.getStrike(), option.getPreco()));
+                }
+
+                DicionarioCodigos dicionario = new DicionarioCodigos();
+                CadeiaCompacta compacta = CadeiaCompacta.compactar("BOVA11", cadeia, dicionario, 0);
+
+                // Bytes por série, sem contar o dicionário (compartilhado e do mesmo tamanho dos tickers)
+                long bytesOption = GraphLayout.parseInstance(options.toArray()).totalSize() / SERIES;
+                long bytesCompacta = (GraphLayout.parseInstance(compacta).totalSize()
+                                - GraphLayout.parseInstance(dicionario).totalSize()) / SERIES;
+
+                assertEquals(SERIES, compacta.tamanho());
+                assertTrue(bytesCompacta <= 48,
+                                "CotacaoCompacta + referência deveria caber em 48 bytes, ocupou " + bytesCompacta);
+                assertTrue(bytesOption >= 8 * bytesCompacta,
+                                "Option deveria ocupar pelo menos 8x mais: " + bytesOption + " contra " + bytesCompacta);
+        }
+
+        @Test
+        void testCompactarCadeiaDoChamador_NaoCresceODicionarioCompartilhado() {
+                CacheCadeiasCompactas cache = new CacheCadeiasCompactas(optionRepository);
+                CadeiaTeste.de("BOVA11").call("BOVAK140", "140.00", "4.00").registrarCadeia(optionRepository);
+                cache.obter("BOVA11");
+                int termos = cache.getDicionario().tamanho();
+
+                // Snapshot histórico de um backtest: tickers que não existem mais na cadeia atual
+                CadeiaCompacta historica = cache.compactar("BOVA11", CadeiaTeste.de("BOVA11")
+                                .vencimento(VENCIMENTO.minusYears(2)).call("BOVAJ120", "120.00", "3.10").opcoes());
+
+                assertEquals("BOVAJ120", historica.ticker(0));
+                assertEquals(termos, cache.getDicionario().tamanho());
+        }
+
+        @Test
+        void testConversao_VoltaParaOpcaoCadeiaSemPerda() {
+                OpcaoCadeia original = new OpcaoCadeia("PETRK35", "call", VENCIMENTO, new BigDecimal("35.5"),
+                                new BigDecimal("1.23456"));
+                DicionarioCodigos dicionario = new DicionarioCodigos();
+
+                CotacaoCompacta compacta = CotacaoCompacta.de(original, dicionario.codificar("PETR4"), dicionario);
+                OpcaoCadeia convertida = compacta.paraOpcaoCadeia(dicionario);
+
+                assertEquals("PETRK35", convertida.ticker());
+                assertEquals("CALL", convertida.tipo());
+                assertEquals(VENCIMENTO, convertida.vencimento());
+                assertEquals(new BigDecimal("35.5000"), convertida.strike());
+                // Mesmo HALF_UP na escala 4 do SpreadService
+                assertEquals(new BigDecimal("1.2346"), convertida.preco());
+                assertEquals("PETR4", compacta.paraOption(dicionario).getIdAcao());
+        }
+
+        /**
+         * A R/R em ticks deve ser idêntica à do cálculo completo para créditos e débitos.
+         */
+        @Test
+        void testAvaliadorTicks_IgualAoCalculoEmBigDecimal() {
+                SpreadService spreadService = CadeiaTeste.servicos(optionRepository, ativoRepository).spreadService();
+                Random random = new Random(42);
+
+                for (int i = 0; i < 200; i++) {
+                        BigDecimal strikeBaixo = BigDecimal.valueOf(500 + random.nextInt(1500), 2);
+                        BigDecimal strikeAlto = strikeBaixo.add(BigDecimal.valueOf(1 + random.nextInt(400), 2));
+                        BigDecimal precoBaixo = BigDecimal.valueOf(random.nextInt(60_000), 4);
+                        BigDecimal precoAlto = BigDecimal.valueOf(random.nextInt(60_000), 4);
+                        boolean baixoComprado = random.nextBoolean();
+
+                        Option baixo = new Option();
+                        baixo.setTicker("BAIXO");
+                        baixo.setTipo("CALL");
+                        baixo.setStrike(strikeBaixo);
+                        baixo.setPreco(precoBaixo);
+                        Option alto = new Option();
+                        alto.setTicker("ALTO");
+                        alto.setTipo("CALL");
+                        alto.setStrike(strikeAlto);
+                        alto.setPreco(precoAlto);
+                        when(optionRepository.findByTicker("BAIXO")).thenReturn(Optional.of(baixo));
+                        when(optionRepository.findByTicker("ALTO")).thenReturn(Optional.of(alto));
+
+                        SpreadResponse completo = spreadService.calcularSpread(new SpreadRequest("TESTE",
+                                        new BigDecimal("10.00"), new BigDecimal("0.01"), List.of(
+                                                        new PernaSpread("BAIXO", 100, baixoComprado ? "COMPRA" : "VENDA"),
+                                                        new PernaSpread("ALTO", 100, baixoComprado ? "VENDA" : "COMPRA"))));
+
+                        long premio = AvaliadorVerticalTicks.premioLiquido(CotacaoCompacta.paraTicks(precoBaixo),
+                                        baixoComprado, CotacaoCompacta.paraTicks(precoAlto));
+                        long largura = CotacaoCompacta.paraTicks(strikeAlto) - CotacaoCompacta.paraTicks(strikeBaixo);
+
+                        assertEquals(completo.getRelacaoRiscoRetornoLiquida(),
+                                        BigDecimal.valueOf(AvaliadorVerticalTicks.avaliar(premio, largura), 2),
+                                        "Divergência em " + strikeBaixo + "/" + strikeAlto + " " + precoBaixo + "/" + precoAlto);
+                        assertEquals(completo.getLucroMaximoLiquidoTotal(), BigDecimal.valueOf(
+                                        AvaliadorVerticalTicks.lucroMaximoCentavos(premio, largura), 2));
+                        assertEquals(completo.getRiscoMaximoLiquidoTotal(), BigDecimal.valueOf(
+                                        AvaliadorVerticalTicks.riscoMaximoCentavos(premio, largura), 2));
+                }
+        }
+}
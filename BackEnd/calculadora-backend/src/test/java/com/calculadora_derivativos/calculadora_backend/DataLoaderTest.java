@@ -0,0 +1,165 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.calculadora_derivativos.calculadora_backend.config.CargaDadosHealthIndicator;
+import com.calculadora_derivativos.calculadora_backend.controller.CargaEmAndamentoInterceptor;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.DataLoader;
+import com.calculadora_derivativos.calculadora_backend.service.EstadoCargaDados;
+import com.calculadora_derivativos.calculadora_backend.service.LeitorCsvOpcoes;
+import com.calculadora_derivativos.calculadora_backend.service.LeitorPlanilhaOpcoes;
+import com.calculadora_derivativos.calculadora_backend.service.SnapshotService;
+
+/**
+ * Testes da carga inicial em segundo plano: o run() não espera a carga, os endpoints
+ * respondem 503 com o progresso e a prontidão só sobe no fim.
+ */
+@ExtendWith(MockitoExtension.class)
+public class DataLoaderTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private SnapshotService snapshotService;
+
+        @Mock
+        private CacheCadeiasCompactas cacheCadeias;
+
+        private ExecutorService executor;
+        private EstadoCargaDados estado;
+        private DataLoader dataLoader;
+        private CargaEmAndamentoInterceptor interceptor;
+        private CargaDadosHealthIndicator saude;
+
+        @BeforeEach
+        void setUp() {
+                executor = Executors.newSingleThreadExecutor();
+                estado = new EstadoCargaDados();
+                dataLoader = new DataLoader(optionRepository, new LeitorCsvOpcoes(), snapshotService, cacheCadeias,
+                                new LeitorPlanilhaOpcoes(), estado, executor, "", 10);
+                interceptor = new CargaEmAndamentoInterceptor(estado, Jackson2ObjectMapperBuilder.json().build());
+                saude = new CargaDadosHealthIndicator(estado);
+        }
+
+        @AfterEach
+        void tearDown() {
+                executor.shutdownNow();
+        }
+
+        @Test
+        void testCarga_EmSegundoPlanoComBloqueioAteOFim() throws Exception {
+                CountDownLatch liberar = new CountDownLatch(1);
+                AtomicInteger contagens = new AtomicInteger();
+                // A primeira contagem (tabela vazia) segura a carga até o teste liberar
+                when(optionRepository.count()).thenAnswer(invocacao -> {
+                        if (contagens.getAndIncrement() == 0) {
+                                assertTrue(liberar.await(10, TimeUnit.SECONDS));
+                                return 0L;
+                        }
+                        return 93L;
+                });
+                List<Long> lidasAoGravar = new ArrayList<>();
+                when(optionRepository.saveAll(anyList())).thenAnswer(invocacao -> {
+                        lidasAoGravar.add(estado.progresso().linhasLidas());
+                        return List.of();
+                });
+
+                Future<?> carga = dataLoader.iniciar();
+
+                assertFalse(estado.isPronto());
+                assertEquals(Status.OUT_OF_SERVICE, saude.health().getStatus());
+                MockHttpServletResponse resposta = new MockHttpServletResponse();
+                assertFalse(interceptor.preHandle(new MockHttpServletRequest("GET", "/spread/otimizar/melhor/BOVA11"),
+                                resposta, null));
+                assertEquals(503, resposta.getStatus());
+                assertEquals("5", resposta.getHeader("Retry-After"));
+                assertTrue(resposta.getContentAsString().contains("\"fase\":\"AGUARDANDO\""), resposta.getContentAsString());
+
+                liberar.countDown();
+                carga.get(10, TimeUnit.SECONDS);
+
+                EstadoCargaDados.Progresso progresso = estado.progresso();
+                assertEquals(EstadoCargaDados.Fase.CONCLUIDA, progresso.fase());
+                assertTrue(progresso.linhasLidas() > 0);
+                assertEquals(progresso.linhasLidas(), progresso.linhasGravadas());
+                assertEquals(100.0, progresso.percentualLido());
+                // Lotes de 10 linhas, cada um no seu saveAll e no histórico, gravados durante a leitura
+                int lotes = (int) ((progresso.linhasLidas() + 9) / 10);
+                verify(optionRepository, times(lotes)).saveAll(anyList());
+                verify(snapshotService, times(lotes)).registrar(anyList());
+                assertEquals(10L, lidasAoGravar.get(0));
+                verify(cacheCadeias).invalidarTodos();
+                assertEquals(Status.UP, saude.health().getStatus());
+                assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/spread/otimizar/melhor/BOVA11"),
+                                new MockHttpServletResponse(), null));
+        }
+
+        @Test
+        void testCargaPlanilha_GravaCadaLoteDuranteALeitura(@TempDir Path pasta) throws Exception {
+                Object[][] linhas = new Object[25][];
+                for (int i = 0; i < linhas.length; i++) {
+                        linhas[i] = new Object[] { "BOVAK" + (100 + i), "14/11/2025", "19", "CALL", "14.000", "ITM",
+                                        "400", "2.150", "6.012", "512", "-1.234", "1.815", "20/10/2025 17:05:00" };
+                }
+                Path arquivo = pasta.resolve("BOVA11.xlsx");
+                Files.write(arquivo, LeitorPlanilhaOpcoesTest.planilha(LeitorPlanilhaOpcoesTest.CABECALHO, linhas));
+                DataLoader comPlanilha = new DataLoader(optionRepository, new LeitorCsvOpcoes(), snapshotService,
+                                cacheCadeias, new LeitorPlanilhaOpcoes(), estado, executor, arquivo.toString(), 10);
+                when(optionRepository.count()).thenReturn(0L, 25L);
+                // Linhas já lidas quando cada lote é gravado
+                List<Long> lidasAoGravar = new ArrayList<>();
+                when(optionRepository.saveAll(anyList())).thenAnswer(invocacao -> {
+                        lidasAoGravar.add(estado.progresso().linhasLidas());
+                        return List.of();
+                });
+
+                comPlanilha.iniciar().get(10, TimeUnit.SECONDS);
+
+                assertEquals(EstadoCargaDados.Fase.CONCLUIDA, estado.getFase());
+                assertEquals(List.of(10L, 20L, 25L), lidasAoGravar);
+                assertEquals(25, estado.progresso().linhasGravadas());
+                verify(snapshotService, times(3)).registrar(anyList());
+                verify(cacheCadeias).invalidarTodos();
+        }
+
+        @Test
+        void testCarga_DadosJaCarregados() throws Exception {
+                when(optionRepository.count()).thenReturn(93L);
+
+                dataLoader.iniciar().get(10, TimeUnit.SECONDS);
+
+                assertTrue(estado.isPronto());
+                verify(optionRepository, times(0)).saveAll(List.of());
+        }
+}
@@ -0,0 +1,141 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.MatrizEstresseResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CarteiraService;
+import com.calculadora_derivativos.calculadora_backend.service.EstresseService;
+
+/**
+ * Testes da matriz de estresse (spot x vol x dias) com as pernas reprecificadas por
+ * Black-Scholes (valores esperados calculados à parte com a normal exata).
+ */
+@ExtendWith(MockitoExtension.class)
+public class EstresseServiceTest {
+
+        private static final List<PernaSpread> BEAR_CALL = List.of(
+                        new PernaSpread("BOVAK135", 100, "VENDA"), new PernaSpread("BOVAK140", 100, "COMPRA"));
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        private final List<ExecutorService> executores = new ArrayList<>();
+        private CarteiraService carteira;
+
+        @BeforeEach
+        void setUp() {
+                carteira = new CarteiraService(optionRepository);
+                CadeiaTeste.de("BOVA11")
+                                .call("BOVAK135", "135.00", "8.70").vol("1.07", 19)
+                                .call("BOVAK140", "140.00", "4.00").vol("1.10", 19)
+                                .put("BOVAW135", "135.00", "0.50").vol("1.64", 19)
+                                .vencimento(VENCIMENTO.plusMonths(1))
+                                .call("BOVAL140", "140.00", "5.10").vol("1.15", 43)
+                                .registrarPorTicker(optionRepository);
+        }
+
+        @AfterEach
+        void tearDown() {
+                executores.forEach(ExecutorService::shutdownNow);
+        }
+
+        private EstresseService servico(int threads) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                executores.add(executor);
+                return new EstresseService(optionRepository, carteira, executor, 1_000_000, threads);
+        }
+
+        private static List<BigDecimal> valores(String... valores) {
+                return List.of(valores).stream().map(BigDecimal::new).toList();
+        }
+
+        @Test
+        void testMatriz_ValoresDeReferencia() {
+                MatrizEstresseRequest request = new MatrizEstresseRequest(COTACAO,
+                                List.of(new PernaSpread("BOVAK135", 100, "COMPRA")),
+                                valores("-0.10", "0"), valores("0", "5"), List.of(0, 5, 19));
+
+                MatrizEstresseResponse resposta = servico(2).estressarSpread(request);
+
+                assertTrue(resposta.mensagem().startsWith("SUCESSO"), resposta.mensagem());
+                assertEquals(12, resposta.resultados().length);
+                // [dia 0][vol +0][spot 0]: 100 x (BS(138; 135; 1.07% x raiz(19)) - 8.70)
+                assertEquals(-438.36, resposta.resultados()[1], 0.01);
+                // [dia 5][vol +5][spot -10%]: σ diária + 5% / raiz(252), 14 dias úteis restantes
+                assertEquals(-854.74, resposta.resultados()[(1 * 2 + 1) * 2], 0.01);
+                // No vencimento vale o intrínseco: 124.20 < 135 (perde o prêmio) e 3.00 - 8.70
+                assertEquals(-870.00, resposta.resultados()[(2 * 2) * 2], 0.001);
+                assertEquals(-570.00, resposta.resultados()[(2 * 2) * 2 + 1], 0.001);
+        }
+
+        @Test
+        void testMatriz_ParalelaIgualASequencialECarteira() {
+                List<BigDecimal> spots = new ArrayList<>();
+                for (int s = 0; s < 50; s++) {
+                        spots.add(BigDecimal.valueOf(s - 25, 2));
+                }
+                List<BigDecimal> vols = new ArrayList<>();
+                for (int v = 0; v < 20; v++) {
+                        vols.add(BigDecimal.valueOf(v - 5));
+                }
+                List<Integer> dias = List.of(0, 1, 2, 3, 5, 8, 13, 19, 21, 30);
+                List<PernaSpread> pernas = List.of(
+                                new PernaSpread("BOVAK135", 100, "VENDA"), new PernaSpread("BOVAK140", 100, "COMPRA"),
+                                new PernaSpread("BOVAW135", 200, "COMPRA"), new PernaSpread("BOVAL140", 100, "VENDA"));
+                MatrizEstresseRequest request = new MatrizEstresseRequest(COTACAO, pernas, spots, vols, dias);
+
+                MatrizEstresseResponse sequencial = servico(1).estressarSpread(request);
+                MatrizEstresseResponse paralela = servico(4).estressarSpread(request);
+                assertEquals(50 * 20 * 10, paralela.resultados().length);
+                assertArrayEquals(sequencial.resultados(), paralela.resultados());
+
+                // Mesmas pernas abertas na carteira, em duas posições
+                carteira.incluir(BEAR_CALL);
+                carteira.incluir(pernas.subList(2, 4));
+                MatrizEstresseResponse daCarteira = servico(4).estressarCarteira("BOVA11",
+                                new MatrizEstresseRequest(COTACAO, null, spots, vols, dias));
+                assertArrayEquals(paralela.resultados(), daCarteira.resultados());
+        }
+
+        @Test
+        void testMatriz_Erros() {
+                EstresseService estresse = servico(1);
+                assertTrue(estresse.estressarSpread(new MatrizEstresseRequest(COTACAO, BEAR_CALL, List.of(),
+                                valores("0"), List.of(0))).mensagem().startsWith("ERRO"));
+                assertTrue(estresse.estressarSpread(new MatrizEstresseRequest(COTACAO,
+                                List.of(new PernaSpread("XXXXX99", 100, "COMPRA")), valores("0"), valores("0"), List.of(0)))
+                                .mensagem().contains("XXXXX99"));
+                assertTrue(estresse.estressarCarteira("PETR4", new MatrizEstresseRequest(COTACAO, null, valores("0"),
+                                valores("0"), List.of(0))).mensagem().startsWith("ERRO"));
+
+                // Choque nulo e quantidade sem sinal válido: recusados antes de chegar às threads
+                List<BigDecimal> comNulo = new ArrayList<>(valores("0"));
+                comNulo.add(null);
+                MatrizEstresseResponse nulo = estresse.estressarSpread(new MatrizEstresseRequest(COTACAO, BEAR_CALL,
+                                comNulo, valores("0"), List.of(0)));
+                assertTrue(nulo.mensagem().startsWith("ERRO"), nulo.mensagem());
+                assertEquals(0, nulo.resultados().length);
+                assertTrue(estresse.estressarSpread(new MatrizEstresseRequest(COTACAO,
+                                List.of(new PernaSpread("BOVAK140", -100, "VENDA")), valores("0"), valores("0"), List.of(0)))
+                                .mensagem().contains("Quantidade inválida"));
+        }
+}
@@ -0,0 +1,111 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoExportado;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.ExportacaoCandidatosService;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes da exportação dos candidatos: todos os pares das verticais, com as mesmas métricas
+ * do SpreadResponse, e os filtros de estratégia e vencimento.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExportacaoCandidatosServiceTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private ExportacaoCandidatosService exportacaoService;
+        private SpreadService spreadService;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                exportacaoService = new ExportacaoCandidatosService(servicos.cache());
+                spreadService = servicos.spreadService();
+                CadeiaTeste.bova11().vencimento(VENCIMENTO.plusMonths(1))
+                                .call("BOVAL140", "140.00", "5.00")
+                                .call("BOVAL145", "145.00", "2.60")
+                                .registrarCadeia(optionRepository);
+        }
+
+        private List<CandidatoExportado> exportar(EstrategiaOtimizacao estrategia, LocalDate vencimento) {
+                List<CandidatoExportado> candidatos = new ArrayList<>();
+                long exportados = exportacaoService.exportar("BOVA11", estrategia, vencimento, TAXAS, candidatos::add);
+                assertEquals(candidatos.size(), exportados);
+                return candidatos;
+        }
+
+        @Test
+        void testExportar_TodosOsParesComAsMetricasDoSpreadResponse() {
+                List<CandidatoExportado> candidatos = exportar(EstrategiaOtimizacao.MELHOR, null);
+
+                // Novembro: 3 pares de CALL e 1 de PUT; dezembro: 1 par de CALL; cada um débito e crédito
+                assertEquals(2 * (3 + 1 + 1), candidatos.size());
+
+                // O melhor candidato de cada vertical é o vencedor do otimizador, com as mesmas métricas
+                for (EstrategiaOtimizacao estrategia : List.of(EstrategiaOtimizacao.BULL_CALL, EstrategiaOtimizacao.BEAR_PUT,
+                                EstrategiaOtimizacao.BULL_PUT, EstrategiaOtimizacao.BEAR_CALL)) {
+                        CandidatoExportado melhor = candidatos.stream()
+                                        .filter(candidato -> candidato.estrategia() == estrategia)
+                                        .max(Comparator.comparing(CandidatoExportado::relacaoRiscoRetornoLiquida))
+                                        .orElseThrow();
+                        SpreadResponse vencedor = spreadService.otimizar(estrategia, "BOVA11", COTACAO,
+                                        TAXAS, optionRepository.findCadeiaByIdAcao("BOVA11"));
+
+                        assertEquals(vencedor.getPernasExecutadas().get(0).ticker(), melhor.tickerPrimeira(), estrategia.name());
+                        assertEquals(vencedor.getPernasExecutadas().get(1).ticker(), melhor.tickerSegunda());
+                        assertEquals(vencedor.getRelacaoRiscoRetornoLiquida(), melhor.relacaoRiscoRetornoLiquida());
+                        assertEquals(vencedor.getLucroMaximoLiquidoTotal(), melhor.lucroMaximoLiquidoTotal());
+                        assertEquals(vencedor.getRiscoMaximoLiquidoTotal(), melhor.riscoMaximoLiquidoTotal());
+                        assertEquals(vencedor.getBreakevenPoint(), melhor.breakevenPoint());
+                        assertEquals(0, vencedor.getPremioLiquidoUnitario().compareTo(melhor.premioLiquidoUnitario()));
+                }
+
+                // Bear Call 135/140: crédito 4.70, largura 5
+                CandidatoExportado bearCall = candidatos.stream()
+                                .filter(candidato -> candidato.estrategia() == EstrategiaOtimizacao.BEAR_CALL
+                                                && candidato.tickerPrimeira().equals("BOVAK135")
+                                                && candidato.tickerSegunda().equals("BOVAK140"))
+                                .findFirst().orElseThrow();
+                assertEquals(0, new BigDecimal("5").compareTo(bearCall.larguraStrikes()));
+                assertEquals(0, new BigDecimal("4.70").compareTo(bearCall.premioLiquidoUnitario()));
+                assertEquals(new BigDecimal("5.76"), bearCall.relacaoRiscoRetornoLiquida());
+        }
+
+        @Test
+        void testExportar_FiltrosDeEstrategiaEVencimento() {
+                List<CandidatoExportado> bullCall = exportar(EstrategiaOtimizacao.BULL_CALL, null);
+                assertEquals(4, bullCall.size());
+                assertTrue(bullCall.stream().allMatch(candidato -> candidato.estrategia() == EstrategiaOtimizacao.BULL_CALL));
+
+                List<CandidatoExportado> dezembro = exportar(EstrategiaOtimizacao.MELHOR, VENCIMENTO.plusMonths(1));
+                assertEquals(2, dezembro.size());
+                assertTrue(dezembro.stream().allMatch(candidato -> candidato.vencimento().equals(VENCIMENTO.plusMonths(1))));
+
+                assertEquals(0, exportar(EstrategiaOtimizacao.BEAR_PUT, VENCIMENTO.plusMonths(1)).size());
+        }
+}
@@ -0,0 +1,165 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.FronteiraParetoResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.GregasSerie;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PontoPareto;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.FronteiraParetoService;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes da fronteira de Pareto (skyline ordenado) contra a comparação par a par de todos
+ * os candidatos.
+ */
+@ExtendWith(MockitoExtension.class)
+public class FronteiraParetoServiceTest {
+
+        private static final LocalDate REFERENCIA = LocalDate.of(2025, 10, 20);
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private SpreadService spreadService;
+        private FronteiraParetoService pareto;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                spreadService = servicos.spreadService();
+                pareto = new FronteiraParetoService(servicos.cache(), optionRepository);
+        }
+
+        @Test
+        void testFronteira_CadeiaBova11() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository).registrarGregas(optionRepository);
+
+                FronteiraParetoResponse resposta = pareto.calcular("BOVA11", REFERENCIA);
+
+                assertTrue(resposta.mensagem().startsWith("SUCESSO"), resposta.mensagem());
+                // Menor risco: Bear Call 135/140 (74.00), breakeven 139.26 -> P(S > 139.26) = 0.6518
+                PontoPareto primeiro = resposta.fronteira().get(0);
+                assertEquals(EstrategiaOtimizacao.BEAR_CALL, primeiro.estrategia());
+                assertEquals(new BigDecimal("74.00"), primeiro.riscoMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("426.00"), primeiro.lucroMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("0.3482"), primeiro.probabilidadeLucro());
+                assertEquals(25, primeiro.diasAteVencimento());
+                assertEquals(new BigDecimal("5.76"), primeiro.relacaoRiscoRetornoLiquida());
+        }
+
+        @Test
+        void testFronteira_IgualAComparacaoParAPar() {
+                Random aleatorio = new Random(38);
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                List<GregasSerie> gregas = new ArrayList<>();
+                Map<String, OpcaoCadeia> porTicker = new HashMap<>();
+                Map<String, Double> deltas = new HashMap<>();
+                for (LocalDate vencimento : List.of(VENCIMENTO, VENCIMENTO.plusMonths(1), VENCIMENTO.plusMonths(2))) {
+                        for (String tipo : List.of("CALL", "PUT")) {
+                                for (int strike = 120; strike <= 159; strike += 3) {
+                                        String ticker = tipo + vencimento.getMonthValue() + "_" + strike;
+                                        OpcaoCadeia opcao = new OpcaoCadeia(ticker, tipo, vencimento, BigDecimal.valueOf(strike),
+                                                        BigDecimal.valueOf(5 + aleatorio.nextInt(1500), 2));
+                                        cadeia.add(opcao);
+                                        porTicker.put(ticker, opcao);
+                                        // Uma série em cada 20 fica sem delta
+                                        if (aleatorio.nextInt(20) > 0) {
+                                                BigDecimal delta = BigDecimal.valueOf(aleatorio.nextInt(10_000), 4);
+                                                gregas.add(new GregasSerie(ticker, delta, BigDecimal.ZERO));
+                                                deltas.put(ticker, delta.doubleValue());
+                                        }
+                                }
+                        }
+                }
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeia);
+                when(optionRepository.findGregasByIdAcao("BOVA11")).thenReturn(gregas);
+
+                // Referência: todos os candidatos do top-K, com a probabilidade recalculada aqui
+                List<SpreadResponse> todos = spreadService.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11", COTACAO,
+                                TAXAS, 100_000);
+                List<String> chaves = new ArrayList<>();
+                List<double[]> pontos = new ArrayList<>();
+                for (SpreadResponse spread : todos) {
+                        boolean debito = spread.getNomeEstrategia().equals("Bull Call Spread")
+                                        || spread.getNomeEstrategia().equals("Bear Put Spread");
+                        BigDecimal premio = spread.getPremioLiquidoUnitario();
+                        if (debito != premio.signum() < 0) continue;
+                        String tickerI = spread.getPernasExecutadas().get(0).ticker();
+                        String tickerJ = spread.getPernasExecutadas().get(1).ticker();
+                        if (!deltas.containsKey(tickerI) || !deltas.containsKey(tickerJ)) continue;
+
+                        OpcaoCadeia i = porTicker.get(tickerI);
+                        OpcaoCadeia j = porTicker.get(tickerJ);
+                        boolean call = i.tipo().equals("CALL");
+                        boolean alta = spread.getNomeEstrategia().startsWith("Bull");
+                        BigDecimal taxa = new BigDecimal("0.44");
+                        BigDecimal breakeven = alta ? i.strike().subtract(premio).add(taxa) : i.strike().add(premio).subtract(taxa);
+                        double acimaI = call ? deltas.get(tickerI) : 1 - deltas.get(tickerI);
+                        double acimaJ = call ? deltas.get(tickerJ) : 1 - deltas.get(tickerJ);
+                        double t = breakeven.subtract(i.strike()).movePointRight(4).doubleValue()
+                                        / j.strike().subtract(i.strike()).movePointRight(4).doubleValue();
+                        double acima = Math.max(0, Math.min(1, acimaI + t * (acimaJ - acimaI)));
+
+                        chaves.add(spread.getNomeEstrategia() + ":" + tickerI + "/" + tickerJ);
+                        pontos.add(new double[] {
+                                        spread.getRiscoMaximoLiquidoTotal().doubleValue(),
+                                        spread.getLucroMaximoLiquidoTotal().doubleValue(),
+                                        alta ? acima : 1 - acima,
+                                        ChronoUnit.DAYS.between(REFERENCIA, spread.getVencimento()) });
+                }
+                Set<String> esperado = new HashSet<>();
+                for (int a = 0; a < pontos.size(); a++) {
+                        boolean dominado = false;
+                        for (int b = 0; b < pontos.size() && !dominado; b++) {
+                                dominado = domina(pontos.get(b), pontos.get(a));
+                        }
+                        if (!dominado) esperado.add(chaves.get(a));
+                }
+
+                FronteiraParetoResponse resposta = pareto.calcular("BOVA11", REFERENCIA);
+                Set<String> obtido = new HashSet<>();
+                for (PontoPareto ponto : resposta.fronteira()) {
+                        obtido.add(ponto.estrategia().getNome() + ":" + ponto.pernas().get(0).ticker() + "/"
+                                        + ponto.pernas().get(1).ticker());
+                }
+
+                assertEquals(pontos.size(), resposta.candidatosAvaliados());
+                assertEquals(esperado, obtido);
+                assertEquals(esperado.size(), resposta.fronteira().size());
+                assertTrue(resposta.mensagem().contains("sem delta"), resposta.mensagem());
+        }
+
+        private static boolean domina(double[] b, double[] a) {
+                return b[0] <= a[0] && b[1] >= a[1] && b[2] >= a[2] && b[3] <= a[3]
+                                && (b[0] < a[0] || b[1] > a[1] || b[2] > a[2] || b[3] < a[3]);
+        }
+}
@@ -0,0 +1,131 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+
+/**
+ * Popula opcoes_final_tratado com cadeias sintéticas (perfil desempenho): para cada ativo,
+ * vencimentos mensais (3ª sexta) e strikes em torno do spot, CALL e PUT com prêmio, delta,
+ * gamma, theta e vega de Black-Scholes (sem juros) e a vol no formato gravado (% ao dia útil).
+ *
+ * Roda antes do DataLoader (que então encontra a tabela cheia e não lê o CSV) e antes do
+ * ApplicationReadyEvent, então o universo off-heap já carrega as cadeias sintéticas.
+ * A semente é fixa: a mesma configuração gera sempre a mesma cadeia.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GeradorCadeiaSintetica implements CommandLineRunner {
+
+        static final LocalDate DATA_BASE = LocalDate.of(2025, 10, 20);
+        static final BigDecimal SPOT = new BigDecimal("100.00");
+
+        private final OptionRepository optionRepository;
+        private final int ativos;
+        private final int vencimentos;
+        private final int strikes;
+
+        public GeradorCadeiaSintetica(OptionRepository optionRepository,
+                        @Value("${desempenho.cadeia.ativos:3}") int ativos,
+                        @Value("${desempenho.cadeia.vencimentos:6}") int vencimentos,
+                        @Value("${desempenho.cadeia.strikes:40}") int strikes) {
+                this.optionRepository = optionRepository;
+                this.ativos = ativos;
+                this.vencimentos = vencimentos;
+                this.strikes = strikes;
+        }
+
+        static String idAcao(int ativo) {
+                return String.format("SINT%d1", ativo + 1);
+        }
+
+        @Override
+        public void run(String... args) {
+                long inicio = System.currentTimeMillis();
+                Random aleatorio = new Random(43);
+                List<Option> opcoes = new ArrayList<>();
+                for (int a = 0; a < ativos; a++) {
+                        for (int v = 0; v < vencimentos; v++) {
+                                LocalDate vencimento = DATA_BASE.plusMonths(v + 1).with(TemporalAdjusters.dayOfWeekInMonth(3, DayOfWeek.FRIDAY));
+                                int diasUteis = diasUteis(DATA_BASE, vencimento);
+                                // Sorriso simples: vol (% ao dia útil) cresce com a distância do strike ao spot
+                                for (int k = 0; k < strikes; k++) {
+                                        double strike = SPOT.doubleValue() * (0.80 + 0.40 * k / Math.max(1, strikes - 1));
+                                        double vol = 1.1 + 0.8 * Math.abs(strike / SPOT.doubleValue() - 1) + 0.05 * aleatorio.nextDouble();
+                                        for (boolean call : new boolean[] { true, false }) {
+                                                opcoes.add(serie(idAcao(a), v, k, call, vencimento, diasUteis, strike, vol));
+                                        }
+                                }
+                        }
+                }
+                optionRepository.saveAll(opcoes);
+                System.out.println("Cadeia sintética gravada: " + opcoes.size() + " séries em "
+                                + (System.currentTimeMillis() - inicio) + " ms.");
+        }
+
+        private static Option serie(String idAcao, int vencimento, int indiceStrike, boolean call, LocalDate dataVencimento,
+                        int diasUteis, double strike, double vol) {
+                double spot = SPOT.doubleValue();
+                double sigmaRaizPrazo = vol / 100 * Math.sqrt(diasUteis);
+                double d1 = (Math.log(spot / strike) + sigmaRaizPrazo * sigmaRaizPrazo / 2) / sigmaRaizPrazo;
+                double d2 = d1 - sigmaRaizPrazo;
+                double preco = call ? spot * normal(d1) - strike * normal(d2) : strike * normal(-d2) - spot * normal(-d1);
+                double densidade = Math.exp(-d1 * d1 / 2) / Math.sqrt(2 * Math.PI);
+
+                Option opcao = new Option();
+                opcao.setIdAcao(idAcao);
+                // Ticker: raiz do ativo + vencimento + tipo + strike (único no universo)
+                opcao.setTicker(String.format("%s%c%02d%s", idAcao.substring(0, 5), (char) ('A' + vencimento),
+                                indiceStrike, call ? "C" : "P"));
+                opcao.setTipo(call ? "CALL" : "PUT");
+                opcao.setVencimento(dataVencimento);
+                opcao.setDiasUteis(diasUteis);
+                opcao.setStrike(escala(strike, 2));
+                // Prêmio mínimo de 1 centavo, como no pregão
+                opcao.setPreco(escala(Math.max(0.01, preco), 2));
+                opcao.setVolImplicita(escala(vol, 4));
+                // Delta da PUT em módulo, como no CSV tratado
+                opcao.setDelta(escala(call ? normal(d1) : normal(d1) - 1, 4).abs());
+                opcao.setGamma(escala(densidade / (spot * sigmaRaizPrazo), 4));
+                opcao.setTheta(escala(-spot * densidade * sigmaRaizPrazo / (2 * diasUteis), 4));
+                opcao.setVega(escala(spot * densidade * Math.sqrt(diasUteis) / 100, 4));
+                opcao.setDataHora(LocalDateTime.of(DATA_BASE, LocalTime.of(17, 0)));
+                return opcao;
+        }
+
+        private static int diasUteis(LocalDate de, LocalDate ate) {
+                int dias = 0;
+                for (LocalDate dia = de.plusDays(1); !dia.isAfter(ate); dia = dia.plusDays(1)) {
+                        if (dia.getDayOfWeek() != DayOfWeek.SATURDAY && dia.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                                dias++;
+                        }
+                }
+                return dias;
+        }
+
+        private static BigDecimal escala(double valor, int casas) {
+                return BigDecimal.valueOf(valor).setScale(casas, RoundingMode.HALF_UP);
+        }
+
+        // Normal acumulada (Abramowitz-Stegun 26.2.17, erro < 7.5e-8)
+        private static double normal(double x) {
+                double t = 1 / (1 + 0.2316419 * Math.abs(x));
+                double cauda = Math.exp(-x * x / 2) / Math.sqrt(2 * Math.PI)
+                * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+                return x >= 0 ? 1 - cauda : cauda;
+        }
+}
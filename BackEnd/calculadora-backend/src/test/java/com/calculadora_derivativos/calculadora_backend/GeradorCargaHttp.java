@@ -0,0 +1,183 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Gerador de carga HTTP com os dois modelos clássicos:
+ * - fechado: N clientes, cada um envia a próxima requisição assim que recebe a resposta
+ *   (a vazão se ajusta à latência do servidor);
+ * - aberto: requisições disparadas em ritmo fixo, independente das respostas; a latência é
+ *   medida a partir do instante programado, então a fila formada quando o servidor não
+ *   acompanha entra na medida (sem "coordinated omission").
+ *
+ * Requisições do aquecimento não entram nas estatísticas. 503 (raia saturada) é contado
+ * como recusa, não como erro.
+ */
+public class GeradorCargaHttp implements AutoCloseable {
+
+        public enum Modelo {
+                ABERTO, FECHADO
+        }
+
+        /** Endpoint exercitado: nome no relatório e fábrica da requisição. */
+        public record Alvo(String nome, Supplier<HttpRequest> requisicao) {
+        }
+
+        public record Estatisticas(String alvo, Modelo modelo, long respostas, long sucessos, long recusas, long erros,
+                        double requisicoesPorSegundo, double p50Ms, double p95Ms, double p99Ms, double maximoMs) {
+        }
+
+        // Latências (ns) e contadores da janela de medição
+        private static final class Amostras {
+                private long[] latencias = new long[1024];
+                private int tamanho;
+                private long sucessos;
+                private long recusas;
+                private long erros;
+
+                synchronized void registrar(long latenciaNanos, int status) {
+                        if (tamanho == latencias.length) {
+                                latencias = Arrays.copyOf(latencias, tamanho * 2);
+                        }
+                        latencias[tamanho++] = latenciaNanos;
+                        if (status >= 200 && status < 300) {
+                                sucessos++;
+                        } else if (status == 503) {
+                                recusas++;
+                        } else {
+                                erros++;
+                        }
+                }
+
+                synchronized Estatisticas resumir(String alvo, Modelo modelo, Duration duracao) {
+                        long[] ordenadas = Arrays.copyOf(latencias, tamanho);
+                        Arrays.sort(ordenadas);
+                        return new Estatisticas(alvo, modelo, tamanho, sucessos, recusas, erros,
+                                        tamanho / (duracao.toNanos() / 1e9),
+                                        percentil(ordenadas, 0.50), percentil(ordenadas, 0.95), percentil(ordenadas, 0.99),
+                                        ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1e6);
+                }
+
+                // Posto mais próximo
+                private static double percentil(long[] ordenadas, double p) {
+                        if (ordenadas.length == 0) {
+                                return 0;
+                        }
+                        int posto = (int) Math.ceil(p * ordenadas.length);
+                        return ordenadas[Math.max(0, posto - 1)] / 1e6;
+                }
+        }
+
+        private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        private final HttpClient cliente = HttpClient.newBuilder()
+                        .executor(threads)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+        /**
+         * Modelo fechado: 'concorrencia' clientes em laço durante aquecimento + duração.
+         */
+        public Estatisticas fechado(Alvo alvo, int concorrencia, Duration aquecimento, Duration duracao)
+                        throws InterruptedException {
+                Amostras amostras = new Amostras();
+                long inicioMedicao = System.nanoTime() + aquecimento.toNanos();
+                long fim = inicioMedicao + duracao.toNanos();
+
+                List<Thread> clientes = new ArrayList<>(concorrencia);
+                for (int c = 0; c < concorrencia; c++) {
+                        clientes.add(Thread.ofVirtual().start(() -> {
+                                while (System.nanoTime() < fim) {
+                                        long inicio = System.nanoTime();
+                                        int status = enviar(alvo);
+                                        long termino = System.nanoTime();
+                                        if (inicio >= inicioMedicao && termino <= fim) {
+                                                amostras.registrar(termino - inicio, status);
+                                        }
+                                }
+                        }));
+                }
+                for (Thread cliente : clientes) {
+                        cliente.join();
+                }
+                return amostras.resumir(alvo.nome(), Modelo.FECHADO, duracao);
+        }
+
+        /**
+         * Modelo aberto: 'taxaPorSegundo' requisições por segundo em intervalos fixos; aguarda as
+         * pendentes (até 'espera') antes de resumir.
+         */
+        public Estatisticas aberto(Alvo alvo, double taxaPorSegundo, Duration aquecimento, Duration duracao, Duration espera) {
+                Amostras amostras = new Amostras();
+                long intervalo = (long) (1e9 / taxaPorSegundo);
+                long inicio = System.nanoTime();
+                long inicioMedicao = inicio + aquecimento.toNanos();
+                long fim = inicioMedicao + duracao.toNanos();
+
+                List<CompletableFuture<?>> pendentes = new ArrayList<>();
+                for (long programado = inicio; programado < fim; programado += intervalo) {
+                        long agora;
+                        while ((agora = System.nanoTime()) < programado) {
+                                LockSupport.parkNanos(programado - agora);
+                        }
+                        long instante = programado;
+                        pendentes.add(cliente.sendAsync(alvo.requisicao().get(), HttpResponse.BodyHandlers.discarding())
+                                        .handle((resposta, erro) -> {
+                                                if (instante >= inicioMedicao) {
+                                                        amostras.registrar(System.nanoTime() - instante,
+                                                                        erro == null ? resposta.statusCode() : -1);
+                                                }
+                                                return null;
+                                        }));
+                }
+                try {
+                        CompletableFuture.allOf(pendentes.toArray(CompletableFuture[]::new))
+                                        .get(espera.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                        System.err.println("Carga aberta em " + alvo.nome() + ": respostas pendentes após "
+                                        + espera.toSeconds() + " s (" + e.getClass().getSimpleName() + ").");
+                }
+                return amostras.resumir(alvo.nome(), Modelo.ABERTO, duracao);
+        }
+
+        private int enviar(Alvo alvo) {
+                try {
+                        return cliente.send(alvo.requisicao().get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return -1;
+                } catch (Exception e) {
+                        return -1;
+                }
+        }
+
+        /** Tabela de texto: uma linha por (modelo, alvo). */
+        public static String tabela(List<Estatisticas> estatisticas) {
+                StringBuilder texto = new StringBuilder(String.format("%-8s %-12s %9s %9s %8s %6s %10s %9s %9s %9s %9s%n",
+                                "modelo", "endpoint", "respostas", "sucessos", "recusas", "erros", "req/s", "p50 ms",
+                                "p95 ms", "p99 ms", "max ms"));
+                for (Estatisticas e : estatisticas) {
+                        texto.append(String.format("%-8s %-12s %9d %9d %8d %6d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                                        e.modelo().name().toLowerCase(), e.alvo(), e.respostas(), e.sucessos(), e.recusas(),
+                                        e.erros(), e.requisicoesPorSegundo(), e.p50Ms(), e.p95Ms(), e.p99Ms(), e.maximoMs()));
+                }
+                return texto.toString();
+        }
+
+        @Override
+        public void close() {
+                cliente.close();
+                threads.shutdownNow();
+        }
+}
@@ -0,0 +1,102 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.GravacaoJfrService;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Testes da gravação JFR sob demanda: uma otimização feita durante a gravação aparece no
+ * arquivo com os eventos das suas fases.
+ */
+@ExtendWith(MockitoExtension.class)
+public class GravacaoJfrServiceTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private SpreadService spreadService;
+        private GravacaoJfrService gravacaoJfr;
+
+        @BeforeEach
+        void setUp() {
+                spreadService = CadeiaTeste.servicos(optionRepository, ativoRepository).spreadService();
+                gravacaoJfr = new GravacaoJfrService(300, 100);
+        }
+
+        @AfterEach
+        void tearDown() {
+                gravacaoJfr.descartar();
+        }
+
+        @Test
+        void testGravacao_RegistraAsFasesDaOtimizacao() throws Exception {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                GravacaoJfrService.EstadoGravacao estado = gravacaoJfr.iniciar(3600, "default");
+                assertTrue(estado.ativa());
+                // Duração cortada no máximo configurado
+                assertEquals(300, estado.duracaoSegundos());
+                assertThrows(IllegalStateException.class, () -> gravacaoJfr.iniciar(10, "default"));
+
+                spreadService.otimizarMelhorEstrategia("BOVA11", COTACAO, TAXAS);
+
+                Path arquivo = gravacaoJfr.parar();
+                try {
+                        Map<String, List<RecordedEvent>> eventos = RecordingFile.readAllEvents(arquivo).stream()
+                                        .collect(Collectors.groupingBy(evento -> evento.getEventType().getName()));
+
+                        // Ambiente do processo fora do arquivo
+                        assertFalse(eventos.containsKey("jdk.InitialEnvironmentVariable"));
+                        assertFalse(eventos.containsKey("jdk.InitialSystemProperty"));
+                        assertTrue(eventos.containsKey("jdk.JVMInformation"));
+
+                        RecordedEvent busca = eventos.get("calculadora.BuscaCadeia").get(0);
+                        assertEquals("BOVA11", busca.getString("ativo"));
+                        assertEquals("MELHOR", busca.getString("estrategia"));
+                        assertEquals(5, busca.getInt("series"));
+
+                        // 3 CALLs (6 pares) e 2 PUTs (2 pares), percorridos uma vez para as 4 verticais
+                        RecordedEvent enumeracao = eventos.get("calculadora.EnumeracaoCandidatos").get(0);
+                        assertEquals(8, enumeracao.getLong("pares"));
+                        assertFalse(enumeracao.getBoolean("parcial"));
+
+                        // Um vencedor por vertical, cada um com sua avaliação de payoff
+                        assertEquals(4, eventos.get("calculadora.MontagemResposta").size());
+                        List<RecordedEvent> payoffs = eventos.get("calculadora.AvaliacaoPayoff");
+                        assertEquals(4, payoffs.size());
+                        assertTrue(payoffs.stream().allMatch(evento -> evento.getInt("pernas") == 2
+                                        && evento.getInt("pontos") > 0));
+                } finally {
+                        Files.deleteIfExists(arquivo);
+                }
+
+                assertFalse(gravacaoJfr.estado().ativa());
+                assertThrows(IllegalStateException.class, () -> gravacaoJfr.parar());
+        }
+}
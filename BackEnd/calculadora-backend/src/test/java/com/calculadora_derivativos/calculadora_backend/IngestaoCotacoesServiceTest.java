@@ -0,0 +1,205 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoVertical;
+import com.calculadora_derivativos.calculadora_backend.dto.CotacaoAoVivo;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.model.VisaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.CotacaoAoVivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.IngestaoCotacoesService;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizadorIncrementalService;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes da ingestão de cotações ao vivo: coalescência, troca copy-on-write da cadeia,
+ * gravação em lote e replay de um CSV.
+ */
+@ExtendWith(MockitoExtension.class)
+public class IngestaoCotacoesServiceTest {
+
+        private static final LocalDateTime AGORA = LocalDateTime.of(2025, 10, 20, 10, 0);
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        @Mock
+        private CotacaoAoVivoRepository cotacaoRepository;
+
+        @Mock
+        private ApplicationEventPublisher publicador;
+
+        private CacheCadeiasCompactas cache;
+        private OtimizadorIncrementalService otimizador;
+        private IngestaoCotacoesService ingestao;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                cache = servicos.cache();
+                otimizador = new OtimizadorIncrementalService(cache, servicos.spreadService(), publicador);
+                ingestao = new IngestaoCotacoesService(cache, otimizador, optionRepository, cotacaoRepository,
+                                Jackson2ObjectMapperBuilder.json()
+                                                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(),
+                                new SimpleMeterRegistry());
+        }
+
+        private static String linha(String ticker, String idAcao, String preco, LocalDateTime dataHora) {
+                return "{\"ticker\":\"" + ticker + "\"," + (idAcao != null ? "\"idAcao\":\"" + idAcao + "\"," : "")
+                                + "\"preco\":" + preco + ",\"delta\":0.5,\"dataHora\":\"" + dataHora + "\"}";
+        }
+
+        @Test
+        void testNdjson_CoalesceAplicaEmCopiaEGravaEmLote() throws IOException {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository).registrarPorTicker(optionRepository);
+                VisaoCadeia antes = cache.obter("BOVA11");
+
+                String ndjson = String.join("\n",
+                                linha("BOVAK140", null, "4.10", AGORA),
+                                linha("BOVAK140", null, "6.40", AGORA.plusSeconds(2)),
+                                linha("BOVAK140", null, "3.00", AGORA.plusSeconds(1)),   // fora de ordem: descartada
+                                "",
+                                "{ticker quebrado",
+                                linha("BOVAW140", "BOVA11", "0", AGORA),                   // preço inválido
+                                linha("BOVAW140", "BOVA11", "2.20", AGORA));
+                IngestaoCotacoesService.ResumoIngestao resumo = ingestao.receberNdjson(
+                                new BufferedReader(new StringReader(ndjson)));
+                assertEquals(new IngestaoCotacoesService.ResumoIngestao(4, 2), resumo);
+
+                // Uma troca de cadeia com as duas séries; quem já lia a cadeia antiga não vê a mudança
+                assertEquals(2, ingestao.aplicarPendentes());
+                VisaoCadeia depois = cache.obter("BOVA11");
+                assertNotSame(antes, depois);
+                assertEquals(40_000, antes.preco(1));
+                assertEquals(64_000, depois.preco(1));
+                assertEquals(22_000, depois.preco(4));
+                assertEquals(antes.getVersao(), depois.getVersao());
+                verify(optionRepository, times(2)).findByTicker(anyString());
+
+                // O otimizador incremental recebeu o mesmo lote: Bear Call 140/145 (crédito 4.90,
+                // lucro 446.00 / risco 54.00) passa o 135/140
+                CandidatoVertical melhor = otimizador.melhores("BOVA11").get(EstrategiaOtimizacao.MELHOR);
+                assertEquals("BOVAK140", melhor.pernas().get(0).ticker());
+                assertEquals(new BigDecimal("8.26"), melhor.relacaoRiscoRetornoLiquida());
+
+                assertEquals(2, ingestao.gravarPendentes());
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<CotacaoAoVivo>> lote = ArgumentCaptor.forClass(List.class);
+                verify(cotacaoRepository).atualizarEmLote(lote.capture());
+                List<CotacaoAoVivo> gravadas = lote.getValue().stream()
+                                .sorted(Comparator.comparing(CotacaoAoVivo::ticker)).toList();
+                assertEquals(new BigDecimal("6.40"), gravadas.get(0).preco());
+                assertEquals(AGORA.plusSeconds(2), gravadas.get(0).dataHora());
+                assertEquals(new BigDecimal("2.20"), gravadas.get(1).preco());
+                assertEquals(0, ingestao.gravarPendentes());
+        }
+
+        /**
+         * O ativo vem do ticker no banco: idAcao divergente, ticker desconhecido ou ativo sem
+         * séries não criam cadeia no cache nem estado no otimizador incremental.
+         */
+        @Test
+        void testAplicarPendentes_DescartaCotacaoSemSerieNaCadeia() {
+                CadeiaTeste.bova11().registrarPorTicker(optionRepository);
+                when(optionRepository.findByTicker("XPTOK10")).thenReturn(Optional.empty());
+                Option semSeries = new Option();
+                semSeries.setIdAcao("PETR4");
+                when(optionRepository.findByTicker("PETRK30")).thenReturn(Optional.of(semSeries));
+                when(optionRepository.findCadeiaByIdAcao("PETR4")).thenReturn(List.of());
+
+                ingestao.receber(new CotacaoAoVivo("BOVAK140", "XPTO3", new BigDecimal("4.10"), null, null, null,
+                                null, null, AGORA));
+                ingestao.receber(new CotacaoAoVivo("XPTOK10", null, new BigDecimal("1.00"), null, null, null,
+                                null, null, AGORA));
+                ingestao.receber(new CotacaoAoVivo("PETRK30", null, new BigDecimal("1.00"), null, null, null,
+                                null, null, AGORA));
+
+                assertEquals(0, ingestao.aplicarPendentes());
+                assertEquals(0, cache.getVersaoPrecos("BOVA11"));
+                assertEquals(0, cache.getVersaoPrecos("PETR4"));
+                verify(optionRepository, never()).findCadeiaByIdAcao("XPTO3");
+                verify(optionRepository, never()).findCadeiaByIdAcao("BOVA11");
+                // Uma leitura (a da cotação): a cadeia vazia não foi guardada nem repassada ao otimizador
+                verify(optionRepository, times(1)).findCadeiaByIdAcao("PETR4");
+        }
+
+        @Test
+        void testGravacao_FalhaDevolveAFilaSemPerderCotacaoMaisNova() {
+                doThrow(new DataAccessResourceFailureException("MySQL fora")).when(cotacaoRepository)
+                                .atualizarEmLote(anyList());
+                ingestao.receber(new CotacaoAoVivo("BOVAK140", "BOVA11", new BigDecimal("4.10"), null, null, null,
+                                null, null, AGORA));
+
+                assertEquals(0, ingestao.gravarPendentes());
+                ingestao.receber(new CotacaoAoVivo("BOVAK140", "BOVA11", new BigDecimal("4.30"), null, null, null,
+                                null, null, AGORA.plusSeconds(1)));
+
+                doThrow(new DataAccessResourceFailureException("MySQL fora")).doNothing().when(cotacaoRepository)
+                                .atualizarEmLote(anyList());
+                assertEquals(0, ingestao.gravarPendentes());
+                assertEquals(1, ingestao.gravarPendentes());
+                @SuppressWarnings("unchecked")
+                ArgumentCaptor<List<CotacaoAoVivo>> lote = ArgumentCaptor.forClass(List.class);
+                verify(cotacaoRepository, times(3)).atualizarEmLote(lote.capture());
+                assertEquals(new BigDecimal("4.30"), lote.getValue().get(0).preco());
+        }
+
+        /**
+         * Replay do CSV empacotado (cliente ReplayCotacoesCsv) direto no serviço.
+         */
+        @Test
+        void testReplayCsv_TodasAsLinhasValidasSaoAceitas() throws IOException {
+                Path csv = Path.of("src/main/resources/opcoes_final_tratado.csv");
+                List<String> linhas;
+                try (BufferedReader leitor = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                        linhas = ReplayCotacoesCsv.paraNdjson(leitor, 1);
+                }
+                assertTrue(linhas.size() > 50);
+
+                IngestaoCotacoesService.ResumoIngestao resumo = ingestao.receberNdjson(
+                                new BufferedReader(new StringReader(String.join("\n", linhas))));
+
+                assertEquals(new IngestaoCotacoesService.ResumoIngestao(linhas.size(), 0), resumo);
+                long tickersDistintos = linhas.stream().map(l -> l.substring(0, l.indexOf(',') + 1)).distinct().count();
+                assertEquals(tickersDistintos, ingestao.gravarPendentes());
+        }
+}
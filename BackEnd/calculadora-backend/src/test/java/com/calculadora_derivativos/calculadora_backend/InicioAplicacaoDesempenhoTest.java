@@ -0,0 +1,216 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tempo até a primeira resposta 2xx de uma otimização, medido a partir do início do processo,
+ * para o jar padrão (fat jar) e para o modo de inicialização rápida (jar processado pelo Spring
+ * AOT + arquivo AppCDS). Os dois modos são executados alternadamente, cada um num processo novo.
+ *
+ * Precisa dos jars do package; rode com:
+ *   mvn -Pinicio-rapido verify [-Dinicio.repeticoes=5 -Dinicio.banco=h2|configurado]
+ * Com inicio.banco=h2 (padrão) a aplicação sobe com H2 em memória e carrega o CSV do
+ * classpath; com "configurado" usa o banco do application.properties (MySQL).
+ * O relatório é gravado em target/desempenho/inicio.txt e os logs das execuções ao lado.
+ */
+@Tag("inicio")
+public class InicioAplicacaoDesempenhoTest {
+
+        private static final String CLASSE_PRINCIPAL = CalculadoraBackendApplication.class.getName();
+        private static final String LANCADOR_BOOT = "org.springframework.boot.loader.launch.PropertiesLauncher";
+        private static final String CAMINHO_PADRAO =
+                        "/spread/otimizar/melhor/BOVA11?cotacaoAtualAtivo=145&taxasOperacionais=0.01";
+
+        private static final List<String> ARGUMENTOS_H2 = List.of(
+                        "--spring.datasource.url=jdbc:h2:mem:inicio;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        // opcoes_snapshot é particionada (só MySQL): no H2 o registro do histórico falha
+                        // depois que as opções já foram gravadas, então a otimização já tem a cadeia
+                        "--spring.sql.init.mode=never");
+
+        private enum Modo {
+                PADRAO, RAPIDO
+        }
+
+        private final Path diretorio = Path.of(propriedade("diretorio", "target")).toAbsolutePath();
+        private final Path relatorios = diretorio.resolve("desempenho");
+        private final boolean h2 = propriedade("banco", "h2").equals("h2");
+        private final HttpClient cliente = HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(1))
+                        .build();
+
+        private static String propriedade(String nome, String padrao) {
+                return System.getProperty("inicio." + nome, padrao);
+        }
+
+        @Test
+        void testInicio_PadraoVersusRapido() throws Exception {
+                Path jarPadrao = diretorio.resolve(propriedade("jar-padrao", "calculadora-backend-0.0.1-SNAPSHOT.jar"));
+                Path jarRapido = diretorio.resolve(propriedade("jar-rapido",
+                                "inicio-rapido/calculadora-backend-0.0.1-SNAPSHOT-inicio-rapido.jar"));
+                Path arquivoCds = jarRapido.resolveSibling("aplicacao.jsa");
+                assertTrue(Files.isRegularFile(jarPadrao), "Jar padrão não encontrado: " + jarPadrao);
+                assertTrue(Files.isRegularFile(jarRapido), "Jar do modo rápido não encontrado: " + jarRapido);
+                assertTrue(Files.isRegularFile(arquivoCds), "Arquivo CDS não encontrado: " + arquivoCds);
+
+                int repeticoes = Integer.parseInt(propriedade("repeticoes", "3"));
+                Duration limite = Duration.ofSeconds(Long.parseLong(propriedade("limite-s", "180")));
+                String caminho = propriedade("caminho", CAMINHO_PADRAO);
+                Files.createDirectories(relatorios);
+
+                Map<Modo, List<Long>> tempos = new LinkedHashMap<>();
+                for (Modo modo : Modo.values()) {
+                        tempos.put(modo, new ArrayList<>());
+                }
+                // Alternados, para que variações da máquina afetem os dois modos por igual
+                for (int r = 1; r <= repeticoes; r++) {
+                        for (Modo modo : Modo.values()) {
+                                List<String> comando = modo == Modo.PADRAO
+                                                ? comandoPadrao(jarPadrao)
+                                                : comandoRapido(jarRapido, arquivoCds);
+                                // O arquivo CDS guarda o classpath relativo do treino (diretório do jar rápido)
+                                Path trabalho = modo == Modo.PADRAO ? diretorio : jarRapido.getParent();
+                                long ms = medir(comando, trabalho, caminho, limite,
+                                                relatorios.resolve("inicio-" + modo.name().toLowerCase() + "-" + r + ".log"));
+                                System.out.println("Início " + modo.name().toLowerCase() + " #" + r + ": " + ms + " ms");
+                                tempos.get(modo).add(ms);
+                        }
+                }
+
+                String tabela = tabela(tempos, caminho);
+                System.out.println("\n" + tabela);
+                Files.writeString(relatorios.resolve("inicio.txt"), tabela);
+        }
+
+        private List<String> comandoPadrao(Path jar) throws Exception {
+                List<String> comando = new ArrayList<>(List.of(java()));
+                if (h2) {
+                        // O fat jar não tem o H2: PropertiesLauncher com loader.path
+                        comando.addAll(List.of("-Dloader.path=" + jarH2(), "-cp", jar.toString(), LANCADOR_BOOT));
+                        comando.addAll(ARGUMENTOS_H2);
+                } else {
+                        comando.addAll(List.of("-jar", jar.toString()));
+                }
+                return comando;
+        }
+
+        private List<String> comandoRapido(Path jar, Path arquivoCds) throws Exception {
+                // -Xshare:on: falha em vez de medir sem o arquivo CDS (classpath incompatível)
+                List<String> comando = new ArrayList<>(List.of(java(), "-Xshare:on",
+                                "-XX:SharedArchiveFile=" + arquivoCds.getFileName(),
+                                "-Dspring.aot.enabled=true",
+                                "-Dspring.profiles.active=inicio-rapido"));
+                if (h2) {
+                        // O classpath do treino (jar + lib/ do manifesto) continua como prefixo
+                        comando.addAll(List.of("-cp", jar.getFileName() + File.pathSeparator + jarH2(), CLASSE_PRINCIPAL));
+                        comando.addAll(ARGUMENTOS_H2);
+                } else {
+                        comando.addAll(List.of("-jar", jar.getFileName().toString()));
+                }
+                return comando;
+        }
+
+        private static String java() {
+                return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        }
+
+        private static String jarH2() throws Exception {
+                return Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        }
+
+        /**
+         * Sobe o processo e consulta o caminho até a primeira resposta 2xx (503 da carga em
+         * andamento e conexão recusada contam como "ainda não"); devolve os ms desde o start.
+         */
+        private long medir(List<String> comando, Path trabalho, String caminho, Duration limite, Path log)
+                        throws Exception {
+                int porta = portaLivre();
+                List<String> completo = new ArrayList<>(comando);
+                completo.add("--server.port=" + porta);
+                HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET().build();
+
+                long inicio = System.nanoTime();
+                Process processo = new ProcessBuilder(completo)
+                                .directory(trabalho.toFile())
+                                .redirectErrorStream(true)
+                                .redirectOutput(log.toFile())
+                                .start();
+                try {
+                        long prazo = inicio + limite.toNanos();
+                        while (System.nanoTime() < prazo) {
+                                if (!processo.isAlive()) {
+                                        fail("Processo encerrou (código " + processo.exitValue() + ") antes de responder; veja " + log);
+                                }
+                                try {
+                                        int status = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                        if (status >= 200 && status < 300) {
+                                                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                                        }
+                                        if (status != 503) {
+                                                fail("Resposta " + status + " em " + caminho + "; veja " + log);
+                                        }
+                                } catch (IOException e) {
+                                        // Servidor ainda não está ouvindo
+                                }
+                                Thread.sleep(20);
+                        }
+                        fail("Sem resposta 2xx em " + limite.toSeconds() + " s; veja " + log);
+                        return -1;
+                } finally {
+                        processo.destroy();
+                        if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                                processo.destroyForcibly().waitFor();
+                        }
+                }
+        }
+
+        private static int portaLivre() throws IOException {
+                try (ServerSocket socket = new ServerSocket(0)) {
+                        return socket.getLocalPort();
+                }
+        }
+
+        private static String tabela(Map<Modo, List<Long>> tempos, String caminho) {
+                StringBuilder texto = new StringBuilder("Tempo até a primeira resposta 2xx de " + caminho + "\n");
+                texto.append(String.format("%-8s %11s %10s %10s %10s%n", "modo", "repetições", "min ms", "mediana ms", "max ms"));
+                Map<Modo, Long> medianas = new LinkedHashMap<>();
+                for (Map.Entry<Modo, List<Long>> entrada : tempos.entrySet()) {
+                        long[] ordenados = entrada.getValue().stream().mapToLong(Long::longValue).toArray();
+                        Arrays.sort(ordenados);
+                        long mediana = ordenados[ordenados.length / 2];
+                        medianas.put(entrada.getKey(), mediana);
+                        texto.append(String.format("%-8s %11d %10d %10d %10d%n", entrada.getKey().name().toLowerCase(),
+                                        ordenados.length, ordenados[0], mediana, ordenados[ordenados.length - 1]));
+                }
+                texto.append(String.format("Redução da mediana: %.1f%%%n",
+                                100.0 * (medianas.get(Modo.PADRAO) - medianas.get(Modo.RAPIDO)) / medianas.get(Modo.PADRAO)));
+                return texto.toString();
+        }
+}
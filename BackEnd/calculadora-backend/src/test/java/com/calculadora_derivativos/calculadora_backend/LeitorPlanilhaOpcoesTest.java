@@ -0,0 +1,127 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.calculadora_derivativos.calculadora_backend.model.Option;
+import com.calculadora_derivativos.calculadora_backend.service.LeitorCsvOpcoes;
+import com.calculadora_derivativos.calculadora_backend.service.LeitorPlanilhaOpcoes;
+
+/**
+ * Testes da leitura em streaming da planilha exportada, com as regras de limpeza do
+ * limpar_excel_final.py (planilhas montadas em memória no formato da exportação).
+ */
+public class LeitorPlanilhaOpcoesTest {
+
+        static final String[] CABECALHO = { "Ticker", "Vencimento", "Dias úteis", "Tipo F.M.", "Strike",
+                        "A/I/OTM", "Último", "Vol. Implícita (%)", "Delta", "Gamma", "Theta ($)", "Vega", "Data/Hora" };
+
+        private final LeitorPlanilhaOpcoes leitor = new LeitorPlanilhaOpcoes();
+
+        // Também usada pelo DataLoaderTest
+        static byte[] planilha(String[] cabecalho, Object[]... linhas) throws IOException {
+                try (XSSFWorkbook livro = new XSSFWorkbook(); ByteArrayOutputStream saida = new ByteArrayOutputStream()) {
+                        Sheet aba = livro.createSheet("Opções");
+                        aba.createRow(0).createCell(0).setCellValue("Opções BOVA11 - CALLs e PUTs - lista, pág. 1 de 1");
+                        Row titulos = aba.createRow(1);
+                        for (int c = 0; c < cabecalho.length; c++) {
+                                titulos.createCell(c).setCellValue(cabecalho[c]);
+                        }
+                        for (int l = 0; l < linhas.length; l++) {
+                                Row linha = aba.createRow(l + 2);
+                                for (int c = 0; c < linhas[l].length; c++) {
+                                        Object valor = linhas[l][c];
+                                        if (valor instanceof Number numero) {
+                                                linha.createCell(c).setCellValue(numero.doubleValue());
+                                        } else if (valor != null) {
+                                                linha.createCell(c).setCellValue((String) valor);
+                                        }
+                                }
+                        }
+                        livro.write(saida);
+                        return saida.toByteArray();
+                }
+        }
+
+        @Test
+        void testLer_AplicaRegrasDoScript() throws IOException {
+                byte[] xlsx = planilha(CABECALHO,
+                                new Object[] { "BOVAK140", "14/11/2025", "19", "CALL", "14.000", "ITM", "400",
+                                                "2.150", "6.012", "512", "-1.234", "1.815", "20/10/2025 17:05:00" },
+                                // PUT pela letra 'A' (americana), vencimento como série do Excel
+                                new Object[] { "BOVAW135", 45975, 19, "AMER", "13.500", "OTM", "50",
+                                                "-2.310", "-1.050", "210", "-900", "950", null },
+                                // Sem prêmio: ignorada
+                                new Object[] { "BOVAK145", "14/11/2025", "19", "CALL", "14.500", "OTM", "0",
+                                                "2.000", "3.000", "400", "-800", "1.500", null },
+                                // Ticker curto (linha de total/rodapé): ignorada
+                                new Object[] { "Total", null, null, null, "1", null, "1", null, "1", null, null, "1", null });
+
+                List<Option> opcoes = new ArrayList<>();
+                LeitorCsvOpcoes.Resultado resultado = leitor.ler(new ByteArrayInputStream(xlsx), "BOVA11", opcoes::add);
+
+                assertTrue(resultado.cabecalhoValido());
+                assertEquals(2, resultado.linhasAceitas());
+                assertEquals(2, resultado.linhasIgnoradas());
+
+                Option call = opcoes.get(0);
+                assertEquals("BOVA11", call.getIdAcao());
+                assertEquals("BOVAK140", call.getTicker());
+                assertEquals("CALL", call.getTipo());
+                assertEquals(LocalDate.of(2025, 11, 14), call.getVencimento());
+                assertEquals(19, call.getDiasUteis());
+                assertEquals(new BigDecimal("140.0000"), call.getStrike());
+                assertEquals(new BigDecimal("4.0000"), call.getPreco());
+                assertEquals(new BigDecimal("21.5000"), call.getVolImplicita());
+                assertEquals(new BigDecimal("0.6012"), call.getDelta());
+                assertEquals(new BigDecimal("0.0512"), call.getGamma());
+                assertEquals(new BigDecimal("-0.1234"), call.getTheta());
+                assertEquals(new BigDecimal("0.1815"), call.getVega());
+                assertEquals(LocalDateTime.of(2025, 10, 20, 17, 5), call.getDataHora());
+
+                Option put = opcoes.get(1);
+                assertEquals("PUT", put.getTipo());
+                assertEquals(LocalDate.of(2025, 11, 14), put.getVencimento());
+                assertEquals(new BigDecimal("135.0000"), put.getStrike());
+                assertEquals(new BigDecimal("0.5000"), put.getPreco());
+                // Vol, delta e vega em módulo; theta mantém o sinal
+                assertEquals(new BigDecimal("23.1000"), put.getVolImplicita());
+                assertEquals(new BigDecimal("0.1050"), put.getDelta());
+                assertEquals(new BigDecimal("-0.0900"), put.getTheta());
+                assertNull(put.getDataHora());
+        }
+
+        @Test
+        void testLer_SemColunaEssencial() throws IOException {
+                byte[] xlsx = planilha(new String[] { "Ticker", "Strike", "Último", "Delta" },
+                                new Object[] { "BOVAK140", "14.000", "400", "6.012" });
+
+                List<Option> opcoes = new ArrayList<>();
+                LeitorCsvOpcoes.Resultado resultado = leitor.ler(new ByteArrayInputStream(xlsx), "BOVA11", opcoes::add);
+
+                assertFalse(resultado.cabecalhoValido());
+                assertTrue(opcoes.isEmpty());
+        }
+
+        @Test
+        void testAtivoDoNomeArquivo() {
+                assertEquals("PETR4", LeitorPlanilhaOpcoes.ativoDoNomeArquivo(
+                                "/dados/Opções PETR4 - CALLs e PUTs - lista, pág. 1 de 1.xlsx"));
+                assertEquals("BOVA11", LeitorPlanilhaOpcoes.ativoDoNomeArquivo("exportacao.xlsx"));
+        }
+}
@@ -0,0 +1,167 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizacaoCoalescidaService;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes da coalescência (single-flight) de otimizações idênticas.
+ */
+@ExtendWith(MockitoExtension.class)
+public class OtimizacaoCoalescidaServiceTest {
+
+        private static final int REQUISICOES = 8;
+
+        @Mock
+        private SpreadService spreadService;
+
+        @Mock
+        private CacheCadeiasCompactas cacheCadeias;
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        private SimpleMeterRegistry meterRegistry;
+        private OtimizacaoCoalescidaService coalescida;
+        private ExecutorService executor;
+
+        @BeforeEach
+        void setUp() {
+                meterRegistry = new SimpleMeterRegistry();
+                coalescida = new OtimizacaoCoalescidaService(spreadService, cacheCadeias, meterRegistry);
+                executor = Executors.newFixedThreadPool(REQUISICOES);
+        }
+
+        @AfterEach
+        void tearDown() {
+                executor.shutdownNow();
+        }
+
+        @Test
+        void testRequisicoesIdenticas_CompartilhamUmaExecucao() throws Exception {
+                SpreadResponse resposta = SpreadResponse.builder().nomeEstrategia("Melhor Estratégia Vertical").build();
+                CountDownLatch liberar = new CountDownLatch(1);
+                when(spreadService.otimizarMelhorEstrategia(eq("BOVA11"), any(), any())).thenAnswer(invocacao -> {
+                        liberar.await(5, TimeUnit.SECONDS);
+                        return resposta;
+                });
+
+                List<Future<SpreadResponse>> futuros = new ArrayList<>();
+                for (int i = 0; i < REQUISICOES; i++) {
+                        // 138.0 e 138.00 são a mesma cotação
+                        BigDecimal cotacao = i % 2 == 0 ? new BigDecimal("138.0") : new BigDecimal("138.00");
+                        futuros.add(executor.submit(() -> coalescida.otimizarMelhorEstrategia("BOVA11", cotacao,
+                                        new BigDecimal("0.01"))));
+                }
+                // Espera todas as requisições chegarem antes de liberar a execução líder
+                long limite = System.currentTimeMillis() + 5_000;
+                while (contador("spread.otimizacao.coalescidas") < REQUISICOES - 1
+                                && System.currentTimeMillis() < limite) {
+                        Thread.sleep(5);
+                }
+                liberar.countDown();
+
+                for (Future<SpreadResponse> futuro : futuros) {
+                        assertSame(resposta, futuro.get(5, TimeUnit.SECONDS));
+                }
+                verify(spreadService, times(1)).otimizarMelhorEstrategia(eq("BOVA11"), any(), any());
+                assertEquals(1.0, contador("spread.otimizacao.executadas"));
+                assertEquals(REQUISICOES - 1.0, contador("spread.otimizacao.coalescidas"));
+                assertEquals(0.0, meterRegistry.get("spread.otimizacao.em-voo").gauge().value());
+        }
+
+        @Test
+        void testVersaoDiferente_NaoCoalesce() {
+                SpreadResponse resposta = SpreadResponse.builder().build();
+                when(spreadService.otimizarBullCallSpread(eq("BOVA11"), any(), any())).thenReturn(resposta);
+                when(cacheCadeias.getVersao()).thenReturn(1L, 2L);
+
+                coalescida.otimizarBullCallSpread("BOVA11", BigDecimal.TEN, BigDecimal.ONE);
+                coalescida.otimizarBullCallSpread("BOVA11", BigDecimal.TEN, BigDecimal.ONE);
+
+                verify(spreadService, times(2)).otimizarBullCallSpread(eq("BOVA11"), any(), any());
+                assertEquals(0.0, contador("spread.otimizacao.coalescidas"));
+        }
+
+        /**
+         * Cotação ao vivo aplicada enquanto uma otimização está em voo: a requisição seguinte não
+         * pode receber o resultado calculado com os preços anteriores.
+         */
+        @Test
+        void testCotacaoAoVivoDuranteExecucao_IniciaNovaExecucao() throws Exception {
+                CadeiaTeste.de("BOVA11").call("BOVAK140", "140.00", "4.00").registrarCadeia(optionRepository);
+                CacheCadeiasCompactas cache = new CacheCadeiasCompactas(optionRepository);
+                OtimizacaoCoalescidaService comCache = new OtimizacaoCoalescidaService(spreadService, cache, meterRegistry);
+
+                SpreadResponse antiga = SpreadResponse.builder().nomeEstrategia("antes da cotação").build();
+                SpreadResponse nova = SpreadResponse.builder().nomeEstrategia("depois da cotação").build();
+                CountDownLatch emExecucao = new CountDownLatch(1);
+                CountDownLatch liberar = new CountDownLatch(1);
+                when(spreadService.otimizarMelhorEstrategia(eq("BOVA11"), any(), any())).thenAnswer(invocacao -> {
+                        emExecucao.countDown();
+                        liberar.await(5, TimeUnit.SECONDS);
+                        return antiga;
+                }).thenReturn(nova);
+
+                Future<SpreadResponse> lider = executor.submit(() -> comCache.otimizarMelhorEstrategia("BOVA11",
+                                BigDecimal.TEN, BigDecimal.ONE));
+                assertTrue(emExecucao.await(5, TimeUnit.SECONDS));
+
+                cache.aplicarPrecos("BOVA11", Map.of("BOVAK140", AtualizacaoSerie.soPreco(43_000)));
+                assertSame(nova, comCache.otimizarMelhorEstrategia("BOVA11", BigDecimal.TEN, BigDecimal.ONE));
+
+                liberar.countDown();
+                assertSame(antiga, lider.get(5, TimeUnit.SECONDS));
+                verify(spreadService, times(2)).otimizarMelhorEstrategia(eq("BOVA11"), any(), any());
+                assertEquals(0.0, contador("spread.otimizacao.coalescidas"));
+        }
+
+        @Test
+        void testExcecao_PropagadaSemPrenderAChave() {
+                when(spreadService.otimizarBearPutSpread(eq("BOVA11"), any(), any()))
+                                .thenThrow(new IllegalStateException("falha"))
+                                .thenReturn(SpreadResponse.builder().build());
+
+                try {
+                        coalescida.otimizarBearPutSpread("BOVA11", BigDecimal.TEN, BigDecimal.ONE);
+                } catch (IllegalStateException e) {
+                        assertEquals("falha", e.getMessage());
+                }
+                // A chave foi liberada: a próxima requisição executa normalmente
+                assertTrue(coalescida.otimizarBearPutSpread("BOVA11", BigDecimal.TEN, BigDecimal.ONE) != null);
+        }
+
+        private double contador(String nome) {
+                return meterRegistry.find(nome).counters().stream().mapToDouble(c -> c.count()).sum();
+        }
+}
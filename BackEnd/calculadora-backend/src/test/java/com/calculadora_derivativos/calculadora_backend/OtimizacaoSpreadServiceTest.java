@@ -0,0 +1,162 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.OtimizacaoSpreadRequest;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizacaoSpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizacaoSpreadService.ResultadoOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes da otimização com restrições (risco máximo, retorno mínimo, vencimento) contra a
+ * lista completa de candidatos filtrada depois da avaliação.
+ */
+@ExtendWith(MockitoExtension.class)
+public class OtimizacaoSpreadServiceTest {
+
+        private static final Set<String> DEBITO = Set.of(EstrategiaOtimizacao.BULL_CALL.getNome(),
+                        EstrategiaOtimizacao.BEAR_PUT.getNome());
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private SpreadService spreadService;
+        private OtimizacaoSpreadService otimizacao;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                spreadService = servicos.spreadService();
+                otimizacao = new OtimizacaoSpreadService(servicos.cache(), spreadService);
+        }
+
+        private static OtimizacaoSpreadRequest pedido(String risco, String retorno, String vencimento) {
+                return new OtimizacaoSpreadRequest("BOVA11", risco == null ? null : new BigDecimal(risco),
+                                retorno == null ? null : new BigDecimal(retorno), vencimento, COTACAO, TAXAS);
+        }
+
+        @Test
+        void testRestricoes_CadeiaBova11() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                // Sem restrições: o mesmo Bear Call 135/140 (lucro 426.00 / risco 74.00) da otimização MELHOR
+                SpreadResponse livre = otimizacao.otimizar(pedido(null, null, null));
+                assertTrue(livre.getMensagem().startsWith("SUCESSO"), livre.getMensagem());
+                assertEquals("Bear Call Spread", livre.getNomeEstrategia());
+                assertEquals(new BigDecimal("5.76"), livre.getRelacaoRiscoRetornoLiquida());
+
+                // Retorno mínimo de 430.00 exclui o 135/140; sobra o Bear Call 135/145 (676.00 / 324.00)
+                SpreadResponse comRetorno = otimizacao.otimizar(pedido(null, "430.00", "14/11/2025"));
+                assertEquals("Bear Call Spread", comRetorno.getNomeEstrategia());
+                assertEquals(new BigDecimal("2.09"), comRetorno.getRelacaoRiscoRetornoLiquida());
+                assertEquals("BOVAK135", comRetorno.getPernasExecutadas().get(0).ticker());
+                assertEquals("BOVAK145", comRetorno.getPernasExecutadas().get(1).ticker());
+
+                // Risco de até 300.00 com retorno de 430.00: nenhum vertical atende
+                SpreadResponse impossivel = otimizacao.otimizar(pedido("300.00", "430.00", null));
+                assertTrue(impossivel.getMensagem().startsWith("Nenhuma"), impossivel.getMensagem());
+
+                // Vencimento sem séries e data inválida
+                assertTrue(otimizacao.otimizar(pedido(null, null, "2025-12-19")).getMensagem().startsWith("Nenhuma"));
+                assertTrue(otimizacao.otimizar(pedido(null, null, "19-12-2025")).getMensagem().startsWith("ERRO"));
+        }
+
+        /**
+         * Em uma cadeia aleatória, o vencedor com poda deve ser o primeiro candidato da lista
+         * completa que cumpre as restrições, e restrições mais apertadas avaliam menos pares.
+         */
+        @Test
+        void testPoda_IgualAoFiltroDaListaCompleta() {
+                Random aleatorio = new Random(37);
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                for (LocalDate vencimento : List.of(VENCIMENTO, VENCIMENTO.plusMonths(1))) {
+                        for (String tipo : List.of("CALL", "PUT")) {
+                                for (int strike = 120; strike <= 156; strike += 3) {
+                                        cadeia.add(new OpcaoCadeia(tipo + vencimento.getMonthValue() + "_" + strike, tipo,
+                                                        vencimento, BigDecimal.valueOf(strike),
+                                                        BigDecimal.valueOf(5 + aleatorio.nextInt(1500), 2)));
+                                }
+                        }
+                }
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeia);
+                List<SpreadResponse> todos = spreadService.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11", COTACAO,
+                                TAXAS, 10_000);
+
+                long avaliadosSemRestricao = otimizacao.otimizarComEstatisticas(pedido(null, null, null)).paresAvaliados();
+                String[][] restricoes = {
+                                { null, null, null },
+                                { "800.00", null, null },
+                                { null, "900.00", null },
+                                { "500.00", "600.00", null },
+                                { "300.00", "300.00", "2025-12-14" },
+                                { "1200.00", "1500.00", "14/11/2025" },
+                                { "40.00", null, null } };
+
+                for (String[] r : restricoes) {
+                        ResultadoOtimizacao resultado = otimizacao.otimizarComEstatisticas(pedido(r[0], r[1], r[2]));
+                        SpreadResponse esperado = todos.stream().filter(s -> atende(s, r)).findFirst().orElse(null);
+                        String caso = String.join("|", String.valueOf(r[0]), String.valueOf(r[1]), String.valueOf(r[2]));
+
+                        if (esperado == null) {
+                                assertTrue(resultado.spread().getMensagem().startsWith("Nenhuma"), caso);
+                        } else {
+                                assertEquals(esperado.getPernasExecutadas(), resultado.spread().getPernasExecutadas(), caso);
+                                assertEquals(esperado.getRelacaoRiscoRetornoLiquida(),
+                                                resultado.spread().getRelacaoRiscoRetornoLiquida(), caso);
+                        }
+                        if (r[0] != null || r[1] != null || r[2] != null) {
+                                assertTrue(resultado.paresAvaliados() < avaliadosSemRestricao, caso);
+                        }
+                }
+        }
+
+        // Mesmas restrições do serviço, aplicadas depois do cálculo completo
+        private static boolean atende(SpreadResponse spread, String[] r) {
+                boolean debito = DEBITO.contains(spread.getNomeEstrategia());
+                if (debito != spread.getPremioLiquidoUnitario().signum() < 0) {
+                        return false;
+                }
+                if (spread.getLucroMaximoLiquidoTotal().compareTo(spread.getRiscoMaximoLiquidoTotal()) < 0) {
+                        return false;
+                }
+                if (r[0] != null && spread.getRiscoMaximoLiquidoTotal().compareTo(new BigDecimal(r[0])) > 0) {
+                        return false;
+                }
+                if (r[1] != null && spread.getLucroMaximoLiquidoTotal().compareTo(new BigDecimal(r[1])) < 0) {
+                        return false;
+                }
+                if (r[2] != null) {
+                        LocalDate data = r[2].contains("/")
+                                        ? LocalDate.of(Integer.parseInt(r[2].substring(6)), Integer.parseInt(r[2].substring(3, 5)),
+                                                        Integer.parseInt(r[2].substring(0, 2)))
+                                        : LocalDate.parse(r[2]);
+                        return data.equals(spread.getVencimento());
+                }
+                return true;
+        }
+}
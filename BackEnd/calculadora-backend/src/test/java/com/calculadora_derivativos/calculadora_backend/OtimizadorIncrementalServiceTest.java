@@ -0,0 +1,196 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CandidatoVertical;
+import com.calculadora_derivativos.calculadora_backend.dto.MelhorEstrategiaAlterada;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.AtualizacaoSerie;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.CacheCadeiasCompactas;
+import com.calculadora_derivativos.calculadora_backend.service.OtimizadorIncrementalService;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes do otimizador incremental contra a busca completa do SpreadService.
+ */
+@ExtendWith(MockitoExtension.class)
+public class OtimizadorIncrementalServiceTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        @Mock
+        private ApplicationEventPublisher publicador;
+
+        private OtimizadorIncrementalService otimizador;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                otimizador = new OtimizadorIncrementalService(servicos.cache(), servicos.spreadService(), publicador);
+        }
+
+        @Test
+        void testCotacao_QueMudaOMelhorPublicaEvento() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                // Bear Call 135/140 (5.76) continua o melhor: sem evento
+                assertTrue(otimizador.atualizarCotacao("BOVA11", "BOVAK140", new BigDecimal("3.90")));
+                verify(publicador, never()).publishEvent(any(Object.class));
+
+                // Crédito do Bear Call 135/140 cai para 2.50 e nenhum par de CALL passa de 0.87
+                // -> Bear Put 140/135 (1.58) assume
+                assertTrue(otimizador.atualizarCotacao("BOVA11", "BOVAK135", new BigDecimal("6.40")));
+                ArgumentCaptor<Object> evento = ArgumentCaptor.forClass(Object.class);
+                verify(publicador).publishEvent(evento.capture());
+                MelhorEstrategiaAlterada alterada = (MelhorEstrategiaAlterada) evento.getValue();
+                assertEquals(EstrategiaOtimizacao.BEAR_CALL, alterada.anterior().estrategia());
+                assertEquals(EstrategiaOtimizacao.BEAR_PUT, alterada.atual().estrategia());
+                assertEquals("BOVAW140", alterada.atual().pernas().get(0).ticker());
+                assertEquals(new BigDecimal("1.58"), alterada.atual().relacaoRiscoRetornoLiquida());
+
+                // Ticker desconhecido e preço repetido não alteram nada
+                clearInvocations(publicador);
+                assertFalse(otimizador.atualizarCotacao("BOVA11", "XPTO11", new BigDecimal("1.00")));
+                assertEquals(0, otimizador.atualizarCotacoes("BOVA11", Map.of("BOVAK135", new BigDecimal("6.40"))));
+                verify(publicador, never()).publishEvent(any(Object.class));
+
+                Map<EstrategiaOtimizacao, CandidatoVertical> melhores = otimizador.melhores("BOVA11");
+                assertEquals(EstrategiaOtimizacao.BEAR_PUT, melhores.get(EstrategiaOtimizacao.MELHOR).estrategia());
+                // Bull Call 135/145: débito 4.90 -> lucro 466.00 / risco 534.00
+                assertEquals(new BigDecimal("0.87"),
+                                melhores.get(EstrategiaOtimizacao.BULL_CALL).relacaoRiscoRetornoLiquida());
+        }
+
+        @Test
+        void testMemoria_DescartaOMenosUsadoERecriaComACadeiaDoCache() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+                CadeiaTeste.de("PETR4")
+                                .call("PETRK30", "30.00", "2.10")
+                                .call("PETRK32", "32.00", "0.90")
+                                .registrarCadeia(optionRepository);
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                CacheCadeiasCompactas cache = servicos.cache();
+                // Limite zero: só o estado do ativo pedido por último é mantido
+                OtimizadorIncrementalService limitado = new OtimizadorIncrementalService(cache,
+                                servicos.spreadService(), publicador, 0);
+
+                limitado.atualizarCotacao("BOVA11", "BOVAK135", new BigDecimal("6.40"));
+                cache.aplicarPrecos("BOVA11", Map.of("BOVAK135", AtualizacaoSerie.soPreco(64_000)));
+                assertEquals(1, limitado.getEstadosMantidos());
+                assertTrue(limitado.getBytesEstados() > 0);
+
+                limitado.melhores("PETR4");
+                assertEquals(1, limitado.getEstadosMantidos());
+
+                // BOVA11 foi descartado e é recriado da cadeia do cache, que já tem o prêmio novo
+                assertEquals(EstrategiaOtimizacao.BEAR_PUT,
+                                limitado.melhores("BOVA11").get(EstrategiaOtimizacao.MELHOR).estrategia());
+
+                // invalidarTodos descarta os estados na próxima chamada
+                cache.invalidarTodos();
+                assertEquals(EstrategiaOtimizacao.BEAR_CALL,
+                                limitado.melhores("BOVA11").get(EstrategiaOtimizacao.MELHOR).estrategia());
+                assertEquals(1, limitado.getEstadosMantidos());
+        }
+
+        /**
+         * Depois de cada lote de cotações aleatórias, melhor por vertical e top-K do incremental
+         * devem ser idênticos aos da busca completa sobre a cadeia com os mesmos preços.
+         */
+        @Test
+        void testAtualizacoesAleatorias_IguaisABuscaCompleta() {
+                Random aleatorio = new Random(34);
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                for (LocalDate vencimento : List.of(VENCIMENTO, VENCIMENTO.plusMonths(1))) {
+                        for (String tipo : List.of("CALL", "PUT")) {
+                                for (int strike = 120; strike <= 156; strike += 3) {
+                                        cadeia.add(new OpcaoCadeia(tipo + vencimento.getMonthValue() + "_" + strike, tipo,
+                                                        vencimento, BigDecimal.valueOf(strike), preco(aleatorio)));
+                                }
+                        }
+                }
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeia);
+
+                OptionRepository repositorioCompleto = mock(OptionRepository.class);
+                CadeiaTeste.Servicos completos = CadeiaTeste.servicos(repositorioCompleto, ativoRepository);
+                CacheCadeiasCompactas cacheCompleto = completos.cache();
+                SpreadService completo = completos.spreadService();
+                List<OpcaoCadeia> atual = new ArrayList<>(cadeia);
+
+                for (int lote = 0; lote < 40; lote++) {
+                        Map<String, BigDecimal> precos = new HashMap<>();
+                        for (int i = 0; i < 3; i++) {
+                                int indice = aleatorio.nextInt(atual.size());
+                                OpcaoCadeia opcao = atual.get(indice);
+                                BigDecimal preco = preco(aleatorio);
+                                atual.set(indice, new OpcaoCadeia(opcao.ticker(), opcao.tipo(), opcao.vencimento(),
+                                                opcao.strike(), preco));
+                                precos.put(opcao.ticker(), preco);
+                        }
+                        otimizador.atualizarCotacoes("BOVA11", precos);
+                        when(repositorioCompleto.findCadeiaByIdAcao("BOVA11")).thenReturn(List.copyOf(atual));
+                        cacheCompleto.invalidar("BOVA11");
+
+                        List<SpreadResponse> esperado = completo.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11",
+                                        COTACAO, TAXAS, 15);
+                        List<SpreadResponse> obtido = otimizador.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11",
+                                        COTACAO, TAXAS, 15);
+                        assertEquals(esperado, obtido, "top-K do lote " + lote);
+
+                        Map<EstrategiaOtimizacao, CandidatoVertical> melhores = otimizador.melhores("BOVA11");
+                        for (EstrategiaOtimizacao estrategia : List.of(EstrategiaOtimizacao.BULL_CALL,
+                                        EstrategiaOtimizacao.BEAR_PUT, EstrategiaOtimizacao.BULL_PUT,
+                                        EstrategiaOtimizacao.BEAR_CALL)) {
+                                SpreadResponse melhor = completo.otimizar(estrategia, "BOVA11", COTACAO, TAXAS, atual);
+                                CandidatoVertical candidato = melhores.get(estrategia);
+                                if ("Erro".equals(melhor.getNomeEstrategia())) {
+                                        assertNull(candidato, estrategia + " no lote " + lote);
+                                } else {
+                                        assertEquals(melhor.getPernasExecutadas(), candidato.pernas(),
+                                                        estrategia + " no lote " + lote);
+                                        assertEquals(melhor.getRelacaoRiscoRetornoLiquida(),
+                                                        candidato.relacaoRiscoRetornoLiquida());
+                                }
+                        }
+                }
+        }
+
+        private static BigDecimal preco(Random aleatorio) {
+                return BigDecimal.valueOf(5 + aleatorio.nextInt(1500), 2);
+        }
+}
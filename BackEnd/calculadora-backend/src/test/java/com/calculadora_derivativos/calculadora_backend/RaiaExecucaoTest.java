@@ -0,0 +1,92 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.calculadora_derivativos.calculadora_backend.controller.RaiaSaturadaHandler;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.service.RaiaExecucao;
+import com.calculadora_derivativos.calculadora_backend.service.RaiaSaturadaException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes das raias de execução (bulkhead) e da resposta 503 quando saturadas.
+ */
+public class RaiaExecucaoTest {
+
+        private SimpleMeterRegistry meterRegistry;
+        private RaiaExecucao raiaOtimizacao;
+        private RaiaExecucao raiaManual;
+
+        @BeforeEach
+        void setUp() {
+                meterRegistry = new SimpleMeterRegistry();
+                // 1 thread + 1 vaga na fila
+                raiaOtimizacao = new RaiaExecucao("otimizacao", 1, 1, 5, meterRegistry);
+                raiaManual = new RaiaExecucao("manual", 1, 10, 1, meterRegistry);
+        }
+
+        @AfterEach
+        void tearDown() {
+                raiaOtimizacao.encerrar();
+                raiaManual.encerrar();
+        }
+
+        @Test
+        void testRaiaSaturada_RecusaNaHoraSemAfetarOutraRaia() throws Exception {
+                CountDownLatch liberar = new CountDownLatch(1);
+                CountDownLatch emExecucao = new CountDownLatch(1);
+
+                CompletableFuture<String> primeira = raiaOtimizacao.submeter(() -> {
+                        emExecucao.countDown();
+                        aguardar(liberar);
+                        return "primeira";
+                });
+                emExecucao.await(5, TimeUnit.SECONDS);
+                CompletableFuture<String> naFila = raiaOtimizacao.submeter(() -> "fila");
+
+                RaiaSaturadaException recusa = assertThrows(RaiaSaturadaException.class,
+                                () -> raiaOtimizacao.submeter(() -> "recusada"));
+                assertEquals("otimizacao", recusa.getRaia());
+                assertEquals(5, recusa.getRetryAfterSegundos());
+                assertEquals(1.0, meterRegistry.get("raia.rejeicoes").tag("raia", "otimizacao").counter().count());
+                assertEquals(1.0, meterRegistry.get("raia.ativas").tag("raia", "otimizacao").gauge().value());
+                assertEquals(1.0, meterRegistry.get("raia.fila").tag("raia", "otimizacao").gauge().value());
+
+                // A raia manual continua respondendo com a de otimização cheia
+                assertEquals("manual", raiaManual.submeter(() -> "manual").get(1, TimeUnit.SECONDS));
+
+                liberar.countDown();
+                assertEquals("primeira", primeira.get(5, TimeUnit.SECONDS));
+                assertEquals("fila", naFila.get(5, TimeUnit.SECONDS));
+        }
+
+        @Test
+        void testHandler_Responde503ComRetryAfter() {
+                ResponseEntity<SpreadResponse> resposta = new RaiaSaturadaHandler()
+                                .raiaSaturada(new RaiaSaturadaException("otimizacao", 5));
+
+                assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resposta.getStatusCode());
+                assertEquals("5", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+                assertEquals("Erro", resposta.getBody().getNomeEstrategia());
+        }
+
+        private static void aguardar(CountDownLatch latch) {
+                try {
+                        latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+}
@@ -0,0 +1,78 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CotacaoAoVivo;
+import com.calculadora_derivativos.calculadora_backend.service.LeitorCsvOpcoes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Cliente de replay da ingestão ao vivo: lê um CSV no layout de opcoes_final_tratado.csv e
+ * envia as linhas como NDJSON para POST /cotacoes/stream.
+ *
+ * Uso (com a aplicação no ar), a partir do classpath de teste:
+ *   ReplayCotacoesCsv <arquivo.csv> [url=http://localhost:8080/cotacoes/stream] [repeticoes=1]
+ * A cada repetição os prêmios variam +-1 tick por linha, para que haja o que aplicar.
+ */
+public class ReplayCotacoesCsv {
+
+        private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        private static final BigDecimal TICK = new BigDecimal("0.0001");
+
+        /**
+         * Converte o CSV em linhas NDJSON; 'repeticao' desloca os prêmios em (-1)^n * repeticao ticks.
+         */
+        public static List<String> paraNdjson(BufferedReader csv, int repeticao) throws IOException {
+                List<String> linhas = new ArrayList<>();
+                new LeitorCsvOpcoes().ler(csv, option -> {
+                        int deslocamento = (linhas.size() % 2 == 0 ? 1 : -1) * repeticao;
+                        CotacaoAoVivo cotacao = new CotacaoAoVivo(option.getTicker(), option.getIdAcao(),
+                                        option.getPreco().add(BigDecimal.valueOf(deslocamento, 4)).max(TICK),
+                                        option.getVolImplicita(), option.getDelta(), option.getGamma(), option.getTheta(), option.getVega(),
+                                        option.getDataHora());
+                        try {
+                                linhas.add(MAPPER.writeValueAsString(cotacao));
+                        } catch (JsonProcessingException e) {
+                                throw new IllegalStateException(e);
+                        }
+                });
+                return linhas;
+        }
+
+        public static void main(String[] args) throws Exception {
+                Path arquivo = Path.of(args[0]);
+                URI destino = URI.create(args.length > 1 ? args[1] : "http://localhost:8080/cotacoes/stream");
+                int repeticoes = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+                HttpClient cliente = HttpClient.newHttpClient();
+                for (int r = 0; r < repeticoes; r++) {
+                        List<String> linhas;
+                        try (BufferedReader csv = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                                linhas = paraNdjson(csv, r);
+                        }
+                        long inicio = System.nanoTime();
+                        HttpResponse<String> resposta = cliente.send(HttpRequest.newBuilder(destino)
+                                        .header("Content-Type", "application/x-ndjson")
+                                        .POST(HttpRequest.BodyPublishers.ofString(String.join("\n", linhas)))
+                                        .build(), HttpResponse.BodyHandlers.ofString());
+                        System.out.printf("Repetição %d: %d linhas em %.1f ms -> %d %s%n", r + 1, linhas.size(),
+                                        (System.nanoTime() - inicio) / 1e6, resposta.statusCode(), resposta.body());
+                }
+        }
+}
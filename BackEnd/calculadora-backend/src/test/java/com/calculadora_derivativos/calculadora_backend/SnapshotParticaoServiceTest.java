@@ -0,0 +1,66 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.calculadora_derivativos.calculadora_backend.service.SnapshotParticaoService;
+
+/**
+ * Testes da manutenção de partições mensais de 'opcoes_snapshot'.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SnapshotParticaoServiceTest {
+
+        @Mock
+        private JdbcTemplate jdbcTemplate;
+
+        private SnapshotParticaoService particaoService;
+
+        @BeforeEach
+        void setUp() {
+                particaoService = new SnapshotParticaoService(jdbcTemplate, 24);
+                when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("opcoes_snapshot")))
+                                .thenReturn(List.of("p202509", "p202511", "p_futuro"));
+        }
+
+        @Test
+        void testGarantirParticoes_DivideParticaoQueRecebeOMes() {
+                particaoService.garantirParticoes(List.of(YearMonth.of(2025, 10), YearMonth.of(2025, 12),
+                                YearMonth.of(2025, 11)));
+
+                InOrder ordem = inOrder(jdbcTemplate);
+                // Outubro hoje cai em p202511 (primeira partição posterior)
+                ordem.verify(jdbcTemplate).execute("ALTER TABLE opcoes_snapshot REORGANIZE PARTITION p202511 INTO ("
+                                + "PARTITION p202510 VALUES LESS THAN ('2025-11-01 00:00:00'), "
+                                + "PARTITION p202511 VALUES LESS THAN ('2025-12-01 00:00:00'))");
+                // Dezembro hoje cai em p_futuro
+                ordem.verify(jdbcTemplate).execute("ALTER TABLE opcoes_snapshot REORGANIZE PARTITION p_futuro INTO ("
+                                + "PARTITION p202512 VALUES LESS THAN ('2026-01-01 00:00:00'), "
+                                + "PARTITION p_futuro VALUES LESS THAN (MAXVALUE))");
+                ordem.verifyNoMoreInteractions();
+        }
+
+        @Test
+        void testPurga_UsaDropPartitionSemDelete() {
+                List<YearMonth> removidos = particaoService.purgarAnterioresA(YearMonth.of(2025, 11));
+
+                assertEquals(List.of(YearMonth.of(2025, 9)), removidos);
+                verify(jdbcTemplate).execute("ALTER TABLE opcoes_snapshot DROP PARTITION p202509");
+                verify(jdbcTemplate, never()).update(anyString());
+        }
+}
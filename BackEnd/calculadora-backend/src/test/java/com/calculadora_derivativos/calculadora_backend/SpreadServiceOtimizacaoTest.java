@@ -0,0 +1,222 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.VENCIMENTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.CoberturaBusca;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PernaSpread;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+
+/**
+ * Testes dos otimizadores do SpreadService sobre uma cadeia carregada em memória.
+ */
+@ExtendWith(MockitoExtension.class)
+public class SpreadServiceOtimizacaoTest {
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private SpreadService spreadService;
+
+        @BeforeEach
+        void setUp() {
+                spreadService = CadeiaTeste.servicos(optionRepository, ativoRepository).spreadService();
+        }
+
+        /**
+         * A melhor estratégia deve ser calculada com UMA consulta da cadeia, sem buscas por ticker
+         * ou por vencimento.
+         */
+        @Test
+        void testMelhorEstrategia_UsaUmaUnicaConsultaDaCadeia() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                SpreadResponse response = spreadService.otimizarMelhorEstrategia("BOVA11",
+                                new BigDecimal("138.00"), new BigDecimal("0.01"));
+
+                verify(optionRepository, times(1)).findCadeiaByIdAcao("BOVA11");
+                verify(optionRepository, never()).findByTicker(anyString());
+                verify(optionRepository, never()).findDistinctVencimentoByIdAcaoOrderByVencimentoAsc(anyString());
+                verify(optionRepository, never()).findByIdAcaoAndVencimentoAndTipo(anyString(), any(), anyString());
+
+                // Bear Call 135/140: crédito 4.70 -> lucro 426.00 / risco 74.00 = 5.76
+                assertEquals("Melhor Estratégia Vertical", response.getNomeEstrategia());
+                assertEquals(VENCIMENTO, response.getVencimento());
+                assertEquals(new BigDecimal("5.76"), response.getRelacaoRiscoRetornoLiquida());
+                assertEquals(List.of(
+                                new PernaSpread("BOVAK135", 100, "VENDA"),
+                                new PernaSpread("BOVAK140", 100, "COMPRA")), response.getPernasExecutadas());
+        }
+
+        @Test
+        void testBullCallSpread_EscolheMelhorParDoVencimento() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                SpreadResponse response = spreadService.otimizarBullCallSpread("BOVA11",
+                                new BigDecimal("138.00"), new BigDecimal("0.01"));
+
+                // Bull Call 140/145: débito 2.50 -> lucro 206.00 / risco 294.00 = 0.70
+                assertEquals(new BigDecimal("0.70"), response.getRelacaoRiscoRetornoLiquida());
+                assertEquals(new BigDecimal("206.00"), response.getLucroMaximoLiquidoTotal());
+                assertEquals(new BigDecimal("294.00"), response.getRiscoMaximoLiquidoTotal());
+                assertTrue(response.getMensagem().startsWith("SUCESSO: Melhor Bull Call Spread"));
+        }
+
+        @Test
+        void testCadeiaVazia_RetornaErro() {
+                when(optionRepository.findCadeiaByIdAcao("XPTO3")).thenReturn(List.of());
+
+                SpreadResponse response = spreadService.otimizarBearPutSpread("XPTO3",
+                                new BigDecimal("10.00"), new BigDecimal("0.01"));
+
+                assertTrue(response.getMensagem().startsWith("ERRO: Nenhuma data de vencimento encontrada"));
+        }
+
+        @Test
+        void testTopK_OrdenaPorRelacaoEntreAsQuatroVerticais() {
+                CadeiaTeste.bova11().registrarCadeia(optionRepository);
+
+                List<SpreadResponse> top = spreadService.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11",
+                                new BigDecimal("138.00"), new BigDecimal("0.01"), 3);
+
+                assertEquals(3, top.size());
+                // Bear Call 135/140 (5.76), Bear Call 135/145 (2.09), Bear Put 140/135 (1.58)
+                assertEquals(List.of(new BigDecimal("5.76"), new BigDecimal("2.09"), new BigDecimal("1.58")),
+                                top.stream().map(SpreadResponse::getRelacaoRiscoRetornoLiquida).toList());
+                assertEquals("Bear Call Spread", top.get(1).getNomeEstrategia());
+                assertEquals("BOVAK145", top.get(1).getPernasExecutadas().get(1).ticker());
+                assertEquals("Bear Put Spread", top.get(2).getNomeEstrategia());
+                assertEquals(VENCIMENTO, top.get(2).getVencimento());
+        }
+
+        // Dois vencimentos, strikes de 80 a 120 (passo 2), spot 100: valor extrínseco cai com a distância ao spot
+        private static List<OpcaoCadeia> cadeiaLarga() {
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                for (int v = 1; v <= 2; v++) {
+                        for (int strike = 80; strike <= 120; strike += 2) {
+                                double extrinseco = (1 + v) * Math.exp(-Math.pow((strike - 100) / 8.0, 2));
+                                cadeia.add(new OpcaoCadeia(String.format("C%dK%03d", v, strike), "CALL", VENCIMENTO.plusMonths(v - 1),
+                                                BigDecimal.valueOf(strike), BigDecimal.valueOf(Math.max(100 - strike, 0) + extrinseco).setScale(2, RoundingMode.HALF_UP)));
+                                cadeia.add(new OpcaoCadeia(String.format("P%dK%03d", v, strike), "PUT", VENCIMENTO.plusMonths(v - 1),
+                                                BigDecimal.valueOf(strike), BigDecimal.valueOf(Math.max(strike - 100, 0) + extrinseco).setScale(2, RoundingMode.HALF_UP)));
+                        }
+                }
+                return cadeia;
+        }
+
+        /**
+         * A passada única das verticais espelhadas (MELHOR) deve dar os mesmos spreads, na mesma
+         * ordem de desempate, que otimizar cada vertical separadamente.
+         */
+        @Test
+        void testMelhorEstrategia_PassadaUnicaIgualAsVerticaisSeparadas() {
+                List<OpcaoCadeia> cadeia = cadeiaLarga();
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeia);
+                BigDecimal spot = new BigDecimal("100.00");
+                BigDecimal taxas = new BigDecimal("0.01");
+                List<EstrategiaOtimizacao> verticais = List.of(EstrategiaOtimizacao.BULL_CALL, EstrategiaOtimizacao.BEAR_PUT,
+                                EstrategiaOtimizacao.BULL_PUT, EstrategiaOtimizacao.BEAR_CALL);
+
+                // Melhor geral: a maior R/R entre as verticais, a primeira delas no empate
+                SpreadResponse esperado = null;
+                List<SpreadResponse> separados = new ArrayList<>();
+                for (EstrategiaOtimizacao vertical : verticais) {
+                        SpreadResponse melhor = spreadService.otimizar(vertical, "BOVA11", spot, taxas, cadeia);
+                        if (esperado == null || melhor.getRelacaoRiscoRetornoLiquida()
+                                        .compareTo(esperado.getRelacaoRiscoRetornoLiquida()) > 0) {
+                                esperado = melhor;
+                        }
+                        separados.addAll(spreadService.otimizarTopK(vertical, "BOVA11", spot, taxas, 10));
+                }
+                SpreadResponse melhorGeral = spreadService.otimizarMelhorEstrategia("BOVA11", spot, taxas);
+                assertEquals(esperado.getPernasExecutadas(), melhorGeral.getPernasExecutadas());
+                assertEquals(esperado.getRelacaoRiscoRetornoLiquida(), melhorGeral.getRelacaoRiscoRetornoLiquida());
+
+                // Top-K geral: listas de cada vertical intercaladas pela R/R (ordenação estável)
+                separados.sort(Comparator.comparing(SpreadResponse::getRelacaoRiscoRetornoLiquida).reversed());
+                List<SpreadResponse> top = spreadService.otimizarTopK(EstrategiaOtimizacao.MELHOR, "BOVA11", spot, taxas, 10);
+                assertEquals(separados.subList(0, 10).stream().map(r -> r.getNomeEstrategia() + r.getPernasExecutadas()).toList(),
+                                top.stream().map(r -> r.getNomeEstrategia() + r.getPernasExecutadas()).toList());
+        }
+
+        /**
+         * Com prazo folgado a busca termina e devolve o mesmo spread da otimização sem prazo, em
+         * cada vertical e na melhor estratégia.
+         */
+        @Test
+        void testOtimizarComPrazo_BuscaCompletaIgualASemPrazo() {
+                List<OpcaoCadeia> cadeia = cadeiaLarga();
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeia);
+                BigDecimal spot = new BigDecimal("100.00");
+                BigDecimal taxas = new BigDecimal("0.01");
+                long prazoFolgado = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+
+                for (EstrategiaOtimizacao estrategia : EstrategiaOtimizacao.values()) {
+                        SpreadResponse semPrazo = spreadService.otimizar(estrategia, "BOVA11", spot, taxas, cadeia);
+                        SpreadResponse comPrazo = spreadService.otimizarComPrazo(estrategia, "BOVA11", spot, taxas, prazoFolgado);
+
+                        assertEquals(semPrazo.getPernasExecutadas(), comPrazo.getPernasExecutadas(), estrategia.name());
+                        assertEquals(semPrazo.getRelacaoRiscoRetornoLiquida(), comPrazo.getRelacaoRiscoRetornoLiquida());
+                        assertEquals(semPrazo.getVencimento(), comPrazo.getVencimento());
+                        assertEquals(semPrazo.getMensagem(), comPrazo.getMensagem());
+
+                        CoberturaBusca cobertura = comPrazo.getCobertura();
+                        assertFalse(cobertura.parcial());
+                        assertEquals(cobertura.paresTotais(), cobertura.paresAvaliados());
+                        assertEquals(100.0, cobertura.percentualAvaliado());
+                        assertEquals(21, cobertura.strikesCobertosPorVencimento());
+                }
+        }
+
+        /**
+         * Prazo já esgotado (ex: na fila da raia): só a primeira camada - os dois strikes mais
+         * próximos do spot em cada vencimento - é avaliada, e a resposta sai marcada como parcial.
+         */
+        @Test
+        void testOtimizarComPrazo_PrazoEsgotadoAvaliaStrikesNoDinheiro() {
+                when(optionRepository.findCadeiaByIdAcao("BOVA11")).thenReturn(cadeiaLarga());
+
+                SpreadResponse response = spreadService.otimizarComPrazo(EstrategiaOtimizacao.BEAR_CALL, "BOVA11",
+                                new BigDecimal("100.00"), new BigDecimal("0.01"), System.nanoTime());
+
+                CoberturaBusca cobertura = response.getCobertura();
+                assertTrue(cobertura.parcial());
+                // 2 grupos de CALL, um par em cada sentido entre os strikes 100 e 98
+                assertEquals(4, cobertura.paresAvaliados());
+                assertEquals(2 * 21 * 20, cobertura.paresTotais());
+                assertEquals(2, cobertura.strikesCobertosPorVencimento());
+                assertTrue(response.getMensagem().startsWith("SUCESSO: Melhor Bear Call Spread"), response.getMensagem());
+                assertTrue(response.getMensagem().contains("Busca parcial: 0.5% dos pares"), response.getMensagem());
+                assertEquals(List.of(new BigDecimal("98"), new BigDecimal("100")), response.getPernasExecutadas().stream()
+                                .map(perna -> new BigDecimal(perna.ticker().substring(3)))
+                                .toList());
+        }
+}
@@ -0,0 +1,117 @@
+package com.calculadora_derivativos.calculadora_backend;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.COTACAO;
+import static com.calculadora_derivativos.calculadora_backend.CadeiaTeste.TAXAS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calculadora_derivativos.calculadora_backend.dto.GregasSerie;
+import com.calculadora_derivativos.calculadora_backend.dto.OpcaoCadeia;
+import com.calculadora_derivativos.calculadora_backend.dto.PontoVarreduraSpot;
+import com.calculadora_derivativos.calculadora_backend.dto.SpreadResponse;
+import com.calculadora_derivativos.calculadora_backend.dto.VarreduraSpotResponse;
+import com.calculadora_derivativos.calculadora_backend.model.EstrategiaOtimizacao;
+import com.calculadora_derivativos.calculadora_backend.repository.AtivoRepository;
+import com.calculadora_derivativos.calculadora_backend.repository.OptionRepository;
+import com.calculadora_derivativos.calculadora_backend.service.SpreadService;
+import com.calculadora_derivativos.calculadora_backend.service.VarreduraSpotService;
+
+/**
+ * Testes da varredura de spot contra a otimização completa de cada ponto.
+ */
+@ExtendWith(MockitoExtension.class)
+public class VarreduraSpotServiceTest {
+
+        private static final CadeiaTeste BOVA11 = CadeiaTeste.bova11();
+
+        @Mock
+        private OptionRepository optionRepository;
+
+        @Mock
+        private AtivoRepository ativoRepository;
+
+        private SpreadService spreadService;
+        private VarreduraSpotService varredura;
+
+        @BeforeEach
+        void setUp() {
+                CadeiaTeste.Servicos servicos = CadeiaTeste.servicos(optionRepository, ativoRepository);
+                spreadService = servicos.spreadService();
+                varredura = new VarreduraSpotService(servicos.cache(), optionRepository, spreadService);
+        }
+
+        // Mesma reprecificação delta-gamma, série a série, para a otimização de referência
+        private static List<OpcaoCadeia> reprecificada(BigDecimal spot) {
+                double ds = spot.subtract(COTACAO).doubleValue();
+                Map<String, GregasSerie> gregasPorTicker = BOVA11.gregas().stream()
+                                .collect(Collectors.toMap(GregasSerie::ticker, gregas -> gregas));
+                List<OpcaoCadeia> cadeia = new ArrayList<>();
+                for (OpcaoCadeia opcao : BOVA11.opcoes()) {
+                        GregasSerie gregas = gregasPorTicker.get(opcao.ticker());
+                        double delta = gregas.delta().doubleValue() * ("PUT".equals(opcao.tipo()) ? -1 : 1);
+                        double gamma = gregas.gamma().doubleValue();
+                        long variacao = Math.round((delta * ds + 0.5 * gamma * ds * ds) * 10_000);
+                        BigDecimal preco = opcao.preco().add(BigDecimal.valueOf(variacao, 4)).max(new BigDecimal("0.0001"));
+                        cadeia.add(new OpcaoCadeia(opcao.ticker(), opcao.tipo(), opcao.vencimento(), opcao.strike(), preco));
+                }
+                return cadeia;
+        }
+
+        @Test
+        void testVarredura_CadaPontoIgualAOtimizacaoCompletaReprecificada() {
+                BOVA11.registrarCadeia(optionRepository).registrarGregas(optionRepository);
+
+                // BOVA11 abrindo 2% abaixo, estável e 2% acima
+                VarreduraSpotResponse resposta = varredura.varrer("BOVA11", COTACAO, TAXAS,
+                                new BigDecimal("135.24"), new BigDecimal("140.76"), new BigDecimal("2.76"));
+
+                assertTrue(resposta.mensagem().startsWith("SUCESSO"), resposta.mensagem());
+                assertEquals(List.of(new BigDecimal("135.24"), new BigDecimal("138.00"), new BigDecimal("140.76")),
+                                resposta.pontos().stream().map(PontoVarreduraSpot::cotacaoAtivo).toList());
+                verify(optionRepository, times(1)).findGregasByIdAcao("BOVA11");
+
+                // Sem deslocamento: o mesmo Bear Call 135/140 (5.76) da otimização normal
+                SpreadResponse estavel = resposta.pontos().get(1).melhorEstrategia();
+                assertEquals("Bear Call Spread", estavel.getNomeEstrategia());
+                assertEquals(new BigDecimal("5.76"), estavel.getRelacaoRiscoRetornoLiquida());
+
+                for (PontoVarreduraSpot ponto : resposta.pontos()) {
+                        SpreadResponse esperado = spreadService.otimizar(EstrategiaOtimizacao.MELHOR, "BOVA11",
+                                        ponto.cotacaoAtivo(), TAXAS, reprecificada(ponto.cotacaoAtivo()));
+                        SpreadResponse obtido = ponto.melhorEstrategia();
+                        assertEquals(esperado.getPernasExecutadas(), obtido.getPernasExecutadas(), "spot " + ponto.cotacaoAtivo());
+                        assertEquals(esperado.getRelacaoRiscoRetornoLiquida(), obtido.getRelacaoRiscoRetornoLiquida());
+                        assertEquals(esperado.getBreakevenPoint(), obtido.getBreakevenPoint());
+                        assertEquals(esperado.getLucroMaximoLiquidoTotal(), obtido.getLucroMaximoLiquidoTotal());
+                }
+                // Com o ativo 2% abaixo o Bear Call 135/140 perde crédito (4.70 -> 3.62) e a R/R cai
+                SpreadResponse abaixo = resposta.pontos().get(0).melhorEstrategia();
+                assertEquals("Bear Call Spread", abaixo.getNomeEstrategia());
+                assertTrue(abaixo.getRelacaoRiscoRetornoLiquida().compareTo(estavel.getRelacaoRiscoRetornoLiquida()) < 0);
+        }
+
+        @Test
+        void testVarredura_FaixaInvalidaOuGrandeDemais() {
+                VarreduraSpotResponse invertida = varredura.varrer("BOVA11", COTACAO, TAXAS,
+                                new BigDecimal("140"), new BigDecimal("130"), BigDecimal.ONE);
+                assertTrue(invertida.mensagem().startsWith("ERRO"));
+                assertTrue(invertida.pontos().isEmpty());
+
+                VarreduraSpotResponse grande = varredura.varrer("BOVA11", COTACAO, TAXAS,
+                                new BigDecimal("100"), new BigDecimal("200"), new BigDecimal("0.01"));
+                assertTrue(grande.mensagem().startsWith("ERRO"));
+        }
+}